@@ -11,6 +11,9 @@ APP_DIR="/opt/$APP_NAME"
 SERVICE_FILE="/etc/systemd/system/$APP_NAME.service"
 JAR_NAME="todoapp-1.0.0.jar"
 
+# FAST_STARTUP=1 deploys the AOT + class-data-sharing build (mvn -Pfast-startup) instead of the jar
+FAST_STARTUP="${FAST_STARTUP:-0}"
+
 echo "🚀 Starting deployment of Todo Calendar App..."
 
 # ============================================
@@ -46,7 +49,11 @@ echo "🔨 Building application..."
 cd "$(dirname "$0")"
 
 # Clean and build
-mvn clean package -DskipTests
+if [ "$FAST_STARTUP" = "1" ]; then
+    mvn clean package -DskipTests -Pfast-startup
+else
+    mvn clean package -DskipTests
+fi
 
 # Check if build was successful
 if [ ! -f "target/$JAR_NAME" ]; then
@@ -67,6 +74,12 @@ sudo mkdir -p $APP_DIR
 # Copy JAR file
 sudo cp target/$JAR_NAME $APP_DIR/
 
+if [ "$FAST_STARTUP" = "1" ]; then
+    sudo rm -rf $APP_DIR/fast-startup
+    sudo cp -r target/fast-startup $APP_DIR/
+    sudo cp src/main/resources/application-fast-startup.properties $APP_DIR/
+fi
+
 # Copy application.properties (if exists)
 if [ -f "src/main/resources/application.properties" ]; then
     sudo cp src/main/resources/application.properties $APP_DIR/
@@ -75,6 +88,14 @@ fi
 # Set permissions
 sudo chown -R $USER:$USER $APP_DIR
 
+# The CDS archive only matches the directory it was recorded in, so record it again after copying
+if [ "$FAST_STARTUP" = "1" ]; then
+    echo "📼 Recording class-data sharing archive..."
+    (cd $APP_DIR/fast-startup && rm -f todoapp.jsa && java -XX:ArchiveClassesAtExit=todoapp.jsa -Xlog:cds=off \
+        -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh -jar todoapp.jar \
+        --spring.profiles.active=fast-startup --spring.config.location=$APP_DIR/application.properties > /dev/null)
+fi
+
 echo "✅ Application files copied to $APP_DIR"
 
 # ============================================
@@ -82,6 +103,14 @@ echo "✅ Application files copied to $APP_DIR"
 # ============================================
 echo "⚙️ Creating systemd service..."
 
+if [ "$FAST_STARTUP" = "1" ]; then
+    WORK_DIR=$APP_DIR/fast-startup
+    JAVA_CMD="/usr/bin/java -XX:SharedArchiveFile=todoapp.jsa -Dspring.aot.enabled=true -jar todoapp.jar --spring.profiles.active=fast-startup"
+else
+    WORK_DIR=$APP_DIR
+    JAVA_CMD="/usr/bin/java -jar $APP_DIR/$JAR_NAME"
+fi
+
 sudo tee $SERVICE_FILE > /dev/null <<EOF
 [Unit]
 Description=Todo Calendar App
@@ -89,8 +118,8 @@ After=network.target
 
 [Service]
 User=$USER
-WorkingDirectory=$APP_DIR
-ExecStart=/usr/bin/java -jar $APP_DIR/$JAR_NAME --spring.config.location=$APP_DIR/application.properties
+WorkingDirectory=$WORK_DIR
+ExecStart=$JAVA_CMD --spring.config.location=$APP_DIR/application.properties
 SuccessExitStatus=143
 TimeoutStopSec=10
 Restart=on-failure
@@ -115,8 +144,15 @@ echo "▶️ Starting application..."
 
 sudo systemctl start $APP_NAME
 
-# Wait a moment for startup
-sleep 5
+# Time to first request: poll the health endpoint (the app also reports todo.startup.first.request)
+START_NANOS=$(date +%s%N)
+for i in $(seq 1 600); do
+    if curl -sf -o /dev/null http://localhost:8080/actuator/health; then
+        echo "⏱️ First request served $(( ($(date +%s%N) - START_NANOS) / 1000000 )) ms after start"
+        break
+    fi
+    sleep 0.2
+done
 
 # Check status
 if sudo systemctl is-active --quiet $APP_NAME; then
@@ -0,0 +1,42 @@
+package com.todoapp.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Admission-control lanes for the todo, tag and auth endpoints. Each lane's concurrency limit
+ * moves between min and max with observed latency; requests over it queue for up to max-wait.
+ */
+@Data
+@ConfigurationProperties(prefix = "todo.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Single-todo reads, calendar views and toggles
+    private Lane interactive = new Lane(20, 4, 100, 100, 500);
+
+    // Creates, edits, deletes, reorders and auth
+    private Lane write = new Lane(10, 2, 50, 50, 1000);
+
+    // Full lists, filter queries, statistics and heatmaps; shed first
+    private Lane analytics = new Lane(4, 1, 10, 10, 200);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Lane {
+
+        private int initialLimit;
+
+        private int minLimit;
+
+        private int maxLimit;
+
+        private int queueCapacity;
+
+        private long maxWaitMillis;
+    }
+}
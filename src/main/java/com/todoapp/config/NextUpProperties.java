@@ -0,0 +1,51 @@
+package com.todoapp.config;
+
+import com.todoapp.model.Priority;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The urgency score behind {@code GET /api/todos/next}: a priority weight, plus a due-time term
+ * that doubles every half-life as the due time approaches and jumps by the overdue bonus once it
+ * passes, plus a share of the progress weight for the subtasks already done. Weights must not be
+ * negative: the ranking relies on a sooner due time never scoring lower.
+ */
+@Data
+@ConfigurationProperties(prefix = "todo.next-up")
+public class NextUpProperties {
+
+    private int defaultK = 10;
+
+    private int maxK = 50;
+
+    // Rankings are built on a user's first request and dropped when idle
+    private long maxUsers = 10000;
+
+    private long expireAfterAccessMinutes = 30;
+
+    // Todos without a priority get none
+    private Map<Priority, Double> priorityWeights = new EnumMap<>(Map.of(
+            Priority.HIGH, 30.0,
+            Priority.MEDIUM, 20.0,
+            Priority.LOW, 10.0));
+
+    // Reached at the due time; undated todos and recurring series get nothing
+    private double dueWeight = 40;
+
+    private double halfLifeHours = 24;
+
+    private double overdueBonus = 20;
+
+    private double overduePerDay = 2;
+
+    private int maxOverdueDays = 14;
+
+    // All of it when every subtask is done
+    private double progressWeight = 10;
+
+    // Progress is counted in this many equal steps (4: quarters); 0 ignores progress
+    private int progressSteps = 4;
+}
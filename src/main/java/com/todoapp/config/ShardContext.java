@@ -0,0 +1,44 @@
+package com.todoapp.config;
+
+/**
+ * Holds the shard the current thread's connections are routed to. Unset means the
+ * directory database, which also keeps the data of users that were never placed on a shard.
+ */
+public final class ShardContext {
+
+    public static final String DIRECTORY = "directory";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static void set(String shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    // Captures the caller's shard so the task runs against it on another thread
+    public static Runnable wrap(Runnable task) {
+        String shard = current();
+        return () -> {
+            set(shard);
+            try {
+                task.run();
+            } finally {
+                clear();
+            }
+        };
+    }
+}
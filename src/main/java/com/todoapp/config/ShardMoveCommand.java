@@ -0,0 +1,41 @@
+package com.todoapp.config;
+
+import com.todoapp.service.ShardMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-shot tool: start the application with
+ * {@code --todo.sharding.move-user=<username> --todo.sharding.move-to=<shard> --server.port=0}
+ * next to the running instances to move a user; the process exits when done.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "todo.sharding.move-user")
+public class ShardMoveCommand implements ApplicationRunner {
+
+    private final ShardMigrationService shardMigrationService;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String username = applicationContext.getEnvironment().getRequiredProperty("todo.sharding.move-user");
+        String target = applicationContext.getEnvironment().getRequiredProperty("todo.sharding.move-to");
+        int exitCode = 0;
+        try {
+            shardMigrationService.moveUser(username, target);
+        } catch (RuntimeException e) {
+            log.error("Moving user {} to shard {} failed", username, target, e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+}
@@ -0,0 +1,61 @@
+package com.todoapp.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Hibernate only manages the schema of the connection it gets at boot, which is the directory.
+ * This applies the same {@code ddl-auto} action to every shard and moves each shard's
+ * generated ids into its own range while its tables are still empty.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class ShardSchemaIntegrator implements Integrator {
+
+    private static final List<String> GENERATED_ID_TABLES = List.of("todos", "tags", "todo_occurrences");
+
+    private final ShardingProperties properties;
+    private final DataSource dataSource;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        properties.getShards().forEach((name, shard) -> {
+            ShardContext.set(name);
+            try {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                        sessionFactory.getProperties(), action -> { });
+                if (shard.getIdStart() > 1) {
+                    restartGeneratedIds(jdbcTemplate, shard.getIdStart());
+                }
+                log.info("Schema ready on shard {}", name);
+            } finally {
+                ShardContext.clear();
+            }
+        });
+    }
+
+    private void restartGeneratedIds(JdbcTemplate jdbcTemplate, long idStart) {
+        for (String table : GENERATED_ID_TABLES) {
+            Boolean empty = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM " + table + ")", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + idStart);
+            }
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.todoapp.config;
+
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * With {@code todo.sharding.enabled=true} the application datasource becomes a router over the
+ * directory ({@code spring.datasource}) and the configured shards. Without it nothing changes.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "true")
+    public DataSource dataSource(DataSourceProperties directoryProperties, ShardingProperties properties) {
+        DataSource directory = directoryProperties.initializeDataSourceBuilder().build();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ShardContext.DIRECTORY, directory);
+        properties.getShards().forEach((name, shard) -> targets.put(name, DataSourceBuilder.create()
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .driverClassName(shard.getDriverClassName() != null
+                        ? shard.getDriverClassName() : directoryProperties.determineDriverClassName())
+                .build()));
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(directory);
+        // Unknown shard names fail instead of silently reading the directory
+        routing.setLenientFallback(false);
+        return routing;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "true")
+    public HibernatePropertiesCustomizer shardSchemaCustomizer(ShardingProperties properties, DataSource dataSource) {
+        IntegratorProvider integrators = () -> List.of(new ShardSchemaIntegrator(properties, dataSource));
+        return hibernateProperties -> hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, integrators);
+    }
+
+    // Carries the request's shard onto async request threads (streamed exports)
+    @Bean
+    @ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "true")
+    public TaskDecorator shardContextTaskDecorator() {
+        return ShardContext::wrap;
+    }
+}
@@ -0,0 +1,40 @@
+package com.todoapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shard map: named datasources holding per-user data, next to the directory database
+ * configured through {@code spring.datasource}. Shards must run the same database product.
+ */
+@Data
+@ConfigurationProperties(prefix = "todo.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    // Shards new users are spread over (by user id); defaults to all shards
+    private List<String> placement = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+
+        // First generated id on this shard; disjoint ranges let a user move without renumbering
+        private long idStart = 1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.todoapp.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Arrays;
+
+/**
+ * Support for {@code spring.main.lazy-initialization} (the fast-startup profile): beans are
+ * created on first use, except the JPA setup and the beans that have to exist for background
+ * work to start.
+ */
+@Configuration
+public class StartupConfig {
+
+    // @Scheduled methods are only registered once their bean exists
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType))
+                        .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+    }
+
+    // Hibernate bootstrap belongs to startup, not to the first request
+    @Bean
+    static LazyInitializationExcludeFilter entityManagerFactoryExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(EntityManagerFactory.class);
+    }
+}
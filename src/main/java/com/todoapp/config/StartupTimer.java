@@ -0,0 +1,51 @@
+package com.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures startup from JVM launch: when all eager beans exist (also printed by the build's
+ * CDS training run) and when the first request has been served, which is what a rolling restart
+ * waits for. The latter is published as {@code todo.startup.first.request}.
+ */
+@Slf4j
+@Component
+public class StartupTimer implements SmartInitializingSingleton {
+
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    public StartupTimer(MeterRegistry meterRegistry) {
+        TimeGauge.builder("todo.startup.first.request", firstRequestMillis, TimeUnit.MILLISECONDS,
+                        millis -> millis.get() < 0 ? Double.NaN : millis.get())
+                .description("Time from JVM start until the first request was served")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        log.info("Beans initialized {} ms after JVM start", uptimeMillis());
+    }
+
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (firstRequestMillis.get() < 0) {
+            long uptime = uptimeMillis();
+            if (firstRequestMillis.compareAndSet(-1, uptime)) {
+                log.info("First request ({}) served {} ms after JVM start", event.getRequestUrl(), uptime);
+            }
+        }
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
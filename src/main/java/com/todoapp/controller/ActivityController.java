@@ -0,0 +1,39 @@
+package com.todoapp.controller;
+
+import com.todoapp.dto.ActivityResponse;
+import com.todoapp.model.User;
+import com.todoapp.service.ActivityLog;
+import com.todoapp.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/activity")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ActivityController {
+
+    private final ActivityLog activityLog;
+    private final UserService userService;
+
+    private User getCurrentUser(Authentication authentication) {
+        return userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // The user's todo and tag activity, newest first
+    @GetMapping
+    public ResponseEntity<List<ActivityResponse>> getActivity(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return ResponseEntity.ok(activityLog.since(user.getId(), since, Math.min(Math.max(limit, 1), 1000)));
+    }
+}
@@ -0,0 +1,49 @@
+package com.todoapp.controller;
+
+import com.todoapp.dto.ArchivedTodoResponse;
+import com.todoapp.model.User;
+import com.todoapp.service.ArchiveService;
+import com.todoapp.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/todos/archive")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ArchiveController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ArchiveService archiveService;
+    private final UserService userService;
+
+    private User getCurrentUser(Authentication authentication) {
+        return userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    @GetMapping
+    public ResponseEntity<Page<ArchivedTodoResponse>> getArchivedTodos(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        return ResponseEntity.ok(archiveService.getArchivedTodos(user, pageRequest).map(ArchivedTodoResponse::of));
+    }
+
+    // Moves an archived todo and its subtasks back into the active list
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<Void> unarchive(@PathVariable Long id, Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        if (archiveService.unarchive(id, user)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+}
@@ -4,6 +4,8 @@ import com.todoapp.dto.AuthResponse;
 import com.todoapp.dto.LoginRequest;
 import com.todoapp.dto.RegisterRequest;
 import com.todoapp.model.User;
+import com.todoapp.service.AvailabilityService;
+import com.todoapp.service.StreakService;
 import com.todoapp.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +24,8 @@ import java.util.Map;
 public class AuthController {
 
     private final UserService userService;
+    private final StreakService streakService;
+    private final AvailabilityService availabilityService;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
@@ -47,6 +51,24 @@ public class AuthController {
         }
     }
 
+    // Live sign-up form checks: true when free; only the parameters given are answered
+    @GetMapping("/available")
+    public ResponseEntity<?> checkAvailability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "username or email is required"));
+        }
+        Map<String, Boolean> response = new HashMap<>();
+        if (username != null) {
+            response.put("username", availabilityService.isUsernameAvailable(username));
+        }
+        if (email != null) {
+            response.put("email", availabilityService.isEmailAvailable(email));
+        }
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser(Authentication authentication) {
         if (authentication == null) {
@@ -61,10 +83,47 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "User not found"));
         }
 
+        return ResponseEntity.ok(profile(user));
+    }
+
+    // Preferences; for now the IANA time zone streak days are counted in (null: the server's)
+    @PatchMapping("/me")
+    public ResponseEntity<?> updateCurrentUser(@RequestBody Map<String, String> request, Authentication authentication) {
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Not authenticated"));
+        }
+        if (!request.containsKey("timeZone")) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Nothing to update"));
+        }
+        try {
+            return userService.updateTimeZone(authentication.getName(), request.get("timeZone"))
+                    .<ResponseEntity<?>>map(user -> ResponseEntity.ok(profile(user)))
+                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "User not found")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> profile(User user) {
         Map<String, Object> response = new HashMap<>();
         response.put("username", user.getUsername());
         response.put("email", user.getEmail());
+        response.put("currentStreak", streakService.currentStreak(user));
+        response.put("longestStreak", user.getLongestStreak() != null ? user.getLongestStreak() : 0);
+        response.put("lastActiveDate", user.getLastActiveDate());
+        response.put("timeZone", streakService.zoneOf(user).getId());
+        return response;
+    }
 
-        return ResponseEntity.ok(response);
+    // Deletes the signed-in account with all of its todos, tags and archive
+    @DeleteMapping("/me")
+    public ResponseEntity<?> deleteAccount(Authentication authentication) {
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Not authenticated"));
+        }
+        if (!userService.deleteAccount(authentication.getName())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "User not found"));
+        }
+        return ResponseEntity.noContent().build();
     }
 }
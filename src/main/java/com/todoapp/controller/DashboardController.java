@@ -0,0 +1,47 @@
+package com.todoapp.controller;
+
+import com.todoapp.dto.DashboardResponse;
+import com.todoapp.model.User;
+import com.todoapp.service.DashboardService;
+import com.todoapp.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    private static final Set<String> VIEWS = Set.of("month", "week", "day", "list");
+
+    private final DashboardService dashboardService;
+    private final UserService userService;
+
+    private User getCurrentUser(Authentication authentication) {
+        return userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // date: any day of the month (month), first day of the week (week), or the day itself (day)
+    @GetMapping
+    public ResponseEntity<?> getDashboard(
+            @RequestParam(defaultValue = "month") String view,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "30") int days,
+            Authentication authentication) {
+        if (!VIEWS.contains(view)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown view: " + view));
+        }
+        User user = getCurrentUser(authentication);
+        DashboardResponse dashboard = dashboardService.load(user, view, date != null ? date : LocalDate.now(), days);
+        return ResponseEntity.ok(dashboard);
+    }
+}
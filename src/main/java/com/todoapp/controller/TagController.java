@@ -1,17 +1,20 @@
 package com.todoapp.controller;
 
+import com.todoapp.dto.TagResponse;
 import com.todoapp.model.Tag;
 import com.todoapp.model.User;
 import com.todoapp.service.TagService;
 import com.todoapp.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/tags")
@@ -27,31 +30,42 @@ public class TagController {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    // The tag was changed since the version the client sent
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "Tag was changed by another request, reload and try again"));
+    }
+
     @GetMapping
-    public ResponseEntity<List<Tag>> getAllTags(Authentication authentication) {
+    public ResponseEntity<List<TagResponse>> getAllTags(Authentication authentication) {
         User user = getCurrentUser(authentication);
         return ResponseEntity.ok(tagService.getAllTagsForUser(user));
     }
 
     @PostMapping
-    public ResponseEntity<Tag> createTag(@Valid @RequestBody Tag tag, Authentication authentication) {
+    public ResponseEntity<TagResponse> createTag(@Valid @RequestBody Tag tag, Authentication authentication) {
         User user = getCurrentUser(authentication);
         Tag createdTag = tagService.createTag(tag, user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdTag);
+        return ResponseEntity.status(HttpStatus.CREATED).body(TagResponse.of(createdTag));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Tag> updateTag(@PathVariable Long id, @Valid @RequestBody Tag tag, Authentication authentication) {
+    public ResponseEntity<TagResponse> updateTag(@PathVariable Long id, @Valid @RequestBody Tag tag, Authentication authentication) {
         User user = getCurrentUser(authentication);
         return tagService.updateTag(id, tag, user)
+                .map(TagResponse::of)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTag(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<Void> deleteTag(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long version,
+            Authentication authentication) {
         User user = getCurrentUser(authentication);
-        if (tagService.deleteTag(id, user)) {
+        if (tagService.deleteTag(id, version, user)) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
@@ -1,21 +1,41 @@
 package com.todoapp.controller;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.todoapp.dto.ActivityResponse;
+import com.todoapp.dto.NextUpResponse;
+import com.todoapp.dto.TodoFields;
+import com.todoapp.dto.TodoQuery;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.model.Priority;
 import com.todoapp.model.Todo;
+import com.todoapp.model.TodoOccurrence;
 import com.todoapp.model.User;
+import com.todoapp.service.ActivityLog;
+import com.todoapp.service.HeatmapService;
+import com.todoapp.service.NextUpService;
+import com.todoapp.service.ReminderService;
+import com.todoapp.service.TodoMapper;
+import com.todoapp.service.TodoQueryService;
 import com.todoapp.service.TodoService;
 import com.todoapp.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/todos")
@@ -24,63 +44,138 @@ import java.util.Map;
 public class TodoController {
 
     private final TodoService todoService;
+    private final TodoMapper todoMapper;
     private final UserService userService;
+    private final ReminderService reminderService;
+    private final TodoQueryService todoQueryService;
+    private final ActivityLog activityLog;
+    private final HeatmapService heatmapService;
+    private final NextUpService nextUpService;
+
+    private static final int MAX_QUERY_PAGE_SIZE = 500;
 
     private User getCurrentUser(Authentication authentication) {
         return userService.findByUsername(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    // The todo was changed since the version the client sent
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "Todo was changed by another request, reload and try again"));
+    }
+
+    // Sparse fieldset of a list endpoint: whole todos without fields=, otherwise only those fields
+    private static ResponseEntity<?> list(String fields, Supplier<List<TodoResponse>> todos,
+                                          Function<TodoFields, List<Map<String, Object>>> sparse) {
+        TodoFields selected;
+        try {
+            selected = TodoFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        return ResponseEntity.ok(selected == null ? todos.get() : sparse.apply(selected));
+    }
+
     @GetMapping
-    public ResponseEntity<List<Todo>> getAllTodos(Authentication authentication) {
+    public ResponseEntity<?> getAllTodos(
+            @RequestParam(required = false) String fields,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return list(fields, () -> todoService.getAllTodosForUser(user),
+                selected -> todoService.getAllTodosForUser(user, selected));
+    }
+
+    // Newest first, from this node's activity log; deleted todos keep their history
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<ActivityResponse>> getHistory(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
         User user = getCurrentUser(authentication);
-        return ResponseEntity.ok(todoService.getAllTodosForUser(user));
+        return ResponseEntity.ok(activityLog.todoHistory(user.getId(), id, Math.min(Math.max(limit, 1), 1000)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Todo> getTodoById(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<TodoResponse> getTodoById(@PathVariable Long id, Authentication authentication) {
         User user = getCurrentUser(authentication);
         return todoService.getTodoByIdForUser(id, user)
+                .map(todoMapper::toResponse)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ResponseEntity<Todo> createTodo(@Valid @RequestBody Todo todo, Authentication authentication) {
+    public ResponseEntity<TodoResponse> createTodo(@Valid @RequestBody Todo todo, Authentication authentication) {
         User user = getCurrentUser(authentication);
         Todo createdTodo = todoService.createTodo(todo, user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdTodo);
+        return ResponseEntity.status(HttpStatus.CREATED).body(todoMapper.toResponse(createdTodo));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Todo> updateTodo(@PathVariable Long id, @Valid @RequestBody Todo todo, Authentication authentication) {
+    public ResponseEntity<TodoResponse> updateTodo(@PathVariable Long id, @Valid @RequestBody Todo todo, Authentication authentication) {
         User user = getCurrentUser(authentication);
         return todoService.updateTodo(id, todo, user)
+                .map(todoMapper::toResponse)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // JSON Merge Patch (RFC 7396): only the members sent are validated and written; CBOR and Smile carry the same document
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile"})
+    public ResponseEntity<?> patchTodo(@PathVariable Long id, @RequestBody ObjectNode patch, Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        try {
+            return todoService.patchTodo(id, patch, user)
+                    .map(todoMapper::toResponse)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @PatchMapping("/{id}/toggle")
-    public ResponseEntity<Todo> toggleComplete(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<TodoResponse> toggleComplete(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long version,
+            Authentication authentication) {
         User user = getCurrentUser(authentication);
-        return todoService.toggleComplete(id, user)
+        return todoService.toggleComplete(id, version, user)
+                .map(todoMapper::toResponse)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTodo(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<Void> deleteTodo(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long version,
+            Authentication authentication) {
         User user = getCurrentUser(authentication);
-        if (todoService.deleteTodo(id, user)) {
+        if (todoService.deleteTodo(id, version, user)) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
     }
 
+    // Bulk "clear completed"
+    @DeleteMapping("/completed")
+    public ResponseEntity<Map<String, Integer>> deleteCompleted(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return ResponseEntity.ok(Map.of("deleted", todoService.deleteCompleted(user)));
+    }
+
     @GetMapping("/status/{completed}")
-    public ResponseEntity<List<Todo>> getTodosByStatus(@PathVariable boolean completed, Authentication authentication) {
+    public ResponseEntity<?> getTodosByStatus(
+            @PathVariable boolean completed,
+            @RequestParam(required = false) String fields,
+            Authentication authentication) {
         User user = getCurrentUser(authentication);
-        return ResponseEntity.ok(todoService.getTodosByStatusForUser(completed, user));
+        return list(fields, () -> todoService.getTodosByStatusForUser(completed, user),
+                selected -> todoService.getTodosByStatusForUser(completed, user, selected));
     }
 
     // Reorder endpoint (for drag-drop)
@@ -93,62 +188,152 @@ public class TodoController {
 
     // Update due date (for drag to different day)
     @PatchMapping("/{id}/due-date")
-    public ResponseEntity<Todo> updateDueDate(
+    public ResponseEntity<TodoResponse> updateDueDate(
             @PathVariable Long id,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDate,
+            @RequestParam(required = false) Long version,
             Authentication authentication) {
         User user = getCurrentUser(authentication);
-        return todoService.updateDueDate(id, dueDate, user)
+        return todoService.updateDueDate(id, dueDate, version, user)
+                .map(todoMapper::toResponse)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Recurring todos: per-occurrence completion and overrides
+    @PatchMapping("/{id}/occurrences/{date}/toggle")
+    public ResponseEntity<TodoResponse> toggleOccurrence(
+            @PathVariable Long id,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return todoService.toggleOccurrence(id, date, user)
+                .map(todoMapper::toResponse)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<TodoResponse> updateOccurrence(
+            @PathVariable Long id,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Valid @RequestBody TodoOccurrence occurrence,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return todoService.updateOccurrence(id, date, occurrence, user)
+                .map(todoMapper::toResponse)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // Calendar endpoints
     @GetMapping("/date/{date}")
-    public ResponseEntity<List<Todo>> getTodosByDate(
+    public ResponseEntity<?> getTodosByDate(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String fields,
             Authentication authentication) {
         User user = getCurrentUser(authentication);
-        return ResponseEntity.ok(todoService.getTodosByDate(user, date));
+        return list(fields, () -> todoService.getTodosByDate(user, date),
+                selected -> todoService.getTodosByDate(user, date, selected));
     }
 
     @GetMapping("/week")
-    public ResponseEntity<List<Todo>> getTodosByWeek(
+    public ResponseEntity<?> getTodosByWeek(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) String fields,
             Authentication authentication) {
         User user = getCurrentUser(authentication);
         LocalDate endDate = start.plusDays(6);
-        return ResponseEntity.ok(todoService.getTodosByDateRange(user, start, endDate));
+        return list(fields, () -> todoService.getTodosByDateRange(user, start, endDate),
+                selected -> todoService.getTodosByDateRange(user, start, endDate, selected));
     }
 
     @GetMapping("/month")
-    public ResponseEntity<List<Todo>> getTodosByMonth(
+    public ResponseEntity<?> getTodosByMonth(
             @RequestParam int year,
             @RequestParam int month,
+            @RequestParam(required = false) String fields,
             Authentication authentication) {
         User user = getCurrentUser(authentication);
         YearMonth yearMonth = YearMonth.of(year, month);
         LocalDate startDate = yearMonth.atDay(1);
         LocalDate endDate = yearMonth.atEndOfMonth();
-        return ResponseEntity.ok(todoService.getTodosByDateRange(user, startDate, endDate));
+        return list(fields, () -> todoService.getTodosByDateRange(user, startDate, endDate),
+                selected -> todoService.getTodosByDateRange(user, startDate, endDate, selected));
     }
 
     @GetMapping("/overdue")
-    public ResponseEntity<List<Todo>> getOverdueTodos(Authentication authentication) {
+    public ResponseEntity<?> getOverdueTodos(
+            @RequestParam(required = false) String fields,
+            Authentication authentication) {
         User user = getCurrentUser(authentication);
-        return ResponseEntity.ok(todoService.getOverdueTodos(user));
+        return list(fields, () -> todoService.getOverdueTodos(user),
+                selected -> todoService.getOverdueTodos(user, selected));
     }
 
     @GetMapping("/no-date")
-    public ResponseEntity<List<Todo>> getTodosWithoutDueDate(Authentication authentication) {
+    public ResponseEntity<?> getTodosWithoutDueDate(
+            @RequestParam(required = false) String fields,
+            Authentication authentication) {
         User user = getCurrentUser(authentication);
-        return ResponseEntity.ok(todoService.getTodosWithoutDueDate(user));
+        return list(fields, () -> todoService.getTodosWithoutDueDate(user),
+                selected -> todoService.getTodosWithoutDueDate(user, selected));
     }
 
     @GetMapping("/tag/{tagId}")
-    public ResponseEntity<List<Todo>> getTodosByTag(@PathVariable Long tagId, Authentication authentication) {
+    public ResponseEntity<?> getTodosByTag(
+            @PathVariable Long tagId,
+            @RequestParam(required = false) String fields,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return list(fields, () -> todoService.getTodosByTag(user, tagId),
+                selected -> todoService.getTodosByTag(user, tagId, selected));
+    }
+
+    // Open top-level todos ranked by urgency (priority, due time, overdue, subtask progress)
+    @GetMapping("/next")
+    public ResponseEntity<List<NextUpResponse>> getNextUp(
+            @RequestParam(required = false) Integer k,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return ResponseEntity.ok(nextUpService.next(user, k));
+    }
+
+    /**
+     * Composable filter: tags match any ({@code tagMode=any}) or all of {@code tags}, none of
+     * {@code excludeTags}, and every other criterion given. Sorts by created, dueDate or
+     * priority, optionally {@code ,desc}; todos without the sort key come last.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<?> queryTodos(
+            @RequestParam(required = false) List<Long> tags,
+            @RequestParam(defaultValue = "any") String tagMode,
+            @RequestParam(required = false) List<Long> excludeTags,
+            @RequestParam(required = false) Set<Priority> priority,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @RequestParam(required = false) Boolean hasDueDate,
+            @RequestParam(required = false) Boolean hasSubtasks,
+            @RequestParam(defaultValue = "false") boolean includeSubtasks,
+            @RequestParam(defaultValue = "created") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication authentication) {
         User user = getCurrentUser(authentication);
-        return ResponseEntity.ok(todoService.getTodosByTag(user, tagId));
+        String[] sortParts = sort.split(",", 2);
+        TodoQuery.Sort sortBy = TodoQuery.Sort.of(sortParts[0].trim());
+        if (sortBy == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown sort: " + sortParts[0]));
+        }
+        if (!tagMode.equals("any") && !tagMode.equals("all")) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown tagMode: " + tagMode));
+        }
+        boolean descending = sortParts.length > 1 && sortParts[1].trim().equalsIgnoreCase("desc");
+        TodoQuery query = new TodoQuery(tags, tagMode.equals("all"), excludeTags, priority, completed,
+                dueFrom, dueTo, hasDueDate, hasSubtasks, includeSubtasks, sortBy, descending,
+                Math.max(page, 0), Math.min(Math.max(size, 1), MAX_QUERY_PAGE_SIZE));
+        return ResponseEntity.ok(todoQueryService.query(user, query));
     }
 
     @GetMapping("/calendar-counts")
@@ -163,6 +348,27 @@ public class TodoController {
         return ResponseEntity.ok(todoService.getTodoCountByDateRange(user, startDate, endDate));
     }
 
+    // Completions per day of a year, from one stored row per user and year
+    @GetMapping("/heatmap")
+    public ResponseEntity<?> getHeatmap(
+            @RequestParam(required = false) Integer year,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        try {
+            return ResponseEntity.ok(heatmapService.getHeatmap(user, year != null ? year : LocalDate.now().getYear()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Reminder and overdue notifications (server-sent events "reminder" and "overdue" with a ReminderEvent).
+    // Besides the Bearer header this accepts ?access_token=, which is what a browser EventSource can send.
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return reminderService.subscribe(user.getId());
+    }
+
     // Statistics endpoint
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getStatistics(
@@ -0,0 +1,79 @@
+package com.todoapp.controller;
+
+import com.todoapp.dto.ImportProgress;
+import com.todoapp.model.User;
+import com.todoapp.service.TodoTransferService;
+import com.todoapp.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/todos")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class TodoTransferController {
+
+    private final TodoTransferService todoTransferService;
+    private final UserService userService;
+
+    private User getCurrentUser(Authentication authentication) {
+        return userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // Streams every todo of the user as NDJSON (default) or CSV
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTodos(
+            @RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        TodoTransferService.Format exportFormat;
+        try {
+            exportFormat = TodoTransferService.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = outputStream -> todoTransferService.export(user, exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"todos." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    // Reads the raw request body as a stream; the format follows ?format= or the Content-Type
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "application/json", "text/csv", "text/plain"})
+    public ResponseEntity<?> importTodos(
+            @RequestParam(required = false) String format,
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        User user = getCurrentUser(authentication);
+        try {
+            TodoTransferService.Format importFormat = format != null
+                    ? TodoTransferService.Format.of(format)
+                    : MediaType.parseMediaType(request.getContentType()).isCompatibleWith(TodoTransferService.Format.CSV.getMediaType())
+                    ? TodoTransferService.Format.CSV
+                    : TodoTransferService.Format.NDJSON;
+            ImportProgress result = todoTransferService.importTodos(user, importFormat, request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/import/progress")
+    public ResponseEntity<ImportProgress> getImportProgress(Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return todoTransferService.getImportProgress(user)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
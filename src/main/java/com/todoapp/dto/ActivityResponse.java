@@ -0,0 +1,14 @@
+package com.todoapp.dto;
+
+import com.todoapp.model.ActivityType;
+
+import java.time.LocalDateTime;
+
+// One activity record; todoId or tagId is set depending on the type
+public record ActivityResponse(
+        LocalDateTime at,
+        ActivityType type,
+        Long todoId,
+        Long tagId,
+        String detail) {
+}
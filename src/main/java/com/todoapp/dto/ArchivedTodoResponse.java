@@ -0,0 +1,47 @@
+package com.todoapp.dto;
+
+import com.todoapp.model.ArchivedTodo;
+import com.todoapp.model.Priority;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+// Wire form of an archived todo; tagIds are the tags it had when archived
+public record ArchivedTodoResponse(
+        Long id,
+        Long version,
+        String title,
+        String description,
+        boolean completed,
+        LocalDate dueDate,
+        LocalTime dueTime,
+        Priority priority,
+        RecurrenceResponse recurrence,
+        Integer displayOrder,
+        Long parentId,
+        List<Long> tagIds,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime archivedAt) {
+
+    public static ArchivedTodoResponse of(ArchivedTodo todo) {
+        return new ArchivedTodoResponse(
+                todo.getId(),
+                todo.getVersion(),
+                todo.getTitle(),
+                todo.getDescription(),
+                todo.isCompleted(),
+                todo.getDueDate(),
+                todo.getDueTime(),
+                todo.getPriority(),
+                RecurrenceResponse.of(todo.getRecurrence()),
+                todo.getDisplayOrder(),
+                todo.getParentId(),
+                todo.getTagIds().stream().sorted().toList(),
+                todo.getCreatedAt(),
+                todo.getUpdatedAt(),
+                todo.getArchivedAt());
+    }
+}
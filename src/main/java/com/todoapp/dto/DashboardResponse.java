@@ -0,0 +1,17 @@
+package com.todoapp.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Everything the main page needs for one view; sections listed in "missing" did not make the deadline
+public record DashboardResponse(
+        String view,
+        List<TagResponse> tags,
+        List<TodoResponse> todos,
+        Map<LocalDate, Long> calendarCounts,
+        List<TodoResponse> overdue,
+        List<TodoResponse> noDate,
+        Map<String, Object> statistics,
+        List<String> missing) {
+}
@@ -0,0 +1,9 @@
+package com.todoapp.dto;
+
+// Completions per day of one year; counts[0] is January 1st and there is one entry per day of the year
+public record HeatmapResponse(
+        int year,
+        int total,
+        int max,
+        int[] counts) {
+}
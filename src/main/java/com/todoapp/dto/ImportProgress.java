@@ -0,0 +1,28 @@
+package com.todoapp.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Data
+public class ImportProgress {
+
+    private static final int MAX_ERRORS = 20;
+
+    private long processed;
+    private long imported;
+    private long skipped;
+    private long tagsCreated;
+    private int chunksCommitted;
+    private boolean done;
+    // Read by the progress endpoint while the import is still running
+    private List<String> errors = new CopyOnWriteArrayList<>();
+
+    public void addError(String error) {
+        skipped++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+}
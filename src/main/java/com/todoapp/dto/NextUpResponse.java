@@ -0,0 +1,5 @@
+package com.todoapp.dto;
+
+// One entry of the next-up list; urgency is the score it was ranked by, as of the request
+public record NextUpResponse(double urgency, TodoResponse todo) {
+}
@@ -0,0 +1,22 @@
+package com.todoapp.dto;
+
+import com.todoapp.model.RecurrenceFrequency;
+import com.todoapp.model.RecurrenceRule;
+
+import java.time.LocalDate;
+
+// Wire form of a repeat rule; a copy, so a cached response never shares the entity's embeddable
+public record RecurrenceResponse(
+        RecurrenceFrequency frequency,
+        Integer interval,
+        Integer dayOfMonth,
+        LocalDate until) {
+
+    // Null for todos that do not repeat
+    public static RecurrenceResponse of(RecurrenceRule rule) {
+        if (rule == null || rule.getFrequency() == null) {
+            return null;
+        }
+        return new RecurrenceResponse(rule.getFrequency(), rule.getInterval(), rule.getDayOfMonth(), rule.getUntil());
+    }
+}
@@ -0,0 +1,17 @@
+package com.todoapp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record ReminderEvent(
+        Type type,
+        Long todoId,
+        String title,
+        LocalDate dueDate,
+        LocalTime dueTime) {
+
+    public enum Type {
+        REMINDER,
+        OVERDUE
+    }
+}
@@ -0,0 +1,16 @@
+package com.todoapp.dto;
+
+import com.todoapp.model.Tag;
+
+public record TagResponse(
+        Long id,
+        String name,
+        String color,
+        Long version,
+        int openTodos,
+        int totalTodos) {
+
+    public static TagResponse of(Tag tag) {
+        return new TagResponse(tag.getId(), tag.getName(), tag.getColor(), tag.getVersion(), tag.getOpenTodos(), tag.getTotalTodos());
+    }
+}
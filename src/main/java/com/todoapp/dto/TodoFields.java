@@ -0,0 +1,82 @@
+package com.todoapp.dto;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Sparse fieldset for the todo list endpoints ({@code fields=id,title,dueDate}): only the named
+ * {@link TodoResponse} attributes are written, always with the id. Names are kept in declaration
+ * order, so the same set asked for in any order is equal and writes the same JSON.
+ */
+public record TodoFields(List<String> names) {
+
+    private static final Map<String, Function<TodoResponse, Object>> ACCESSORS = orderedAccessors();
+
+    private static Map<String, Function<TodoResponse, Object>> orderedAccessors() {
+        Map<String, Function<TodoResponse, Object>> accessors = new LinkedHashMap<>();
+        accessors.put("id", TodoResponse::id);
+        accessors.put("version", TodoResponse::version);
+        accessors.put("title", TodoResponse::title);
+        accessors.put("description", TodoResponse::description);
+        accessors.put("completed", TodoResponse::completed);
+        accessors.put("dueDate", TodoResponse::dueDate);
+        accessors.put("dueTime", TodoResponse::dueTime);
+        accessors.put("priority", TodoResponse::priority);
+        accessors.put("recurrence", TodoResponse::recurrence);
+        accessors.put("displayOrder", TodoResponse::displayOrder);
+        accessors.put("tags", TodoResponse::tags);
+        accessors.put("createdAt", TodoResponse::createdAt);
+        accessors.put("updatedAt", TodoResponse::updatedAt);
+        accessors.put("parentId", TodoResponse::parentId);
+        accessors.put("occurrenceDate", TodoResponse::occurrenceDate);
+        accessors.put("recurring", TodoResponse::recurring);
+        accessors.put("overdue", TodoResponse::overdue);
+        accessors.put("subtaskCount", TodoResponse::subtaskCount);
+        accessors.put("completedSubtaskCount", TodoResponse::completedSubtaskCount);
+        accessors.put("subtaskProgress", TodoResponse::subtaskProgress);
+        return Collections.unmodifiableMap(accessors);
+    }
+
+    /**
+     * The fields of a comma-separated list, or null when none are given (whole todos).
+     * Throws IllegalArgumentException naming the first unknown field.
+     */
+    public static TodoFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> requested = new HashSet<>();
+        requested.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ACCESSORS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            requested.add(name);
+        }
+        return new TodoFields(ACCESSORS.keySet().stream().filter(requested::contains).toList());
+    }
+
+    public boolean has(String name) {
+        return names.contains(name);
+    }
+
+    public Map<String, Object> select(TodoResponse todo) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (String name : names) {
+            selected.put(name, ACCESSORS.get(name).apply(todo));
+        }
+        return selected;
+    }
+
+    public List<Map<String, Object>> select(List<TodoResponse> todos) {
+        List<Map<String, Object>> selected = new ArrayList<>(todos.size());
+        for (TodoResponse todo : todos) {
+            selected.add(select(todo));
+        }
+        return selected;
+    }
+}
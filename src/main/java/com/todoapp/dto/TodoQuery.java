@@ -0,0 +1,46 @@
+package com.todoapp.dto;
+
+import com.todoapp.model.Priority;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Composable todo filter for {@code GET /api/todos/query}. Null or empty criteria match
+ * everything; the criteria that are set must all hold.
+ */
+public record TodoQuery(
+        List<Long> tags,
+        boolean allTags,
+        List<Long> excludedTags,
+        Set<Priority> priorities,
+        Boolean completed,
+        LocalDate dueFrom,
+        LocalDate dueTo,
+        Boolean hasDueDate,
+        Boolean hasSubtasks,
+        boolean includeSubtasks,
+        Sort sort,
+        boolean descending,
+        int page,
+        int size) {
+
+    public enum Sort {
+        CREATED,
+        DUE_DATE,
+        PRIORITY;
+
+        // "dueDate" -> DUE_DATE; null for anything unknown
+        public static Sort of(String value) {
+            String name = value.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+            for (Sort sort : values()) {
+                if (sort.name().equals(name)) {
+                    return sort;
+                }
+            }
+            return null;
+        }
+    }
+}
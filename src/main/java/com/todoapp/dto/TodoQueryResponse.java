@@ -0,0 +1,11 @@
+package com.todoapp.dto;
+
+import java.util.List;
+
+// One page of a filtered query; total counts every match
+public record TodoQueryResponse(
+        long total,
+        int page,
+        int size,
+        List<TodoResponse> todos) {
+}
@@ -0,0 +1,32 @@
+package com.todoapp.dto;
+
+import com.todoapp.model.Priority;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+// Wire form of a todo; derived fields are computed once by TodoMapper, not by getters at write time
+public record TodoResponse(
+        Long id,
+        Long version,
+        String title,
+        String description,
+        boolean completed,
+        LocalDate dueDate,
+        LocalTime dueTime,
+        Priority priority,
+        RecurrenceResponse recurrence,
+        Integer displayOrder,
+        List<TagResponse> tags,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long parentId,
+        LocalDate occurrenceDate,
+        boolean recurring,
+        boolean overdue,
+        int subtaskCount,
+        int completedSubtaskCount,
+        int subtaskProgress) {
+}
@@ -0,0 +1,62 @@
+package com.todoapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceFrequency;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One todo in the export/import format (a line of NDJSON or a CSV row).
+ * {@code id} and {@code parentId} are only references within the file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TodoTransferRecord {
+
+    private Long id;
+    private Long parentId;
+    private String title;
+    private String description;
+    private boolean completed;
+    private LocalDate dueDate;
+    private LocalTime dueTime;
+    private Priority priority;
+    private Integer displayOrder;
+    private RecurrenceFrequency recurrenceFrequency;
+    private Integer recurrenceInterval;
+    private Integer recurrenceDayOfMonth;
+    private LocalDate recurrenceUntil;
+    private LocalDateTime createdAt;
+    private List<String> tags = new ArrayList<>();
+
+    // Constructor used by the export projection query
+    public TodoTransferRecord(Long id, Long parentId, String title, String description, boolean completed,
+                              LocalDate dueDate, LocalTime dueTime, Priority priority, Integer displayOrder,
+                              RecurrenceFrequency recurrenceFrequency, Integer recurrenceInterval,
+                              Integer recurrenceDayOfMonth, LocalDate recurrenceUntil, LocalDateTime createdAt) {
+        this.id = id;
+        this.parentId = parentId;
+        this.title = title;
+        this.description = description;
+        this.completed = completed;
+        this.dueDate = dueDate;
+        this.dueTime = dueTime;
+        this.priority = priority;
+        this.displayOrder = displayOrder;
+        this.recurrenceFrequency = recurrenceFrequency;
+        this.recurrenceInterval = recurrenceInterval;
+        this.recurrenceDayOfMonth = recurrenceDayOfMonth;
+        this.recurrenceUntil = recurrenceUntil;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,14 @@
+package com.todoapp.event;
+
+/**
+ * Published by {@link com.todoapp.service.TagService} for every tag mutation.
+ * {@code name} is null for a delete, which does not read the row.
+ */
+public record TagChangedEvent(Long userId, Long tagId, String name, Change change) {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,28 @@
+package com.todoapp.event;
+
+/**
+ * Published by {@link com.todoapp.service.TodoService} for every todo mutation.
+ * {@code before} is null for a create, {@code after} is null for a delete.
+ */
+public record TodoChangedEvent(Long userId, Long todoId, TodoSnapshot before, TodoSnapshot after) {
+
+    public static TodoChangedEvent created(TodoSnapshot after) {
+        return new TodoChangedEvent(after.userId(), after.id(), null, after);
+    }
+
+    public static TodoChangedEvent updated(TodoSnapshot before, TodoSnapshot after) {
+        return new TodoChangedEvent(after.userId(), after.id(), before, after);
+    }
+
+    public static TodoChangedEvent deleted(TodoSnapshot before) {
+        return new TodoChangedEvent(before.userId(), before.id(), before, null);
+    }
+
+    public boolean isDelete() {
+        return after == null;
+    }
+
+    public boolean completionChanged() {
+        return before != null && after != null && before.completed() != after.completed();
+    }
+}
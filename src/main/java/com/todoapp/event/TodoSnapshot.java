@@ -0,0 +1,63 @@
+package com.todoapp.event;
+
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.model.Tag;
+import com.todoapp.model.Todo;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Immutable copy of the fields listeners care about, taken while the entity is still managed.
+ * {@code tagIds} is null when the todo's tags were not loaded, which is not the same as no tags.
+ * {@code recurrence} is a detached copy of a series' rule, null for todos that do not repeat.
+ */
+public record TodoSnapshot(
+        Long id,
+        Long userId,
+        Long parentId,
+        String title,
+        boolean completed,
+        LocalDate dueDate,
+        LocalTime dueTime,
+        Priority priority,
+        RecurrenceRule recurrence,
+        LocalDateTime updatedAt,
+        List<Long> tagIds) {
+
+    public static TodoSnapshot of(Todo todo) {
+        return new TodoSnapshot(
+                todo.getId(),
+                todo.getUser() != null ? todo.getUser().getId() : null,
+                todo.getParentId(),
+                todo.getTitle(),
+                todo.isCompleted(),
+                todo.getDueDate(),
+                todo.getDueTime(),
+                todo.getPriority(),
+                todo.isRecurring() ? copyOf(todo.getRecurrence()) : null,
+                todo.getUpdatedAt(),
+                Hibernate.isInitialized(todo.getTags()) ? todo.getTags().stream().map(Tag::getId).toList() : null);
+    }
+
+    // The other side of a single-field change made in SQL, where only one row state is read back
+    public TodoSnapshot withCompleted(boolean completed, LocalDateTime updatedAt) {
+        return new TodoSnapshot(id, userId, parentId, title, completed, dueDate, dueTime, priority, recurrence, updatedAt, tagIds);
+    }
+
+    public TodoSnapshot withDueDate(LocalDate dueDate) {
+        return new TodoSnapshot(id, userId, parentId, title, completed, dueDate, dueTime, priority, recurrence, updatedAt, tagIds);
+    }
+
+    public boolean recurring() {
+        return recurrence != null;
+    }
+
+    private static RecurrenceRule copyOf(RecurrenceRule rule) {
+        return new RecurrenceRule(rule.getFrequency(), rule.getInterval(), rule.getDayOfMonth(), rule.getUntil());
+    }
+}
@@ -0,0 +1,10 @@
+package com.todoapp.event;
+
+import java.util.List;
+
+/**
+ * Published when only the display order of todos was written. Display order is not part of
+ * {@link TodoSnapshot}, so a reorder publishes no {@link TodoChangedEvent}.
+ */
+public record TodosReorderedEvent(Long userId, List<Long> todoIds) {
+}
@@ -0,0 +1,14 @@
+package com.todoapp.model;
+
+// Kinds of activity records; the ordinal is what is stored, so only append new constants
+public enum ActivityType {
+    TODO_CREATED,
+    TODO_UPDATED,
+    TODO_COMPLETED,
+    TODO_REOPENED,
+    TODO_MOVED,
+    TODO_DELETED,
+    TAG_CREATED,
+    TAG_UPDATED,
+    TAG_DELETED
+}
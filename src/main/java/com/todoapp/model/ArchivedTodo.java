@@ -0,0 +1,99 @@
+package com.todoapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cold copy of a completed todo moved out of the hot {@code todos} table. Keeps the original id
+ * and plain parent/user/tag ids so a todo can be restored exactly as it was.
+ */
+@Entity
+@Table(name = "archived_todos", indexes = {
+        @Index(name = "idx_archived_todos_user_archived_at", columnList = "user_id, archived_at"),
+        @Index(name = "idx_archived_todos_parent", columnList = "parent_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTodo {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    @Column(name = "due_time")
+    private LocalTime dueTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority")
+    private Priority priority;
+
+    @Embedded
+    private RecurrenceRule recurrence;
+
+    @Column(name = "display_order")
+    private Integer displayOrder;
+
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "archived_todo_tags", joinColumns = @JoinColumn(name = "todo_id"))
+    @Column(name = "tag_id")
+    @BatchSize(size = 50)
+    private Set<Long> tagIds = new HashSet<>();
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Restored as is, so a client holding the todo's version can still write to it
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArchivedTodo other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return ArchivedTodo.class.hashCode();
+    }
+}
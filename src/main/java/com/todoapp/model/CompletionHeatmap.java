@@ -0,0 +1,70 @@
+package com.todoapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Completions per day of one user's year, packed as 366 big-endian unsigned shorts
+ * (index 0 is January 1st). Kept current by todo writes; {@code seeded} is false until the
+ * row has been rebuilt once from the todos, so rows created by writes alone are incomplete.
+ */
+@Entity
+@Table(name = "completion_heatmaps",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "year"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompletionHeatmap {
+
+    public static final int DAYS = 366;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int year;
+
+    @Column(nullable = false, length = DAYS * 2)
+    private byte[] counts;
+
+    @Column(nullable = false)
+    private boolean seeded;
+
+    public int countAt(int dayIndex) {
+        return ((counts[dayIndex * 2] & 0xFF) << 8) | (counts[dayIndex * 2 + 1] & 0xFF);
+    }
+
+    public static byte[] pack(int[] days) {
+        byte[] packed = new byte[DAYS * 2];
+        for (int i = 0; i < DAYS; i++) {
+            int count = Math.min(Math.max(days[i], 0), 0xFFFF);
+            packed[i * 2] = (byte) (count >>> 8);
+            packed[i * 2 + 1] = (byte) count;
+        }
+        return packed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompletionHeatmap other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return CompletionHeatmap.class.hashCode();
+    }
+}
@@ -0,0 +1,8 @@
+package com.todoapp.model;
+
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY,
+    EVERY_N_DAYS,
+    MONTHLY
+}
@@ -0,0 +1,98 @@
+package com.todoapp.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Repeat rule for a todo series. The series' own dueDate is the first occurrence, except that a
+ * MONTHLY rule with a dayOfMonth starts on the first such day on or after it; later occurrences
+ * are computed on demand and never stored.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurrenceRule {
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recurrence_frequency")
+    private RecurrenceFrequency frequency;
+
+    // Every N days / weeks / months
+    @Min(1)
+    @Column(name = "recurrence_interval")
+    private Integer interval = 1;
+
+    // MONTHLY only; clamped to the last day of shorter months
+    @Min(1)
+    @Max(31)
+    @Column(name = "recurrence_day_of_month")
+    private Integer dayOfMonth;
+
+    @Column(name = "recurrence_until")
+    private LocalDate until;
+
+    /**
+     * First occurrence on or after {@code from}, or null if the series has ended by then.
+     * Jumps straight to the right period instead of walking the series from its anchor.
+     */
+    public LocalDate firstOnOrAfter(LocalDate anchor, LocalDate from) {
+        if (frequency == RecurrenceFrequency.MONTHLY) {
+            LocalDate start = from.isAfter(anchor) ? from : anchor;
+            long months = ChronoUnit.MONTHS.between(YearMonth.from(anchor), YearMonth.from(start));
+            long k = months / step();
+            LocalDate candidate = monthlyOccurrence(anchor, k);
+            // Also skips the anchor month's dayOfMonth when that falls before the anchor
+            while (candidate.isBefore(start)) {
+                candidate = monthlyOccurrence(anchor, ++k);
+            }
+            return withinUntil(candidate);
+        }
+        if (!from.isAfter(anchor)) {
+            return withinUntil(anchor);
+        }
+        long step = step();
+        long days = ChronoUnit.DAYS.between(anchor, from);
+        long periods = (days + step - 1) / step;
+        return withinUntil(anchor.plusDays(periods * step));
+    }
+
+    /**
+     * Occurrence following {@code current}, which must itself be an occurrence.
+     */
+    public LocalDate next(LocalDate anchor, LocalDate current) {
+        if (frequency == RecurrenceFrequency.MONTHLY) {
+            long k = ChronoUnit.MONTHS.between(YearMonth.from(anchor), YearMonth.from(current)) / step();
+            return withinUntil(monthlyOccurrence(anchor, k + 1));
+        }
+        return withinUntil(current.plusDays(step()));
+    }
+
+    private long step() {
+        int n = interval != null && interval > 0 ? interval : 1;
+        return switch (frequency) {
+            case DAILY, EVERY_N_DAYS, MONTHLY -> n;
+            case WEEKLY -> 7L * n;
+        };
+    }
+
+    private LocalDate monthlyOccurrence(LocalDate anchor, long k) {
+        YearMonth month = YearMonth.from(anchor).plusMonths(k * step());
+        int day = dayOfMonth != null ? dayOfMonth : anchor.getDayOfMonth();
+        return month.atDay(Math.min(day, month.lengthOfMonth()));
+    }
+
+    private LocalDate withinUntil(LocalDate date) {
+        return until != null && date.isAfter(until) ? null : date;
+    }
+}
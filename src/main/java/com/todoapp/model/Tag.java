@@ -5,15 +5,18 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "tags")
-@Data
+@Getter
+@Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Tag {
@@ -22,6 +25,11 @@ public class Tag {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank(message = "Tag name is required")
     @Size(max = 50)
     @Column(nullable = false)
@@ -30,6 +38,16 @@ public class Tag {
     @Column(length = 7)
     private String color = "#667eea"; // Default purple
 
+    // Top-level todos carrying the tag. Maintained in SQL by todo writes and reconciled by
+    // TagService, so the entity never writes them back.
+    @Column(name = "open_todos", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private int openTodos;
+
+    @Column(name = "total_todos", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private int totalTodos;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
@@ -38,4 +56,20 @@ public class Tag {
     @ManyToMany(mappedBy = "tags")
     @JsonIgnore
     private Set<Todo> todos = new HashSet<>();
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Tag other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Tag.class.hashCode();
+    }
 }
@@ -2,11 +2,15 @@ package com.todoapp.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -18,7 +22,37 @@ import java.util.Set;
 
 @Entity
 @Table(name = "todos")
-@Data
+// UPDATEs list only the dirty columns, so a rename does not rewrite the whole row
+@DynamicUpdate
+// Conditional due-date move that also reports the date it replaced, in one statement (Postgres)
+@SqlResultSetMapping(
+        name = "Todo.withPreviousDueDate",
+        entities = @EntityResult(entityClass = Todo.class),
+        columns = @ColumnResult(name = "previous_due_date", type = LocalDate.class))
+@NamedNativeQuery(
+        name = "Todo.moveDueDate",
+        query = "UPDATE todos t SET due_date = :dueDate, version = t.version + 1, updated_at = :now " +
+                "FROM todos previous WHERE previous.id = t.id AND t.id = :id AND t.user_id = :userId " +
+                "AND (CAST(:version AS BIGINT) IS NULL OR t.version = :version) " +
+                "RETURNING t.*, previous.due_date AS previous_due_date",
+        resultSetMapping = "Todo.withPreviousDueDate")
+// Completion toggle that also moves the tag counters and reports the update time it replaced
+@SqlResultSetMapping(
+        name = "Todo.withPreviousUpdatedAt",
+        entities = @EntityResult(entityClass = Todo.class),
+        columns = @ColumnResult(name = "previous_updated_at", type = LocalDateTime.class))
+@NamedNativeQuery(
+        name = "Todo.toggleCompleted",
+        query = "WITH toggled AS (UPDATE todos t SET completed = NOT t.completed, version = t.version + 1, updated_at = :now " +
+                "FROM todos previous WHERE previous.id = t.id AND t.id = :id AND t.user_id = :userId " +
+                "AND (CAST(:version AS BIGINT) IS NULL OR t.version = :version) " +
+                "RETURNING t.*, previous.updated_at AS previous_updated_at), " +
+                "tag_counts AS (UPDATE tags SET open_todos = tags.open_todos + CASE WHEN toggled.completed THEN -1 ELSE 1 END " +
+                "FROM todo_tags tt JOIN toggled ON toggled.id = tt.todo_id WHERE tags.id = tt.tag_id AND toggled.parent_id IS NULL) " +
+                "SELECT * FROM toggled",
+        resultSetMapping = "Todo.withPreviousUpdatedAt")
+@Getter
+@Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Todo {
@@ -27,6 +61,12 @@ public class Todo {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic lock; clients send it back to have stale writes rejected with 409
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank(message = "Title is required")
     @Size(max = 200, message = "Title must be less than 200 characters")
     @Column(nullable = false)
@@ -49,6 +89,11 @@ public class Todo {
     @Column(name = "priority")
     private Priority priority = Priority.MEDIUM;
 
+    // Repeat rule; null for one-off todos
+    @Embedded
+    @Valid
+    private RecurrenceRule recurrence;
+
     // Display order for drag-drop
     @Column(name = "display_order")
     private Integer displayOrder = 0;
@@ -89,6 +134,10 @@ public class Todo {
     @Transient
     private List<Long> tagIds;
 
+    // Set on in-memory occurrences expanded from a recurring series
+    @Transient
+    private LocalDate occurrenceDate;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -100,36 +149,29 @@ public class Todo {
         updatedAt = LocalDateTime.now();
     }
 
-    // Helper method to check if overdue
-    public boolean isOverdue() {
-        if (dueDate == null || completed) {
-            return false;
-        }
-        LocalDate today = LocalDate.now();
-        if (dueDate.isBefore(today)) {
-            return true;
-        }
-        if (dueDate.isEqual(today) && dueTime != null) {
-            return dueTime.isBefore(LocalTime.now());
-        }
-        return false;
-    }
-
-    // Helper to get parentId for JSON
+    // parentId as sent by clients, or the parent's id once loaded
     public Long getParentId() {
         return parent != null ? parent.getId() : parentId;
     }
 
-    // Calculate subtask progress
-    public int getSubtaskProgress() {
-        if (subtasks == null || subtasks.isEmpty()) {
-            return 0;
+    public boolean isRecurring() {
+        return recurrence != null && recurrence.getFrequency() != null;
+    }
+
+    // Identity equality: stable across persist and proxying, and never walks lazy collections
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Todo other)) {
+            return false;
         }
-        long completedCount = subtasks.stream().filter(Todo::isCompleted).count();
-        return (int) ((completedCount * 100) / subtasks.size());
+        return id != null && id.equals(other.getId());
     }
 
-    public boolean hasSubtasks() {
-        return subtasks != null && !subtasks.isEmpty();
+    @Override
+    public int hashCode() {
+        return Todo.class.hashCode();
     }
 }
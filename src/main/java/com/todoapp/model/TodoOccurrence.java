@@ -0,0 +1,68 @@
+package com.todoapp.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Per-occurrence state of a recurring todo. Rows exist only for occurrences the user has
+ * touched; everything else is derived from the series.
+ */
+@Entity
+@Table(name = "todo_occurrences",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"todo_id", "occurrence_date"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoOccurrence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "todo_id", nullable = false)
+    @JsonIgnore
+    private Todo todo;
+
+    @Column(name = "occurrence_date", nullable = false)
+    private LocalDate occurrenceDate;
+
+    @Column(nullable = false)
+    private boolean completed = false;
+
+    // Skipped occurrences are hidden from calendar views
+    @Column(nullable = false)
+    private boolean cancelled = false;
+
+    // Overrides; null means "same as the series"
+    @Size(max = 200, message = "Title must be less than 200 characters")
+    private String title;
+
+    @Column(name = "due_time")
+    private LocalTime dueTime;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TodoOccurrence other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return TodoOccurrence.class.hashCode();
+    }
+}
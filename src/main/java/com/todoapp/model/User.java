@@ -5,8 +5,9 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -14,8 +15,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
-@Data
+@Table(name = "users", indexes = {
+        // The streak rollover only visits users active in the last few days
+        @Index(name = "idx_users_last_active_date", columnList = "last_active_date")
+})
+@Getter
+@Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
@@ -46,13 +51,22 @@ public class User {
     @Column(name = "longest_streak")
     private Integer longestStreak = 0;
 
+    // Last day with a completion, in the user's time zone
     @Column(name = "last_active_date")
     private LocalDate lastActiveDate;
 
+    // IANA zone id streak days are counted in; null means the server's zone
+    @Column(name = "time_zone", length = 64)
+    private String timeZone;
+
     // Theme preference
     @Column(name = "theme")
     private String theme = "dark";
 
+    // Shard holding this user's todos and tags; null means the directory database itself
+    @Column(name = "shard", length = 32)
+    private String shard;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Todo> todos = new ArrayList<>();
 
@@ -67,4 +81,20 @@ public class User {
         createdAt = LocalDateTime.now();
         lastActiveDate = LocalDate.now();
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof User other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return User.class.hashCode();
+    }
 }
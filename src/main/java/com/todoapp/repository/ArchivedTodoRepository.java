@@ -0,0 +1,99 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.ArchivedTodo;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedTodoRepository extends JpaRepository<ArchivedTodo, Long> {
+    
+    // Column list shared by the move statements in both directions
+    String TODO_COLUMNS = "id, title, description, completed, due_date, due_time, priority, display_order, parent_id, user_id, " +
+            "created_at, updated_at, recurrence_frequency, recurrence_interval, recurrence_day_of_month, recurrence_until";
+    
+    // Read path: archived top-level todos, newest first
+    Page<ArchivedTodo> findByUserIdAndParentIdIsNullOrderByArchivedAtDesc(Long userId, Pageable pageable);
+    
+    // Statistics over archived completions (mirrors TodoRepository)
+    @Query("SELECT COUNT(a) FROM ArchivedTodo a WHERE a.userId = :userId AND a.completed = true AND a.updatedAt >= :since")
+    Long countCompletedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+    
+    @Query("SELECT CAST(a.updatedAt AS LocalDate), COUNT(a) FROM ArchivedTodo a WHERE a.userId = :userId AND a.completed = true AND a.updatedAt >= :since GROUP BY CAST(a.updatedAt AS LocalDate)")
+    List<Object[]> getCompletionStats(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+    
+    // ---- Archiving: hot -> cold ----
+    
+    @Query(value = "SELECT id FROM todos WHERE parent_id IS NULL AND completed = true AND updated_at < :cutoff ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findArchivableRootIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    // id, user_id, parent_id, completed of the given roots and all their subtasks
+    @Query(value = "WITH RECURSIVE tree(id) AS (SELECT id FROM todos WHERE id IN (:rootIds) " +
+            "UNION ALL SELECT t.id FROM todos t JOIN tree ON t.parent_id = tree.id) " +
+            "SELECT t.id, t.user_id, t.parent_id, t.completed FROM todos t WHERE t.id IN (SELECT id FROM tree)",
+            nativeQuery = true)
+    List<Object[]> findTodoTrees(@Param("rootIds") Collection<Long> rootIds);
+    
+    @Modifying
+    @Query(value = "INSERT INTO archived_todos (" + TODO_COLUMNS + ", version, archived_at) " +
+            "SELECT " + TODO_COLUMNS + ", version, :archivedAt FROM todos WHERE id IN (:ids)", nativeQuery = true)
+    int copyTodosToArchive(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+    
+    @Modifying
+    @Query(value = "INSERT INTO archived_todo_tags (todo_id, tag_id) SELECT todo_id, tag_id FROM todo_tags WHERE todo_id IN (:ids)",
+            nativeQuery = true)
+    int copyTagLinksToArchive(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query(value = "DELETE FROM todo_tags WHERE todo_id IN (:ids)", nativeQuery = true)
+    int deleteHotTagLinks(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query(value = "DELETE FROM todo_occurrences WHERE todo_id IN (:ids)", nativeQuery = true)
+    int deleteHotOccurrences(@Param("ids") Collection<Long> ids);
+    
+    // Detach subtasks first so the self-referencing FK holds on databases that check it per row
+    @Modifying
+    @Query(value = "UPDATE todos SET parent_id = NULL WHERE id IN (:ids) AND parent_id IS NOT NULL", nativeQuery = true)
+    int detachHotSubtasks(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query(value = "DELETE FROM todos WHERE id IN (:ids)", nativeQuery = true)
+    int deleteHotTodos(@Param("ids") Collection<Long> ids);
+    
+    // ---- Restoring: cold -> hot ----
+    
+    @Query(value = "WITH RECURSIVE tree(id) AS (SELECT id FROM archived_todos WHERE id = :rootId AND user_id = :userId AND parent_id IS NULL " +
+            "UNION ALL SELECT a.id FROM archived_todos a JOIN tree ON a.parent_id = tree.id) SELECT id FROM tree",
+            nativeQuery = true)
+    List<Long> findArchivedTree(@Param("rootId") Long rootId, @Param("userId") Long userId);
+    
+    // Rows archived before versions were kept come back at version 0
+    @Modifying
+    @Query(value = "INSERT INTO todos (" + TODO_COLUMNS + ", version) SELECT " + TODO_COLUMNS + ", COALESCE(version, 0) " +
+            "FROM archived_todos WHERE id IN (:ids) ORDER BY id", nativeQuery = true)
+    int copyTodosFromArchive(@Param("ids") Collection<Long> ids);
+    
+    // Tags deleted while the todo was archived are dropped
+    @Modifying
+    @Query(value = "INSERT INTO todo_tags (todo_id, tag_id) SELECT a.todo_id, a.tag_id FROM archived_todo_tags a " +
+            "JOIN tags g ON g.id = a.tag_id WHERE a.todo_id IN (:ids)", nativeQuery = true)
+    int copyTagLinksFromArchive(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query(value = "DELETE FROM archived_todo_tags WHERE todo_id IN (:ids)", nativeQuery = true)
+    int deleteArchivedTagLinks(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query(value = "DELETE FROM archived_todos WHERE id IN (:ids)", nativeQuery = true)
+    int deleteArchivedTodos(@Param("ids") Collection<Long> ids);
+}
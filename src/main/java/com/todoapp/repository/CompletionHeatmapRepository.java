@@ -0,0 +1,45 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.CompletionHeatmap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CompletionHeatmapRepository extends JpaRepository<CompletionHeatmap, Long> {
+    
+    // The endpoint's single-row read
+    Optional<CompletionHeatmap> findByUserIdAndYear(Long userId, int year);
+    
+    // Adds delta to one day in place, clamped to 0..65535; creates the (unseeded) row on first write
+    @Modifying
+    @Query(value = "INSERT INTO completion_heatmaps (user_id, year, counts, seeded) VALUES (:userId, :year, :initial, false) " +
+            "ON CONFLICT (user_id, year) DO UPDATE SET counts = set_byte(set_byte(completion_heatmaps.counts, " +
+            "2 * :day, GREATEST(0, LEAST(65535, get_byte(completion_heatmaps.counts, 2 * :day) * 256 " +
+            "+ get_byte(completion_heatmaps.counts, 2 * :day + 1) + :delta)) / 256), " +
+            "2 * :day + 1, GREATEST(0, LEAST(65535, get_byte(completion_heatmaps.counts, 2 * :day) * 256 " +
+            "+ get_byte(completion_heatmaps.counts, 2 * :day + 1) + :delta)) % 256)",
+            nativeQuery = true)
+    int addToDay(@Param("userId") Long userId, @Param("year") int year, @Param("day") int day,
+                 @Param("delta") int delta, @Param("initial") byte[] initial);
+    
+    // Seeding: ensures the row exists, then holds it so concurrent increments wait for the rebuild
+    @Modifying
+    @Query(value = "INSERT INTO completion_heatmaps (user_id, year, counts, seeded) VALUES (:userId, :year, :initial, false) " +
+            "ON CONFLICT (user_id, year) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("year") int year, @Param("initial") byte[] initial);
+    
+    @Query(value = "SELECT seeded FROM completion_heatmaps WHERE user_id = :userId AND year = :year FOR UPDATE",
+            nativeQuery = true)
+    boolean lockSeeded(@Param("userId") Long userId, @Param("year") int year);
+    
+    @Modifying
+    @Query(value = "UPDATE completion_heatmaps SET counts = :counts, seeded = true WHERE user_id = :userId AND year = :year",
+            nativeQuery = true)
+    int seed(@Param("userId") Long userId, @Param("year") int year, @Param("counts") byte[] counts);
+}
@@ -3,8 +3,12 @@ package com.todoapp.repository;
 import com.todoapp.model.Tag;
 import com.todoapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,5 +19,36 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
     
     Optional<Tag> findByIdAndUser(Long id, User user);
     
+    // Resolves a request's tag ids in one query; ids of other users' tags are simply not found
+    List<Tag> findByUserAndIdIn(User user, Collection<Long> ids);
+    
     boolean existsByNameAndUser(String name, User user);
+    
+    boolean existsByIdAndUser(Long id, User user);
+    
+    // Adds (sign 1) or removes (sign -1) the top-level todos among todoIds on their tags' counters
+    @Modifying
+    @Query(value = "UPDATE tags SET total_todos = tags.total_todos + :sign * c.total, open_todos = tags.open_todos + :sign * c.open " +
+            "FROM (SELECT tt.tag_id, COUNT(*) AS total, COUNT(*) FILTER (WHERE NOT t.completed) AS open " +
+            "FROM todo_tags tt JOIN todos t ON t.id = tt.todo_id WHERE tt.todo_id IN (:todoIds) AND t.parent_id IS NULL " +
+            "GROUP BY tt.tag_id) c WHERE tags.id = c.tag_id",
+            nativeQuery = true)
+    int adjustCounts(@Param("todoIds") Collection<Long> todoIds, @Param("sign") int sign);
+    
+    // Recounts every tag and fixes the ones that drifted
+    @Modifying
+    @Query(value = "UPDATE tags SET total_todos = c.total, open_todos = c.open " +
+            "FROM (SELECT g.id, COUNT(t.id) AS total, COUNT(t.id) FILTER (WHERE NOT t.completed) AS open FROM tags g " +
+            "LEFT JOIN todo_tags tt ON tt.tag_id = g.id LEFT JOIN todos t ON t.id = tt.todo_id AND t.parent_id IS NULL " +
+            "GROUP BY g.id) c WHERE tags.id = c.id AND (tags.total_todos <> c.total OR tags.open_todos <> c.open)",
+            nativeQuery = true)
+    int reconcileCounts();
+    
+    // Deletes the tag and its todo links in one statement; 0 when missing, not the user's or at another version
+    @Query(value = "WITH tag AS (DELETE FROM tags WHERE id = :id AND user_id = :userId " +
+            "AND (CAST(:version AS BIGINT) IS NULL OR version = :version) RETURNING id), " +
+            "links AS (DELETE FROM todo_tags WHERE tag_id IN (SELECT id FROM tag)) " +
+            "SELECT COUNT(*) FROM tag",
+            nativeQuery = true)
+    long deleteWithLinks(@Param("id") Long id, @Param("userId") Long userId, @Param("version") Long version);
 }
@@ -0,0 +1,30 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Projected reads for sparse fieldsets; implemented with the Criteria API in TodoColumnRepositoryImpl.
+ * Each selects the same top-level todos, in the same order, as the whole-entity list query it
+ * stands in for. Each row holds only the given attribute paths ("dueDate", "parent.id"), in that order.
+ */
+public interface TodoColumnRepository {
+
+    // All top-level todos, or only open or done ones when completed is given, in list order
+    List<Object[]> findColumns(User user, Boolean completed, List<String> attributes);
+
+    // Non-recurring todos due in [startDate, endDate], in due date and time order
+    List<Object[]> findColumnsDueBetween(User user, LocalDate startDate, LocalDate endDate, List<String> attributes);
+
+    // Open, non-recurring todos due before today, or today before now
+    List<Object[]> findColumnsOverdue(User user, LocalDate today, LocalTime now, List<String> attributes);
+
+    // Todos without a due date, newest first
+    List<Object[]> findColumnsUndated(User user, List<String> attributes);
+
+    // Todos with the tag, in list order; the tag join only filters, no tag columns are read
+    List<Object[]> findColumnsByTag(User user, Long tagId, List<String> attributes);
+}
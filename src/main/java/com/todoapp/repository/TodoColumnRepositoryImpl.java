@@ -0,0 +1,95 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.Todo;
+import com.todoapp.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+class TodoColumnRepositoryImpl implements TodoColumnRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> findColumns(User user, Boolean completed, List<String> attributes) {
+        return select(user, attributes,
+                (cb, todo) -> completed == null ? List.of() : List.of(cb.equal(todo.get("completed"), completed)),
+                (cb, todo) -> List.of(cb.asc(todo.get("displayOrder")), cb.desc(todo.get("createdAt"))));
+    }
+
+    @Override
+    public List<Object[]> findColumnsDueBetween(User user, LocalDate startDate, LocalDate endDate, List<String> attributes) {
+        return select(user, attributes,
+                (cb, todo) -> List.of(cb.isNull(todo.get("recurrence").get("frequency")),
+                        cb.between(todo.get("dueDate"), startDate, endDate)),
+                (cb, todo) -> List.of(cb.asc(todo.get("dueDate")), cb.asc(todo.get("dueTime")), cb.desc(todo.get("createdAt"))));
+    }
+
+    @Override
+    public List<Object[]> findColumnsOverdue(User user, LocalDate today, LocalTime now, List<String> attributes) {
+        return select(user, attributes,
+                (cb, todo) -> List.of(cb.isFalse(todo.get("completed")),
+                        cb.isNull(todo.get("recurrence").get("frequency")),
+                        cb.or(cb.lessThan(todo.get("dueDate"), today),
+                                cb.and(cb.equal(todo.get("dueDate"), today), cb.lessThan(todo.get("dueTime"), now)))),
+                (cb, todo) -> List.of(cb.asc(todo.get("dueDate")), cb.asc(todo.get("dueTime"))));
+    }
+
+    @Override
+    public List<Object[]> findColumnsUndated(User user, List<String> attributes) {
+        return select(user, attributes,
+                (cb, todo) -> List.of(cb.isNull(todo.get("dueDate"))),
+                (cb, todo) -> List.of(cb.desc(todo.get("createdAt"))));
+    }
+
+    @Override
+    public List<Object[]> findColumnsByTag(User user, Long tagId, List<String> attributes) {
+        return select(user, attributes,
+                (cb, todo) -> List.of(cb.equal(todo.join("tags").get("id"), tagId)),
+                (cb, todo) -> List.of(cb.asc(todo.get("displayOrder"))));
+    }
+
+    // The user's top-level todos matching the filter, as rows of the given attributes
+    private List<Object[]> select(User user, List<String> attributes,
+                                  BiFunction<CriteriaBuilder, Root<Todo>, List<Predicate>> filter,
+                                  BiFunction<CriteriaBuilder, Root<Todo>, List<Order>> order) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Todo> todo = query.from(Todo.class);
+        List<Selection<?>> columns = attributes.stream().<Selection<?>>map(attribute -> path(todo, attribute)).toList();
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(todo.get("user"), user));
+        where.add(cb.isNull(todo.get("parent")));
+        where.addAll(filter.apply(cb, todo));
+        query.multiselect(columns)
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(order.apply(cb, todo));
+        return entityManager.createQuery(query)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    // "parent.id" reads the foreign key column; no join
+    private static Path<?> path(Root<Todo> todo, String attribute) {
+        Path<?> path = todo;
+        for (String name : attribute.split("\\.")) {
+            path = path.get(name);
+        }
+        return path;
+    }
+}
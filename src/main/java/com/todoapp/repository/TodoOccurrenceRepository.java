@@ -0,0 +1,19 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.Todo;
+import com.todoapp.model.TodoOccurrence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TodoOccurrenceRepository extends JpaRepository<TodoOccurrence, Long> {
+    
+    List<TodoOccurrence> findByTodoInAndOccurrenceDateBetween(Collection<Todo> todos, LocalDate startDate, LocalDate endDate);
+    
+    Optional<TodoOccurrence> findByTodoAndOccurrenceDate(Todo todo, LocalDate occurrenceDate);
+}
@@ -1,18 +1,34 @@
 package com.todoapp.repository;
 
+import com.todoapp.dto.TodoTransferRecord;
 import com.todoapp.model.Todo;
 import com.todoapp.model.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
+public interface TodoRepository extends JpaRepository<Todo, Long>, TodoColumnRepository {
+    
+    // CTE for the delete statements: takes the top-level todos in "tree" off their tags' counters
+    String RELEASE_TAG_COUNTS = "tag_counts AS (UPDATE tags SET total_todos = tags.total_todos - c.total, " +
+            "open_todos = tags.open_todos - c.open FROM (SELECT tt.tag_id, COUNT(*) AS total, " +
+            "COUNT(*) FILTER (WHERE NOT t.completed) AS open FROM todo_tags tt JOIN todos t ON t.id = tt.todo_id " +
+            "WHERE t.id IN (SELECT id FROM tree) AND t.parent_id IS NULL GROUP BY tt.tag_id) c WHERE tags.id = c.tag_id), ";
     
     // Main queries - only get parent todos (not subtasks)
     List<Todo> findByUserAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(User user);
@@ -21,19 +37,61 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
     
     Optional<Todo> findByIdAndUser(Long id, User user);
     
+    boolean existsByIdAndUser(Long id, User user);
+    
+    // Single-statement conditional writes (Postgres RETURNING). A null version skips the version check;
+    // no row back means the todo is missing, not the user's, or was changed since that version.
+    // {Todo, previous updated_at}; the statement, which also moves the tag counters, is the named query on Todo
+    List<Object[]> toggleCompleted(@Param("id") Long id, @Param("userId") Long userId,
+                                   @Param("version") Long version, @Param("now") LocalDateTime now);
+    
+    // {Todo, previous due date}; the statement is the named query on Todo
+    List<Object[]> moveDueDate(@Param("id") Long id, @Param("userId") Long userId, @Param("version") Long version,
+                               @Param("dueDate") LocalDate dueDate, @Param("now") LocalDateTime now);
+    
+    // Deletes the todo with its subtasks, tag links and occurrence rows; returns the deleted rows
+    @Query(value = "WITH RECURSIVE tree(id) AS (" +
+            "SELECT id FROM todos WHERE id = :id AND user_id = :userId AND (CAST(:version AS BIGINT) IS NULL OR version = :version) " +
+            "UNION ALL SELECT t.id FROM todos t JOIN tree ON t.parent_id = tree.id), " + RELEASE_TAG_COUNTS +
+            "tag_links AS (DELETE FROM todo_tags WHERE todo_id IN (SELECT id FROM tree)), " +
+            "occurrences AS (DELETE FROM todo_occurrences WHERE todo_id IN (SELECT id FROM tree)) " +
+            "DELETE FROM todos WHERE id IN (SELECT id FROM tree) RETURNING *",
+            nativeQuery = true)
+    List<Todo> deleteTree(@Param("id") Long id, @Param("userId") Long userId, @Param("version") Long version);
+    
+    // Same as deleteTree for every completed todo of the user, subtasks of open todos included
+    @Query(value = "WITH RECURSIVE tree(id) AS (" +
+            "SELECT id FROM todos WHERE user_id = :userId AND completed = true " +
+            "UNION SELECT t.id FROM todos t JOIN tree ON t.parent_id = tree.id), " + RELEASE_TAG_COUNTS +
+            "tag_links AS (DELETE FROM todo_tags WHERE todo_id IN (SELECT id FROM tree)), " +
+            "occurrences AS (DELETE FROM todo_occurrences WHERE todo_id IN (SELECT id FROM tree)) " +
+            "DELETE FROM todos WHERE id IN (SELECT id FROM tree) RETURNING *",
+            nativeQuery = true)
+    List<Todo> deleteCompleted(@Param("userId") Long userId);
+    
+    // Ownership check for batch operations
+    @Query("SELECT t.id FROM Todo t WHERE t.user = :user AND t.id IN :ids")
+    List<Long> findIdsByUserAndIdIn(@Param("user") User user, @Param("ids") Collection<Long> ids);
+    
     // Find subtasks of a parent
     List<Todo> findByParentOrderByDisplayOrderAsc(Todo parent);
     
-    // Find todos by specific date
-    List<Todo> findByUserAndDueDateAndParentIsNullOrderByDueTimeAscCreatedAtDesc(User user, LocalDate dueDate);
+    // Find todos by specific date (recurring series are expanded in TodoService instead)
+    List<Todo> findByUserAndDueDateAndParentIsNullAndRecurrenceFrequencyIsNullOrderByDueTimeAscCreatedAtDesc(User user, LocalDate dueDate);
     
     // Find todos between dates (for week/month view)
-    List<Todo> findByUserAndDueDateBetweenAndParentIsNullOrderByDueDateAscDueTimeAsc(
+    List<Todo> findByUserAndDueDateBetweenAndParentIsNullAndRecurrenceFrequencyIsNullOrderByDueDateAscDueTimeAsc(
             User user, LocalDate startDate, LocalDate endDate);
     
-    // Find overdue todos
-    @Query("SELECT t FROM Todo t WHERE t.user = :user AND t.completed = false AND t.dueDate < :today AND t.parent IS NULL")
-    List<Todo> findOverdueTodos(@Param("user") User user, @Param("today") LocalDate today);
+    // Recurring series that can have an occurrence inside [startDate, endDate]
+    @Query("SELECT t FROM Todo t WHERE t.user = :user AND t.parent IS NULL AND t.recurrence.frequency IS NOT NULL " +
+            "AND t.dueDate <= :endDate AND (t.recurrence.until IS NULL OR t.recurrence.until >= :startDate)")
+    List<Todo> findRecurringInRange(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    // Find overdue todos (a todo due today is overdue once its due time has passed)
+    @Query("SELECT t FROM Todo t WHERE t.user = :user AND t.completed = false AND t.parent IS NULL AND t.recurrence.frequency IS NULL " +
+            "AND (t.dueDate < :today OR (t.dueDate = :today AND t.dueTime < :now))")
+    List<Todo> findOverdueTodos(@Param("user") User user, @Param("today") LocalDate today, @Param("now") LocalTime now);
     
     // Find todos without due date
     List<Todo> findByUserAndDueDateIsNullAndParentIsNullOrderByCreatedAtDesc(User user);
@@ -43,7 +101,7 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
     List<Todo> findByUserAndTagId(@Param("user") User user, @Param("tagId") Long tagId);
     
     // Count todos by date for calendar dots
-    @Query("SELECT t.dueDate, COUNT(t) FROM Todo t WHERE t.user = :user AND t.dueDate BETWEEN :startDate AND :endDate AND t.parent IS NULL GROUP BY t.dueDate")
+    @Query("SELECT t.dueDate, COUNT(t) FROM Todo t WHERE t.user = :user AND t.dueDate BETWEEN :startDate AND :endDate AND t.parent IS NULL AND t.recurrence.frequency IS NULL GROUP BY t.dueDate")
     List<Object[]> countTodosByDateRange(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
     // Statistics queries
@@ -53,7 +111,50 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
     @Query("SELECT CAST(t.updatedAt AS LocalDate), COUNT(t) FROM Todo t WHERE t.user = :user AND t.completed = true AND t.updatedAt >= :since GROUP BY CAST(t.updatedAt AS LocalDate)")
     List<Object[]> getCompletionStats(@Param("user") User user, @Param("since") java.time.LocalDateTime since);
     
+    // Reminder window: open todos that do not repeat, due in [from, through]
+    @Query("SELECT t.id, t.user.id, t.title, t.dueDate, t.dueTime FROM Todo t WHERE t.completed = false " +
+            "AND t.recurrence.frequency IS NULL AND t.dueDate BETWEEN :from AND :through")
+    List<Object[]> findUpcomingReminders(@Param("from") LocalDate from, @Param("through") LocalDate through);
+    
+    // Reminder window: open recurring series that can have an occurrence in [from, through]
+    @Query("SELECT t.id, t.user.id, t.title, t.dueDate, t.dueTime, t.recurrence FROM Todo t WHERE t.completed = false " +
+            "AND t.recurrence.frequency IS NOT NULL AND t.dueDate <= :through " +
+            "AND (t.recurrence.until IS NULL OR t.recurrence.until >= :from)")
+    List<Object[]> findRecurringReminders(@Param("from") LocalDate from, @Param("through") LocalDate through);
+    
     // Check if user completed all todos for a specific date
     @Query("SELECT COUNT(t) FROM Todo t WHERE t.user = :user AND t.dueDate = :date AND t.completed = false AND t.parent IS NULL")
     Long countIncompleteByDate(@Param("user") User user, @Param("date") LocalDate date);
+    
+    // Export: forward-only cursors ordered by id, so parents precede their subtasks
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.todoapp.dto.TodoTransferRecord(t.id, p.id, t.title, t.description, t.completed, t.dueDate, t.dueTime, " +
+            "t.priority, t.displayOrder, t.recurrence.frequency, t.recurrence.interval, t.recurrence.dayOfMonth, t.recurrence.until, t.createdAt) " +
+            "FROM Todo t LEFT JOIN t.parent p WHERE t.user = :user ORDER BY t.id")
+    Stream<TodoTransferRecord> streamForExport(@Param("user") User user);
+    
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t.id, tag.name FROM Todo t JOIN t.tags tag WHERE t.user = :user ORDER BY t.id")
+    Stream<Object[]> streamTagNamesForExport(@Param("user") User user);
+    
+    // Filter index build: the indexed attributes of all the user's todos, and their tag links
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t.id, p.id, t.completed, t.priority, t.dueDate FROM Todo t LEFT JOIN t.parent p WHERE t.user = :user ORDER BY t.id")
+    List<Object[]> findIndexRows(@Param("user") User user);
+    
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t.id, tag.id FROM Todo t JOIN t.tags tag WHERE t.user = :user")
+    List<Object[]> findIndexTagLinks(@Param("user") User user);
+    
+    // Next-up ranking build: what the urgency score and the subtask progress are computed from
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t.id, p.id, t.completed, t.priority, t.dueDate, t.dueTime, t.recurrence.frequency FROM Todo t LEFT JOIN t.parent p WHERE t.user = :user")
+    List<Object[]> findUrgencyRows(@Param("user") User user);
+    
+    // Bulk loads for response mapping: one query per list instead of one per todo
+    @Query("SELECT t.id, tag.id, tag.name, tag.color, tag.version, tag.openTodos, tag.totalTodos FROM Todo t JOIN t.tags tag WHERE t.id IN :ids ORDER BY tag.name")
+    List<Object[]> findTagsByTodoIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT s.parent.id, COUNT(s), SUM(CASE WHEN s.completed = true THEN 1 ELSE 0 END) FROM Todo s WHERE s.parent.id IN :ids GROUP BY s.parent.id")
+    List<Object[]> countSubtasksByParentIds(@Param("ids") Collection<Long> ids);
 }
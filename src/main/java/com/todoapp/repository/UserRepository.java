@@ -1,10 +1,21 @@
 package com.todoapp.repository;
 
 import com.todoapp.model.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -16,4 +27,68 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+    
+    // Registration in one statement: the new id, or nothing when the username or email is taken
+    @Query(value = "INSERT INTO users (username, email, password, theme, current_streak, longest_streak, last_active_date, created_at) " +
+            "VALUES (:username, :email, :password, :theme, 0, 0, :lastActiveDate, :createdAt) " +
+            "ON CONFLICT DO NOTHING RETURNING id",
+            nativeQuery = true)
+    Optional<Long> insertIfAvailable(@Param("username") String username, @Param("email") String email,
+                                     @Param("password") String password, @Param("theme") String theme,
+                                     @Param("lastActiveDate") LocalDate lastActiveDate,
+                                     @Param("createdAt") LocalDateTime createdAt);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.shard = :shard WHERE u.id = :id")
+    int updateShard(@Param("id") Long id, @Param("shard") String shard);
+    
+    // Availability filter: usernames and emails of the users after :afterId, in id order
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u.id, u.username, u.email FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    Stream<Object[]> streamAccountKeys(@Param("afterId") Long afterId);
+    
+    // Shard map lookup done on every authenticated request
+    @Query("SELECT u.shard FROM User u WHERE u.username = :username")
+    Optional<String> findShardByUsername(@Param("username") String username);
+    
+    // A completion today: keeps today's streak, extends yesterday's or starts a new one; "today" is the user's own
+    @Modifying
+    @Query(value = "UPDATE users u SET current_streak = d.streak, " +
+            "longest_streak = GREATEST(u.longest_streak, d.streak), " +
+            "last_active_date = GREATEST(u.last_active_date, d.today) " +
+            "FROM (SELECT id, today, CASE WHEN last_active_date >= today AND current_streak > 0 THEN current_streak " +
+            "WHEN last_active_date = today - 1 THEN current_streak + 1 ELSE 1 END AS streak " +
+            "FROM (SELECT id, last_active_date, COALESCE(current_streak, 0) AS current_streak, " +
+            "CAST(now() AT TIME ZONE COALESCE(time_zone, :defaultZone) AS date) AS today " +
+            "FROM users WHERE id = :userId) t) d " +
+            "WHERE u.id = d.id",
+            nativeQuery = true)
+    int recordActiveDay(@Param("userId") Long userId, @Param("defaultZone") String defaultZone);
+    
+    // Day rollover: ends the streaks of users last active before their yesterday, looking back to :since only
+    @Modifying
+    @Query(value = "UPDATE users SET current_streak = 0 " +
+            "WHERE current_streak > 0 AND last_active_date >= :since " +
+            "AND last_active_date < CAST(now() AT TIME ZONE COALESCE(time_zone, :defaultZone) AS date) - 1",
+            nativeQuery = true)
+    int endBrokenStreaks(@Param("since") LocalDate since, @Param("defaultZone") String defaultZone);
+    
+    // Account deletion, run on the user's shard: everything the user owns and the users row there
+    // (the account itself without sharding, the reference row on a shard) in one statement
+    @Modifying
+    @Query(value = "WITH tag_links AS (DELETE FROM todo_tags WHERE todo_id IN (SELECT id FROM todos WHERE user_id = :userId)), " +
+            "occurrences AS (DELETE FROM todo_occurrences WHERE todo_id IN (SELECT id FROM todos WHERE user_id = :userId)), " +
+            "archived_links AS (DELETE FROM archived_todo_tags WHERE todo_id IN (SELECT id FROM archived_todos WHERE user_id = :userId)), " +
+            "archived AS (DELETE FROM archived_todos WHERE user_id = :userId), " +
+            "heatmaps AS (DELETE FROM completion_heatmaps WHERE user_id = :userId), " +
+            "user_todos AS (DELETE FROM todos WHERE user_id = :userId), " +
+            "user_tags AS (DELETE FROM tags WHERE user_id = :userId) " +
+            "DELETE FROM users WHERE id = :userId",
+            nativeQuery = true)
+    int deleteOwnedData(@Param("userId") Long userId);
+    
+    // Bulk delete, so the todos and tags collections are not loaded for the cascade
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteByIdInBulk(@Param("id") Long id);
 }
@@ -0,0 +1,136 @@
+package com.todoapp.security;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit with a bounded FIFO queue in front of it. The limit follows observed
+ * latency (gradient method): a short-window average of request times is compared with a
+ * long-window one; while they agree the limit grows by about its square root, and as the short
+ * one rises above the long one the limit shrinks in proportion, down to half per update.
+ * Samples taken while less than half the limit is in use say nothing about capacity and are
+ * only averaged.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueCapacity;
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int queueCapacity) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueCapacity = queueCapacity;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot at once, or queues for one for up to {@code maxWaitNanos}; a zero wait never
+     * queues. False when the queue is full or the wait ran out.
+     */
+    public boolean acquire(long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (waiting == 0 && inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (maxWaitNanos <= 0 || waiting >= queueCapacity) {
+                return false;
+            }
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+                // A raised limit frees several slots but each release signals once: pass it on
+                if (waiting > 0 && inFlight < (int) limit) {
+                    released.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Gives the slot back with how long it was held
+    public void release(long elapsedNanos) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= limit / 2;
+            inFlight--;
+            sample(elapsedNanos, saturated);
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sample(long elapsedNanos, boolean saturated) {
+        double rtt = Math.max(elapsedNanos, 1);
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+            return;
+        }
+        shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+        longRtt += (rtt - longRtt) / LONG_WINDOW;
+        // After a load spike the long average would lag for minutes; pull it towards the present
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+        if (!saturated) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.todoapp.security;
+
+import com.todoapp.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the todo, tag and auth endpoints, ahead of authentication. Each request
+ * is classified into a lane with its own adaptive concurrency limit and queue, so cheap
+ * interactive calls do not queue behind statistics or long lists. Analytics requests are refused
+ * outright while either other lane has a queue; any lane answers 503 when its queue is full or
+ * the wait runs out.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    enum Lane {
+        INTERACTIVE,
+        WRITE,
+        ANALYTICS
+    }
+
+    // First match wins; a null lane is not admission-controlled
+    private record Rule(String method, PathPattern pattern, Lane lane) {
+
+        boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.equals(requestMethod)) && pattern.matches(path);
+        }
+    }
+
+    private record LaneState(AdaptiveConcurrencyLimiter limiter, long maxWaitNanos,
+                             Counter admitted, Counter rejected, Counter shed, Timer latency) {
+    }
+
+    private static final PathPatternParser PARSER = new PathPatternParser();
+    private static final List<Rule> RULES = List.of(
+            rule("GET", "/api/todos", Lane.ANALYTICS),
+            rule("GET", "/api/todos/status/{completed}", Lane.ANALYTICS),
+            rule("GET", "/api/todos/query", Lane.ANALYTICS),
+            rule("GET", "/api/todos/statistics", Lane.ANALYTICS),
+            rule("GET", "/api/todos/heatmap", Lane.ANALYTICS),
+            rule("GET", "/api/todos/export", Lane.ANALYTICS),
+            // Server-sent events hold the connection for as long as the page is open
+            rule("GET", "/api/todos/events", null),
+            // Toggles and due-date moves are single-row updates the UI waits on
+            rule("PATCH", "/api/todos/**", Lane.INTERACTIVE),
+            rule("GET", "/api/todos/**", Lane.INTERACTIVE),
+            rule("GET", "/api/tags/**", Lane.INTERACTIVE),
+            rule("GET", "/api/auth/**", Lane.INTERACTIVE),
+            rule(null, "/api/todos/**", Lane.WRITE),
+            rule(null, "/api/tags/**", Lane.WRITE),
+            rule(null, "/api/auth/**", Lane.WRITE));
+
+    private final boolean enabled;
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+
+    public AdmissionControlFilter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        lanes.put(Lane.INTERACTIVE, lane(Lane.INTERACTIVE, properties.getInteractive(), meterRegistry));
+        lanes.put(Lane.WRITE, lane(Lane.WRITE, properties.getWrite(), meterRegistry));
+        lanes.put(Lane.ANALYTICS, lane(Lane.ANALYTICS, properties.getAnalytics(), meterRegistry));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Lane lane = enabled ? classify(request) : null;
+        if (lane == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        LaneState state = lanes.get(lane);
+        long start = System.nanoTime();
+        if (lane == Lane.ANALYTICS && othersQueueing()) {
+            state.shed().increment();
+            reject(response);
+            return;
+        }
+        boolean admitted;
+        try {
+            admitted = state.limiter().acquire(state.maxWaitNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            state.rejected().increment();
+            reject(response);
+            return;
+        }
+        state.admitted().increment();
+        long admittedAt = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Streaming responses carry on asynchronously; the slot covers the request thread only
+            long end = System.nanoTime();
+            state.limiter().release(end - admittedAt);
+            state.latency().record(end - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Lane classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("OPTIONS".equals(method)) {
+            return null;
+        }
+        if ("HEAD".equals(method)) {
+            method = "GET";
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Rule rule : RULES) {
+            if (rule.matches(method, path)) {
+                return rule.lane();
+            }
+        }
+        return null;
+    }
+
+    private boolean othersQueueing() {
+        return lanes.get(Lane.INTERACTIVE).limiter().waiting() > 0 || lanes.get(Lane.WRITE).limiter().waiting() > 0;
+    }
+
+    private static void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Server is busy, retry in 1s\"}");
+    }
+
+    private static Rule rule(String method, String pattern, Lane lane) {
+        return new Rule(method, PARSER.parse(pattern), lane);
+    }
+
+    private static LaneState lane(Lane lane, AdmissionProperties.Lane settings, MeterRegistry meterRegistry) {
+        String name = lane.name().toLowerCase();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit(), settings.getQueueCapacity());
+        Gauge.builder("todo.admission.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .tag("lane", name)
+                .register(meterRegistry);
+        Gauge.builder("todo.admission.in-flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .tag("lane", name)
+                .register(meterRegistry);
+        Gauge.builder("todo.admission.queued", limiter, AdaptiveConcurrencyLimiter::waiting)
+                .tag("lane", name)
+                .register(meterRegistry);
+        // Queue wait included: what the client saw
+        Timer latency = Timer.builder("todo.admission.latency")
+                .tag("lane", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        return new LaneState(
+                limiter,
+                TimeUnit.MILLISECONDS.toNanos(settings.getMaxWaitMillis()),
+                requests(meterRegistry, name, "admitted"),
+                requests(meterRegistry, name, "rejected"),
+                requests(meterRegistry, name, "shed"),
+                latency);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String lane, String outcome) {
+        return Counter.builder("todo.admission.requests")
+                .tag("lane", lane)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -1,6 +1,8 @@
 package com.todoapp.security;
 
+import com.todoapp.config.ShardContext;
 import com.todoapp.service.CustomUserDetailsService;
+import com.todoapp.service.ShardService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,22 +21,25 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
+    // A browser EventSource cannot set headers, so the event stream alone takes the token as a parameter
+    static final String EVENTS_PATH = "/api/todos/events";
+    static final String TOKEN_PARAMETER = "access_token";
+
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final ShardService shardService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        final String authHeader = request.getHeader("Authorization");
+        final String jwt = tokenOf(request);
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (jwt == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        final String jwt = authHeader.substring(7);
-
         try {
             if (jwtUtil.isTokenValid(jwt)) {
                 String username = jwtUtil.extractUsername(jwt);
@@ -47,6 +52,10 @@ public class JwtFilter extends OncePerRequestFilter {
                                 userDetails, null, userDetails.getAuthorities());
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authToken);
+                        // Everything after authentication runs against the user's shard
+                        if (shardService.isEnabled()) {
+                            ShardContext.set(shardService.shardOf(username));
+                        }
                     }
                 }
             }
@@ -54,6 +63,23 @@ public class JwtFilter extends OncePerRequestFilter {
             // Token invalid, continue without authentication
         }
 
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    private static String tokenOf(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        if ("GET".equals(request.getMethod())
+                && EVENTS_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()))) {
+            String token = request.getParameter(TOKEN_PARAMETER);
+            return token != null && !token.isEmpty() ? token : null;
+        }
+        return null;
     }
 }
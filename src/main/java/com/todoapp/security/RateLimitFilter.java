@@ -0,0 +1,111 @@
+package com.todoapp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user request budgets, checked right after JWT authentication. Reads (GET, HEAD, OPTIONS)
+ * and writes draw from separate buckets so a chatty UI cannot starve the user's own saves.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final TokenBucketRateLimiter readLimiter;
+    private final TokenBucketRateLimiter writeLimiter;
+    private final long idleEvictionNanos;
+    private final Counter readsAllowed;
+    private final Counter readsRejected;
+    private final Counter writesAllowed;
+    private final Counter writesRejected;
+
+    public RateLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${todo.rate-limit.enabled:true}") boolean enabled,
+            @Value("${todo.rate-limit.read-per-second:20}") double readPerSecond,
+            @Value("${todo.rate-limit.read-burst:40}") int readBurst,
+            @Value("${todo.rate-limit.write-per-second:5}") double writePerSecond,
+            @Value("${todo.rate-limit.write-burst:20}") int writeBurst,
+            @Value("${todo.rate-limit.max-users:100000}") int maxUsers,
+            @Value("${todo.rate-limit.idle-eviction-seconds:300}") long idleEvictionSeconds) {
+        this.enabled = enabled;
+        this.readLimiter = new TokenBucketRateLimiter(readPerSecond, readBurst, maxUsers);
+        this.writeLimiter = new TokenBucketRateLimiter(writePerSecond, writeBurst, maxUsers);
+        this.idleEvictionNanos = TimeUnit.SECONDS.toNanos(idleEvictionSeconds);
+
+        this.readsAllowed = requests(meterRegistry, "read", "allowed");
+        this.readsRejected = requests(meterRegistry, "read", "rejected");
+        this.writesAllowed = requests(meterRegistry, "write", "allowed");
+        this.writesRejected = requests(meterRegistry, "write", "rejected");
+        registerState(meterRegistry, "read", readLimiter);
+        registerState(meterRegistry, "write", writeLimiter);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!enabled || authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean read = isRead(request.getMethod());
+        long waitNanos = (read ? readLimiter : writeLimiter).tryAcquire(authentication.getName());
+        if (waitNanos > 0) {
+            (read ? readsRejected : writesRejected).increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Too many requests, retry in " + retryAfterSeconds + "s\"}");
+            return;
+        }
+        (read ? readsAllowed : writesAllowed).increment();
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${todo.rate-limit.eviction-interval-millis:60000}")
+    public void evictIdle() {
+        readLimiter.evictIdle(idleEvictionNanos);
+        writeLimiter.evictIdle(idleEvictionNanos);
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String budget, String outcome) {
+        return Counter.builder("todo.ratelimit.requests")
+                .tag("budget", budget)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static void registerState(MeterRegistry meterRegistry, String budget, TokenBucketRateLimiter limiter) {
+        Gauge.builder("todo.ratelimit.tracked.users", limiter, TokenBucketRateLimiter::size)
+                .tag("budget", budget)
+                .register(meterRegistry);
+        FunctionCounter.builder("todo.ratelimit.untracked", limiter, TokenBucketRateLimiter::untrackedCount)
+                .tag("budget", budget)
+                .register(meterRegistry);
+    }
+}
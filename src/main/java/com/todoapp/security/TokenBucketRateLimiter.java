@@ -0,0 +1,97 @@
+package com.todoapp.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets, each stored as one "theoretical arrival time" (GCRA): taking a token
+ * pushes it forward by one refill interval, and a request is refused when that would put it more
+ * than a full bucket ahead of now. One map lookup and one CAS per request, no locks.
+ *
+ * A bucket whose arrival time has fallen behind the clock is full, so evicting it loses nothing.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long FULL_SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongAdder untracked = new LongAdder();
+    private final LongSupplier clock;
+    private final AtomicLong lastFullSweep;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final int maxKeys;
+
+    public TokenBucketRateLimiter(double tokensPerSecond, int burst, int maxKeys) {
+        this(tokensPerSecond, burst, maxKeys, System::nanoTime);
+    }
+
+    // The clock is a parameter so tests can step time instead of sleeping
+    TokenBucketRateLimiter(double tokensPerSecond, int burst, int maxKeys, LongSupplier clock) {
+        this.clock = clock;
+        this.lastFullSweep = new AtomicLong(clock.getAsLong() - FULL_SWEEP_INTERVAL_NANOS);
+        this.intervalNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.capacityNanos = intervalNanos * burst;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            if (buckets.size() >= maxKeys && !makeRoom(now)) {
+                // Table full of active users: let newcomers through rather than grow without bound
+                untracked.increment();
+                return 0;
+            }
+            arrival = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long excess = next - now - capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // At most one sweep per interval when the table is full, so a flood of new keys stays O(1) each
+    private boolean makeRoom(long now) {
+        long last = lastFullSweep.get();
+        if (now - last >= FULL_SWEEP_INTERVAL_NANOS && lastFullSweep.compareAndSet(last, now)) {
+            evictIdle(0);
+        }
+        return buckets.size() < maxKeys;
+    }
+
+    /**
+     * Drops buckets that have been full for at least {@code idleNanos}. A request racing with the
+     * removal may spend a token on the dropped bucket; the user then starts over with a full one.
+     *
+     * @return number of buckets removed
+     */
+    public int evictIdle(long idleNanos) {
+        long cutoff = clock.getAsLong() - idleNanos;
+        int before = buckets.size();
+        buckets.values().removeIf(arrival -> arrival.get() - cutoff <= 0);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Requests admitted without a bucket because the table was full
+    public long untrackedCount() {
+        return untracked.sum();
+    }
+}
@@ -0,0 +1,351 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.ActivityResponse;
+import com.todoapp.event.TagChangedEvent;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.model.ActivityType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Activity history of todos and tags, kept out of the database: committed changes are appended
+ * as small binary records to memory-mapped segment files under {@code todo.activity.dir}, and
+ * the mapped pages are forced to disk together every sync interval. A crash loses at most that
+ * interval. Full segments are sealed and rolled; old ones are compacted (bursts of moves and
+ * edits of one todo keep their last record) and dropped after the retention period.
+ * Each node writes and reads its own directory.
+ */
+@Slf4j
+@Component
+public class ActivityLog {
+
+    private static final String SUFFIX = ".seg";
+    // A compaction interrupted by a crash leaves one of these next to the intact segment
+    private static final String COMPACTING = ".compacting";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final Duration retention;
+    private final Duration compactAfter;
+    private final long coalesceMillis;
+
+    // Write lock for appends, rolls and segment swaps; read lock for readers
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<ActivitySegment> segments = new ArrayList<>();
+    private ActivitySegment active;
+    private long nextSequence;
+    private volatile boolean dirty;
+
+    public ActivityLog(
+            @Value("${todo.activity.enabled:true}") boolean enabled,
+            @Value("${todo.activity.dir:data/activity}") String directory,
+            @Value("${todo.activity.segment-size-mb:16}") int segmentSizeMb,
+            @Value("${todo.activity.retention-days:90}") int retentionDays,
+            @Value("${todo.activity.compact-after-hours:24}") int compactAfterHours,
+            @Value("${todo.activity.coalesce-window-seconds:60}") int coalesceWindowSeconds) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentSizeMb * 1024 * 1024;
+        this.retention = Duration.ofDays(retentionDays);
+        this.compactAfter = Duration.ofHours(compactAfterHours);
+        this.coalesceMillis = TimeUnit.SECONDS.toMillis(coalesceWindowSeconds);
+        if (enabled) {
+            open();
+        }
+    }
+
+    // Existing segments are sealed and indexed; writing always starts in a new segment
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SUFFIX + COMPACTING))
+                        .forEach(ActivityLog::deleteQuietly);
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                        .sorted()
+                        .forEach(file -> {
+                            ActivitySegment segment = ActivitySegment.open(file, sequenceOf(file));
+                            if (segment.isEmpty()) {
+                                segment.delete();
+                            } else {
+                                segments.add(segment);
+                            }
+                        });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextSequence = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).sequence() + 1;
+        roll();
+        log.info("Activity log: {} segments in {}", segments.size() - 1, directory.toAbsolutePath());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        TodoSnapshot before = event.before();
+        TodoSnapshot after = event.after();
+        if (before == null) {
+            append(event.userId(), event.todoId(), ActivityType.TODO_CREATED, after.title());
+        } else if (after == null) {
+            append(event.userId(), event.todoId(), ActivityType.TODO_DELETED, before.title());
+        } else {
+            List<String> changed = changedFields(before, after);
+            if (changed.equals(List.of("completed"))) {
+                append(event.userId(), event.todoId(),
+                        after.completed() ? ActivityType.TODO_COMPLETED : ActivityType.TODO_REOPENED, null);
+            } else if (changed.equals(List.of("dueDate"))) {
+                append(event.userId(), event.todoId(), ActivityType.TODO_MOVED,
+                        after.dueDate() != null ? after.dueDate().toString() : null);
+            } else if (!changed.isEmpty()) {
+                append(event.userId(), event.todoId(), ActivityType.TODO_UPDATED, String.join(",", changed));
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        ActivityType type = switch (event.change()) {
+            case CREATED -> ActivityType.TAG_CREATED;
+            case UPDATED -> ActivityType.TAG_UPDATED;
+            case DELETED -> ActivityType.TAG_DELETED;
+        };
+        append(event.userId(), event.tagId(), type, event.name());
+    }
+
+    // Newest first
+    public List<ActivityResponse> todoHistory(Long userId, Long todoId, int limit) {
+        return read(userId, 0, limit, entry -> entry.subjectId() == todoId && isTodo(entry.type()));
+    }
+
+    public List<ActivityResponse> since(Long userId, LocalDateTime since, int limit) {
+        long from = since != null ? since.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        return read(userId, from, limit, entry -> true);
+    }
+
+    @Scheduled(fixedDelayString = "${todo.activity.sync-interval-millis:200}")
+    public void sync() {
+        if (!dirty) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            dirty = false;
+            active.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops segments past retention and compacts sealed segments older than compact-after.
+     * Compaction rewrites a segment without holding the lock and swaps it in under it.
+     */
+    @Scheduled(fixedDelayString = "${todo.activity.maintenance-interval-millis:3600000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<ActivitySegment> sealed;
+        lock.writeLock().lock();
+        try {
+            List<ActivitySegment> expired = segments.stream()
+                    .filter(segment -> segment != active && segment.maxTime() < now - retention.toMillis())
+                    .toList();
+            segments.removeAll(expired);
+            expired.forEach(ActivitySegment::delete);
+            if (!expired.isEmpty()) {
+                log.info("Dropped {} activity segments past retention", expired.size());
+            }
+            sealed = segments.stream()
+                    .filter(segment -> segment != active && !segment.isCompacted()
+                            && segment.maxTime() < now - compactAfter.toMillis())
+                    .toList();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        sealed.forEach(this::compact);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            active.seal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(Long userId, Long subjectId, ActivityType type, String detail) {
+        if (!enabled || userId == null || subjectId == null) {
+            return;
+        }
+        ActivitySegment.Entry entry = new ActivitySegment.Entry(System.currentTimeMillis(), userId, subjectId, type, detail);
+        lock.writeLock().lock();
+        try {
+            if (!active.append(entry)) {
+                roll();
+                active.append(entry);
+            }
+            dirty = true;
+        } catch (RuntimeException e) {
+            // History is best effort: a full disk must not fail the write it describes
+            log.warn("Could not append activity for user {}", userId, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<ActivityResponse> read(Long userId, long since, int limit, Predicate<ActivitySegment.Entry> matches) {
+        List<ActivityResponse> result = new ArrayList<>();
+        if (!enabled) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            for (int i = segments.size() - 1; i >= 0 && result.size() < limit; i--) {
+                segments.get(i).visitNewestFirst(userId, since, entry -> {
+                    if (matches.test(entry)) {
+                        result.add(toResponse(entry));
+                    }
+                    return result.size() < limit;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // Called with the write lock held, or from the constructor
+    private void roll() {
+        if (active != null) {
+            active.seal();
+        }
+        Path file = directory.resolve(String.format("%020d%s", nextSequence, SUFFIX));
+        active = ActivitySegment.create(file, nextSequence++, segmentBytes);
+        segments.add(active);
+    }
+
+    private void compact(ActivitySegment segment) {
+        List<ActivitySegment.Entry> kept = new ArrayList<>();
+        // (user, todo, type) -> index in kept of the last record of an ongoing burst
+        Map<List<Object>, Integer> bursts = new HashMap<>();
+        segment.forEach(entry -> {
+            if (entry.type() == ActivityType.TODO_MOVED || entry.type() == ActivityType.TODO_UPDATED) {
+                List<Object> key = List.of(entry.userId(), entry.subjectId(), entry.type());
+                Integer last = bursts.get(key);
+                if (last != null && entry.time() - kept.get(last).time() <= coalesceMillis) {
+                    kept.set(last, entry);
+                    return;
+                }
+                bursts.put(key, kept.size());
+            }
+            kept.add(entry);
+        });
+
+        Path target = segment.file().resolveSibling(segment.file().getFileName() + COMPACTING);
+        ActivitySegment compacted;
+        try {
+            Files.deleteIfExists(target);
+            compacted = ActivitySegment.create(target, segment.sequence(), segment.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        kept.sort(Comparator.comparingLong(ActivitySegment.Entry::time));
+        kept.forEach(compacted::append);
+        compacted.seal();
+
+        lock.writeLock().lock();
+        try {
+            Files.move(target, segment.file(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            ActivitySegment reopened = ActivitySegment.open(segment.file(), segment.sequence());
+            reopened.markCompacted();
+            segments.set(segments.indexOf(segment), reopened);
+        } catch (IOException e) {
+            log.warn("Could not swap in compacted activity segment {}", segment.file(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<String> changedFields(TodoSnapshot before, TodoSnapshot after) {
+        List<String> changed = new ArrayList<>();
+        if (!Objects.equals(before.title(), after.title())) {
+            changed.add("title");
+        }
+        if (before.completed() != after.completed()) {
+            changed.add("completed");
+        }
+        if (!Objects.equals(before.dueDate(), after.dueDate())) {
+            changed.add("dueDate");
+        }
+        if (!Objects.equals(before.dueTime(), after.dueTime())) {
+            changed.add("dueTime");
+        }
+        if (before.priority() != after.priority()) {
+            changed.add("priority");
+        }
+        if (!Objects.equals(before.parentId(), after.parentId())) {
+            changed.add("parent");
+        }
+        // Tags are only comparable when both sides loaded them
+        if (before.tagIds() != null && after.tagIds() != null
+                && !new HashSet<>(before.tagIds()).equals(new HashSet<>(after.tagIds()))) {
+            changed.add("tags");
+        }
+        return changed;
+    }
+
+    private static boolean isTodo(ActivityType type) {
+        return type.name().startsWith("TODO_");
+    }
+
+    private static ActivityResponse toResponse(ActivitySegment.Entry entry) {
+        boolean todo = isTodo(entry.type());
+        return new ActivityResponse(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.time()), ZoneId.systemDefault()),
+                entry.type(),
+                todo ? entry.subjectId() : null,
+                todo ? null : entry.subjectId(),
+                entry.detail());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,260 @@
+package com.todoapp.service;
+
+import com.todoapp.model.ActivityType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped file of the activity log. Records are appended back to back:
+ * <pre>
+ * int length | long time | long userId | long subjectId | byte type | short detailLength | detail | int crc
+ * </pre>
+ * with the CRC over everything between the length and the CRC. Readers stop at the first
+ * zero length or bad CRC, which is where a crash left the file. Each segment keeps its record
+ * offsets per user in memory, rebuilt by a scan when the file is opened.
+ */
+class ActivitySegment {
+
+    private static final int MAX_DETAIL_BYTES = 512;
+    private static final int HEADER_BYTES = 4 + 8 + 8 + 8 + 1 + 2;
+    private static final int CRC_BYTES = 4;
+    private static final ActivityType[] TYPES = ActivityType.values();
+
+    record Entry(long time, long userId, long subjectId, ActivityType type, String detail) {
+    }
+
+    // Offsets of one user's records, in append order
+    private static final class Offsets {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int offset) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = offset;
+        }
+    }
+
+    private final Path file;
+    private final long sequence;
+    private MappedByteBuffer buffer;
+    private int position;
+    private boolean sealed;
+    private boolean compacted;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private final Map<Long, Offsets> byUser = new HashMap<>();
+
+    private ActivitySegment(Path file, long sequence) {
+        this.file = file;
+        this.sequence = sequence;
+    }
+
+    // A new, writable segment of the given size
+    static ActivitySegment create(Path file, long sequence, int capacity) {
+        ActivitySegment segment = new ActivitySegment(file, sequence);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return segment;
+    }
+
+    // An existing segment, sealed: its index is rebuilt and any unwritten tail cut off
+    static ActivitySegment open(Path file, long sequence) {
+        ActivitySegment segment = new ActivitySegment(file, sequence);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            segment.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int offset = 0;
+        Entry entry;
+        while ((entry = segment.read(offset)) != null) {
+            segment.indexed(offset, entry);
+            offset += segment.buffer.getInt(offset);
+        }
+        segment.position = offset;
+        segment.seal();
+        return segment;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    boolean isEmpty() {
+        return position == 0;
+    }
+
+    int size() {
+        return position;
+    }
+
+    long minTime() {
+        return minTime;
+    }
+
+    long maxTime() {
+        return maxTime;
+    }
+
+    boolean isCompacted() {
+        return compacted;
+    }
+
+    void markCompacted() {
+        compacted = true;
+    }
+
+    // False when the record does not fit; the caller rolls to a new segment
+    boolean append(Entry entry) {
+        byte[] detail = encode(entry.detail());
+        int length = HEADER_BYTES + detail.length + CRC_BYTES;
+        if (sealed || position + length > buffer.capacity()) {
+            return false;
+        }
+        int offset = position;
+        buffer.putLong(offset + 4, entry.time());
+        buffer.putLong(offset + 12, entry.userId());
+        buffer.putLong(offset + 20, entry.subjectId());
+        buffer.put(offset + 28, (byte) entry.type().ordinal());
+        buffer.putShort(offset + 29, (short) detail.length);
+        buffer.put(offset + HEADER_BYTES, detail);
+        buffer.putInt(offset + HEADER_BYTES + detail.length, crc(offset, length));
+        // Length last: a record is only visible to a recovery scan once it is complete
+        buffer.putInt(offset, length);
+        position += length;
+        indexed(offset, entry);
+        return true;
+    }
+
+    void force() {
+        if (!sealed) {
+            buffer.force();
+        }
+    }
+
+    // Flushes and cuts the file to what was written; the segment is read-only afterwards
+    void seal() {
+        if (sealed) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (!buffer.isReadOnly()) {
+                buffer.force();
+            }
+            if (channel.size() > position) {
+                channel.truncate(position);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        sealed = true;
+    }
+
+    /**
+     * Visits the user's records newest first, until the visitor returns false.
+     */
+    boolean visitNewestFirst(long userId, long since, Predicate<Entry> visitor) {
+        Offsets offsets = byUser.get(userId);
+        if (offsets == null || maxTime < since) {
+            return true;
+        }
+        for (int i = offsets.size - 1; i >= 0; i--) {
+            Entry entry = read(offsets.values[i]);
+            if (entry != null && entry.time() >= since && !visitor.test(entry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void forEach(Consumer<Entry> action) {
+        int offset = 0;
+        Entry entry;
+        while (offset < position && (entry = read(offset)) != null) {
+            action.accept(entry);
+            offset += buffer.getInt(offset);
+        }
+    }
+
+    private Entry read(int offset) {
+        if (offset + HEADER_BYTES + CRC_BYTES > buffer.limit()) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length < HEADER_BYTES + CRC_BYTES || offset + length > buffer.limit()) {
+            return null;
+        }
+        int detailLength = buffer.getShort(offset + 29);
+        int type = buffer.get(offset + 28);
+        if (HEADER_BYTES + detailLength + CRC_BYTES != length || type < 0 || type >= TYPES.length
+                || buffer.getInt(offset + length - CRC_BYTES) != crc(offset, length)) {
+            return null;
+        }
+        byte[] detail = new byte[detailLength];
+        buffer.get(offset + HEADER_BYTES, detail);
+        return new Entry(
+                buffer.getLong(offset + 4),
+                buffer.getLong(offset + 12),
+                buffer.getLong(offset + 20),
+                TYPES[type],
+                detailLength == 0 ? null : new String(detail, StandardCharsets.UTF_8));
+    }
+
+    private void indexed(int offset, Entry entry) {
+        byUser.computeIfAbsent(entry.userId(), id -> new Offsets()).add(offset);
+        minTime = Math.min(minTime, entry.time());
+        maxTime = Math.max(maxTime, entry.time());
+    }
+
+    private int crc(int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + 4, length - 4 - CRC_BYTES));
+        return (int) crc.getValue();
+    }
+
+    // Cut on a character boundary so the stored detail always decodes
+    private static byte[] encode(String detail) {
+        if (detail == null || detail.isEmpty()) {
+            return new byte[0];
+        }
+        byte[] bytes = detail.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_DETAIL_BYTES) {
+            return bytes;
+        }
+        int end = MAX_DETAIL_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
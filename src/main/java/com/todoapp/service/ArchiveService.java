@@ -0,0 +1,136 @@
+package com.todoapp.service;
+
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.model.ArchivedTodo;
+import com.todoapp.model.User;
+import com.todoapp.repository.ArchivedTodoRepository;
+import com.todoapp.repository.TagRepository;
+import com.todoapp.repository.TodoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves completed top-level todos (with their subtasks and tag links) older than
+ * {@code todo.archive.after-days} from the hot tables into {@code archived_todos}.
+ * Each chunk is a handful of set-based statements in its own transaction.
+ */
+@Slf4j
+@Service
+public class ArchiveService {
+
+    private final ArchivedTodoRepository archivedTodoRepository;
+    private final TodoRepository todoRepository;
+    private final TagRepository tagRepository;
+    private final ShardService shardService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoWriteBuffer writeBuffer;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int afterDays;
+    private final int chunkSize;
+
+    public ArchiveService(
+            ArchivedTodoRepository archivedTodoRepository,
+            TodoRepository todoRepository,
+            TagRepository tagRepository,
+            ShardService shardService,
+            ApplicationEventPublisher eventPublisher,
+            TodoWriteBuffer writeBuffer,
+            PlatformTransactionManager transactionManager,
+            @Value("${todo.archive.enabled:true}") boolean enabled,
+            @Value("${todo.archive.after-days:90}") int afterDays,
+            @Value("${todo.archive.chunk-size:500}") int chunkSize) {
+        this.archivedTodoRepository = archivedTodoRepository;
+        this.todoRepository = todoRepository;
+        this.tagRepository = tagRepository;
+        this.shardService = shardService;
+        this.eventPublisher = eventPublisher;
+        this.writeBuffer = writeBuffer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${todo.archive.cron:0 30 3 * * *}")
+    public void archiveScheduled() {
+        if (enabled) {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+            // Selection is by stored completion state
+            writeBuffer.flush();
+            shardService.forEachShard(shard -> archiveCompletedBefore(cutoff));
+        }
+    }
+
+    public int archiveCompletedBefore(LocalDateTime cutoff) {
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            archived += moved;
+        } while (moved > 0);
+        if (archived > 0) {
+            log.info("Archived {} todos completed before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> rootIds = archivedTodoRepository.findArchivableRootIds(cutoff, chunkSize);
+        if (rootIds.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> tree = archivedTodoRepository.findTodoTrees(rootIds);
+        List<Long> ids = tree.stream().map(row -> ((Number) row[0]).longValue()).toList();
+
+        archivedTodoRepository.copyTodosToArchive(ids, LocalDateTime.now());
+        archivedTodoRepository.copyTagLinksToArchive(ids);
+        tagRepository.adjustCounts(ids, -1);
+        archivedTodoRepository.deleteHotTagLinks(ids);
+        archivedTodoRepository.deleteHotOccurrences(ids);
+        archivedTodoRepository.detachHotSubtasks(ids);
+        archivedTodoRepository.deleteHotTodos(ids);
+
+        for (Object[] row : tree) {
+            eventPublisher.publishEvent(TodoChangedEvent.deleted(new TodoSnapshot(
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[1]).longValue(),
+                    row[2] != null ? ((Number) row[2]).longValue() : null,
+                    null, (Boolean) row[3], null, null, null, null, null, null)));
+        }
+        return ids.size();
+    }
+
+    public Page<ArchivedTodo> getArchivedTodos(User user, Pageable pageable) {
+        return archivedTodoRepository.findByUserIdAndParentIdIsNullOrderByArchivedAtDesc(user.getId(), pageable);
+    }
+
+    public boolean unarchive(Long id, User user) {
+        Boolean restored = transactionTemplate.execute(status -> {
+            List<Long> ids = archivedTodoRepository.findArchivedTree(id, user.getId());
+            if (ids.isEmpty()) {
+                return false;
+            }
+            archivedTodoRepository.copyTodosFromArchive(ids);
+            archivedTodoRepository.copyTagLinksFromArchive(ids);
+            tagRepository.adjustCounts(ids, 1);
+            archivedTodoRepository.deleteArchivedTagLinks(ids);
+            archivedTodoRepository.deleteArchivedTodos(ids);
+            todoRepository.findAllById(ids).forEach(todo ->
+                    eventPublisher.publishEvent(TodoChangedEvent.created(TodoSnapshot.of(todo))));
+            return true;
+        });
+        return Boolean.TRUE.equals(restored);
+    }
+}
@@ -0,0 +1,148 @@
+package com.todoapp.service;
+
+import com.todoapp.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.stream.Stream;
+
+/**
+ * Username and email availability for the sign-up form. Every taken username and email is in an
+ * in-memory Bloom filter, so most free ones are confirmed without a query; only possible hits go
+ * to the directory. The filters are loaded by the first refresh after startup and then topped up
+ * with every registration here and, on each refresh, with the users other nodes registered.
+ * Deleted accounts stay in the filters until they outgrow their size and are rebuilt; they only
+ * cost a query. A taken name is never reported free once it has been registered here or loaded,
+ * rebuilds included. Registration itself never relies on this: the insert is the final check.
+ */
+@Slf4j
+@Service
+public class AvailabilityService {
+
+    // Ids are handed out before commit: a slow registration may commit below the highest id seen
+    private static final long REFRESH_OVERLAP = 100;
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+    }
+
+    private final UserRepository userRepository;
+    private final ShardService shardService;
+    private final boolean enabled;
+    private final long minCapacity;
+    private final double falsePositiveRate;
+    private final Counter filtered;
+    private final Counter queried;
+    private volatile Filters filters;
+    // Set while a rebuild loads, so that registrations meanwhile reach the new filters too
+    private volatile Filters rebuilding;
+    private long added;
+    private long highestId;
+
+    public AvailabilityService(
+            UserRepository userRepository,
+            ShardService shardService,
+            MeterRegistry meterRegistry,
+            @Value("${todo.availability.enabled:true}") boolean enabled,
+            @Value("${todo.availability.min-capacity:100000}") long minCapacity,
+            @Value("${todo.availability.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.shardService = shardService;
+        this.enabled = enabled;
+        this.minCapacity = minCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+
+        // filtered: answered from memory; queried: a possible hit checked in the directory
+        this.filtered = Counter.builder("todo.availability.checks").tag("result", "filtered").register(meterRegistry);
+        this.queried = Counter.builder("todo.availability.checks").tag("result", "queried").register(meterRegistry);
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        Filters current = filters;
+        if (current != null && !current.usernames().mightContain(username)) {
+            filtered.increment();
+            return true;
+        }
+        queried.increment();
+        return !shardService.inDirectory(() -> userRepository.existsByUsername(username));
+    }
+
+    public boolean isEmailAvailable(String email) {
+        Filters current = filters;
+        if (current != null && !current.emails().mightContain(email)) {
+            filtered.increment();
+            return true;
+        }
+        queried.increment();
+        return !shardService.inDirectory(() -> userRepository.existsByEmail(email));
+    }
+
+    // Added before the registration commits: a rollback only leaves a false positive
+    public void registered(String username, String email) {
+        Filters current = filters;
+        add(current, username, email);
+        add(rebuilding, username, email);
+        // The rebuild finished in between: it may have loaded before this one committed
+        Filters swapped = filters;
+        if (swapped != current) {
+            add(swapped, username, email);
+        }
+    }
+
+    private static void add(Filters target, String username, String email) {
+        if (target != null) {
+            target.usernames().add(username);
+            target.emails().add(email);
+        }
+    }
+
+    /**
+     * Loads the users registered since the last refresh, on any node; builds the filters on the
+     * first run and rebuilds them, twice the size, once they hold more than they were sized for.
+     */
+    @Scheduled(fixedDelayString = "${todo.availability.refresh-interval-millis:5000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        Filters current = filters;
+        if (current == null || added > current.usernames().capacity()) {
+            long started = System.nanoTime();
+            long capacity = Math.max(minCapacity, 2 * added);
+            Filters rebuilt = new Filters(new BloomFilter(capacity, falsePositiveRate), new BloomFilter(capacity, falsePositiveRate));
+            added = 0;
+            highestId = 0;
+            rebuilding = rebuilt;
+            load(rebuilt, 0);
+            filters = rebuilt;
+            rebuilding = null;
+            // Registrations that began just before the rebuild and committed during the load
+            // went to the old filters only; the next refresh would find them too, but later
+            load(rebuilt, Math.max(0, highestId - REFRESH_OVERLAP));
+            log.info("Loaded {} accounts into the availability filters in {} ms", added,
+                    (System.nanoTime() - started) / 1_000_000);
+        } else {
+            load(current, Math.max(0, highestId - REFRESH_OVERLAP));
+        }
+    }
+
+    private void load(Filters target, long afterId) {
+        shardService.inDirectory(() -> {
+            try (Stream<Object[]> rows = userRepository.streamAccountKeys(afterId)) {
+                rows.forEach(row -> {
+                    long id = (Long) row[0];
+                    target.usernames().add((String) row[1]);
+                    target.emails().add((String) row[2]);
+                    if (id > highestId) {
+                        highestId = id;
+                        added++;
+                    }
+                });
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.todoapp.service;
+
+import com.todoapp.config.ShardContext;
+import com.todoapp.dto.DashboardResponse;
+import com.todoapp.dto.TagResponse;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.model.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the main page's data in one call. Each section is an independent query run on a small
+ * shared pool, so the pool size also caps how many connections dashboards can hold at once.
+ * Sections that fail, are rejected by a full pool, or miss the deadline are reported as missing.
+ */
+@Slf4j
+@Service
+public class DashboardService {
+
+    private final TodoService todoService;
+    private final TagService tagService;
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutNanos;
+
+    public DashboardService(
+            TodoService todoService,
+            TagService tagService,
+            @Value("${todo.dashboard.threads:8}") int threads,
+            @Value("${todo.dashboard.queue-capacity:200}") int queueCapacity,
+            @Value("${todo.dashboard.timeout-millis:2000}") long timeoutMillis) {
+        this.todoService = todoService;
+        this.tagService = tagService;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        // Not a bean: an Executor bean would replace Boot's applicationTaskExecutor
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setTaskDecorator(ShardContext::wrap);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public DashboardResponse load(User user, String view, LocalDate date, int statisticsDays) {
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        Future<List<TagResponse>> tags = submit(() -> tagService.getAllTagsForUser(user));
+        Future<List<TodoResponse>> todos = switch (view) {
+            case "week" -> submit(() -> todoService.getTodosByDateRange(user, date, date.plusDays(6)));
+            case "day" -> submit(() -> todoService.getTodosByDate(user, date));
+            case "list" -> submit(() -> todoService.getAllTodosForUser(user));
+            default -> null;
+        };
+        Future<Map<LocalDate, Long>> calendarCounts = "month".equals(view)
+                ? submit(() -> todoService.getTodoCountByDateRange(user,
+                        YearMonth.from(date).atDay(1), YearMonth.from(date).atEndOfMonth()))
+                : null;
+        Future<List<TodoResponse>> overdue = submit(() -> todoService.getOverdueTodos(user));
+        Future<List<TodoResponse>> noDate = submit(() -> todoService.getTodosWithoutDueDate(user));
+        Future<Map<String, Object>> statistics = submit(() -> todoService.getStatistics(user, statisticsDays));
+
+        List<String> missing = new ArrayList<>();
+        return new DashboardResponse(
+                view,
+                await("tags", tags, deadline, missing),
+                await("todos", todos, deadline, missing),
+                await("calendarCounts", calendarCounts, deadline, missing),
+                await("overdue", overdue, deadline, missing),
+                await("noDate", noDate, deadline, missing),
+                await("statistics", statistics, deadline, missing),
+                missing);
+    }
+
+    private <T> Future<T> submit(Supplier<T> section) {
+        try {
+            return executor.submit(section::get);
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Section result, or null (and listed as missing) if it is not ready by the deadline
+    private <T> T await(String name, Future<T> future, long deadline, List<String> missing) {
+        if (future == null) {
+            // Not part of this view
+            return null;
+        }
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            missing.add(name);
+        } catch (ExecutionException e) {
+            log.warn("Dashboard section {} failed", name, e.getCause());
+            missing.add(name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            missing.add(name);
+        }
+        return null;
+    }
+}
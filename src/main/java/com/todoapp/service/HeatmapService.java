@@ -0,0 +1,115 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.HeatmapResponse;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.model.CompletionHeatmap;
+import com.todoapp.model.User;
+import com.todoapp.repository.ArchivedTodoRepository;
+import com.todoapp.repository.CompletionHeatmapRepository;
+import com.todoapp.repository.TodoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Completion heatmap: one {@link CompletionHeatmap} row per user and year, updated in the
+ * writing transaction by every completion change, so reading a year is a single-row lookup.
+ * A completion counts on the day of the todo's last write, as in the statistics endpoint;
+ * deleting or archiving a completed todo keeps its day counted.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class HeatmapService {
+
+    // Years a date can be written in as plain ISO yyyy-MM-dd
+    static final int MIN_YEAR = 1;
+    static final int MAX_YEAR = 9999;
+
+    private final CompletionHeatmapRepository heatmapRepository;
+    private final TodoRepository todoRepository;
+    private final ArchivedTodoRepository archivedTodoRepository;
+    private final TodoWriteBuffer writeBuffer;
+
+    // Same transaction as the write, so the count can never disagree with a committed todo
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (!event.completionChanged()) {
+            return;
+        }
+        if (event.after().completed()) {
+            add(event.userId(), LocalDate.now(), 1);
+        } else {
+            // Reopening takes the completion off the day it was counted on
+            add(event.userId(), event.before().updatedAt() != null
+                    ? event.before().updatedAt().toLocalDate() : LocalDate.now(), -1);
+        }
+    }
+
+    public HeatmapResponse getHeatmap(User user, int year) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            throw new IllegalArgumentException("year must be between " + MIN_YEAR + " and " + MAX_YEAR);
+        }
+        // Buffered completions are only counted once written
+        writeBuffer.flush(user.getId());
+        Optional<CompletionHeatmap> row = heatmapRepository.findByUserIdAndYear(user.getId(), year);
+        if (row.isPresent() && row.get().isSeeded()) {
+            CompletionHeatmap heatmap = row.get();
+            int[] counts = new int[Year.of(year).length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = heatmap.countAt(i);
+            }
+            return response(year, counts);
+        }
+        if (year > LocalDate.now().getYear()) {
+            return response(year, new int[Year.of(year).length()]);
+        }
+        return response(year, seed(user, year));
+    }
+
+    private void add(Long userId, LocalDate day, int delta) {
+        int[] initial = new int[CompletionHeatmap.DAYS];
+        initial[day.getDayOfYear() - 1] = delta;
+        heatmapRepository.addToDay(userId, day.getYear(), day.getDayOfYear() - 1, delta, CompletionHeatmap.pack(initial));
+    }
+
+    // First read of a year: rebuilt from the todos while the row is locked, so increments committed
+    // meanwhile are either in the rebuild or wait and apply on top of it
+    private int[] seed(User user, int year) {
+        heatmapRepository.insertIfAbsent(user.getId(), year, CompletionHeatmap.pack(new int[CompletionHeatmap.DAYS]));
+        heatmapRepository.lockSeeded(user.getId(), year);
+        int[] counts = new int[Year.of(year).length()];
+        LocalDate start = LocalDate.of(year, 1, 1);
+        accumulate(counts, year, todoRepository.getCompletionStats(user, start.atStartOfDay()));
+        accumulate(counts, year, archivedTodoRepository.getCompletionStats(user.getId(), start.atStartOfDay()));
+        int[] days = new int[CompletionHeatmap.DAYS];
+        System.arraycopy(counts, 0, days, 0, counts.length);
+        heatmapRepository.seed(user.getId(), year, CompletionHeatmap.pack(days));
+        return counts;
+    }
+
+    private static void accumulate(int[] counts, int year, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            LocalDate day = (LocalDate) row[0];
+            if (day.getYear() == year) {
+                counts[day.getDayOfYear() - 1] += ((Long) row[1]).intValue();
+            }
+        }
+    }
+
+    private static HeatmapResponse response(int year, int[] counts) {
+        int total = 0;
+        int max = 0;
+        for (int count : counts) {
+            total += count;
+            max = Math.max(max, count);
+        }
+        return new HeatmapResponse(year, total, max, counts);
+    }
+}
@@ -0,0 +1,169 @@
+package com.todoapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck): four levels of 64 slots each.
+ * Schedule and cancel are O(1); advancing one tick expires one slot and, on level boundaries,
+ * cascades one slot of the next level down. Deadlines beyond the wheel span wait in an
+ * overflow list that is re-examined each time the top level wraps.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Slot<T>[][] wheels;
+    private final Slot<T> overflow = new Slot<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Slot[LEVELS][WHEEL_SIZE];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheels[level][i] = new Slot<>();
+            }
+        }
+    }
+
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(payload, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    public void cancel(Timeout<T> timeout) {
+        if (timeout != null && timeout.slot != null) {
+            timeout.slot.remove(timeout);
+            size--;
+        }
+    }
+
+    /**
+     * Advance the wheel to {@code nowMillis}, handing every expired payload to {@code expired}.
+     */
+    public void advanceTo(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Slot<T> slot = wheels[0][(int) (currentTick & WHEEL_MASK)];
+            Timeout<T> timeout;
+            while ((timeout = slot.poll()) != null) {
+                size--;
+                expired.accept(timeout.payload);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Deadlines further out than this wait in the overflow list
+    public long spanMillis() {
+        return SPAN * tickMillis;
+    }
+
+    private void cascade() {
+        if ((currentTick & (SPAN - 1)) == 0) {
+            redistribute(overflow);
+        }
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            long boundary = (1L << (WHEEL_BITS * level)) - 1;
+            if ((currentTick & boundary) == 0) {
+                int index = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+                redistribute(wheels[level][index]);
+            }
+        }
+    }
+
+    // Emptied before placing: a deadline still beyond the span goes back into the overflow list it came from
+    private void redistribute(Slot<T> slot) {
+        List<Timeout<T>> timeouts = new ArrayList<>();
+        Timeout<T> timeout;
+        while ((timeout = slot.poll()) != null) {
+            timeouts.add(timeout);
+        }
+        timeouts.forEach(this::place);
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (WHEEL_BITS * (level + 1)))) {
+                int index = (int) ((timeout.deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+                wheels[level][index].add(timeout);
+                return;
+            }
+        }
+        overflow.add(timeout);
+    }
+
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Slot<T> slot;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    private static final class Slot<T> {
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.slot = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        Timeout<T> poll() {
+            Timeout<T> timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.todoapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todoapp.config.NextUpProperties;
+import com.todoapp.dto.NextUpResponse;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.model.Priority;
+import com.todoapp.model.User;
+import com.todoapp.repository.TodoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serves {@code GET /api/todos/next} from per-user {@link UrgencyRanking}s. A ranking is built on
+ * the user's first request and then kept current from {@link TodoChangedEvent}s; users who stop
+ * asking are evicted. Only the todos being returned are read from the database.
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(NextUpProperties.class)
+public class NextUpService {
+
+    private final TodoRepository todoRepository;
+    private final TodoMapper todoMapper;
+    private final TodoWriteBuffer writeBuffer;
+    private final UrgencyScorer scorer;
+    private final int defaultK;
+    private final int maxK;
+    private final Cache<Long, UserRanking> rankings;
+
+    public NextUpService(
+            TodoRepository todoRepository,
+            TodoMapper todoMapper,
+            TodoWriteBuffer writeBuffer,
+            NextUpProperties properties) {
+        this.todoRepository = todoRepository;
+        this.todoMapper = todoMapper;
+        this.writeBuffer = writeBuffer;
+        this.scorer = new UrgencyScorer(properties);
+        this.defaultK = properties.getDefaultK();
+        this.maxK = properties.getMaxK();
+        this.rankings = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterAccess(Duration.ofMinutes(properties.getExpireAfterAccessMinutes()))
+                .build();
+    }
+
+    // Same build protocol as the filter index: monitor for in-memory work, buildLock for the reads
+    private static final class UserRanking {
+        private final ReentrantLock buildLock = new ReentrantLock();
+        private UrgencyRanking ranking;
+        private List<TodoChangedEvent> backlog;
+        private boolean stale;
+    }
+
+    /**
+     * The user's k most urgent open todos, most urgent first; k defaults to todo.next-up.default-k
+     * and is capped at todo.next-up.max-k.
+     */
+    @Transactional(readOnly = true)
+    public List<NextUpResponse> next(User user, Integer k) {
+        int limit = Math.min(Math.max(k != null ? k : defaultK, 1), maxK);
+        // Buffered toggles and moves reach the ranking through the events of their flush
+        writeBuffer.flush(user.getId());
+
+        UserRanking holder = rankings.get(user.getId(), id -> new UserRanking());
+        holder.buildLock.lock();
+        try {
+            build(user, holder);
+        } finally {
+            holder.buildLock.unlock();
+        }
+        List<UrgencyRanking.Ranked> top;
+        synchronized (holder) {
+            top = holder.ranking.top(limit, UrgencyRanking.now());
+        }
+
+        List<Long> ids = top.stream().map(UrgencyRanking.Ranked::id).toList();
+        Map<Long, TodoResponse> byId = todoMapper.toResponses(todoRepository.findAllById(ids)).stream()
+                .collect(Collectors.toMap(TodoResponse::id, Function.identity()));
+        // A todo deleted since the ranking was read is simply left out
+        List<NextUpResponse> result = new ArrayList<>(top.size());
+        for (UrgencyRanking.Ranked ranked : top) {
+            TodoResponse todo = byId.get(ranked.id());
+            if (todo != null) {
+                result.add(new NextUpResponse(Math.round(ranked.urgency() * 100) / 100.0, todo));
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        UserRanking holder = rankings.getIfPresent(event.userId());
+        if (holder == null) {
+            return;
+        }
+        synchronized (holder) {
+            if (holder.backlog != null) {
+                holder.backlog.add(event);
+            } else if (holder.ranking != null) {
+                apply(holder.ranking, event);
+            }
+        }
+    }
+
+    // The account is gone; its ranking would otherwise stay until it expires
+    public void evict(Long userId) {
+        rankings.invalidate(userId);
+    }
+
+    // Called under the build lock; (re)builds when there is no ranking or it was marked stale
+    private void build(User user, UserRanking holder) {
+        while (true) {
+            synchronized (holder) {
+                if (holder.ranking != null && !holder.stale) {
+                    return;
+                }
+                holder.stale = false;
+                holder.backlog = new ArrayList<>();
+            }
+            long started = System.nanoTime();
+            List<Object[]> rows;
+            try {
+                rows = todoRepository.findUrgencyRows(user);
+            } catch (RuntimeException e) {
+                synchronized (holder) {
+                    holder.backlog = null;
+                    holder.stale = true;
+                }
+                throw e;
+            }
+
+            UrgencyRanking ranking = new UrgencyRanking(scorer);
+            for (Object[] row : rows) {
+                ranking.upsert(UrgencyRanking.Entry.of((Long) row[0], (Long) row[1], (Boolean) row[2],
+                        (Priority) row[3], (LocalDate) row[4], (LocalTime) row[5], row[6] != null));
+            }
+            synchronized (holder) {
+                holder.ranking = ranking;
+                // Changes that landed during the read may already be in the rows; applying them again is harmless
+                holder.backlog.forEach(event -> apply(ranking, event));
+                holder.backlog = null;
+            }
+            log.debug("Ranked {} of {} todos of user {} in {} ms", ranking.ranked(), ranking.size(), user.getId(),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private static void apply(UrgencyRanking ranking, TodoChangedEvent event) {
+        TodoSnapshot after = event.after();
+        if (after == null) {
+            ranking.remove(event.todoId());
+        } else {
+            ranking.upsert(UrgencyRanking.Entry.of(after.id(), after.parentId(), after.completed(),
+                    after.priority(), after.dueDate(), after.dueTime(), after.recurring()));
+        }
+    }
+}
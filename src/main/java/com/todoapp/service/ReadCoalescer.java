@@ -0,0 +1,137 @@
+package com.todoapp.service;
+
+import com.todoapp.event.TagChangedEvent;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodosReorderedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for TodoService and TagService reads: a call identical to one already running
+ * for the same user (same read, same arguments) waits for that call and gets its result instead
+ * of querying again. Only calls that overlap share; nothing is kept once the first call returns.
+ * Any write for the user ends the sharing, so a read started after a commit never gets a result
+ * computed before it.
+ */
+@Component
+public class ReadCoalescer {
+
+    private record Key(Long userId, String read, List<?> arguments) {
+    }
+
+    private final boolean enabled;
+    private final TransactionTemplate transaction;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter shared;
+
+    public ReadCoalescer(
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${todo.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.transaction = new TransactionTemplate(transactionManager);
+
+        // executed: ran its own query; shared: got the result of an identical call in flight
+        this.executed = Counter.builder("todo.coalescing.reads").tag("result", "executed").register(meterRegistry);
+        this.shared = Counter.builder("todo.coalescing.reads").tag("result", "shared").register(meterRegistry);
+        Gauge.builder("todo.coalescing.in-flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Runs the read in its own transaction, or joins an identical one in flight. Callers wait
+     * outside any transaction, so a burst of duplicates holds one connection, not one each.
+     * Inside a caller's transaction the read runs as is: it may see that transaction's writes.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(Long userId, String read, List<?> arguments, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        if (!enabled) {
+            return transaction.execute(status -> loader.get());
+        }
+        Key key = new Key(userId, read, arguments);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            shared.increment();
+            return (T) await(running);
+        }
+        executed.increment();
+        try {
+            T result = transaction.execute(status -> loader.get());
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Only our own entry: a write may already have replaced it
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    // Reads already running finish for their callers; later calls start a fresh query
+    public void invalidate(Long userId) {
+        inFlight.keySet().removeIf(key -> key.userId().equals(userId));
+    }
+
+    // For writes that publish no event: ends the sharing once the write is visible
+    public void invalidateAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(userId);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosReordered(TodosReorderedEvent event) {
+        invalidate(event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        invalidate(event.userId());
+    }
+}
@@ -0,0 +1,145 @@
+package com.todoapp.service;
+
+import com.todoapp.model.Todo;
+import com.todoapp.model.TodoOccurrence;
+import com.todoapp.model.User;
+import com.todoapp.repository.TodoOccurrenceRepository;
+import com.todoapp.repository.TodoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Expands recurring todos into occurrences for a requested date window. Only the series row
+ * and touched occurrences ({@link TodoOccurrence}) are stored; the work done per call is
+ * proportional to the number of occurrences inside the window.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class RecurrenceService {
+
+    private final TodoRepository todoRepository;
+    private final TodoOccurrenceRepository occurrenceRepository;
+
+    @Transactional(readOnly = true)
+    public List<Todo> expand(User user, LocalDate startDate, LocalDate endDate) {
+        List<Todo> series = todoRepository.findRecurringInRange(user, startDate, endDate);
+        if (series.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Map<LocalDate, TodoOccurrence>> overrides = loadOverrides(series, startDate, endDate);
+
+        List<Todo> occurrences = new ArrayList<>();
+        for (Todo todo : series) {
+            Map<LocalDate, TodoOccurrence> own = overrides.getOrDefault(todo.getId(), Map.of());
+            forEachOccurrence(todo, startDate, endDate, date -> {
+                TodoOccurrence override = own.get(date);
+                if (override == null || !override.isCancelled()) {
+                    occurrences.add(toOccurrence(todo, date, override));
+                }
+            });
+        }
+        return occurrences;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<LocalDate, Long> countByDate(User user, LocalDate startDate, LocalDate endDate) {
+        List<Todo> series = todoRepository.findRecurringInRange(user, startDate, endDate);
+        if (series.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Map<LocalDate, TodoOccurrence>> overrides = loadOverrides(series, startDate, endDate);
+
+        Map<LocalDate, Long> counts = new HashMap<>();
+        for (Todo todo : series) {
+            Map<LocalDate, TodoOccurrence> own = overrides.getOrDefault(todo.getId(), Map.of());
+            forEachOccurrence(todo, startDate, endDate, date -> {
+                TodoOccurrence override = own.get(date);
+                if (override == null || !override.isCancelled()) {
+                    counts.merge(date, 1L, Long::sum);
+                }
+            });
+        }
+        return counts;
+    }
+
+    public Optional<Todo> toggleOccurrence(Long id, LocalDate date, User user) {
+        return findOccurrenceState(id, date, user)
+                .map(override -> {
+                    override.setCompleted(!override.isCompleted());
+                    occurrenceRepository.save(override);
+                    return toOccurrence(override.getTodo(), date, override);
+                });
+    }
+
+    public Optional<Todo> updateOccurrence(Long id, LocalDate date, TodoOccurrence details, User user) {
+        return findOccurrenceState(id, date, user)
+                .map(override -> {
+                    override.setCompleted(details.isCompleted());
+                    override.setCancelled(details.isCancelled());
+                    override.setTitle(details.getTitle());
+                    override.setDueTime(details.getDueTime());
+                    occurrenceRepository.save(override);
+                    return toOccurrence(override.getTodo(), date, override);
+                });
+    }
+
+    // Existing override row for the occurrence, or a fresh one if the date belongs to the series
+    private Optional<TodoOccurrence> findOccurrenceState(Long id, LocalDate date, User user) {
+        return todoRepository.findByIdAndUser(id, user)
+                .filter(todo -> isOccurrence(todo, date))
+                .map(todo -> occurrenceRepository.findByTodoAndOccurrenceDate(todo, date)
+                        .orElseGet(() -> {
+                            TodoOccurrence created = new TodoOccurrence();
+                            created.setTodo(todo);
+                            created.setOccurrenceDate(date);
+                            return created;
+                        }));
+    }
+
+    private boolean isOccurrence(Todo todo, LocalDate date) {
+        return todo.isRecurring() && todo.getDueDate() != null
+                && date.equals(todo.getRecurrence().firstOnOrAfter(todo.getDueDate(), date));
+    }
+
+    private void forEachOccurrence(Todo todo, LocalDate startDate, LocalDate endDate, Consumer<LocalDate> action) {
+        LocalDate anchor = todo.getDueDate();
+        LocalDate date = todo.getRecurrence().firstOnOrAfter(anchor, startDate);
+        while (date != null && !date.isAfter(endDate)) {
+            action.accept(date);
+            date = todo.getRecurrence().next(anchor, date);
+        }
+    }
+
+    private Map<Long, Map<LocalDate, TodoOccurrence>> loadOverrides(List<Todo> series, LocalDate startDate, LocalDate endDate) {
+        return occurrenceRepository.findByTodoInAndOccurrenceDateBetween(series, startDate, endDate).stream()
+                .collect(Collectors.groupingBy(
+                        occurrence -> occurrence.getTodo().getId(),
+                        Collectors.toMap(TodoOccurrence::getOccurrenceDate, occurrence -> occurrence)));
+    }
+
+    private Todo toOccurrence(Todo series, LocalDate date, TodoOccurrence override) {
+        Todo occurrence = new Todo();
+        occurrence.setId(series.getId());
+        occurrence.setUser(series.getUser());
+        occurrence.setTitle(override != null && override.getTitle() != null ? override.getTitle() : series.getTitle());
+        occurrence.setDescription(series.getDescription());
+        occurrence.setCompleted(override != null && override.isCompleted());
+        occurrence.setDueDate(date);
+        occurrence.setDueTime(override != null && override.getDueTime() != null ? override.getDueTime() : series.getDueTime());
+        occurrence.setPriority(series.getPriority());
+        occurrence.setDisplayOrder(series.getDisplayOrder());
+        occurrence.setRecurrence(series.getRecurrence());
+        occurrence.setTags(new HashSet<>(series.getTags()));
+        occurrence.setCreatedAt(series.getCreatedAt());
+        occurrence.setUpdatedAt(series.getUpdatedAt());
+        occurrence.setOccurrenceDate(date);
+        return occurrence;
+    }
+}
@@ -0,0 +1,312 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.ReminderEvent;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.repository.TodoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fires reminder and overdue events for todos with a due date from an in-process timing wheel.
+ * The wheel holds the next few days only (todo.reminders.horizon-days, at most the wheel span):
+ * it is loaded at startup, kept current from {@link TodoChangedEvent}s, and extended by one
+ * query per day as the window moves. A recurring series has its next occurrence in the wheel;
+ * the one after it is scheduled when the occurrence's last event fires.
+ */
+@Slf4j
+@Service
+public class ReminderService {
+
+    private final TodoRepository todoRepository;
+    private final ShardService shardService;
+    private final HierarchicalTimingWheel<Firing> wheel;
+    private final Map<Long, List<HierarchicalTimingWheel.Timeout<Firing>>> timeoutsByTodo = new HashMap<>();
+    private final Map<Long, List<SseEmitter>> emittersByUser = new ConcurrentHashMap<>();
+    private final Duration leadTime;
+    private final LocalTime allDayReminderTime;
+    private final long emitterTimeoutMillis;
+    private final int horizonDays;
+    private final Clock clock;
+    // Last due date the wheel was loaded for; later todos come in with the daily extension
+    private LocalDate loadedThrough;
+    // Changes that landed while a window was being read, replayed over its rows
+    private List<TodoChangedEvent> backlog;
+
+    @Autowired
+    public ReminderService(
+            TodoRepository todoRepository,
+            ShardService shardService,
+            @Value("${todo.reminders.tick-millis:1000}") long tickMillis,
+            @Value("${todo.reminders.lead-minutes:15}") long leadMinutes,
+            @Value("${todo.reminders.all-day-time:09:00}") String allDayReminderTime,
+            @Value("${todo.reminders.stream-timeout-millis:1800000}") long emitterTimeoutMillis,
+            @Value("${todo.reminders.horizon-days:2}") int horizonDays) {
+        this(todoRepository, shardService, tickMillis, leadMinutes, allDayReminderTime, emitterTimeoutMillis, horizonDays,
+                Clock.systemDefaultZone());
+    }
+
+    // Tests move the clock instead of waiting for it
+    ReminderService(TodoRepository todoRepository, ShardService shardService, long tickMillis, long leadMinutes,
+                    String allDayReminderTime, long emitterTimeoutMillis, int horizonDays, Clock clock) {
+        this.todoRepository = todoRepository;
+        this.shardService = shardService;
+        this.clock = clock;
+        this.loadedThrough = LocalDate.now(clock).minusDays(1);
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, clock.millis());
+        this.leadTime = Duration.ofMinutes(leadMinutes);
+        this.allDayReminderTime = LocalTime.parse(allDayReminderTime);
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        // A window past the wheel span would park its deadlines in the overflow list
+        long spanDays = Duration.ofMillis(wheel.spanMillis()).toDays();
+        this.horizonDays = (int) Math.max(1, Math.min(horizonDays, spanDays - 1));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUpcoming() {
+        extendWindow();
+    }
+
+    /**
+     * Loads the todos due in the days that entered the window since the last run, on every
+     * shard. Changes committed during the read are replayed over its rows, as NextUpService
+     * does for its rankings.
+     */
+    @Scheduled(fixedDelayString = "${todo.reminders.window-check-millis:600000}",
+            initialDelayString = "${todo.reminders.window-check-millis:600000}")
+    public void extendWindow() {
+        LocalDate from;
+        LocalDate through = LocalDate.now(clock).plusDays(horizonDays);
+        synchronized (wheel) {
+            if (!through.isAfter(loadedThrough) || backlog != null) {
+                return;
+            }
+            from = loadedThrough.plusDays(1);
+            backlog = new ArrayList<>();
+        }
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> series = new ArrayList<>();
+        try {
+            for (String shard : shardService.dataShards()) {
+                shardService.inShard(shard, () -> {
+                    rows.addAll(todoRepository.findUpcomingReminders(from, through));
+                    series.addAll(todoRepository.findRecurringReminders(from, through));
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            synchronized (wheel) {
+                backlog = null;
+            }
+            throw e;
+        }
+        synchronized (wheel) {
+            loadedThrough = through;
+            for (Object[] row : rows) {
+                schedule(toTask(row));
+            }
+            for (Object[] row : series) {
+                // A series whose next occurrence is in the wheel already continues from there
+                if (!timeoutsByTodo.containsKey((Long) row[0])) {
+                    scheduleSeries(toTask(row), from);
+                }
+            }
+            backlog.forEach(this::apply);
+            backlog = null;
+        }
+        log.info("Loaded {} reminders and {} recurring series due from {} through {}", rows.size(), series.size(), from, through);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        synchronized (wheel) {
+            apply(event);
+            if (backlog != null) {
+                backlog.add(event);
+            }
+        }
+    }
+
+    // Called holding the wheel lock
+    private void apply(TodoChangedEvent event) {
+        TodoSnapshot after = event.after();
+        cancel(event.todoId());
+        if (after == null || after.completed() || after.dueDate() == null) {
+            return;
+        }
+        ReminderTask task = new ReminderTask(after.id(), after.userId(), after.title(), after.dueDate(), after.dueTime(),
+                after.recurrence(), after.dueDate());
+        if (task.recurrence() != null) {
+            scheduleSeries(task, LocalDate.now(clock));
+        } else if (!task.dueDate().isAfter(loadedThrough)) {
+            schedule(task);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${todo.reminders.tick-millis:1000}")
+    public void tick() {
+        for (Fired event : advance()) {
+            send(event.userId(), event.event());
+        }
+    }
+
+    // Moves the wheel to now and returns what fired, sent outside the lock
+    List<Fired> advance() {
+        List<Fired> fired = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advanceTo(clock.millis(), firing -> {
+                fired.add(firing.fired());
+                List<HierarchicalTimingWheel.Timeout<Firing>> timeouts = timeoutsByTodo.get(firing.task().todoId());
+                if (timeouts != null) {
+                    timeouts.removeIf(timeout -> timeout.getPayload() == firing);
+                    if (timeouts.isEmpty()) {
+                        timeoutsByTodo.remove(firing.task().todoId());
+                        // The occurrence's last event: its series moves on to the next one
+                        ReminderTask task = firing.task();
+                        if (task.recurrence() != null) {
+                            scheduleSeries(task, task.dueDate().plusDays(1));
+                        }
+                    }
+                }
+            });
+        }
+        return fired;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        emittersByUser.compute(userId, (id, emitters) -> {
+            List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+        Runnable remove = () -> unsubscribe(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    // The user's entry goes with their last stream
+    private void unsubscribe(Long userId, SseEmitter emitter) {
+        emittersByUser.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    public int pendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Schedules the series' first occurrence on or after {@code from} whose events are still
+     * ahead, if it falls inside the window. Called holding the wheel lock.
+     */
+    private void scheduleSeries(ReminderTask series, LocalDate from) {
+        RecurrenceRule rule = series.recurrence();
+        LocalDate date = rule.firstOnOrAfter(series.anchor(), from);
+        while (date != null && !date.isAfter(loadedThrough)) {
+            if (schedule(series.on(date))) {
+                return;
+            }
+            date = rule.next(series.anchor(), date);
+        }
+    }
+
+    // False when both events are already past; called holding the wheel lock
+    private boolean schedule(ReminderTask task) {
+        LocalDateTime dueAt = task.dueTime() != null
+                ? task.dueDate().atTime(task.dueTime())
+                : task.dueDate().plusDays(1).atStartOfDay();
+        LocalDateTime remindAt = task.dueTime() != null
+                ? dueAt.minus(leadTime)
+                : task.dueDate().atTime(allDayReminderTime);
+
+        long now = clock.millis();
+        List<HierarchicalTimingWheel.Timeout<Firing>> timeouts = new ArrayList<>(2);
+        long remindMillis = toMillis(remindAt);
+        if (remindMillis > now) {
+            timeouts.add(wheel.schedule(task.firing(ReminderEvent.Type.REMINDER), remindMillis));
+        }
+        long dueMillis = toMillis(dueAt);
+        if (dueMillis > now) {
+            timeouts.add(wheel.schedule(task.firing(ReminderEvent.Type.OVERDUE), dueMillis));
+        }
+        if (timeouts.isEmpty()) {
+            return false;
+        }
+        timeoutsByTodo.put(task.todoId(), timeouts);
+        return true;
+    }
+
+    private void cancel(Long todoId) {
+        List<HierarchicalTimingWheel.Timeout<Firing>> timeouts = timeoutsByTodo.remove(todoId);
+        if (timeouts != null) {
+            timeouts.forEach(wheel::cancel);
+        }
+    }
+
+    private void send(Long userId, ReminderEvent event) {
+        List<SseEmitter> emitters = emittersByUser.get(userId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(event.type().name().toLowerCase()).data(event));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(userId, emitter);
+            }
+        }
+    }
+
+    // Rows of findUpcomingReminders, or of findRecurringReminders with the rule as a sixth column
+    private static ReminderTask toTask(Object[] row) {
+        RecurrenceRule recurrence = row.length > 5 ? (RecurrenceRule) row[5] : null;
+        return new ReminderTask((Long) row[0], (Long) row[1], (String) row[2], (LocalDate) row[3], (LocalTime) row[4],
+                recurrence, (LocalDate) row[3]);
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    // Wheel payloads carry the task plus which of its two events fires; a series task is one occurrence
+    record ReminderTask(Long todoId, Long userId, String title, LocalDate dueDate, LocalTime dueTime,
+                        RecurrenceRule recurrence, LocalDate anchor) {
+        Firing firing(ReminderEvent.Type type) {
+            return new Firing(this, type);
+        }
+
+        ReminderTask on(LocalDate date) {
+            return new ReminderTask(todoId, userId, title, date, dueTime, recurrence, anchor);
+        }
+    }
+
+    record Firing(ReminderTask task, ReminderEvent.Type type) {
+        Fired fired() {
+            return new Fired(task.userId(), new ReminderEvent(type, task.todoId(), task.title(), task.dueDate(), task.dueTime()));
+        }
+    }
+
+    record Fired(Long userId, ReminderEvent event) {
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.todoapp.service;
+
+import com.todoapp.config.ShardContext;
+import com.todoapp.model.User;
+import com.todoapp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves one user's data between shards: copy into the target in a single transaction,
+ * repoint the directory, then delete from the source. Row ids are kept, which relies on
+ * shards generating ids from disjoint ranges ({@code id-start}). Writes made by the user
+ * between the copy and the directory switch are not carried over, so move idle users.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShardMigrationService {
+
+    private static final int BATCH_SIZE = 500;
+
+    // Every per-user table, parents before children. Keep in sync with the entity model.
+    private static final List<String[]> COPY_QUERIES = List.of(
+            new String[]{"tags", "SELECT * FROM tags WHERE user_id = ?"},
+            new String[]{"todos", "SELECT * FROM todos WHERE user_id = ?"},
+            new String[]{"todo_tags", "SELECT tt.* FROM todo_tags tt JOIN todos t ON t.id = tt.todo_id WHERE t.user_id = ?"},
+            new String[]{"todo_occurrences", "SELECT o.* FROM todo_occurrences o JOIN todos t ON t.id = o.todo_id WHERE t.user_id = ?"},
+            new String[]{"archived_todos", "SELECT * FROM archived_todos WHERE user_id = ?"},
+            new String[]{"archived_todo_tags", "SELECT att.* FROM archived_todo_tags att JOIN archived_todos a ON a.id = att.todo_id WHERE a.user_id = ?"},
+            new String[]{"completion_heatmaps", "SELECT * FROM completion_heatmaps WHERE user_id = ?"});
+
+    private static final List<String> DELETE_STATEMENTS = List.of(
+            "DELETE FROM completion_heatmaps WHERE user_id = ?",
+            "DELETE FROM archived_todo_tags WHERE todo_id IN (SELECT id FROM archived_todos WHERE user_id = ?)",
+            "DELETE FROM archived_todos WHERE user_id = ?",
+            "DELETE FROM todo_occurrences WHERE todo_id IN (SELECT id FROM todos WHERE user_id = ?)",
+            "DELETE FROM todo_tags WHERE todo_id IN (SELECT id FROM todos WHERE user_id = ?)",
+            "UPDATE todos SET parent_id = NULL WHERE user_id = ? AND parent_id IS NOT NULL",
+            "DELETE FROM todos WHERE user_id = ?",
+            "DELETE FROM tags WHERE user_id = ?");
+
+    private final ShardService shardService;
+    private final UserRepository userRepository;
+
+    /**
+     * @return number of rows copied
+     */
+    public long moveUser(String username, String targetShard) {
+        shardService.requireShard(targetShard);
+        User user = shardService.inDirectory(() -> userRepository.findByUsername(username))
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        String sourceShard = shardService.shardOf(user);
+        if (sourceShard.equals(targetShard)) {
+            throw new RuntimeException("User " + username + " is already on shard " + targetShard);
+        }
+
+        long copied;
+        try (Connection source = shardService.openConnection(sourceShard);
+             Connection target = shardService.openConnection(targetShard)) {
+            source.setAutoCommit(false);
+            target.setAutoCommit(false);
+            try {
+                if (!ShardContext.DIRECTORY.equals(targetShard)) {
+                    shardService.insertUserReference(target, user);
+                }
+                copied = copyUserData(source, target, user.getId());
+                target.commit();
+            } catch (SQLException | RuntimeException e) {
+                target.rollback();
+                throw e;
+            } finally {
+                source.rollback();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Copying " + username + " to shard " + targetShard + " failed: " + e.getMessage(), e);
+        }
+
+        // From here on new requests of the user are routed to the target
+        shardService.inDirectory(() -> {
+            userRepository.findById(user.getId()).ifPresent(directoryUser ->
+                    directoryUser.setShard(ShardContext.DIRECTORY.equals(targetShard) ? null : targetShard));
+            return null;
+        });
+
+        try (Connection source = shardService.openConnection(sourceShard)) {
+            source.setAutoCommit(false);
+            deleteUserData(source, user.getId(), !ShardContext.DIRECTORY.equals(sourceShard));
+            source.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("User " + username + " moved to shard " + targetShard
+                    + " but cleaning up shard " + sourceShard + " failed: " + e.getMessage(), e);
+        }
+        log.info("Moved user {} from shard {} to {} ({} rows)", username, sourceShard, targetShard, copied);
+        return copied;
+    }
+
+    private long copyUserData(Connection source, Connection target, Long userId) throws SQLException {
+        long copied = 0;
+        for (String[] query : COPY_QUERIES) {
+            copied += copyRows(source, target, query[0], query[1], userId);
+        }
+        // Subtask links go in last, so insert order never has to follow the tree
+        List<long[]> parentLinks = new ArrayList<>();
+        try (PreparedStatement select = source.prepareStatement(
+                "SELECT id, parent_id FROM todos WHERE user_id = ? AND parent_id IS NOT NULL")) {
+            select.setLong(1, userId);
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    parentLinks.add(new long[]{rows.getLong(1), rows.getLong(2)});
+                }
+            }
+        }
+        try (PreparedStatement update = target.prepareStatement("UPDATE todos SET parent_id = ? WHERE id = ?")) {
+            for (long[] link : parentLinks) {
+                update.setLong(1, link[1]);
+                update.setLong(2, link[0]);
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+        return copied;
+    }
+
+    private long copyRows(Connection source, Connection target, String table, String query, Long userId) throws SQLException {
+        long copied = 0;
+        try (PreparedStatement select = source.prepareStatement(query)) {
+            select.setFetchSize(BATCH_SIZE);
+            select.setLong(1, userId);
+            try (ResultSet rows = select.executeQuery()) {
+                ResultSetMetaData meta = rows.getMetaData();
+                int columnCount = meta.getColumnCount();
+                List<String> columns = new ArrayList<>();
+                for (int i = 1; i <= columnCount; i++) {
+                    columns.add(meta.getColumnName(i).toLowerCase());
+                }
+                int parentColumn = "todos".equals(table) ? columns.indexOf("parent_id") + 1 : 0;
+
+                String insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                        + String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
+                try (PreparedStatement statement = target.prepareStatement(insert)) {
+                    while (rows.next()) {
+                        for (int i = 1; i <= columnCount; i++) {
+                            Object value = i == parentColumn ? null : rows.getObject(i);
+                            if (value == null) {
+                                statement.setNull(i, meta.getColumnType(i));
+                            } else {
+                                statement.setObject(i, value);
+                            }
+                        }
+                        statement.addBatch();
+                        if (++copied % BATCH_SIZE == 0) {
+                            statement.executeBatch();
+                        }
+                    }
+                    statement.executeBatch();
+                }
+            }
+        }
+        return copied;
+    }
+
+    private void deleteUserData(Connection connection, Long userId, boolean dropUserReference) throws SQLException {
+        List<String> statements = new ArrayList<>(DELETE_STATEMENTS);
+        if (dropUserReference) {
+            statements.add("DELETE FROM users WHERE id = ?");
+        }
+        for (String sql : statements) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, userId);
+                statement.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.todoapp.service;
+
+import com.todoapp.config.ShardContext;
+import com.todoapp.config.ShardingProperties;
+import com.todoapp.model.User;
+import com.todoapp.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Shard placement and routing helpers. Users, credentials and the shard map live in the
+ * directory database; everything a user owns lives on their shard, next to a reference
+ * copy of their users row that keeps the foreign keys there intact.
+ */
+@Slf4j
+@Service
+public class ShardService {
+
+    private final ShardingProperties properties;
+    private final UserRepository userRepository;
+    private final DataSource dataSource;
+    private final TransactionTemplate newTransaction;
+
+    public ShardService(ShardingProperties properties, UserRepository userRepository,
+                        DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.userRepository = userRepository;
+        this.dataSource = dataSource;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Every database that may hold user data, the directory included
+    public List<String> dataShards() {
+        List<String> shards = new ArrayList<>();
+        shards.add(ShardContext.DIRECTORY);
+        if (isEnabled()) {
+            shards.addAll(properties.getShards().keySet());
+        }
+        return shards;
+    }
+
+    public void requireShard(String shard) {
+        if (!dataShards().contains(shard)) {
+            throw new RuntimeException("Unknown shard: " + shard);
+        }
+    }
+
+    public String shardOf(User user) {
+        return user.getShard() != null ? user.getShard() : ShardContext.DIRECTORY;
+    }
+
+    public String shardOf(String username) {
+        return inDirectory(() -> userRepository.findShardByUsername(username))
+                .orElse(ShardContext.DIRECTORY);
+    }
+
+    // Runs in its own transaction on the directory, whatever shard the caller is bound to
+    public <T> T inDirectory(Supplier<T> work) {
+        return inShard(ShardContext.DIRECTORY, work);
+    }
+
+    public <T> T inShard(String shard, Supplier<T> work) {
+        String previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return newTransaction.execute(status -> work.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    // Binds each shard in turn without opening a transaction; for jobs that manage their own
+    public void forEachShard(Consumer<String> work) {
+        String previous = ShardContext.current();
+        try {
+            for (String shard : dataShards()) {
+                ShardContext.set(shard);
+                work.accept(shard);
+            }
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Picks the home shard of a newly registered user and sets it on the user; the caller
+     * stores it in the directory transaction that inserted the user. No transaction spans
+     * both databases: the reference row is committed on the shard at once and deleted again
+     * if that directory transaction does not commit.
+     */
+    public void place(User user) {
+        List<String> placement = !properties.getPlacement().isEmpty()
+                ? properties.getPlacement() : new ArrayList<>(properties.getShards().keySet());
+        if (!isEnabled() || placement.isEmpty()) {
+            return;
+        }
+        String shard = placement.get((int) Math.floorMod(user.getId(), (long) placement.size()));
+        boolean inserted;
+        try (Connection connection = openConnection(shard)) {
+            inserted = insertUserReference(connection, user);
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not place user on shard " + shard + ": " + e.getMessage(), e);
+        }
+        user.setShard(shard);
+        if (inserted && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        deleteUserReference(shard, user.getId());
+                    }
+                }
+            });
+        }
+    }
+
+    // Compensation for place(); an orphan left by a failure here only holds an id the directory never hands out again
+    private void deleteUserReference(String shard, Long userId) {
+        try (Connection connection = openConnection(shard);
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            delete.setLong(1, userId);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            log.warn("Could not remove the reference row of user {} from shard {}", userId, shard, e);
+        }
+    }
+
+    /**
+     * A raw connection to the given shard, outside of any Spring-managed transaction.
+     * The caller owns it and must close it.
+     */
+    Connection openConnection(String shard) throws SQLException {
+        String previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return dataSource.getConnection();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    // The shard's copy only carries what its constraints need; credentials stay in the directory. False if it was there
+    boolean insertUserReference(Connection connection, User user) throws SQLException {
+        try (PreparedStatement exists = connection.prepareStatement("SELECT 1 FROM users WHERE id = ?")) {
+            exists.setLong(1, user.getId());
+            if (exists.executeQuery().next()) {
+                return false;
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (id, username, email, password, created_at) VALUES (?, ?, ?, '', ?)")) {
+            insert.setLong(1, user.getId());
+            insert.setString(2, user.getUsername());
+            insert.setString(3, user.getEmail());
+            insert.setTimestamp(4, Timestamp.valueOf(user.getCreatedAt()));
+            insert.executeUpdate();
+        }
+        return true;
+    }
+}
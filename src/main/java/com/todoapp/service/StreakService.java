@@ -0,0 +1,98 @@
+package com.todoapp.service;
+
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.model.User;
+import com.todoapp.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Completion streaks on the users row: a day counts once the user completes a todo on it, in
+ * their own time zone. Each completion is one conditional update of that row; reopening a todo
+ * does not take the day back. An hourly pass ends the streaks of users whose last active day
+ * fell before their yesterday, visiting only users active in the last few days.
+ */
+@Slf4j
+@Service
+public class StreakService {
+
+    private final UserRepository userRepository;
+    private final ShardService shardService;
+    private final ZoneId defaultZone;
+    private final int rolloverLookbackDays;
+
+    public StreakService(
+            UserRepository userRepository,
+            ShardService shardService,
+            @Value("${todo.streaks.default-time-zone:}") String defaultZone,
+            @Value("${todo.streaks.rollover-lookback-days:3}") int rolloverLookbackDays) {
+        this.userRepository = userRepository;
+        this.shardService = shardService;
+        this.defaultZone = defaultZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(defaultZone);
+        this.rolloverLookbackDays = rolloverLookbackDays;
+    }
+
+    // After commit: a rolled-back completion earns nothing
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (event.completionChanged() && event.after().completed()) {
+            record(event.userId());
+        }
+    }
+
+    // Occurrence toggles publish no event
+    public void occurrenceCompleted(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(userId);
+            }
+        });
+    }
+
+    // The stored streak, or 0 when the user missed a day the rollover has not got to yet
+    public int currentStreak(User user) {
+        LocalDate yesterday = LocalDate.now(zoneOf(user)).minusDays(1);
+        if (user.getLastActiveDate() == null || user.getLastActiveDate().isBefore(yesterday)
+                || user.getCurrentStreak() == null) {
+            return 0;
+        }
+        return user.getCurrentStreak();
+    }
+
+    public ZoneId zoneOf(User user) {
+        return user.getTimeZone() != null ? ZoneId.of(user.getTimeZone()) : defaultZone;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.streaks.rollover-interval-millis:3600000}")
+    public void rollOver() {
+        // Streaks that just broke were last active two local days ago, up to a day off the server's date
+        LocalDate since = LocalDate.now(defaultZone).minusDays(rolloverLookbackDays);
+        int ended = shardService.inDirectory(() -> userRepository.endBrokenStreaks(since, defaultZone.getId()));
+        if (ended > 0) {
+            log.info("Ended the streaks of {} users", ended);
+        }
+    }
+
+    // Users live in the directory, whatever shard the todo write was bound to
+    private void record(Long userId) {
+        try {
+            shardService.inDirectory(() -> userRepository.recordActiveDay(userId, defaultZone.getId()));
+        } catch (RuntimeException e) {
+            // The todo write has committed; the next completion puts the day in
+            log.warn("Could not record the active day of user {}", userId, e);
+        }
+    }
+}
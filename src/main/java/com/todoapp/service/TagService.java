@@ -1,24 +1,40 @@
 package com.todoapp.service;
 
+import com.todoapp.dto.TagResponse;
+import com.todoapp.event.TagChangedEvent;
 import com.todoapp.model.Tag;
 import com.todoapp.model.User;
 import com.todoapp.repository.TagRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final ShardService shardService;
+    private final TodoQueryService todoQueryService;
+    private final TodoWorkingSet workingSet;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadCoalescer readCoalescer;
 
-    public List<Tag> getAllTagsForUser(User user) {
-        return tagRepository.findByUserOrderByNameAsc(user);
+    // Mapped inside the read so coalesced callers share responses, not entities
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TagResponse> getAllTagsForUser(User user) {
+        return readCoalescer.read(user.getId(), "tags", List.of(),
+                () -> tagRepository.findByUserOrderByNameAsc(user).stream().map(TagResponse::of).toList());
     }
 
     public Optional<Tag> getTagById(Long id, User user) {
@@ -27,25 +43,58 @@ public class TagService {
 
     public Tag createTag(Tag tag, User user) {
         tag.setUser(user);
-        return tagRepository.save(tag);
+        tag.setVersion(null);
+        Tag saved = tagRepository.save(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(user.getId(), saved.getId(), saved.getName(), TagChangedEvent.Change.CREATED));
+        return saved;
     }
 
     public Optional<Tag> updateTag(Long id, Tag tagDetails, User user) {
         return tagRepository.findByIdAndUser(id, user)
                 .map(existingTag -> {
+                    checkVersion(existingTag, tagDetails.getVersion());
                     existingTag.setName(tagDetails.getName());
                     existingTag.setColor(tagDetails.getColor());
+                    workingSet.tagsChanged(user.getId());
+                    eventPublisher.publishEvent(new TagChangedEvent(user.getId(), id, existingTag.getName(), TagChangedEvent.Change.UPDATED));
                     return tagRepository.save(existingTag);
                 });
     }
 
-    public boolean deleteTag(Long id, User user) {
-        return tagRepository.findByIdAndUser(id, user)
-                .map(tag -> {
-                    tagRepository.delete(tag);
-                    return true;
-                })
-                .orElse(false);
+    // One statement for the tag and all its todo links, instead of going through the many-to-many
+    public boolean deleteTag(Long id, Long version, User user) {
+        if (tagRepository.deleteWithLinks(id, user.getId(), version) > 0) {
+            todoQueryService.tagDeleted(user.getId(), id);
+            workingSet.tagsChanged(user.getId());
+            eventPublisher.publishEvent(new TagChangedEvent(user.getId(), id, null, TagChangedEvent.Change.DELETED));
+            return true;
+        }
+        if (version != null && tagRepository.existsByIdAndUser(id, user)) {
+            throw new ObjectOptimisticLockingFailureException(Tag.class, id);
+        }
+        return false;
+    }
+
+    // A null version means the client does not ask for a check
+    private void checkVersion(Tag tag, Long version) {
+        if (version != null && !version.equals(tag.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Tag.class, tag.getId());
+        }
+    }
+
+    /**
+     * Usage counters are kept by the todo write paths; this recount repairs whatever they
+     * missed (writes rolled back after a count, manual SQL). Runs per shard, once at startup too.
+     */
+    @Scheduled(fixedDelayString = "${todo.tags.reconcile-interval-millis:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconcileCounts() {
+        for (String shard : shardService.dataShards()) {
+            int fixed = shardService.inShard(shard, tagRepository::reconcileCounts);
+            if (fixed > 0) {
+                log.info("Reconciled usage counts of {} tags on {}", fixed, shard);
+            }
+        }
     }
 
     public boolean existsByName(String name, User user) {
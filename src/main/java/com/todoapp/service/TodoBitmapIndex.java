@@ -0,0 +1,273 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TodoQuery;
+import com.todoapp.model.Priority;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * One user's todos as compressed bitmaps, one per attribute value. Each todo gets a dense
+ * position in creation order; a filter is a handful of bitmap ANDs/ORs over those positions.
+ * Not thread-safe: {@link TodoQueryService} locks the index around every call.
+ */
+class TodoBitmapIndex {
+
+    private static final int NO_DUE_DAY = Integer.MAX_VALUE;
+    private static final int NO_PRIORITY = Integer.MAX_VALUE;
+    private static final int PRIORITY_RANKS = Priority.values().length;
+
+    // The indexed attributes of one todo; null tagIds keeps the tags already indexed
+    record Entry(long id, Long parentId, boolean completed, Priority priority, LocalDate dueDate, List<Long> tagIds) {
+    }
+
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private long[] ids = new long[64];
+    private int[] dueDays = new int[64];
+    private int[] priorities = new int[64];
+    private long[][] tagsAt = new long[64][];
+    private Long[] parentAt = new Long[64];
+    private int next;
+
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap topLevel = new RoaringBitmap();
+    private final RoaringBitmap completed = new RoaringBitmap();
+    private final RoaringBitmap withDueDate = new RoaringBitmap();
+    private final RoaringBitmap withSubtasks = new RoaringBitmap();
+    private final EnumMap<Priority, RoaringBitmap> byPriority = new EnumMap<>(Priority.class);
+    private final Map<Long, RoaringBitmap> byTag = new HashMap<>();
+    private final TreeMap<Integer, RoaringBitmap> byDueDay = new TreeMap<>();
+    // parent id -> live subtasks
+    private final Map<Long, Integer> subtaskCounts = new HashMap<>();
+
+    int size() {
+        return positions.size();
+    }
+
+    void upsert(Entry entry) {
+        Integer existing = positions.get(entry.id());
+        int position;
+        if (existing != null) {
+            position = existing;
+            unindexAttributes(position, entry.tagIds() != null);
+        } else {
+            position = allocate(entry.id());
+        }
+
+        live.add(position);
+        if (entry.parentId() == null) {
+            topLevel.add(position);
+        } else {
+            changeSubtaskCount(entry.parentId(), 1);
+        }
+        parentAt[position] = entry.parentId();
+        if (entry.completed()) {
+            completed.add(position);
+        }
+        // Ranked so that ascending is LOW first and descending HIGH first
+        priorities[position] = entry.priority() != null ? PRIORITY_RANKS - entry.priority().ordinal() : NO_PRIORITY;
+        if (entry.priority() != null) {
+            byPriority.computeIfAbsent(entry.priority(), p -> new RoaringBitmap()).add(position);
+        }
+        if (entry.dueDate() != null) {
+            int day = (int) entry.dueDate().toEpochDay();
+            dueDays[position] = day;
+            withDueDate.add(position);
+            byDueDay.computeIfAbsent(day, d -> new RoaringBitmap()).add(position);
+        } else {
+            dueDays[position] = NO_DUE_DAY;
+        }
+        if (entry.tagIds() != null) {
+            tagsAt[position] = entry.tagIds().stream().mapToLong(Long::longValue).toArray();
+        }
+        if (tagsAt[position] != null) {
+            for (long tagId : tagsAt[position]) {
+                byTag.computeIfAbsent(tagId, t -> new RoaringBitmap()).add(position);
+            }
+        }
+        if (subtaskCounts.getOrDefault(entry.id(), 0) > 0) {
+            withSubtasks.add(position);
+        }
+    }
+
+    void remove(long id) {
+        Integer position = positions.remove(id);
+        if (position == null) {
+            return;
+        }
+        unindexAttributes(position, true);
+        live.remove(position);
+        withSubtasks.remove(position);
+    }
+
+    void removeTag(long tagId) {
+        RoaringBitmap tagged = byTag.remove(tagId);
+        if (tagged == null) {
+            return;
+        }
+        for (int position : tagged) {
+            tagsAt[position] = Arrays.stream(tagsAt[position]).filter(id -> id != tagId).toArray();
+        }
+    }
+
+    RoaringBitmap evaluate(TodoQuery query) {
+        RoaringBitmap result = (query.includeSubtasks() ? live : topLevel).clone();
+        if (query.completed() != null) {
+            if (query.completed()) {
+                result.and(completed);
+            } else {
+                result.andNot(completed);
+            }
+        }
+        if (query.priorities() != null && !query.priorities().isEmpty()) {
+            result.and(FastAggregation.or(query.priorities().stream()
+                    .map(priority -> byPriority.getOrDefault(priority, new RoaringBitmap()))
+                    .iterator()));
+        }
+        if (query.tags() != null && !query.tags().isEmpty()) {
+            if (query.allTags()) {
+                for (Long tagId : query.tags()) {
+                    result.and(byTag.getOrDefault(tagId, new RoaringBitmap()));
+                }
+            } else {
+                result.and(FastAggregation.or(query.tags().stream()
+                        .map(tagId -> byTag.getOrDefault(tagId, new RoaringBitmap()))
+                        .iterator()));
+            }
+        }
+        if (query.excludedTags() != null) {
+            for (Long tagId : query.excludedTags()) {
+                RoaringBitmap tagged = byTag.get(tagId);
+                if (tagged != null) {
+                    result.andNot(tagged);
+                }
+            }
+        }
+        if (query.dueFrom() != null || query.dueTo() != null) {
+            int from = query.dueFrom() != null ? (int) query.dueFrom().toEpochDay() : Integer.MIN_VALUE;
+            int to = query.dueTo() != null ? (int) query.dueTo().toEpochDay() : NO_DUE_DAY - 1;
+            result.and(from > to ? new RoaringBitmap()
+                    : FastAggregation.or(byDueDay.subMap(from, true, to, true).values().iterator()));
+        }
+        if (query.hasDueDate() != null) {
+            if (query.hasDueDate()) {
+                result.and(withDueDate);
+            } else {
+                result.andNot(withDueDate);
+            }
+        }
+        if (query.hasSubtasks() != null) {
+            if (query.hasSubtasks()) {
+                result.and(withSubtasks);
+            } else {
+                result.andNot(withSubtasks);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Todo ids of one page of the matches, in the requested order. Ties, and CREATED itself,
+     * go by position, which is creation order.
+     */
+    List<Long> page(RoaringBitmap matches, TodoQuery.Sort sort, boolean descending, int offset, int limit) {
+        int total = matches.getCardinality();
+        if (offset >= total || limit <= 0) {
+            return List.of();
+        }
+        int end = (int) Math.min((long) offset + limit, total);
+        List<Long> page = new ArrayList<>(end - offset);
+        if (sort == TodoQuery.Sort.CREATED) {
+            IntIterator positions = descending ? matches.getReverseIntIterator() : matches.getIntIterator();
+            for (int i = 0; i < end && positions.hasNext(); i++) {
+                int position = positions.next();
+                if (i >= offset) {
+                    page.add(ids[position]);
+                }
+            }
+            return page;
+        }
+
+        // Sort key in the high half, position in the low half: one primitive sort, no boxing.
+        // Todos without the key stay last in both directions.
+        long[] keyed = new long[total];
+        int i = 0;
+        for (int position : matches) {
+            int key = sort == TodoQuery.Sort.DUE_DATE ? dueDays[position] : priorities[position];
+            if (descending && key != Integer.MAX_VALUE) {
+                key = -key;
+            }
+            keyed[i++] = ((long) key << 32) | (position & 0xffffffffL);
+        }
+        Arrays.sort(keyed);
+        for (int k = offset; k < end; k++) {
+            page.add(ids[(int) keyed[k]]);
+        }
+        return page;
+    }
+
+    private int allocate(long id) {
+        if (next == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            dueDays = Arrays.copyOf(dueDays, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            tagsAt = Arrays.copyOf(tagsAt, capacity);
+            parentAt = Arrays.copyOf(parentAt, capacity);
+        }
+        int position = next++;
+        ids[position] = id;
+        positions.put(id, position);
+        return position;
+    }
+
+    // Clears everything upsert sets, except the tags when the caller does not know them
+    private void unindexAttributes(int position, boolean tags) {
+        topLevel.remove(position);
+        if (parentAt[position] != null) {
+            changeSubtaskCount(parentAt[position], -1);
+            parentAt[position] = null;
+        }
+        completed.remove(position);
+        byPriority.values().forEach(bitmap -> bitmap.remove(position));
+        if (dueDays[position] != NO_DUE_DAY) {
+            RoaringBitmap day = byDueDay.get(dueDays[position]);
+            if (day != null) {
+                day.remove(position);
+                if (day.isEmpty()) {
+                    byDueDay.remove(dueDays[position]);
+                }
+            }
+        }
+        withDueDate.remove(position);
+        if (tagsAt[position] != null) {
+            for (long tagId : tagsAt[position]) {
+                RoaringBitmap tagged = byTag.get(tagId);
+                if (tagged != null) {
+                    tagged.remove(position);
+                }
+            }
+            if (tags) {
+                tagsAt[position] = null;
+            }
+        }
+    }
+
+    private void changeSubtaskCount(long parentId, int delta) {
+        int count = subtaskCounts.merge(parentId, delta, Integer::sum);
+        if (count <= 0) {
+            subtaskCounts.remove(parentId);
+        }
+        Integer parent = positions.get(parentId);
+        if (parent != null) {
+            if (count > 0) {
+                withSubtasks.add(parent);
+            } else {
+                withSubtasks.remove(parent);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TodoTransferRecord;
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceFrequency;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * RFC 4180 CSV codec for {@link TodoTransferRecord}. Tags are joined with '|' in a single column.
+ * The reader maps columns by header name, so files from other tools may order or omit columns.
+ */
+class TodoCsv {
+
+    static final List<String> COLUMNS = List.of(
+            "id", "parentId", "title", "description", "completed", "dueDate", "dueTime", "priority",
+            "displayOrder", "recurrenceFrequency", "recurrenceInterval", "recurrenceDayOfMonth",
+            "recurrenceUntil", "createdAt", "tags");
+
+    private static final String TAG_SEPARATOR = "|";
+
+    private TodoCsv() {
+    }
+
+    static void writeHeader(Writer writer) throws IOException {
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+    }
+
+    static void writeRecord(Writer writer, TodoTransferRecord record) throws IOException {
+        List<Object> values = Arrays.asList(
+                record.getId(), record.getParentId(), record.getTitle(), record.getDescription(),
+                record.isCompleted(), record.getDueDate(), record.getDueTime(), record.getPriority(),
+                record.getDisplayOrder(), record.getRecurrenceFrequency(), record.getRecurrenceInterval(),
+                record.getRecurrenceDayOfMonth(), record.getRecurrenceUntil(), record.getCreatedAt(),
+                record.getTags().isEmpty() ? null : String.join(TAG_SEPARATOR, record.getTags()));
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writeField(writer, value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Pull parser: reads one record at a time from the underlying reader.
+     */
+    static class Parser {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columnIndex = new HashMap<>();
+        private final StringBuilder field = new StringBuilder();
+        private long recordNumber;
+        private boolean eof;
+
+        Parser(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRow();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columnIndex.put(header.get(i).trim(), i);
+            }
+        }
+
+        long getRecordNumber() {
+            return recordNumber;
+        }
+
+        /**
+         * @return the next record, or null at end of input
+         * @throws IllegalArgumentException if a value in the row cannot be parsed
+         */
+        TodoTransferRecord next() throws IOException {
+            List<String> row;
+            do {
+                row = readRow();
+                if (row == null) {
+                    return null;
+                }
+            } while (row.size() == 1 && row.get(0).isEmpty());
+            recordNumber++;
+
+            TodoTransferRecord record = new TodoTransferRecord();
+            record.setId(get(row, "id", Long::valueOf));
+            record.setParentId(get(row, "parentId", Long::valueOf));
+            record.setTitle(get(row, "title", Function.identity()));
+            record.setDescription(get(row, "description", Function.identity()));
+            record.setCompleted(Boolean.TRUE.equals(get(row, "completed", Boolean::valueOf)));
+            record.setDueDate(get(row, "dueDate", LocalDate::parse));
+            record.setDueTime(get(row, "dueTime", LocalTime::parse));
+            record.setPriority(get(row, "priority", value -> Priority.valueOf(value.toUpperCase())));
+            record.setDisplayOrder(get(row, "displayOrder", Integer::valueOf));
+            record.setRecurrenceFrequency(get(row, "recurrenceFrequency", value -> RecurrenceFrequency.valueOf(value.toUpperCase())));
+            record.setRecurrenceInterval(get(row, "recurrenceInterval", Integer::valueOf));
+            record.setRecurrenceDayOfMonth(get(row, "recurrenceDayOfMonth", Integer::valueOf));
+            record.setRecurrenceUntil(get(row, "recurrenceUntil", LocalDate::parse));
+            record.setCreatedAt(get(row, "createdAt", LocalDateTime::parse));
+            String tags = get(row, "tags", Function.identity());
+            if (tags != null) {
+                for (String tag : tags.split("\\" + TAG_SEPARATOR)) {
+                    if (!tag.isBlank()) {
+                        record.getTags().add(tag.trim());
+                    }
+                }
+            }
+            return record;
+        }
+
+        private <T> T get(List<String> row, String column, Function<String, T> parser) {
+            Integer index = columnIndex.get(column);
+            if (index == null || index >= row.size() || row.get(index).isEmpty()) {
+                return null;
+            }
+            try {
+                return parser.apply(row.get(index).trim());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("invalid " + column + " '" + row.get(index) + "'");
+            }
+        }
+
+        private List<String> readRow() throws IOException {
+            if (eof) {
+                return null;
+            }
+            List<String> row = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                char ch = (char) c;
+                if (quoted) {
+                    if (ch == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (peek != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    row.add(field.toString());
+                    field.setLength(0);
+                } else if (ch == '\n') {
+                    row.add(field.toString());
+                    return row;
+                } else if (ch != '\r') {
+                    field.append(ch);
+                }
+            }
+            eof = true;
+            if (!any) {
+                return null;
+            }
+            row.add(field.toString());
+            return row;
+        }
+    }
+}
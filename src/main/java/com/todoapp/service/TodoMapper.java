@@ -0,0 +1,234 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.RecurrenceResponse;
+import com.todoapp.dto.TagResponse;
+import com.todoapp.dto.TodoFields;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.model.Tag;
+import com.todoapp.model.Todo;
+import com.todoapp.repository.TodoRepository;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+import static java.util.Map.entry;
+
+/**
+ * Maps todo entities to {@link TodoResponse}. Tags and subtask counts that were not loaded
+ * with the entity are fetched in one query per list, and "now" is read once per list.
+ */
+@Component
+@RequiredArgsConstructor
+public class TodoMapper {
+
+    // Entity attributes each response field is read from; tags and subtask counts have their own queries.
+    // The occurrence date is not stored: only occurrences expanded from a series have one, mapped whole.
+    private static final Map<String, List<String>> COLUMNS = Map.ofEntries(
+            entry("id", List.of("id")),
+            entry("version", List.of("version")),
+            entry("title", List.of("title")),
+            entry("description", List.of("description")),
+            entry("completed", List.of("completed")),
+            entry("dueDate", List.of("dueDate")),
+            entry("dueTime", List.of("dueTime")),
+            entry("priority", List.of("priority")),
+            entry("recurrence", List.of("recurrence")),
+            entry("displayOrder", List.of("displayOrder")),
+            entry("tags", List.of()),
+            entry("createdAt", List.of("createdAt")),
+            entry("updatedAt", List.of("updatedAt")),
+            entry("parentId", List.of("parent.id")),
+            entry("occurrenceDate", List.of()),
+            entry("recurring", List.of("recurrence.frequency")),
+            entry("overdue", List.of("dueDate", "dueTime", "completed")),
+            entry("subtaskCount", List.of()),
+            entry("completedSubtaskCount", List.of()),
+            entry("subtaskProgress", List.of()));
+
+    // Always read, to merge occurrences into the list in order
+    private static final List<String> ORDER_COLUMNS = List.of("id", "dueDate", "dueTime", "createdAt");
+
+    private final TodoRepository todoRepository;
+
+    public TodoResponse toResponse(Todo todo) {
+        return toResponses(List.of(todo)).get(0);
+    }
+
+    public List<TodoResponse> toResponses(List<Todo> todos) {
+        if (todos.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> unloadedTags = new HashSet<>();
+        Set<Long> unloadedSubtasks = new HashSet<>();
+        for (Todo todo : todos) {
+            if (!Hibernate.isInitialized(todo.getTags())) {
+                unloadedTags.add(todo.getId());
+            }
+            if (!Hibernate.isInitialized(todo.getSubtasks())) {
+                unloadedSubtasks.add(todo.getId());
+            }
+        }
+        Map<Long, List<TagResponse>> tagsByTodo = loadTags(unloadedTags);
+        Map<Long, long[]> subtaskCounts = loadSubtaskCounts(unloadedSubtasks);
+
+        LocalDate today = LocalDate.now();
+        LocalTime now = LocalTime.now();
+        List<TodoResponse> responses = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            List<TagResponse> tags = unloadedTags.contains(todo.getId())
+                    ? tagsByTodo.getOrDefault(todo.getId(), List.of())
+                    : toTagResponses(todo.getTags());
+
+            long[] counts = unloadedSubtasks.contains(todo.getId())
+                    ? subtaskCounts.getOrDefault(todo.getId(), new long[2])
+                    : new long[]{todo.getSubtasks().size(), todo.getSubtasks().stream().filter(Todo::isCompleted).count()};
+            int subtaskCount = (int) counts[0];
+            int completedSubtasks = (int) counts[1];
+
+            responses.add(new TodoResponse(
+                    todo.getId(),
+                    todo.getVersion(),
+                    todo.getTitle(),
+                    todo.getDescription(),
+                    todo.isCompleted(),
+                    todo.getDueDate(),
+                    todo.getDueTime(),
+                    todo.getPriority(),
+                    RecurrenceResponse.of(todo.getRecurrence()),
+                    todo.getDisplayOrder(),
+                    tags,
+                    todo.getCreatedAt(),
+                    todo.getUpdatedAt(),
+                    todo.getParentId(),
+                    todo.getOccurrenceDate(),
+                    todo.isRecurring(),
+                    isOverdue(todo.getDueDate(), todo.getDueTime(), todo.isCompleted(), today, now),
+                    subtaskCount,
+                    completedSubtasks,
+                    subtaskCount == 0 ? 0 : completedSubtasks * 100 / subtaskCount));
+        }
+        return responses;
+    }
+
+    // The attributes to select for a sparse fieldset
+    public List<String> columnsFor(TodoFields fields) {
+        Set<String> columns = new LinkedHashSet<>(ORDER_COLUMNS);
+        for (String name : fields.names()) {
+            columns.addAll(COLUMNS.get(name));
+        }
+        return List.copyOf(columns);
+    }
+
+    /**
+     * Maps rows of {@code columns} to responses that are complete in the given fields and the
+     * list order only. Tags and subtask counts are loaded only when among the fields. Rows are
+     * stored todos, never occurrences, so their occurrence date is null as in {@link #toResponses}.
+     */
+    public List<TodoResponse> fromColumns(List<Object[]> rows, List<String> columns, TodoFields fields) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            positions.put(columns.get(i), i);
+        }
+        int id = positions.get("id");
+        Set<Long> ids = new HashSet<>();
+        for (Object[] row : rows) {
+            ids.add((Long) row[id]);
+        }
+        Map<Long, List<TagResponse>> tagsByTodo = fields.has("tags") ? loadTags(ids) : Map.of();
+        Map<Long, long[]> subtaskCounts = fields.has("subtaskCount") || fields.has("completedSubtaskCount")
+                || fields.has("subtaskProgress") ? loadSubtaskCounts(ids) : Map.of();
+
+        LocalDate today = LocalDate.now();
+        LocalTime now = LocalTime.now();
+        List<TodoResponse> responses = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long todoId = (Long) row[id];
+            LocalDate dueDate = (LocalDate) column(row, positions, "dueDate");
+            LocalTime dueTime = (LocalTime) column(row, positions, "dueTime");
+            boolean completed = Boolean.TRUE.equals(column(row, positions, "completed"));
+            long[] counts = subtaskCounts.getOrDefault(todoId, new long[2]);
+            int subtaskCount = (int) counts[0];
+            int completedSubtasks = (int) counts[1];
+
+            responses.add(new TodoResponse(
+                    todoId,
+                    (Long) column(row, positions, "version"),
+                    (String) column(row, positions, "title"),
+                    (String) column(row, positions, "description"),
+                    completed,
+                    dueDate,
+                    dueTime,
+                    (Priority) column(row, positions, "priority"),
+                    RecurrenceResponse.of((RecurrenceRule) column(row, positions, "recurrence")),
+                    (Integer) column(row, positions, "displayOrder"),
+                    tagsByTodo.getOrDefault(todoId, List.of()),
+                    (LocalDateTime) column(row, positions, "createdAt"),
+                    (LocalDateTime) column(row, positions, "updatedAt"),
+                    (Long) column(row, positions, "parent.id"),
+                    null,
+                    column(row, positions, "recurrence.frequency") != null,
+                    isOverdue(dueDate, dueTime, completed, today, now),
+                    subtaskCount,
+                    completedSubtasks,
+                    subtaskCount == 0 ? 0 : completedSubtasks * 100 / subtaskCount));
+        }
+        return responses;
+    }
+
+    private static Object column(Object[] row, Map<String, Integer> positions, String column) {
+        Integer position = positions.get(column);
+        return position != null ? row[position] : null;
+    }
+
+    static boolean isOverdue(LocalDate dueDate, LocalTime dueTime, boolean completed, LocalDate today, LocalTime now) {
+        if (dueDate == null || completed) {
+            return false;
+        }
+        if (dueDate.isBefore(today)) {
+            return true;
+        }
+        return dueDate.isEqual(today) && dueTime != null && dueTime.isBefore(now);
+    }
+
+    private List<TagResponse> toTagResponses(Collection<Tag> tags) {
+        return tags.stream()
+                .map(TagResponse::of)
+                .sorted(Comparator.comparing(TagResponse::name))
+                .toList();
+    }
+
+    private Map<Long, List<TagResponse>> loadTags(Set<Long> todoIds) {
+        if (todoIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<TagResponse>> tagsByTodo = new HashMap<>();
+        for (Object[] row : todoRepository.findTagsByTodoIds(todoIds)) {
+            tagsByTodo.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new TagResponse((Long) row[1], (String) row[2], (String) row[3], (Long) row[4],
+                            (Integer) row[5], (Integer) row[6]));
+        }
+        return tagsByTodo;
+    }
+
+    // parent id -> {subtasks, completed subtasks}
+    private Map<Long, long[]> loadSubtaskCounts(Set<Long> parentIds) {
+        if (parentIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, long[]> counts = new HashMap<>();
+        for (Object[] row : todoRepository.countSubtasksByParentIds(parentIds)) {
+            counts.put((Long) row[0], new long[]{((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+        }
+        return counts;
+    }
+}
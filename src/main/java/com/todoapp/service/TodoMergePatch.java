@@ -0,0 +1,138 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.model.Todo;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a JSON Merge Patch (RFC 7396) to a todo's scalar fields. Members present in the patch
+ * are converted and validated one by one against the entity's constraints; absent members are
+ * not touched and not validated. {@code null} clears a field, or resets it to its default when
+ * the column has one. {@code recurrence} is merged member by member. {@code tagIds} and
+ * {@code version} are only read, for the caller, which owns the tag links and the lock check.
+ * Unknown members are ignored, as in the PUT body.
+ */
+@Component
+@RequiredArgsConstructor
+class TodoMergePatch {
+
+    // What the caller needs before the todo is touched; hasTagIds with null tagIds clears the tags
+    record Result(boolean hasTagIds, Set<Long> tagIds, Long version, Boolean completed) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * @throws IllegalArgumentException if tagIds, version or completed is invalid
+     */
+    Result read(ObjectNode patch) {
+        JsonNode tagIds = patch.get("tagIds");
+        Set<Long> ids = null;
+        if (tagIds != null && !tagIds.isNull()) {
+            if (!tagIds.isArray()) {
+                throw new IllegalArgumentException("tagIds must be an array");
+            }
+            ids = new LinkedHashSet<>();
+            for (JsonNode tagId : tagIds) {
+                ids.add(required("tagIds", convert("tagIds", tagId, Long.class)));
+            }
+        }
+        JsonNode completed = patch.get("completed");
+        return new Result(
+                tagIds != null,
+                ids,
+                convert("version", patch.get("version"), Long.class),
+                completed != null ? required("completed", convert("completed", completed, Boolean.class)) : null);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a member cannot be converted or fails validation
+     */
+    void apply(Todo todo, ObjectNode patch) {
+        for (Map.Entry<String, JsonNode> member : patch.properties()) {
+            JsonNode value = member.getValue();
+            switch (member.getKey()) {
+                case "title" -> todo.setTitle(validated("title", convert("title", value, String.class)));
+                case "description" -> todo.setDescription(validated("description", convert("description", value, String.class)));
+                case "completed" -> todo.setCompleted(required("completed", convert("completed", value, Boolean.class)));
+                case "dueDate" -> todo.setDueDate(convert("dueDate", value, LocalDate.class));
+                case "dueTime" -> todo.setDueTime(convert("dueTime", value, LocalTime.class));
+                case "priority" -> todo.setPriority(Objects.requireNonNullElse(convert("priority", value, Priority.class), Priority.MEDIUM));
+                case "displayOrder" -> todo.setDisplayOrder(Objects.requireNonNullElse(convert("displayOrder", value, Integer.class), 0));
+                case "recurrence" -> todo.setRecurrence(mergeRecurrence(todo.getRecurrence(), value));
+                default -> {
+                }
+            }
+        }
+    }
+
+    private RecurrenceRule mergeRecurrence(RecurrenceRule current, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isObject()) {
+            throw new IllegalArgumentException("recurrence must be an object or null");
+        }
+        RecurrenceRule merged = current != null
+                ? new RecurrenceRule(current.getFrequency(), current.getInterval(), current.getDayOfMonth(), current.getUntil())
+                : new RecurrenceRule();
+        try {
+            merged = objectMapper.readerForUpdating(merged).readValue(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid recurrence: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            // Reading from a tree does no I/O
+            throw new UncheckedIOException(e);
+        }
+        reject(validator.validate(merged), "recurrence.");
+        return merged;
+    }
+
+    private <T> T convert(String member, JsonNode value, Class<T> type) {
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        try {
+            return objectMapper.treeToValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid " + member + ": " + e.getOriginalMessage());
+        }
+    }
+
+    private String validated(String property, String value) {
+        reject(validator.validateValue(Todo.class, property, value), "");
+        return value;
+    }
+
+    private static <T> T required(String member, T value) {
+        if (value == null) {
+            throw new IllegalArgumentException(member + " cannot be null");
+        }
+        return value;
+    }
+
+    private static <T> void reject(Set<ConstraintViolation<T>> violations, String prefix) {
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> prefix + violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.todoapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todoapp.dto.TodoQuery;
+import com.todoapp.dto.TodoQueryResponse;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.model.Priority;
+import com.todoapp.model.Todo;
+import com.todoapp.model.User;
+import com.todoapp.repository.TodoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serves {@code GET /api/todos/query} from per-user {@link TodoBitmapIndex}es. An index is built
+ * on the user's first query and then kept current from {@link TodoChangedEvent}s; users who stop
+ * querying are evicted. Only the page of todos being returned is read from the database.
+ */
+@Slf4j
+@Service
+public class TodoQueryService {
+
+    private final TodoRepository todoRepository;
+    private final TodoMapper todoMapper;
+    private final TodoWriteBuffer writeBuffer;
+    private final Cache<Long, UserIndex> indexes;
+
+    public TodoQueryService(
+            TodoRepository todoRepository,
+            TodoMapper todoMapper,
+            TodoWriteBuffer writeBuffer,
+            @Value("${todo.query.max-indexed-users:10000}") long maxIndexedUsers,
+            @Value("${todo.query.expire-after-access-minutes:30}") long expireAfterAccessMinutes) {
+        this.todoRepository = todoRepository;
+        this.todoMapper = todoMapper;
+        this.writeBuffer = writeBuffer;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxIndexedUsers)
+                .expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+                .build();
+    }
+
+    /**
+     * One user's index and the changes that arrived while it was being built. The monitor guards
+     * the fields and is held for bitmap work only; {@code buildLock} keeps one build at a time
+     * without blocking the event listener during the database reads.
+     */
+    private static final class UserIndex {
+        private final ReentrantLock buildLock = new ReentrantLock();
+        private TodoBitmapIndex index;
+        private List<TodoChangedEvent> backlog;
+        private boolean stale;
+    }
+
+    @Transactional(readOnly = true)
+    public TodoQueryResponse query(User user, TodoQuery query) {
+        // Buffered toggles and moves reach the index through the events of their flush
+        writeBuffer.flush(user.getId());
+
+        UserIndex holder = indexes.get(user.getId(), id -> new UserIndex());
+        holder.buildLock.lock();
+        try {
+            build(user, holder);
+        } finally {
+            holder.buildLock.unlock();
+        }
+        List<Long> pageIds;
+        int total;
+        synchronized (holder) {
+            RoaringBitmap matches = holder.index.evaluate(query);
+            total = matches.getCardinality();
+            pageIds = holder.index.page(matches, query.sort(), query.descending(),
+                    query.page() * query.size(), query.size());
+        }
+
+        Map<Long, Todo> byId = todoRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+        // A todo deleted since the index was read is simply left out of the page
+        List<Todo> todos = pageIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new TodoQueryResponse(total, query.page(), query.size(), todoMapper.toResponses(todos));
+    }
+
+    // After commit, so a build that starts later reads the change from the database anyway
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        UserIndex holder = indexes.getIfPresent(event.userId());
+        if (holder == null) {
+            return;
+        }
+        synchronized (holder) {
+            if (holder.backlog != null) {
+                holder.backlog.add(event);
+            } else if (holder.index != null) {
+                apply(holder, event);
+            }
+        }
+    }
+
+    // The tag's links are gone from the database; the todos themselves did not change
+    public void tagDeleted(Long userId, Long tagId) {
+        UserIndex holder = indexes.getIfPresent(userId);
+        if (holder == null) {
+            return;
+        }
+        synchronized (holder) {
+            if (holder.index != null) {
+                holder.index.removeTag(tagId);
+            }
+            if (holder.backlog != null) {
+                holder.stale = true;
+            }
+        }
+    }
+
+    // The account is gone; its index would otherwise stay until it expires
+    public void evict(Long userId) {
+        indexes.invalidate(userId);
+    }
+
+    // Called under the build lock; (re)builds when there is no index or it was marked stale
+    private void build(User user, UserIndex holder) {
+        while (true) {
+            synchronized (holder) {
+                if (holder.index != null && !holder.stale) {
+                    return;
+                }
+                holder.stale = false;
+                holder.backlog = new ArrayList<>();
+            }
+            long started = System.nanoTime();
+            List<Object[]> rows;
+            Map<Long, List<Long>> tagIds;
+            try {
+                rows = todoRepository.findIndexRows(user);
+                tagIds = todoRepository.findIndexTagLinks(user).stream()
+                        .collect(Collectors.groupingBy(row -> (Long) row[0],
+                                Collectors.mapping(row -> (Long) row[1], Collectors.toList())));
+            } catch (RuntimeException e) {
+                synchronized (holder) {
+                    holder.backlog = null;
+                    holder.stale = true;
+                }
+                throw e;
+            }
+
+            TodoBitmapIndex index = new TodoBitmapIndex();
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                index.upsert(new TodoBitmapIndex.Entry(id, (Long) row[1], (Boolean) row[2],
+                        (Priority) row[3], (LocalDate) row[4], tagIds.getOrDefault(id, List.of())));
+            }
+            synchronized (holder) {
+                holder.index = index;
+                // Changes that landed during the reads may already be in the rows; applying them again is harmless
+                holder.backlog.forEach(event -> apply(holder, event));
+                holder.backlog = null;
+            }
+            log.debug("Indexed {} todos of user {} in {} ms", index.size(), user.getId(),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void apply(UserIndex holder, TodoChangedEvent event) {
+        TodoSnapshot after = event.after();
+        if (after == null) {
+            holder.index.remove(event.todoId());
+        } else if (after.tagIds() == null && event.before() == null) {
+            // A new todo whose tags were not loaded: nothing to keep, so read it all again
+            holder.stale = true;
+        } else {
+            holder.index.upsert(new TodoBitmapIndex.Entry(after.id(), after.parentId(), after.completed(),
+                    after.priority(), after.dueDate(), after.tagIds()));
+        }
+    }
+}
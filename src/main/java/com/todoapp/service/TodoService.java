@@ -1,17 +1,32 @@
 package com.todoapp.service;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.todoapp.dto.TodoFields;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.event.TodosReorderedEvent;
 import com.todoapp.model.Tag;
 import com.todoapp.model.Todo;
+import com.todoapp.model.TodoOccurrence;
 import com.todoapp.model.User;
+import com.todoapp.repository.ArchivedTodoRepository;
 import com.todoapp.repository.TagRepository;
 import com.todoapp.repository.TodoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,17 +36,57 @@ public class TodoService {
 
     private final TodoRepository todoRepository;
     private final TagRepository tagRepository;
+    private final ArchivedTodoRepository archivedTodoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecurrenceService recurrenceService;
+    private final TodoWriteBuffer writeBuffer;
+    private final TodoWorkingSet workingSet;
+    private final TodoMapper todoMapper;
+    private final ReadCoalescer readCoalescer;
+    private final TodoMergePatch todoMergePatch;
+    private final StreakService streakService;
 
-    public List<Todo> getAllTodosForUser(User user) {
-        return todoRepository.findByUserAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(user);
+    // The orderings of the repository queries, for re-sorting after write-behind values are applied
+    private static final Comparator<Todo> LIST_ORDER = Comparator
+            .comparing(Todo::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Todo::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+    private static final Comparator<Todo> DAY_ORDER = Comparator
+            .comparing(Todo::getDueTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Todo::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+    private static final Comparator<Todo> RANGE_ORDER = Comparator
+            .comparing(Todo::getDueDate)
+            .thenComparing(Todo::getDueTime, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    // The list reads below are served by the working set; the queries are the fallback when it is disabled.
+    // Reads go through the coalescer, which opens their transaction only for the call that runs the query.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TodoResponse> getAllTodosForUser(User user) {
+        return readCoalescer.read(user.getId(), "all", List.of(), () -> loadAll(user));
+    }
+
+    // Each list read has a variant with only the given fields; see sparse()
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Map<String, Object>> getAllTodosForUser(User user, TodoFields fields) {
+        return readCoalescer.read(user.getId(), "all", List.of(fields), () -> sparse(user, fields,
+                columns -> todoRepository.findColumns(user, null, columns), () -> loadAll(user)));
+    }
+
+    private List<TodoResponse> loadAll(User user) {
+        if (workingSet.isEnabled()) {
+            return workingSet.all(user);
+        }
+        return todoMapper.toResponses(withPending(user, todoRepository.findByUserAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(user),
+                todo -> todo.getParent() == null, LIST_ORDER));
     }
 
     public Optional<Todo> getTodoByIdForUser(Long id, User user) {
-        return todoRepository.findByIdAndUser(id, user);
+        return todoRepository.findByIdAndUser(id, user).map(writeBuffer::overlay);
     }
 
     public Todo createTodo(Todo todo, User user) {
         todo.setUser(user);
+        // A version sent by the client would make the save a merge
+        todo.setVersion(null);
         
         // Handle parent (subtask)
         if (todo.getParentId() != null) {
@@ -39,6 +94,11 @@ public class TodoService {
                     .ifPresent(todo::setParent);
         }
         
+        // A recurring series needs an anchor date for its first occurrence
+        if (todo.isRecurring() && todo.getDueDate() == null) {
+            todo.setDueDate(LocalDate.now());
+        }
+        
         // Handle tags
         if (todo.getTagIds() != null && !todo.getTagIds().isEmpty()) {
             Set<Tag> tags = todo.getTagIds().stream()
@@ -49,12 +109,26 @@ public class TodoService {
             todo.setTags(tags);
         }
         
-        return todoRepository.save(todo);
+        Todo saved = todoRepository.save(todo);
+        if (saved.getParent() == null && !saved.getTags().isEmpty()) {
+            tagRepository.adjustCounts(List.of(saved.getId()), 1);
+        }
+        eventPublisher.publishEvent(TodoChangedEvent.created(TodoSnapshot.of(saved)));
+        return saved;
     }
 
     public Optional<Todo> updateTodo(Long id, Todo todoDetails, User user) {
+        // Buffered values must not land on top of this update later
+        writeBuffer.flush(user.getId());
         return todoRepository.findByIdAndUser(id, user)
                 .map(existingTodo -> {
+                    checkVersion(existingTodo, todoDetails.getVersion());
+                    TodoSnapshot before = TodoSnapshot.of(existingTodo);
+                    // Tags and completion may both change: take the todo off its tags' counters and put it back after
+                    boolean counted = existingTodo.getParent() == null;
+                    if (counted) {
+                        tagRepository.adjustCounts(List.of(id), -1);
+                    }
                     existingTodo.setTitle(todoDetails.getTitle());
                     existingTodo.setDescription(todoDetails.getDescription());
                     existingTodo.setCompleted(todoDetails.isCompleted());
@@ -62,15 +136,14 @@ public class TodoService {
                     existingTodo.setDueTime(todoDetails.getDueTime());
                     existingTodo.setPriority(todoDetails.getPriority());
                     existingTodo.setDisplayOrder(todoDetails.getDisplayOrder());
+                    existingTodo.setRecurrence(todoDetails.getRecurrence());
+                    if (existingTodo.isRecurring() && existingTodo.getDueDate() == null) {
+                        existingTodo.setDueDate(LocalDate.now());
+                    }
                     
                     // Handle tags
                     if (todoDetails.getTagIds() != null) {
-                        Set<Tag> tags = todoDetails.getTagIds().stream()
-                                .map(tagId -> tagRepository.findByIdAndUser(tagId, user))
-                                .filter(Optional::isPresent)
-                                .map(Optional::get)
-                                .collect(Collectors.toSet());
-                        existingTodo.setTags(tags);
+                        replaceTags(existingTodo, new HashSet<>(todoDetails.getTagIds()), user);
                     }
                     
                     // Auto-complete parent if all subtasks are done
@@ -78,49 +151,212 @@ public class TodoService {
                         checkAndCompleteParent(existingTodo.getParent());
                     }
                     
-                    return todoRepository.save(existingTodo);
+                    Todo saved = todoRepository.save(existingTodo);
+                    if (counted) {
+                        tagRepository.adjustCounts(List.of(id), 1);
+                    }
+                    eventPublisher.publishEvent(TodoChangedEvent.updated(before, TodoSnapshot.of(saved)));
+                    return saved;
+                });
+    }
+
+    /**
+     * Applies a JSON Merge Patch: only the members sent are validated and written, and with
+     * dynamic updates the UPDATE lists just the columns that changed. Tag links are diffed, and
+     * the tag counters are only touched when the links or the completion state change.
+     *
+     * @throws IllegalArgumentException if a member is invalid
+     */
+    public Optional<Todo> patchTodo(Long id, ObjectNode patch, User user) {
+        // Buffered values must not land on top of this update later
+        writeBuffer.flush(user.getId());
+        return todoRepository.findByIdAndUser(id, user)
+                .map(existingTodo -> {
+                    TodoMergePatch.Result result = todoMergePatch.read(patch);
+                    checkVersion(existingTodo, result.version());
+                    TodoSnapshot before = TodoSnapshot.of(existingTodo);
+                    boolean wasCompleted = existingTodo.isCompleted();
+                    Set<Long> tagIds = result.hasTagIds()
+                            ? Objects.requireNonNullElseGet(result.tagIds(), HashSet::new)
+                            : null;
+                    boolean tagsChanged = tagIds != null && !tagIds.equals(existingTodo.getTags().stream()
+                            .map(Tag::getId)
+                            .collect(Collectors.toSet()));
+                    // Counters follow the stored row: off before the todo is touched, back on after the flush
+                    boolean counted = existingTodo.getParent() == null
+                            && (tagsChanged || result.completed() != null && result.completed() != wasCompleted);
+                    if (counted) {
+                        tagRepository.adjustCounts(List.of(id), -1);
+                    }
+                    todoMergePatch.apply(existingTodo, patch);
+                    if (existingTodo.isRecurring() && existingTodo.getDueDate() == null) {
+                        existingTodo.setDueDate(LocalDate.now());
+                    }
+                    if (tagsChanged) {
+                        replaceTags(existingTodo, tagIds, user);
+                    }
+                    if (existingTodo.getParent() != null && existingTodo.isCompleted() && !wasCompleted) {
+                        checkAndCompleteParent(existingTodo.getParent());
+                    }
+
+                    Todo saved = todoRepository.save(existingTodo);
+                    if (counted) {
+                        tagRepository.adjustCounts(List.of(id), 1);
+                    }
+                    TodoSnapshot after = TodoSnapshot.of(saved);
+                    if (!after.equals(before)) {
+                        eventPublisher.publishEvent(TodoChangedEvent.updated(before, after));
+                    }
+                    return saved;
                 });
     }
 
+    // Edits the loaded collection in place, so only the links that changed are inserted or deleted
+    private void replaceTags(Todo todo, Set<Long> tagIds, User user) {
+        Set<Tag> tags = todo.getTags();
+        tags.removeIf(tag -> !tagIds.contains(tag.getId()));
+        Set<Long> present = tags.stream().map(Tag::getId).collect(Collectors.toSet());
+        List<Long> added = tagIds.stream().filter(tagId -> !present.contains(tagId)).toList();
+        if (!added.isEmpty()) {
+            tags.addAll(tagRepository.findByUserAndIdIn(user, added));
+        }
+    }
+
     private void checkAndCompleteParent(Todo parent) {
         boolean allSubtasksComplete = parent.getSubtasks().stream()
                 .allMatch(Todo::isCompleted);
         if (allSubtasksComplete && !parent.isCompleted()) {
+            TodoSnapshot before = TodoSnapshot.of(parent);
+            boolean counted = parent.getParent() == null;
+            if (counted) {
+                tagRepository.adjustCounts(List.of(parent.getId()), -1);
+            }
             parent.setCompleted(true);
             todoRepository.save(parent);
+            if (counted) {
+                tagRepository.adjustCounts(List.of(parent.getId()), 1);
+            }
+            eventPublisher.publishEvent(TodoChangedEvent.updated(before, TodoSnapshot.of(parent)));
         }
     }
 
-    public Optional<Todo> toggleComplete(Long id, User user) {
-        return todoRepository.findByIdAndUser(id, user)
-                .map(todo -> {
-                    todo.setCompleted(!todo.isCompleted());
-                    
-                    // If completing, check parent
-                    if (todo.isCompleted() && todo.getParent() != null) {
-                        checkAndCompleteParent(todo.getParent());
-                    }
-                    
-                    // If uncompleting parent, keep subtasks as is
-                    return todoRepository.save(todo);
-                });
+    /**
+     * Flips completion with one conditional UPDATE ... RETURNING, which also moves the tag counters.
+     * With a version, the toggle only applies to that version of the todo and a mismatch is
+     * reported as an optimistic lock failure.
+     */
+    public Optional<Todo> toggleComplete(Long id, Long version, User user) {
+        if (writeBuffer.isEnabled()) {
+            // Buffered toggles are checked against nothing: the flush bumps the version the client saw
+            Optional<Todo> todo = todoRepository.findByIdAndUser(id, user);
+            if (todo.isEmpty() || writeBehind(todo.get())) {
+                todo.ifPresent(writeBuffer::toggle);
+                return todo.map(writeBuffer::overlay);
+            }
+            return todo.map(existing -> {
+                checkVersion(existing, version);
+                TodoSnapshot before = TodoSnapshot.of(existing);
+                boolean counted = existing.getParent() == null;
+                if (counted) {
+                    tagRepository.adjustCounts(List.of(id), -1);
+                }
+                existing.setCompleted(!existing.isCompleted());
+                if (existing.isCompleted() && existing.getParent() != null) {
+                    checkAndCompleteParent(existing.getParent());
+                }
+                Todo saved = todoRepository.save(existing);
+                if (counted) {
+                    tagRepository.adjustCounts(List.of(id), 1);
+                }
+                eventPublisher.publishEvent(TodoChangedEvent.updated(before, TodoSnapshot.of(saved)));
+                return saved;
+            });
+        }
+        List<Object[]> toggled = todoRepository.toggleCompleted(id, user.getId(), version, LocalDateTime.now());
+        if (toggled.isEmpty()) {
+            return missingOrConflict(id, version, user);
+        }
+        Todo todo = (Todo) toggled.get(0)[0];
+        TodoSnapshot after = TodoSnapshot.of(todo);
+        
+        // If completing, check parent; if uncompleting parent, keep subtasks as is
+        if (todo.isCompleted() && todo.getParent() != null) {
+            checkAndCompleteParent(todo.getParent());
+        }
+        eventPublisher.publishEvent(TodoChangedEvent.updated(
+                after.withCompleted(!todo.isCompleted(), (LocalDateTime) toggled.get(0)[1]), after));
+        return Optional.of(todo);
     }
 
-    public boolean deleteTodo(Long id, User user) {
-        return todoRepository.findByIdAndUser(id, user)
-                .map(todo -> {
-                    todoRepository.delete(todo);
-                    return true;
-                })
-                .orElse(false);
+    // Deletes the todo and its subtasks with one DELETE ... RETURNING
+    public boolean deleteTodo(Long id, Long version, User user) {
+        List<Todo> deleted = todoRepository.deleteTree(id, user.getId(), version);
+        if (deleted.isEmpty()) {
+            return missingOrConflict(id, version, user).isPresent();
+        }
+        for (Todo todo : deleted) {
+            writeBuffer.discard(user.getId(), todo.getId());
+            eventPublisher.publishEvent(TodoChangedEvent.deleted(TodoSnapshot.of(todo)));
+        }
+        return true;
+    }
+
+    // Clears every completed todo, with subtrees, in one statement; returns how many rows went
+    public int deleteCompleted(User user) {
+        // Completion may still be buffered; delete what the user sees as completed
+        writeBuffer.flush(user.getId());
+        List<Todo> deleted = todoRepository.deleteCompleted(user.getId());
+        for (Todo todo : deleted) {
+            writeBuffer.discard(user.getId(), todo.getId());
+            eventPublisher.publishEvent(TodoChangedEvent.deleted(TodoSnapshot.of(todo)));
+        }
+        return deleted.size();
+    }
+
+    // A conditional write matched nothing: not found, unless the todo exists at another version
+    private Optional<Todo> missingOrConflict(Long id, Long version, User user) {
+        if (version != null && todoRepository.existsByIdAndUser(id, user)) {
+            throw new ObjectOptimisticLockingFailureException(Todo.class, id);
+        }
+        return Optional.empty();
+    }
+
+    private void checkVersion(Todo todo, Long version) {
+        if (version != null && !version.equals(todo.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Todo.class, todo.getId());
+        }
     }
 
-    public List<Todo> getTodosByStatusForUser(boolean completed, User user) {
-        return todoRepository.findByUserAndCompletedAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(user, completed);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TodoResponse> getTodosByStatusForUser(boolean completed, User user) {
+        return readCoalescer.read(user.getId(), "byStatus", List.of(completed), () -> loadByStatus(user, completed));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Map<String, Object>> getTodosByStatusForUser(boolean completed, User user, TodoFields fields) {
+        return readCoalescer.read(user.getId(), "byStatus", List.of(completed, fields), () -> sparse(user, fields,
+                columns -> todoRepository.findColumns(user, completed, columns), () -> loadByStatus(user, completed)));
+    }
+
+    private List<TodoResponse> loadByStatus(User user, boolean completed) {
+        if (workingSet.isEnabled()) {
+            return workingSet.byStatus(user, completed);
+        }
+        return todoMapper.toResponses(withPending(user, todoRepository.findByUserAndCompletedAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(user, completed),
+                todo -> todo.getParent() == null && todo.isCompleted() == completed, LIST_ORDER));
     }
 
     // Reorder todos (for drag-drop)
     public void reorderTodos(List<Long> todoIds, User user) {
+        if (writeBuffer.isEnabled()) {
+            Set<Long> owned = new HashSet<>(todoRepository.findIdsByUserAndIdIn(user, todoIds));
+            for (int i = 0; i < todoIds.size(); i++) {
+                if (owned.contains(todoIds.get(i))) {
+                    writeBuffer.setDisplayOrder(user.getId(), todoIds.get(i), i);
+                }
+            }
+            return;
+        }
         for (int i = 0; i < todoIds.size(); i++) {
             int order = i;
             todoRepository.findByIdAndUser(todoIds.get(i), user)
@@ -129,61 +365,336 @@ public class TodoService {
                         todoRepository.save(todo);
                     });
         }
+        eventPublisher.publishEvent(new TodosReorderedEvent(user.getId(), List.copyOf(todoIds)));
     }
 
-    // Update due date (for drag to different day)
-    public Optional<Todo> updateDueDate(Long id, LocalDate newDueDate, User user) {
-        return todoRepository.findByIdAndUser(id, user)
-                .map(todo -> {
-                    todo.setDueDate(newDueDate);
-                    return todoRepository.save(todo);
-                });
+    // Update due date (for drag to different day): one conditional UPDATE ... RETURNING, like toggleComplete
+    public Optional<Todo> updateDueDate(Long id, LocalDate newDueDate, Long version, User user) {
+        if (writeBuffer.isEnabled()) {
+            Optional<Todo> todo = todoRepository.findByIdAndUser(id, user);
+            if (todo.isEmpty() || writeBehind(todo.get())) {
+                todo.ifPresent(buffered -> writeBuffer.setDueDate(user.getId(), id, newDueDate));
+                return todo.map(writeBuffer::overlay);
+            }
+            return todo.map(existing -> {
+                checkVersion(existing, version);
+                TodoSnapshot before = TodoSnapshot.of(existing);
+                existing.setDueDate(newDueDate);
+                Todo saved = todoRepository.save(existing);
+                eventPublisher.publishEvent(TodoChangedEvent.updated(before, TodoSnapshot.of(saved)));
+                return saved;
+            });
+        }
+        List<Object[]> moved = todoRepository.moveDueDate(id, user.getId(), version, newDueDate, LocalDateTime.now());
+        if (moved.isEmpty()) {
+            return missingOrConflict(id, version, user);
+        }
+        Todo todo = (Todo) moved.get(0)[0];
+        TodoSnapshot after = TodoSnapshot.of(todo);
+        eventPublisher.publishEvent(TodoChangedEvent.updated(after.withDueDate((LocalDate) moved.get(0)[1]), after));
+        return Optional.of(todo);
+    }
+
+    // Recurring series stay synchronous: their occurrences are expanded from the stored row
+    private boolean writeBehind(Todo todo) {
+        return writeBuffer.isEnabled() && !todo.isRecurring();
+    }
+
+    /**
+     * Applies buffered write-behind values to a query result: todos get their pending values,
+     * and todos whose pending values move them into or out of the result are added or dropped.
+     * With a null {@code matches} the result set does not depend on buffered fields.
+     */
+    private List<Todo> withPending(User user, List<Todo> todos, Predicate<Todo> matches, Comparator<Todo> order) {
+        Map<Long, TodoWriteBuffer.PendingChange> changes = writeBuffer.pendingFor(user.getId());
+        if (changes.isEmpty()) {
+            return todos;
+        }
+        List<Todo> result = new ArrayList<>(todos.size());
+        Set<Long> seen = new HashSet<>();
+        for (Todo todo : todos) {
+            seen.add(todo.getId());
+            writeBuffer.overlay(todo);
+            if (matches == null || matches.test(todo)) {
+                result.add(todo);
+            }
+        }
+        List<Long> others = changes.keySet().stream().filter(id -> !seen.contains(id)).toList();
+        if (matches != null && !others.isEmpty()) {
+            for (Todo todo : todoRepository.findAllById(others)) {
+                writeBuffer.overlay(todo);
+                if (matches.test(todo)) {
+                    result.add(todo);
+                }
+            }
+        }
+        if (order != null) {
+            result.sort(order);
+        }
+        return result;
     }
 
     // Calendar methods
-    public List<Todo> getTodosByDate(User user, LocalDate date) {
-        return todoRepository.findByUserAndDueDateAndParentIsNullOrderByDueTimeAscCreatedAtDesc(user, date);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TodoResponse> getTodosByDate(User user, LocalDate date) {
+        return readCoalescer.read(user.getId(), "onDate", List.of(date), () -> loadOnDate(user, date));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TodoResponse> getTodosByDateRange(User user, LocalDate startDate, LocalDate endDate) {
+        return readCoalescer.read(user.getId(), "between", List.of(startDate, endDate),
+                () -> loadBetween(user, startDate, endDate));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Map<String, Object>> getTodosByDate(User user, LocalDate date, TodoFields fields) {
+        return readCoalescer.read(user.getId(), "onDate", List.of(date, fields), () -> sparseBetween(user, fields,
+                date, date, TodoWorkingSet.DAY_ORDER, () -> loadOnDate(user, date)));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Map<String, Object>> getTodosByDateRange(User user, LocalDate startDate, LocalDate endDate, TodoFields fields) {
+        return readCoalescer.read(user.getId(), "between", List.of(startDate, endDate, fields), () -> sparseBetween(user, fields,
+                startDate, endDate, TodoWorkingSet.RANGE_ORDER, () -> loadBetween(user, startDate, endDate)));
+    }
+
+    /**
+     * A list read with only the given fields. Unless the working set already holds the user, only
+     * the columns behind those fields are selected, and tags and subtask counts are read only if
+     * asked for; a user in the working set is answered from memory and trimmed instead.
+     */
+    private List<Map<String, Object>> sparse(User user, TodoFields fields, Function<List<String>, List<Object[]>> query,
+                                             Supplier<List<TodoResponse>> whole) {
+        if (!projectable(user)) {
+            return fields.select(whole.get());
+        }
+        List<String> columns = todoMapper.columnsFor(fields);
+        return fields.select(todoMapper.fromColumns(query.apply(columns), columns, fields));
+    }
+
+    // Occurrences are few and come whole from their series, with their occurrence date
+    private List<Map<String, Object>> sparseBetween(User user, TodoFields fields, LocalDate startDate, LocalDate endDate,
+                                                    Comparator<TodoResponse> order, Supplier<List<TodoResponse>> whole) {
+        if (!projectable(user)) {
+            return fields.select(whole.get());
+        }
+        List<String> columns = todoMapper.columnsFor(fields);
+        List<TodoResponse> todos = todoMapper.fromColumns(
+                todoRepository.findColumnsDueBetween(user, startDate, endDate, columns), columns, fields);
+        List<Todo> occurrences = recurrenceService.expand(user, startDate, endDate);
+        if (occurrences.isEmpty()) {
+            return fields.select(todos);
+        }
+        List<TodoResponse> merged = new ArrayList<>(todos);
+        merged.addAll(todoMapper.toResponses(occurrences));
+        merged.sort(order);
+        return fields.select(merged);
     }
 
-    public List<Todo> getTodosByDateRange(User user, LocalDate startDate, LocalDate endDate) {
-        return todoRepository.findByUserAndDueDateBetweenAndParentIsNullOrderByDueDateAscDueTimeAsc(user, startDate, endDate);
+    // Loading a user into the working set reads every todo whole: worth it only when already done.
+    // Buffered writes are overlaid on whole entities.
+    private boolean projectable(User user) {
+        return !workingSet.holds(user) && writeBuffer.pendingFor(user.getId()).isEmpty();
     }
 
-    public List<Todo> getOverdueTodos(User user) {
-        return todoRepository.findOverdueTodos(user, LocalDate.now());
+    private List<TodoResponse> loadOnDate(User user, LocalDate date) {
+        if (workingSet.isEnabled()) {
+            return withOccurrences(user, workingSet.onDate(user, date), date, date, TodoWorkingSet.DAY_ORDER);
+        }
+        List<Todo> todos = withPending(user,
+                todoRepository.findByUserAndDueDateAndParentIsNullAndRecurrenceFrequencyIsNullOrderByDueTimeAscCreatedAtDesc(user, date),
+                todo -> todo.getParent() == null && !todo.isRecurring() && date.equals(todo.getDueDate()), DAY_ORDER);
+        List<Todo> occurrences = recurrenceService.expand(user, date, date);
+        if (occurrences.isEmpty()) {
+            return todoMapper.toResponses(todos);
+        }
+        List<Todo> merged = new ArrayList<>(todos);
+        merged.addAll(occurrences);
+        merged.sort(DAY_ORDER);
+        return todoMapper.toResponses(merged);
+    }
+
+    private List<TodoResponse> loadBetween(User user, LocalDate startDate, LocalDate endDate) {
+        if (workingSet.isEnabled()) {
+            return withOccurrences(user, workingSet.between(user, startDate, endDate), startDate, endDate, TodoWorkingSet.RANGE_ORDER);
+        }
+        List<Todo> todos = withPending(user,
+                todoRepository.findByUserAndDueDateBetweenAndParentIsNullAndRecurrenceFrequencyIsNullOrderByDueDateAscDueTimeAsc(user, startDate, endDate),
+                todo -> todo.getParent() == null && !todo.isRecurring() && todo.getDueDate() != null
+                        && !todo.getDueDate().isBefore(startDate) && !todo.getDueDate().isAfter(endDate),
+                RANGE_ORDER);
+        List<Todo> occurrences = recurrenceService.expand(user, startDate, endDate);
+        if (occurrences.isEmpty()) {
+            return todoMapper.toResponses(todos);
+        }
+        List<Todo> merged = new ArrayList<>(todos);
+        merged.addAll(occurrences);
+        merged.sort(RANGE_ORDER);
+        return todoMapper.toResponses(merged);
+    }
+
+    // Occurrences are expanded from the series rows, so the query is skipped for users without any
+    private List<TodoResponse> withOccurrences(User user, List<TodoResponse> todos, LocalDate startDate, LocalDate endDate,
+                                               Comparator<TodoResponse> order) {
+        if (!workingSet.hasRecurring(user)) {
+            return todos;
+        }
+        List<Todo> occurrences = recurrenceService.expand(user, startDate, endDate);
+        if (occurrences.isEmpty()) {
+            return todos;
+        }
+        List<TodoResponse> merged = new ArrayList<>(todos);
+        merged.addAll(todoMapper.toResponses(occurrences));
+        merged.sort(order);
+        return merged;
     }
 
-    public List<Todo> getTodosWithoutDueDate(User user) {
-        return todoRepository.findByUserAndDueDateIsNullAndParentIsNullOrderByCreatedAtDesc(user);
+    // Recurring occurrences (per-occurrence state only; the series itself is edited via updateTodo)
+    public Optional<Todo> toggleOccurrence(Long id, LocalDate date, User user) {
+        // Occurrence writes publish no event
+        readCoalescer.invalidateAfterCommit(user.getId());
+        return recurrenceService.toggleOccurrence(id, date, user)
+                .map(occurrence -> occurrenceWritten(occurrence, user));
     }
 
-    public List<Todo> getTodosByTag(User user, Long tagId) {
-        return todoRepository.findByUserAndTagId(user, tagId);
+    public Optional<Todo> updateOccurrence(Long id, LocalDate date, TodoOccurrence details, User user) {
+        readCoalescer.invalidateAfterCommit(user.getId());
+        return recurrenceService.updateOccurrence(id, date, details, user)
+                .map(occurrence -> occurrenceWritten(occurrence, user));
     }
 
+    private Todo occurrenceWritten(Todo occurrence, User user) {
+        if (occurrence.isCompleted()) {
+            streakService.occurrenceCompleted(user.getId());
+        }
+        return occurrence;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TodoResponse> getOverdueTodos(User user) {
+        return readCoalescer.read(user.getId(), "overdue", List.of(), () -> loadOverdue(user));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Map<String, Object>> getOverdueTodos(User user, TodoFields fields) {
+        return readCoalescer.read(user.getId(), "overdue", List.of(fields), () -> sparse(user, fields,
+                columns -> todoRepository.findColumnsOverdue(user, LocalDate.now(), LocalTime.now(), columns),
+                () -> loadOverdue(user)));
+    }
+
+    private List<TodoResponse> loadOverdue(User user) {
+        if (workingSet.isEnabled()) {
+            return workingSet.overdue(user);
+        }
+        LocalDate today = LocalDate.now();
+        LocalTime now = LocalTime.now();
+        return todoMapper.toResponses(withPending(user, todoRepository.findOverdueTodos(user, today, now),
+                todo -> todo.getParent() == null && !todo.isRecurring() && !todo.isCompleted() && todo.getDueDate() != null
+                        && (todo.getDueDate().isBefore(today) || (todo.getDueDate().isEqual(today)
+                                && todo.getDueTime() != null && todo.getDueTime().isBefore(now))),
+                null));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TodoResponse> getTodosWithoutDueDate(User user) {
+        return readCoalescer.read(user.getId(), "undated", List.of(), () -> loadUndated(user));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Map<String, Object>> getTodosWithoutDueDate(User user, TodoFields fields) {
+        return readCoalescer.read(user.getId(), "undated", List.of(fields), () -> sparse(user, fields,
+                columns -> todoRepository.findColumnsUndated(user, columns), () -> loadUndated(user)));
+    }
+
+    private List<TodoResponse> loadUndated(User user) {
+        if (workingSet.isEnabled()) {
+            return workingSet.undated(user);
+        }
+        return todoMapper.toResponses(withPending(user, todoRepository.findByUserAndDueDateIsNullAndParentIsNullOrderByCreatedAtDesc(user),
+                todo -> todo.getParent() == null && todo.getDueDate() == null,
+                Comparator.comparing(Todo::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TodoResponse> getTodosByTag(User user, Long tagId) {
+        return readCoalescer.read(user.getId(), "byTag", List.of(tagId), () -> loadByTag(user, tagId));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Map<String, Object>> getTodosByTag(User user, Long tagId, TodoFields fields) {
+        return readCoalescer.read(user.getId(), "byTag", List.of(tagId, fields), () -> sparse(user, fields,
+                columns -> todoRepository.findColumnsByTag(user, tagId, columns), () -> loadByTag(user, tagId)));
+    }
+
+    private List<TodoResponse> loadByTag(User user, Long tagId) {
+        if (workingSet.isEnabled()) {
+            return workingSet.byTag(user, tagId);
+        }
+        return todoMapper.toResponses(withPending(user, todoRepository.findByUserAndTagId(user, tagId), null,
+                Comparator.comparing(Todo::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder()))));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Map<LocalDate, Long> getTodoCountByDateRange(User user, LocalDate startDate, LocalDate endDate) {
-        List<Object[]> results = todoRepository.countTodosByDateRange(user, startDate, endDate);
-        return results.stream()
-                .collect(Collectors.toMap(
-                        row -> (LocalDate) row[0],
-                        row -> (Long) row[1]
-                ));
+        return readCoalescer.read(user.getId(), "countsBetween", List.of(startDate, endDate), () -> {
+            List<Object[]> results = todoRepository.countTodosByDateRange(user, startDate, endDate);
+            Map<LocalDate, Long> counts = results.stream()
+                    .collect(Collectors.toMap(
+                            row -> (LocalDate) row[0],
+                            row -> (Long) row[1]
+                    ));
+            recurrenceService.countByDate(user, startDate, endDate)
+                    .forEach((date, count) -> counts.merge(date, count, Long::sum));
+
+            // Buffered due dates move a todo's dot from its stored day to its pending one
+            Map<Long, TodoWriteBuffer.PendingChange> changes = writeBuffer.pendingFor(user.getId());
+            List<Long> moved = changes.values().stream()
+                    .filter(change -> change.dueDate() != null)
+                    .map(TodoWriteBuffer.PendingChange::todoId)
+                    .toList();
+            if (!moved.isEmpty()) {
+                for (Todo todo : todoRepository.findAllById(moved)) {
+                    if (todo.getParent() != null || todo.isRecurring()) {
+                        continue;
+                    }
+                    LocalDate stored = todo.getDueDate();
+                    LocalDate buffered = changes.get(todo.getId()).dueDate();
+                    if (stored != null && !stored.isBefore(startDate) && !stored.isAfter(endDate)) {
+                        counts.computeIfPresent(stored, (date, count) -> count > 1 ? count - 1 : null);
+                    }
+                    if (!buffered.isBefore(startDate) && !buffered.isAfter(endDate)) {
+                        counts.merge(buffered, 1L, Long::sum);
+                    }
+                }
+            }
+            return counts;
+        });
     }
 
     // Statistics
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Map<String, Object> getStatistics(User user, int days) {
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
+        return readCoalescer.read(user.getId(), "statistics", List.of(days), () -> {
+            // Completion days come from updated_at, which only a write sets
+            writeBuffer.flush(user.getId());
+            LocalDateTime since = LocalDateTime.now().minusDays(days);
         
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("completedCount", todoRepository.countCompletedSince(user, since));
+            // Archived todos still count towards completion statistics
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("completedCount", todoRepository.countCompletedSince(user, since)
+                    + archivedTodoRepository.countCompletedSince(user.getId(), since));
         
-        List<Object[]> dailyStats = todoRepository.getCompletionStats(user, since);
-        Map<LocalDate, Long> dailyMap = new LinkedHashMap<>();
-        for (Object[] row : dailyStats) {
-            dailyMap.put((LocalDate) row[0], (Long) row[1]);
-        }
-        stats.put("dailyStats", dailyMap);
+            List<Object[]> dailyStats = todoRepository.getCompletionStats(user, since);
+            Map<LocalDate, Long> dailyMap = new TreeMap<>();
+            for (Object[] row : dailyStats) {
+                dailyMap.put((LocalDate) row[0], (Long) row[1]);
+            }
+            for (Object[] row : archivedTodoRepository.getCompletionStats(user.getId(), since)) {
+                dailyMap.merge((LocalDate) row[0], (Long) row[1], Long::sum);
+            }
+            stats.put("dailyStats", dailyMap);
         
-        return stats;
+            return stats;
+        });
     }
 }
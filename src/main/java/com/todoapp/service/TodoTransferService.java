@@ -0,0 +1,334 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.todoapp.dto.ImportProgress;
+import com.todoapp.dto.TodoTransferRecord;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.model.*;
+import com.todoapp.repository.TagRepository;
+import com.todoapp.repository.TodoRepository;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Bulk export and import of a user's todos (with subtasks, tags and dates) as NDJSON or CSV.
+ * Export reads through forward-only cursors; import commits in fixed-size chunks and clears
+ * the persistence context after each one, so memory stays flat regardless of file size.
+ */
+@Slf4j
+@Service
+public class TodoTransferService {
+
+    @Getter
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported format: " + value);
+        }
+    }
+
+    private final TodoRepository todoRepository;
+    private final TagRepository tagRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoWriteBuffer writeBuffer;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ObjectWriter recordWriter;
+    private final ObjectReader recordReader;
+    private final int chunkSize;
+    private final Map<Long, ImportProgress> progressByUser = new ConcurrentHashMap<>();
+
+    public TodoTransferService(
+            TodoRepository todoRepository,
+            TagRepository tagRepository,
+            EntityManager entityManager,
+            ApplicationEventPublisher eventPublisher,
+            TodoWriteBuffer writeBuffer,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${todo.import.chunk-size:500}") int chunkSize) {
+        this.todoRepository = todoRepository;
+        this.tagRepository = tagRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.writeBuffer = writeBuffer;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.recordWriter = objectMapper.writerFor(TodoTransferRecord.class);
+        this.recordReader = objectMapper.readerFor(TodoTransferRecord.class);
+        this.chunkSize = chunkSize;
+    }
+
+    // ---- Export ----
+
+    public void export(User user, Format format, OutputStream outputStream) {
+        // The export reads stored rows
+        writeBuffer.flush(user.getId());
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<TodoTransferRecord> todos = todoRepository.streamForExport(user);
+                 Stream<Object[]> tagRows = todoRepository.streamTagNamesForExport(user)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+                if (format == Format.CSV) {
+                    TodoCsv.writeHeader(writer);
+                }
+
+                // Both cursors are ordered by todo id, so tags are merge-joined onto their todo
+                Iterator<Object[]> tags = tagRows.iterator();
+                Object[] pendingTag = tags.hasNext() ? tags.next() : null;
+                Iterator<TodoTransferRecord> records = todos.iterator();
+                while (records.hasNext()) {
+                    TodoTransferRecord record = records.next();
+                    while (pendingTag != null && (Long) pendingTag[0] <= record.getId()) {
+                        if (pendingTag[0].equals(record.getId())) {
+                            record.getTags().add((String) pendingTag[1]);
+                        }
+                        pendingTag = tags.hasNext() ? tags.next() : null;
+                    }
+                    writeRecord(writer, format, record);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeRecord(Writer writer, Format format, TodoTransferRecord record) throws IOException {
+        if (format == Format.CSV) {
+            TodoCsv.writeRecord(writer, record);
+        } else {
+            writer.write(recordWriter.writeValueAsString(record));
+            writer.write('\n');
+        }
+    }
+
+    // ---- Import ----
+
+    public ImportProgress importTodos(User user, Format format, InputStream inputStream) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        progressByUser.put(user.getId(), progress);
+        ChunkedImport chunkedImport = new ChunkedImport(user, progress);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            if (format == Format.CSV) {
+                readCsv(reader, chunkedImport);
+            } else {
+                readNdjson(reader, chunkedImport);
+            }
+            chunkedImport.flush();
+        } finally {
+            progress.setDone(true);
+        }
+        log.info("Imported {} todos for user {} in {} chunks ({} skipped)",
+                progress.getImported(), user.getId(), progress.getChunksCommitted(), progress.getSkipped());
+        return progress;
+    }
+
+    public Optional<ImportProgress> getImportProgress(User user) {
+        return Optional.ofNullable(progressByUser.get(user.getId()));
+    }
+
+    private void readNdjson(BufferedReader reader, ChunkedImport chunkedImport) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunkedImport.add(recordReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                chunkedImport.reject("Line " + lineNumber + ": " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ChunkedImport chunkedImport) throws IOException {
+        TodoCsv.Parser parser = new TodoCsv.Parser(reader);
+        while (true) {
+            TodoTransferRecord record;
+            try {
+                record = parser.next();
+            } catch (IllegalArgumentException e) {
+                chunkedImport.reject("Row " + parser.getRecordNumber() + ": " + e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                return;
+            }
+            chunkedImport.add(record);
+        }
+    }
+
+    /**
+     * Buffers parsed records and writes each full chunk in its own transaction.
+     * Only file-id to database-id mappings and tag ids outlive a chunk.
+     */
+    private class ChunkedImport {
+
+        private final User user;
+        private final ImportProgress progress;
+        private final List<TodoTransferRecord> chunk = new ArrayList<>(chunkSize);
+        private final Map<Long, Long> importedIds = new HashMap<>();
+        private final Map<String, Long> tagIds = new HashMap<>();
+
+        ChunkedImport(User user, ImportProgress progress) {
+            this.user = user;
+            this.progress = progress;
+            tagRepository.findByUserOrderByNameAsc(user).forEach(tag -> tagIds.put(tag.getName(), tag.getId()));
+        }
+
+        void add(TodoTransferRecord record) {
+            chunk.add(record);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(String error) {
+            progress.setProcessed(progress.getProcessed() + 1);
+            progress.addError(error);
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Map<String, Long> createdTags = new HashMap<>();
+            Map<Long, Long> chunkIds = new HashMap<>();
+            List<Long> chunkTodoIds = new ArrayList<>();
+            int imported = writeTransaction.execute(status -> {
+                User owner = entityManager.getReference(User.class, user.getId());
+                int count = 0;
+                for (TodoTransferRecord record : chunk) {
+                    progress.setProcessed(progress.getProcessed() + 1);
+                    String error = validate(record);
+                    if (error != null) {
+                        progress.addError(error);
+                        continue;
+                    }
+                    Todo todo = toTodo(record, owner, chunkIds, createdTags);
+                    entityManager.persist(todo);
+                    chunkTodoIds.add(todo.getId());
+                    if (record.getId() != null) {
+                        chunkIds.put(record.getId(), todo.getId());
+                    }
+                    eventPublisher.publishEvent(TodoChangedEvent.created(TodoSnapshot.of(todo)));
+                    count++;
+                }
+                entityManager.flush();
+                if (!chunkTodoIds.isEmpty()) {
+                    tagRepository.adjustCounts(chunkTodoIds, 1);
+                }
+                entityManager.clear();
+                return count;
+            });
+            // Only remember ids once the chunk has committed
+            importedIds.putAll(chunkIds);
+            tagIds.putAll(createdTags);
+            progress.setImported(progress.getImported() + imported);
+            progress.setTagsCreated(progress.getTagsCreated() + createdTags.size());
+            progress.setChunksCommitted(progress.getChunksCommitted() + 1);
+            chunk.clear();
+        }
+
+        private Todo toTodo(TodoTransferRecord record, User owner, Map<Long, Long> chunkIds, Map<String, Long> createdTags) {
+            Todo todo = new Todo();
+            todo.setUser(owner);
+            todo.setTitle(record.getTitle());
+            todo.setDescription(record.getDescription());
+            todo.setCompleted(record.isCompleted());
+            todo.setDueDate(record.getDueDate());
+            todo.setDueTime(record.getDueTime());
+            todo.setPriority(record.getPriority() != null ? record.getPriority() : Priority.MEDIUM);
+            todo.setDisplayOrder(record.getDisplayOrder() != null ? record.getDisplayOrder() : 0);
+            if (record.getRecurrenceFrequency() != null) {
+                todo.setRecurrence(new RecurrenceRule(record.getRecurrenceFrequency(),
+                        record.getRecurrenceInterval() != null ? record.getRecurrenceInterval() : 1,
+                        record.getRecurrenceDayOfMonth(), record.getRecurrenceUntil()));
+                if (todo.getDueDate() == null) {
+                    todo.setDueDate(LocalDate.now());
+                }
+            }
+
+            // Parents precede subtasks in our own exports; unknown parents import as top-level todos
+            if (record.getParentId() != null) {
+                Long parentId = chunkIds.getOrDefault(record.getParentId(), importedIds.get(record.getParentId()));
+                if (parentId != null) {
+                    todo.setParent(entityManager.getReference(Todo.class, parentId));
+                }
+            }
+
+            for (String tagName : record.getTags()) {
+                Long tagId = tagIds.get(tagName);
+                if (tagId == null) {
+                    tagId = createdTags.get(tagName);
+                }
+                if (tagId == null) {
+                    Tag tag = new Tag();
+                    tag.setName(tagName);
+                    tag.setUser(owner);
+                    entityManager.persist(tag);
+                    tagId = tag.getId();
+                    createdTags.put(tagName, tagId);
+                }
+                todo.getTags().add(entityManager.getReference(Tag.class, tagId));
+            }
+            return todo;
+        }
+
+        private String validate(TodoTransferRecord record) {
+            String ref = record.getId() != null ? "Todo " + record.getId() : "Todo \"" + record.getTitle() + "\"";
+            if (record.getTitle() == null || record.getTitle().isBlank()) {
+                return ref + ": title is required";
+            }
+            if (record.getTitle().length() > 200) {
+                return ref + ": title must be less than 200 characters";
+            }
+            if (record.getDescription() != null && record.getDescription().length() > 1000) {
+                return ref + ": description must be less than 1000 characters";
+            }
+            for (String tagName : record.getTags()) {
+                if (tagName.length() > 50) {
+                    return ref + ": tag name must be at most 50 characters";
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.todoapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todoapp.dto.TagResponse;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.event.TodosReorderedEvent;
+import com.todoapp.model.Tag;
+import com.todoapp.model.User;
+import com.todoapp.repository.TagRepository;
+import com.todoapp.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Each active user's top-level todos, as mapped responses with tags and subtask summaries,
+ * indexed by due date and tag. TodoService's list, calendar, overdue, no-date and tag reads are
+ * answered from it. Writes mark the todos they touched (and their parents) stale after commit;
+ * the next read reloads just those rows. Buffered write-behind values are overlaid on read.
+ * Users are evicted when idle or when the cache's estimated size exceeds its budget.
+ */
+@Component
+public class TodoWorkingSet {
+
+    // Response orderings, matching the repository queries they replace
+    static final Comparator<TodoResponse> LIST_ORDER = Comparator
+            .comparing(TodoResponse::displayOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(TodoResponse::createdAt, Comparator.nullsLast(Comparator.reverseOrder()));
+    static final Comparator<TodoResponse> DAY_ORDER = Comparator
+            .comparing(TodoResponse::dueTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(TodoResponse::createdAt, Comparator.nullsLast(Comparator.reverseOrder()));
+    static final Comparator<TodoResponse> RANGE_ORDER = Comparator
+            .comparing(TodoResponse::dueDate)
+            .thenComparing(TodoResponse::dueTime, Comparator.nullsLast(Comparator.naturalOrder()));
+    private static final Comparator<TodoResponse> CREATED_ORDER = Comparator
+            .comparing(TodoResponse::createdAt, Comparator.nullsLast(Comparator.reverseOrder()));
+    private static final Comparator<TodoResponse> TAG_ORDER = Comparator
+            .comparing(TodoResponse::displayOrder, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final TodoRepository todoRepository;
+    private final TagRepository tagRepository;
+    private final TodoMapper todoMapper;
+    private final TodoWriteBuffer writeBuffer;
+    private final boolean enabled;
+    private final Cache<Long, UserTodos> cache;
+    private final Counter hits;
+    private final Counter refreshes;
+    private final Counter misses;
+
+    public TodoWorkingSet(
+            TodoRepository todoRepository,
+            TagRepository tagRepository,
+            TodoMapper todoMapper,
+            TodoWriteBuffer writeBuffer,
+            MeterRegistry meterRegistry,
+            @Value("${todo.working-set.enabled:true}") boolean enabled,
+            @Value("${todo.working-set.max-weight-mb:64}") long maxWeightMb,
+            @Value("${todo.working-set.expire-after-access-minutes:15}") long expireAfterAccessMinutes) {
+        this.todoRepository = todoRepository;
+        this.tagRepository = tagRepository;
+        this.todoMapper = todoMapper;
+        this.writeBuffer = writeBuffer;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightMb * 1024 * 1024)
+                .weigher((Long userId, UserTodos todos) -> todos.weight)
+                .expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+                .recordStats()
+                .build();
+
+        // hit: served from memory; refresh: stale rows reloaded first; miss: the user's todos loaded
+        this.hits = Counter.builder("todo.workingset.reads").tag("result", "hit").register(meterRegistry);
+        this.refreshes = Counter.builder("todo.workingset.reads").tag("result", "refresh").register(meterRegistry);
+        this.misses = Counter.builder("todo.workingset.reads").tag("result", "miss").register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "todo.workingset");
+        Gauge.builder("todo.workingset.weight", cache, c -> c.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private record Cached(TodoResponse response, List<Long> tagIds) {
+    }
+
+    /**
+     * One user's todos and indexes. The monitor guards the fields and is held for in-memory work
+     * only; {@code refreshLock} keeps one reload at a time without blocking the event listeners
+     * during the database reads.
+     */
+    private static final class UserTodos {
+        private final ReentrantLock refreshLock = new ReentrantLock();
+        private boolean loaded;
+        private final Set<Long> stale = new HashSet<>();
+        private boolean tagsStale;
+        private final Map<Long, Cached> todos = new HashMap<>();
+        private final TreeMap<LocalDate, Set<Long>> byDueDate = new TreeMap<>();
+        private final Set<Long> undated = new HashSet<>();
+        private final Map<Long, Set<Long>> byTag = new HashMap<>();
+        private Map<Long, TagResponse> tags = Map.of();
+        private int recurring;
+        // Estimated bytes, read by the cache's weigher
+        private volatile int weight;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<TodoResponse> all(User user) {
+        return select(user, todos -> todos.todos.keySet(), todo -> true, LIST_ORDER);
+    }
+
+    public List<TodoResponse> byStatus(User user, boolean completed) {
+        return select(user, todos -> todos.todos.keySet(), todo -> todo.completed() == completed, LIST_ORDER);
+    }
+
+    // Recurring series are left out of the date reads; their occurrences are expanded by the caller
+    public List<TodoResponse> onDate(User user, LocalDate date) {
+        return select(user, todos -> todos.byDueDate.getOrDefault(date, Set.of()),
+                todo -> !todo.recurring() && date.equals(todo.dueDate()), DAY_ORDER);
+    }
+
+    public List<TodoResponse> between(User user, LocalDate startDate, LocalDate endDate) {
+        return select(user, todos -> union(todos.byDueDate.subMap(startDate, true, endDate, true).values()),
+                todo -> !todo.recurring() && todo.dueDate() != null
+                        && !todo.dueDate().isBefore(startDate) && !todo.dueDate().isAfter(endDate),
+                RANGE_ORDER);
+    }
+
+    public List<TodoResponse> overdue(User user) {
+        LocalDate today = LocalDate.now();
+        return select(user, todos -> union(todos.byDueDate.headMap(today, true).values()),
+                todo -> !todo.recurring() && todo.overdue(), RANGE_ORDER);
+    }
+
+    public List<TodoResponse> undated(User user) {
+        return select(user, todos -> todos.undated, todo -> todo.dueDate() == null, CREATED_ORDER);
+    }
+
+    public List<TodoResponse> byTag(User user, Long tagId) {
+        return select(user, todos -> todos.byTag.getOrDefault(tagId, Set.of()),
+                todo -> todo.tags().stream().anyMatch(tag -> tag.id().equals(tagId)), TAG_ORDER);
+    }
+
+    // Whether the user's todos are in memory; a read now would not load them all first
+    public boolean holds(User user) {
+        if (!enabled) {
+            return false;
+        }
+        UserTodos todos = cache.getIfPresent(user.getId());
+        if (todos == null) {
+            return false;
+        }
+        synchronized (todos) {
+            return todos.loaded;
+        }
+    }
+
+    // Whether the date reads need the recurrence expansion at all
+    public boolean hasRecurring(User user) {
+        UserTodos todos = current(user);
+        synchronized (todos) {
+            return todos.recurring > 0;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        UserTodos todos = cache.getIfPresent(event.userId());
+        if (todos == null) {
+            return;
+        }
+        synchronized (todos) {
+            markStale(todos, event.todoId(), event.before());
+            markStale(todos, event.todoId(), event.after());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosReordered(TodosReorderedEvent event) {
+        UserTodos todos = cache.getIfPresent(event.userId());
+        if (todos == null) {
+            return;
+        }
+        synchronized (todos) {
+            todos.stale.addAll(event.todoIds());
+        }
+    }
+
+    // A tag was renamed, recoloured or deleted; applied once the caller's transaction commits
+    public void tagsChanged(Long userId) {
+        afterCommit(() -> {
+            UserTodos todos = cache.getIfPresent(userId);
+            if (todos != null) {
+                synchronized (todos) {
+                    todos.tagsStale = true;
+                }
+            }
+        });
+    }
+
+    public void evict(Long userId) {
+        afterCommit(() -> cache.invalidate(userId));
+    }
+
+    // A subtask change only moves its parent's summary; top-level changes also move tag counters
+    private static void markStale(UserTodos todos, Long todoId, TodoSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.parentId() == null) {
+            todos.stale.add(todoId);
+            todos.tagsStale = true;
+        } else {
+            todos.stale.add(snapshot.parentId());
+        }
+    }
+
+    private List<TodoResponse> select(User user, Function<UserTodos, Set<Long>> candidates,
+                                      Predicate<TodoResponse> matches, Comparator<TodoResponse> order) {
+        UserTodos todos = current(user);
+        Map<Long, TodoWriteBuffer.PendingChange> pending = writeBuffer.pendingFor(user.getId());
+        LocalDate today = LocalDate.now();
+        LocalTime now = LocalTime.now();
+        List<TodoResponse> result = new ArrayList<>();
+        synchronized (todos) {
+            Set<Long> ids = candidates.apply(todos);
+            for (Long id : ids) {
+                TodoResponse todo = view(todos, id, pending.get(id), today, now);
+                if (todo != null && matches.test(todo)) {
+                    result.add(todo);
+                }
+            }
+            // Buffered values can move a todo into the result from outside its index entry
+            for (TodoWriteBuffer.PendingChange change : pending.values()) {
+                if (!ids.contains(change.todoId())) {
+                    TodoResponse todo = view(todos, change.todoId(), change, today, now);
+                    if (todo != null && matches.test(todo)) {
+                        result.add(todo);
+                    }
+                }
+            }
+        }
+        result.sort(order);
+        return result;
+    }
+
+    // The cached response with buffered values, current tags and a fresh overdue flag
+    private static TodoResponse view(UserTodos todos, Long id, TodoWriteBuffer.PendingChange change,
+                                     LocalDate today, LocalTime now) {
+        Cached cached = todos.todos.get(id);
+        if (cached == null) {
+            return null;
+        }
+        TodoResponse todo = cached.response();
+        boolean completed = change != null && change.completed() != null ? change.completed() : todo.completed();
+        LocalDate dueDate = change != null && change.dueDate() != null ? change.dueDate() : todo.dueDate();
+        Integer displayOrder = change != null && change.displayOrder() != null ? change.displayOrder() : todo.displayOrder();
+        List<TagResponse> tags = cached.tagIds().isEmpty() ? List.of() : cached.tagIds().stream()
+                .map(todos.tags::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(TagResponse::name))
+                .toList();
+        return new TodoResponse(
+                todo.id(),
+                todo.version(),
+                todo.title(),
+                todo.description(),
+                completed,
+                dueDate,
+                todo.dueTime(),
+                todo.priority(),
+                todo.recurrence(),
+                displayOrder,
+                tags,
+                todo.createdAt(),
+                todo.updatedAt(),
+                todo.parentId(),
+                todo.occurrenceDate(),
+                todo.recurring(),
+                TodoMapper.isOverdue(dueDate, todo.dueTime(), completed, today, now),
+                todo.subtaskCount(),
+                todo.completedSubtaskCount(),
+                todo.subtaskProgress());
+    }
+
+    private UserTodos current(User user) {
+        UserTodos todos = cache.get(user.getId(), id -> new UserTodos());
+        todos.refreshLock.lock();
+        try {
+            refresh(user, todos);
+        } finally {
+            todos.refreshLock.unlock();
+        }
+        return todos;
+    }
+
+    // Called under the refresh lock. Marks that land during the reads stay for the next read.
+    private void refresh(User user, UserTodos todos) {
+        boolean full;
+        List<Long> ids;
+        boolean tags;
+        synchronized (todos) {
+            full = !todos.loaded;
+            ids = full ? List.of() : List.copyOf(todos.stale);
+            tags = full || todos.tagsStale;
+            todos.stale.clear();
+            todos.tagsStale = false;
+        }
+        if (!full && ids.isEmpty() && !tags) {
+            hits.increment();
+            return;
+        }
+        (full ? misses : refreshes).increment();
+
+        List<TodoResponse> rows;
+        Map<Long, TagResponse> tagsById = null;
+        try {
+            if (full) {
+                rows = todoMapper.toResponses(todoRepository.findByUserAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(user));
+            } else if (!ids.isEmpty()) {
+                // Deleted todos, and todos that became subtasks, are simply not found here
+                rows = todoMapper.toResponses(todoRepository.findAllById(ids).stream()
+                        .filter(todo -> todo.getParent() == null)
+                        .toList());
+            } else {
+                rows = List.of();
+            }
+            if (tags) {
+                tagsById = new HashMap<>();
+                for (Tag tag : tagRepository.findByUserOrderByNameAsc(user)) {
+                    tagsById.put(tag.getId(), TagResponse.of(tag));
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (todos) {
+                todos.stale.addAll(ids);
+                todos.tagsStale |= tags;
+            }
+            throw e;
+        }
+
+        synchronized (todos) {
+            if (full) {
+                todos.todos.clear();
+                todos.byDueDate.clear();
+                todos.undated.clear();
+                todos.byTag.clear();
+                todos.tags = Map.of();
+                todos.recurring = 0;
+                todos.weight = 0;
+            } else {
+                ids.forEach(id -> unindex(todos, id));
+            }
+            rows.forEach(row -> index(todos, row));
+            if (tagsById != null) {
+                todos.weight += 128 * (tagsById.size() - todos.tags.size());
+                todos.tags = tagsById;
+            }
+            todos.loaded = true;
+        }
+        // Re-weighs the entry, unless it was evicted meanwhile
+        cache.asMap().replace(user.getId(), todos, todos);
+    }
+
+    private static void index(UserTodos todos, TodoResponse todo) {
+        List<Long> tagIds = todo.tags().stream().map(TagResponse::id).toList();
+        todos.todos.put(todo.id(), new Cached(todo, tagIds));
+        if (todo.dueDate() != null) {
+            todos.byDueDate.computeIfAbsent(todo.dueDate(), date -> new HashSet<>()).add(todo.id());
+        } else {
+            todos.undated.add(todo.id());
+        }
+        tagIds.forEach(tagId -> todos.byTag.computeIfAbsent(tagId, id -> new HashSet<>()).add(todo.id()));
+        if (todo.recurring()) {
+            todos.recurring++;
+        }
+        todos.weight += weigh(todo);
+    }
+
+    private static void unindex(UserTodos todos, Long id) {
+        Cached cached = todos.todos.remove(id);
+        if (cached == null) {
+            return;
+        }
+        TodoResponse todo = cached.response();
+        if (todo.dueDate() != null) {
+            Set<Long> day = todos.byDueDate.get(todo.dueDate());
+            if (day != null) {
+                day.remove(id);
+                if (day.isEmpty()) {
+                    todos.byDueDate.remove(todo.dueDate());
+                }
+            }
+        } else {
+            todos.undated.remove(id);
+        }
+        for (Long tagId : cached.tagIds()) {
+            Set<Long> tagged = todos.byTag.get(tagId);
+            if (tagged != null) {
+                tagged.remove(id);
+                if (tagged.isEmpty()) {
+                    todos.byTag.remove(tagId);
+                }
+            }
+        }
+        if (todo.recurring()) {
+            todos.recurring--;
+        }
+        todos.weight -= weigh(todo);
+    }
+
+    // Rough retained size: the response and its index entries, plus two bytes per character
+    private static int weigh(TodoResponse todo) {
+        int chars = todo.title().length() + (todo.description() != null ? todo.description().length() : 0);
+        return 400 + 2 * chars + 48 * todo.tags().size();
+    }
+
+    private static Set<Long> union(Collection<Set<Long>> sets) {
+        Set<Long> union = new HashSet<>();
+        sets.forEach(union::addAll);
+        return union;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,317 @@
+package com.todoapp.service;
+
+import com.todoapp.config.ShardContext;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.event.TodosReorderedEvent;
+import com.todoapp.model.Todo;
+import com.todoapp.repository.TagRepository;
+import com.todoapp.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in write-behind for the drag-and-click mutations: toggle, due date and reorder. Changes
+ * are merged per todo in memory and written in batches, so a card dragged across five days costs
+ * one UPDATE instead of five, and a double toggle costs none. TodoService overlays pending values
+ * on everything it reads. The buffer is flushed every flush interval, as soon as it holds
+ * max-pending todos, and on shutdown. Change events are published when the change is written.
+ */
+@Slf4j
+@Component
+public class TodoWriteBuffer {
+
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    // Latest buffered values of one todo; null fields are left as stored
+    public record PendingChange(Long todoId, Long userId, String shard, Boolean completed, LocalDate dueDate, Integer displayOrder) {
+
+        void applyTo(Todo todo) {
+            if (completed != null) {
+                todo.setCompleted(completed);
+            }
+            if (dueDate != null) {
+                todo.setDueDate(dueDate);
+            }
+            if (displayOrder != null) {
+                todo.setDisplayOrder(displayOrder);
+            }
+        }
+    }
+
+    private final TodoRepository todoRepository;
+    private final TagRepository tagRepository;
+    private final ShardService shardService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ReadCoalescer readCoalescer;
+    private final boolean enabled;
+    private final long flushIntervalNanos;
+    private final int maxPending;
+
+    // user id -> todo id -> change
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, PendingChange>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile long lastFlush = System.nanoTime();
+    private final Counter buffered;
+    private final Counter written;
+
+    public TodoWriteBuffer(
+            TodoRepository todoRepository,
+            TagRepository tagRepository,
+            ShardService shardService,
+            ApplicationEventPublisher eventPublisher,
+            EntityManager entityManager,
+            ReadCoalescer readCoalescer,
+            MeterRegistry meterRegistry,
+            @Value("${todo.write-behind.enabled:false}") boolean enabled,
+            @Value("${todo.write-behind.flush-interval-millis:1000}") long flushIntervalMillis,
+            @Value("${todo.write-behind.max-pending:1000}") int maxPending) {
+        this.todoRepository = todoRepository;
+        this.tagRepository = tagRepository;
+        this.shardService = shardService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.readCoalescer = readCoalescer;
+        this.enabled = enabled;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxPending = maxPending;
+
+        this.buffered = Counter.builder("todo.writebehind.changes").tag("stage", "buffered").register(meterRegistry);
+        this.written = Counter.builder("todo.writebehind.changes").tag("stage", "written").register(meterRegistry);
+        Gauge.builder("todo.writebehind.pending", size, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Flips the todo's completion as seen by readers: the pending value if there is one, else the stored one
+    public void toggle(Todo todo) {
+        Long userId = todo.getUser().getId();
+        boolean stored = todo.isCompleted();
+        merge(userId, todo.getId(), old -> {
+            boolean current = old != null && old.completed() != null ? old.completed() : stored;
+            return changed(old, todo.getId(), userId, !current, null, null);
+        });
+    }
+
+    public void setDueDate(Long userId, Long todoId, LocalDate dueDate) {
+        merge(userId, todoId, old -> changed(old, todoId, userId, null, dueDate, null));
+    }
+
+    public void setDisplayOrder(Long userId, Long todoId, int displayOrder) {
+        merge(userId, todoId, old -> changed(old, todoId, userId, null, null, displayOrder));
+    }
+
+    // The todo was rewritten or deleted synchronously; its buffered values are stale
+    public void discard(Long userId, Long todoId) {
+        remove(userId, todoId, null);
+    }
+
+    // The account is being deleted
+    public void discardAll(Long userId) {
+        pending.computeIfPresent(userId, (id, changes) -> {
+            size.addAndGet(-changes.size());
+            return null;
+        });
+    }
+
+    public Map<Long, PendingChange> pendingFor(Long userId) {
+        ConcurrentHashMap<Long, PendingChange> changes = pending.get(userId);
+        return changes != null ? changes : Map.of();
+    }
+
+    /**
+     * Applies the todo's pending values, if any. The entity is detached first so the overlay is
+     * never flushed by the caller's transaction.
+     */
+    public Todo overlay(Todo todo) {
+        if (todo.getUser() == null) {
+            return todo;
+        }
+        PendingChange change = pendingFor(todo.getUser().getId()).get(todo.getId());
+        if (change != null) {
+            entityManager.detach(todo);
+            change.applyTo(todo);
+        }
+        return todo;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.write-behind.tick-millis:100}")
+    public void flushIfDue() {
+        if (size.get() > 0 && (size.get() >= maxPending || System.nanoTime() - lastFlush >= flushIntervalNanos)) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        flushLock.lock();
+        try {
+            lastFlush = System.nanoTime();
+            List<PendingChange> changes = pending.values().stream()
+                    .flatMap(userChanges -> userChanges.values().stream())
+                    .toList();
+            write(changes);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // For readers that bypass the overlay (exports, aggregates keyed on update time)
+    public void flush(Long userId) {
+        Map<Long, PendingChange> changes = pendingFor(userId);
+        if (changes.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            write(List.copyOf(changes.values()));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Per-user maps are created and dropped under the outer map's lock so no change lands in a dropped map
+    private void merge(Long userId, Long todoId, UnaryOperator<PendingChange> update) {
+        pending.compute(userId, (id, changes) -> {
+            ConcurrentHashMap<Long, PendingChange> userChanges = changes != null ? changes : new ConcurrentHashMap<>();
+            userChanges.compute(todoId, (key, old) -> {
+                if (old == null) {
+                    size.incrementAndGet();
+                }
+                return update.apply(old);
+            });
+            return userChanges;
+        });
+        buffered.increment();
+        // Readers see buffered values at once, so reads in flight are already out of date
+        readCoalescer.invalidate(userId);
+    }
+
+    // Removes the todo's change; with expected set, only if it is still that change
+    private void remove(Long userId, Long todoId, PendingChange expected) {
+        pending.computeIfPresent(userId, (id, changes) -> {
+            boolean removed = expected != null ? changes.remove(todoId, expected) : changes.remove(todoId) != null;
+            if (removed) {
+                size.decrementAndGet();
+            }
+            return changes.isEmpty() ? null : changes;
+        });
+    }
+
+    private static PendingChange changed(PendingChange old, Long todoId, Long userId,
+                                         Boolean completed, LocalDate dueDate, Integer displayOrder) {
+        String shard = old != null ? old.shard() : ShardContext.current();
+        return new PendingChange(
+                todoId,
+                userId,
+                shard != null ? shard : ShardContext.DIRECTORY,
+                completed != null ? completed : old != null ? old.completed() : null,
+                dueDate != null ? dueDate : old != null ? old.dueDate() : null,
+                displayOrder != null ? displayOrder : old != null ? old.displayOrder() : null);
+    }
+
+    private void write(List<PendingChange> changes) {
+        Map<String, List<PendingChange>> byShard = changes.stream()
+                .collect(Collectors.groupingBy(PendingChange::shard));
+        byShard.forEach((shard, shardChanges) -> {
+            for (int from = 0; from < shardChanges.size(); from += FLUSH_CHUNK_SIZE) {
+                List<PendingChange> chunk = shardChanges.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, shardChanges.size()));
+                try {
+                    shardService.inShard(shard, () -> {
+                        writeChunk(chunk);
+                        return null;
+                    });
+                } catch (RuntimeException e) {
+                    // Kept in the buffer and retried on the next flush
+                    log.warn("Write-behind flush of {} todos on {} failed", chunk.size(), shard, e);
+                    continue;
+                }
+                acknowledge(chunk);
+            }
+        });
+    }
+
+    // One SELECT for the chunk; Hibernate's dirty check skips todos whose changes cancelled out
+    private void writeChunk(List<PendingChange> chunk) {
+        Map<Long, PendingChange> byId = chunk.stream()
+                .collect(Collectors.toMap(PendingChange::todoId, change -> change));
+        List<Todo> todos = todoRepository.findAllById(byId.keySet());
+        // Chunks mix users; reorder events are per user
+        Map<Long, List<Long>> reordered = new HashMap<>();
+        // Top-level todos whose completion flips come off their tags' counters and go back on after the flush
+        List<Long> recounted = todos.stream()
+                .filter(todo -> todo.getParent() == null)
+                .filter(todo -> {
+                    Boolean completed = byId.get(todo.getId()).completed();
+                    return completed != null && completed != todo.isCompleted();
+                })
+                .map(Todo::getId)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (!recounted.isEmpty()) {
+            tagRepository.adjustCounts(recounted, -1);
+        }
+        for (Todo todo : todos) {
+            TodoSnapshot before = TodoSnapshot.of(todo);
+            Integer orderBefore = todo.getDisplayOrder();
+            byId.get(todo.getId()).applyTo(todo);
+            TodoSnapshot after = TodoSnapshot.of(todo);
+            // Display order is not in the snapshot: reordering alone publishes no event, as in TodoService
+            if (!before.equals(after)) {
+                eventPublisher.publishEvent(TodoChangedEvent.updated(before, after));
+            } else if (Objects.equals(orderBefore, todo.getDisplayOrder())) {
+                continue;
+            } else {
+                reordered.computeIfAbsent(byId.get(todo.getId()).userId(), id -> new ArrayList<>()).add(todo.getId());
+            }
+            written.increment();
+            if (todo.isCompleted() && !before.completed() && todo.getParent() != null) {
+                completeParentIfDone(todo.getParent(), recounted);
+            }
+        }
+        if (!recounted.isEmpty()) {
+            tagRepository.adjustCounts(recounted, 1);
+        }
+        reordered.forEach((userId, ids) -> eventPublisher.publishEvent(new TodosReorderedEvent(userId, ids)));
+    }
+
+    // Same rule as TodoService: a parent completes with its last subtask
+    private void completeParentIfDone(Todo parent, List<Long> recounted) {
+        if (!parent.isCompleted() && parent.getSubtasks().stream().allMatch(Todo::isCompleted)) {
+            TodoSnapshot before = TodoSnapshot.of(parent);
+            if (parent.getParent() == null && !recounted.contains(parent.getId())) {
+                tagRepository.adjustCounts(List.of(parent.getId()), -1);
+                recounted.add(parent.getId());
+            }
+            parent.setCompleted(true);
+            eventPublisher.publishEvent(TodoChangedEvent.updated(before, TodoSnapshot.of(parent)));
+        }
+    }
+
+    // Drops what was written, unless the todo was changed again in the meantime
+    private void acknowledge(List<PendingChange> chunk) {
+        for (PendingChange change : chunk) {
+            remove(change.userId(), change.todoId(), change);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.todoapp.service;
+
+import com.todoapp.model.Priority;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * One user's open top-level todos, ranked by {@link UrgencyScorer}. Todos are kept in one set
+ * per score class, ordered by due time; since the score within a class only falls as the due
+ * time moves out, the top K overall are among the first K of each class. A read scores a few
+ * todos per class and stops a class at the first one that cannot make the cut. All of the
+ * user's todos are tracked, subtasks included, to keep each parent's progress current.
+ * Not thread-safe: {@link NextUpService} locks the ranking around every call.
+ */
+class UrgencyRanking {
+
+    // recurring series have no single due time and rank as undated
+    record Entry(long id, Long parentId, boolean completed, Priority priority, long dueAt) {
+
+        static Entry of(long id, Long parentId, boolean completed, Priority priority,
+                        LocalDate dueDate, LocalTime dueTime, boolean recurring) {
+            return new Entry(id, parentId, completed, priority,
+                    recurring ? UrgencyScorer.NO_DUE : UrgencyRanking.dueAt(dueDate, dueTime));
+        }
+    }
+
+    record Ranked(long id, double urgency, long dueAt) {
+    }
+
+    // Sooner due first; ids keep entries with the same due time apart
+    private static final Comparator<Entry> DUE_ORDER = Comparator
+            .comparingLong(Entry::dueAt)
+            .thenComparingLong(Entry::id);
+    // Least urgent first. Equal scores (overdue past the cap, undated) go to the sooner due, then
+    // the lower id: the order of a class's set, so a read can stop a class at the first tie too
+    private static final Comparator<Ranked> RANK_ORDER = Comparator
+            .comparingDouble(Ranked::urgency)
+            .thenComparing(Comparator.comparingLong(Ranked::dueAt).reversed())
+            .thenComparing(Comparator.comparingLong(Ranked::id).reversed());
+
+    private final UrgencyScorer scorer;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // parent id -> {subtasks, completed subtasks}
+    private final Map<Long, int[]> subtasks = new HashMap<>();
+    private final Map<Long, Integer> classOf = new HashMap<>();
+    private final List<TreeSet<Entry>> classes = new ArrayList<>();
+
+    UrgencyRanking(UrgencyScorer scorer) {
+        this.scorer = scorer;
+        for (int i = 0; i < scorer.classes(); i++) {
+            classes.add(new TreeSet<>(DUE_ORDER));
+        }
+    }
+
+    // A date without a time is due at the end of that day, as the overdue flag has it
+    static long dueAt(LocalDate dueDate, LocalTime dueTime) {
+        if (dueDate == null) {
+            return UrgencyScorer.NO_DUE;
+        }
+        LocalDateTime due = dueTime != null ? dueDate.atTime(dueTime) : dueDate.plusDays(1).atStartOfDay();
+        return due.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static long now() {
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    int ranked() {
+        return classOf.size();
+    }
+
+    void upsert(Entry entry) {
+        Entry previous = entries.put(entry.id(), entry);
+        if (previous != null) {
+            unrank(previous);
+            countSubtask(previous, -1);
+        }
+        countSubtask(entry, 1);
+        rank(entry);
+    }
+
+    void remove(long id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            unrank(previous);
+            countSubtask(previous, -1);
+        }
+    }
+
+    /**
+     * The k most urgent todos at {@code now}, most urgent first. Scores at most k + 1 todos per
+     * class, however many are open.
+     */
+    List<Ranked> top(int k, long now) {
+        if (k <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Ranked> best = new PriorityQueue<>(k + 1, RANK_ORDER);
+        for (int todoClass = 0; todoClass < classes.size(); todoClass++) {
+            double classScore = scorer.classScore(todoClass);
+            for (Entry entry : classes.get(todoClass)) {
+                Ranked ranked = new Ranked(entry.id(), classScore + scorer.dueScore(entry.dueAt(), now), entry.dueAt());
+                if (best.size() == k && RANK_ORDER.compare(ranked, best.peek()) <= 0) {
+                    break;
+                }
+                best.add(ranked);
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+        }
+        List<Ranked> result = new ArrayList<>(best);
+        result.sort(RANK_ORDER.reversed());
+        return result;
+    }
+
+    private void rank(Entry entry) {
+        if (entry.completed() || entry.parentId() != null) {
+            return;
+        }
+        int[] counts = subtasks.get(entry.id());
+        int progress = counts == null ? 0 : counts[1] * 100 / counts[0];
+        int todoClass = scorer.classOf(entry.priority(), progress);
+        classes.get(todoClass).add(entry);
+        classOf.put(entry.id(), todoClass);
+    }
+
+    private void unrank(Entry entry) {
+        Integer todoClass = classOf.remove(entry.id());
+        if (todoClass != null) {
+            classes.get(todoClass).remove(entry);
+        }
+    }
+
+    // Moves the parent to the class of its new progress
+    private void countSubtask(Entry entry, int delta) {
+        if (entry.parentId() == null) {
+            return;
+        }
+        int[] counts = subtasks.computeIfAbsent(entry.parentId(), id -> new int[2]);
+        counts[0] += delta;
+        if (entry.completed()) {
+            counts[1] += delta;
+        }
+        if (counts[0] <= 0) {
+            subtasks.remove(entry.parentId());
+        }
+        Entry parent = entries.get(entry.parentId());
+        if (parent != null) {
+            unrank(parent);
+            rank(parent);
+        }
+    }
+}
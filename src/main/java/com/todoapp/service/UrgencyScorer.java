@@ -0,0 +1,76 @@
+package com.todoapp.service;
+
+import com.todoapp.config.NextUpProperties;
+import com.todoapp.model.Priority;
+
+/**
+ * Urgency of an open todo. The score splits into a part fixed by the todo's class (priority and
+ * progress step) and a part that depends only on the time left until it is due and never rises
+ * as that time grows. Within a class, todos therefore rank by due time whatever the clock says.
+ */
+final class UrgencyScorer {
+
+    // Due instants are local wall-clock seconds; no due time at all sorts after every other
+    static final long NO_DUE = Long.MAX_VALUE;
+
+    private static final int PRIORITIES = Priority.values().length;
+
+    private final double[] priorityWeights = new double[PRIORITIES + 1];
+    private final double dueWeight;
+    private final double halfLifeSeconds;
+    private final double overdueBonus;
+    private final double overduePerDay;
+    private final int maxOverdueDays;
+    private final double progressWeight;
+    private final int progressSteps;
+
+    UrgencyScorer(NextUpProperties properties) {
+        for (Priority priority : Priority.values()) {
+            priorityWeights[priority.ordinal()] = nonNegative("priority-weights." + priority,
+                    properties.getPriorityWeights().getOrDefault(priority, 0.0));
+        }
+        this.dueWeight = nonNegative("due-weight", properties.getDueWeight());
+        this.halfLifeSeconds = Math.max(1, properties.getHalfLifeHours() * 3600);
+        this.overdueBonus = nonNegative("overdue-bonus", properties.getOverdueBonus());
+        this.overduePerDay = nonNegative("overdue-per-day", properties.getOverduePerDay());
+        this.maxOverdueDays = Math.max(0, properties.getMaxOverdueDays());
+        this.progressWeight = nonNegative("progress-weight", properties.getProgressWeight());
+        this.progressSteps = Math.max(0, properties.getProgressSteps());
+    }
+
+    int classes() {
+        return (PRIORITIES + 1) * (progressSteps + 1);
+    }
+
+    // progress is the subtask percentage shown on the todo, 0 to 100
+    int classOf(Priority priority, int progress) {
+        int priorityClass = priority != null ? priority.ordinal() : PRIORITIES;
+        return priorityClass * (progressSteps + 1) + progress * progressSteps / 100;
+    }
+
+    double classScore(int todoClass) {
+        double score = priorityWeights[todoClass / (progressSteps + 1)];
+        if (progressSteps > 0) {
+            score += progressWeight * (todoClass % (progressSteps + 1)) / progressSteps;
+        }
+        return score;
+    }
+
+    double dueScore(long dueAt, long now) {
+        if (dueAt == NO_DUE) {
+            return 0;
+        }
+        if (dueAt >= now) {
+            return dueWeight * Math.pow(0.5, (dueAt - now) / halfLifeSeconds);
+        }
+        double daysOverdue = Math.min((now - dueAt) / 86400.0, maxOverdueDays);
+        return dueWeight + overdueBonus + overduePerDay * daysOverdue;
+    }
+
+    private static double nonNegative(String property, double value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("todo.next-up." + property + " must not be negative");
+        }
+        return value;
+    }
+}
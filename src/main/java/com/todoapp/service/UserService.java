@@ -1,5 +1,6 @@
 package com.todoapp.service;
 
+import com.todoapp.config.ShardContext;
 import com.todoapp.dto.AuthResponse;
 import com.todoapp.dto.LoginRequest;
 import com.todoapp.dto.RegisterRequest;
@@ -9,46 +10,61 @@ import com.todoapp.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Optional;
 
+// User lookups always go to the directory, even while the request is bound to a shard
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final ShardService shardService;
+    private final TodoWriteBuffer writeBuffer;
+    private final TodoWorkingSet workingSet;
+    private final AvailabilityService availabilityService;
+    private final TodoQueryService todoQueryService;
+    private final NextUpService nextUpService;
 
+    /**
+     * One INSERT that either creates the user or, on a taken username or email, adds nothing;
+     * concurrent sign-ups for the same name are settled by the unique constraints. Only a
+     * refused insert looks up which of the two was taken.
+     */
     public AuthResponse register(RegisterRequest request) {
-        // Check if username exists
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already exists");
-        }
-
-        // Check if email exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists");
-        }
+        return shardService.inDirectory(() -> {
+            User user = new User();
+            user.setUsername(request.getUsername());
+            user.setEmail(request.getEmail());
+            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setCreatedAt(LocalDateTime.now());
+            user.setLastActiveDate(LocalDate.now());
 
-        // Create new user
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+            Long id = userRepository.insertIfAvailable(user.getUsername(), user.getEmail(), user.getPassword(),
+                            user.getTheme(), user.getLastActiveDate(), user.getCreatedAt())
+                    .orElseThrow(() -> new RuntimeException(userRepository.existsByUsername(user.getUsername())
+                            ? "Username already exists" : "Email already exists"));
+            user.setId(id);
+            availabilityService.registered(user.getUsername(), user.getEmail());
+            shardService.place(user);
+            if (user.getShard() != null) {
+                userRepository.updateShard(id, user.getShard());
+            }
 
-        userRepository.save(user);
+            // Generate token
+            String token = jwtUtil.generateToken(user.getUsername());
 
-        // Generate token
-        String token = jwtUtil.generateToken(user.getUsername());
-
-        return AuthResponse.success(token, user.getUsername(), user.getEmail());
+            return AuthResponse.success(token, user.getUsername(), user.getEmail());
+        });
     }
 
     public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByUsername(request.getUsername())
+        User user = shardService.inDirectory(() -> userRepository.findByUsername(request.getUsername()))
                 .orElseThrow(() -> new RuntimeException("Invalid username or password"));
 
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
@@ -60,7 +76,46 @@ public class UserService {
         return AuthResponse.success(token, user.getUsername(), user.getEmail());
     }
 
+    /**
+     * Deletes the account and everything it owns with bulk statements: one on the user's shard
+     * for the data and its reference row, one on the directory for the user row. Without
+     * sharding the first statement removes the user row as well.
+     */
+    public boolean deleteAccount(String username) {
+        Optional<User> found = findByUsername(username);
+        if (found.isEmpty()) {
+            return false;
+        }
+        User user = found.get();
+        String shard = shardService.shardOf(user);
+        writeBuffer.discardAll(user.getId());
+        if (ShardContext.DIRECTORY.equals(shard)) {
+            shardService.inDirectory(() -> userRepository.deleteOwnedData(user.getId()));
+        } else {
+            shardService.inShard(shard, () -> userRepository.deleteOwnedData(user.getId()));
+            shardService.inDirectory(() -> userRepository.deleteByIdInBulk(user.getId()));
+        }
+        workingSet.evict(user.getId());
+        todoQueryService.evict(user.getId());
+        nextUpService.evict(user.getId());
+        return true;
+    }
+
+    /**
+     * Sets the zone streak days are counted in; null goes back to the server's.
+     * @throws IllegalArgumentException if the id is not an IANA region id
+     */
+    public Optional<User> updateTimeZone(String username, String timeZone) {
+        if (timeZone != null && !ZoneId.getAvailableZoneIds().contains(timeZone)) {
+            throw new IllegalArgumentException("Unknown time zone: " + timeZone);
+        }
+        return shardService.inDirectory(() -> userRepository.findByUsername(username).map(user -> {
+            user.setTimeZone(timeZone);
+            return user;
+        }));
+    }
+
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return shardService.inDirectory(() -> userRepository.findByUsername(username));
     }
 }
@@ -93,12 +93,15 @@ document.addEventListener('DOMContentLoaded', async () => {
     // Request notification permission
     requestNotificationPermission();
 
-    // Load data
-    await loadTags();
-    await updateView();
+    // Load data: tags and the current view in one request
+    await loadDashboard();
 
-    // Check for upcoming deadlines
-    checkDeadlines();
+    // Reminders pushed by the server; polling where the browser has no EventSource
+    if ('EventSource' in window) {
+        subscribeReminders();
+    } else {
+        checkDeadlines();
+    }
 });
 
 // ============================================
@@ -271,7 +274,7 @@ async function handleDrop(e) {
     const calendarDay = e.target.closest('.calendar-day:not(.empty)');
     if (calendarDay && todoId) {
         const newDate = calendarDay.dataset.date;
-        await updateTodoDueDate(parseInt(todoId), newDate);
+        await updateTodoDueDate(parseInt(todoId), newDate, draggedItem?.dataset.version);
         calendarDay.classList.remove('drag-over');
         updateView();
         return;
@@ -368,19 +371,20 @@ function goToToday() {
 // ============================================
 // Update View
 // ============================================
-async function updateView() {
+// dashboard: prefetched sections from /api/dashboard; missing ones are fetched individually
+async function updateView(dashboard = null) {
     updatePeriodTitle();
     showLoading();
 
     try {
         if (currentView === 'month') {
-            await renderMonthView();
+            await renderMonthView(dashboard?.calendarCounts);
         } else if (currentView === 'week') {
-            await renderWeekView();
+            await renderWeekView(dashboard?.todos);
         } else if (currentView === 'day') {
-            await renderDayView();
+            await renderDayView(dashboard?.todos);
         } else if (currentView === 'list') {
-            await renderListView('all');
+            await renderListView('all', dashboard?.todos);
         }
     } catch (error) {
         console.error('Error updating view:', error);
@@ -419,11 +423,11 @@ function updatePeriodTitle() {
 // ============================================
 // Month View
 // ============================================
-async function renderMonthView() {
+async function renderMonthView(prefetched) {
     const year = currentDate.getFullYear();
     const month = currentDate.getMonth();
 
-    const counts = await fetchCalendarCounts(year, month + 1);
+    const counts = prefetched || await fetchCalendarCounts(year, month + 1);
 
     const firstDay = new Date(year, month, 1);
     const lastDay = new Date(year, month + 1, 0);
@@ -465,9 +469,9 @@ async function renderMonthView() {
 // ============================================
 // Week View
 // ============================================
-async function renderWeekView() {
+async function renderWeekView(prefetched) {
     const startOfWeek = getStartOfWeek(currentDate);
-    const todos = await fetchWeekTodos(startOfWeek);
+    const todos = prefetched || await fetchWeekTodos(startOfWeek);
 
     const today = new Date();
     today.setHours(0, 0, 0, 0);
@@ -505,9 +509,9 @@ async function renderWeekView() {
 // ============================================
 // Day View
 // ============================================
-async function renderDayView() {
+async function renderDayView(prefetched) {
     const dateStr = formatDateISO(currentDate);
-    let todos = await fetchDayTodos(dateStr);
+    let todos = prefetched || await fetchDayTodos(dateStr);
     todos = filterTodosByTag(todos);
 
     const container = document.getElementById('dayTodoList');
@@ -523,11 +527,13 @@ async function renderDayView() {
 // ============================================
 // List View
 // ============================================
-async function renderListView(filter = 'all') {
+async function renderListView(filter = 'all', prefetched) {
     let todos;
 
     try {
-        if (filter === 'overdue') {
+        if (prefetched) {
+            todos = prefetched;
+        } else if (filter === 'overdue') {
             todos = await fetchOverdueTodos();
         } else if (filter === 'today') {
             todos = await fetchDayTodos(formatDateISO(new Date()));
@@ -609,7 +615,7 @@ function createTodoHTML(todo, compact = false) {
         `<span class="todo-tag" style="background:${tag.color}">${tag.name}</span>`
     ).join('');
 
-    const subtaskProgress = todo.subtasks?.length > 0 ? todo.getSubtaskProgress || 0 : -1;
+    const subtaskProgress = todo.subtaskCount > 0 ? todo.subtaskProgress : -1;
     const progressHtml = subtaskProgress >= 0
         ? `<div class="subtask-progress"><div class="progress-bar" style="width:${subtaskProgress}%"></div></div>`
         : '';
@@ -617,7 +623,7 @@ function createTodoHTML(todo, compact = false) {
     if (compact) {
         return `
             <div class="todo-item compact ${priorityClass} ${overdueClass} ${completedClass}" 
-                 data-id="${todo.id}" draggable="true">
+                 data-id="${todo.id}" data-version="${todo.version ?? ''}" data-occurrence="${todo.occurrenceDate || ''}" draggable="true">
                 <label class="todo-checkbox">
                     <input type="checkbox" ${todo.completed ? 'checked' : ''}>
                     <span class="checkmark"></span>
@@ -629,7 +635,7 @@ function createTodoHTML(todo, compact = false) {
 
     return `
         <div class="todo-item ${priorityClass} ${overdueClass} ${completedClass}" 
-             data-id="${todo.id}" draggable="true">
+             data-id="${todo.id}" data-version="${todo.version ?? ''}" data-occurrence="${todo.occurrenceDate || ''}" draggable="true">
             <label class="todo-checkbox">
                 <input type="checkbox" ${todo.completed ? 'checked' : ''}>
                 <span class="checkmark"></span>
@@ -643,7 +649,7 @@ function createTodoHTML(todo, compact = false) {
                     <span class="priority-badge">${getPriorityLabel(todo.priority)}</span>
                     ${tagsHtml}
                 </div>
-                ${todo.subtasks?.length > 0 ? `<div class="subtask-info">📋 ${todo.subtasks.filter(s => s.completed).length}/${todo.subtasks.length}</div>` : ''}
+                ${todo.subtaskCount > 0 ? `<div class="subtask-info">📋 ${todo.completedSubtaskCount}/${todo.subtaskCount}</div>` : ''}
             </div>
             <div class="todo-actions">
                 ${todo.parentId ? '' : '<button class="action-btn subtask-btn" title="Thêm bước con">➕</button>'}
@@ -659,7 +665,7 @@ function attachTodoListeners(container) {
         const id = parseInt(item.dataset.id);
 
         const checkbox = item.querySelector('input[type="checkbox"]');
-        checkbox?.addEventListener('change', () => toggleTodo(id));
+        checkbox?.addEventListener('change', () => toggleTodo(id, item.dataset.occurrence, item.dataset.version));
 
         const editBtn = item.querySelector('.edit-btn');
         editBtn?.addEventListener('click', () => openTodoModal(id));
@@ -667,7 +673,7 @@ function attachTodoListeners(container) {
         const deleteBtn = item.querySelector('.delete-btn');
         deleteBtn?.addEventListener('click', () => {
             if (confirm('Bạn có chắc muốn xóa công việc này?')) {
-                deleteTodo(id);
+                deleteTodo(id, item.dataset.version);
             }
         });
 
@@ -689,10 +695,32 @@ async function loadTags() {
     }
 }
 
+async function loadDashboard() {
+    let dashboard = null;
+    try {
+        const date = currentView === 'week' ? getStartOfWeek(currentDate) : currentDate;
+        dashboard = await fetchDashboard(currentView, formatDateISO(date));
+    } catch (error) {
+        console.error('Error loading dashboard:', error);
+    }
+
+    if (dashboard?.tags) {
+        tags = dashboard.tags;
+        renderTagsFilter();
+        renderTagSelector();
+    } else {
+        await loadTags();
+    }
+    await updateView(dashboard);
+}
+
 function renderTagsFilter() {
-    let html = '<button class="tag-filter active" data-tag-id="all">Tất cả</button>';
+    // Re-rendered when counts change, so keep the selected filter
+    const active = id => String(id) === String(currentTagFilter) ? ' active' : '';
+    let html = `<button class="tag-filter${active('all')}" data-tag-id="all">Tất cả</button>`;
     tags.forEach(tag => {
-        html += `<button class="tag-filter" data-tag-id="${tag.id}" style="--tag-color:${tag.color}">${tag.name}</button>`;
+        html += `<button class="tag-filter${active(tag.id)}" data-tag-id="${tag.id}" style="--tag-color:${tag.color}" ` +
+            `title="${tag.openTodos}/${tag.totalTodos} chưa xong">${tag.name}<span class="tag-count">${tag.openTodos}</span></button>`;
     });
     tagsList.innerHTML = html;
 
@@ -829,12 +857,14 @@ async function handleSaveTodo(e) {
 
     try {
         if (id) {
+            todoData.version = todos.find(t => t.id === parseInt(id))?.version;
             await updateTodo(parseInt(id), todoData);
         } else {
             await createTodo(todoData);
         }
         closeTodoModal();
         updateView();
+        loadTags();
     } catch (error) {
         console.error('Error saving todo:', error);
     }
@@ -898,6 +928,28 @@ function sendNotification(title, body) {
     }
 }
 
+// The stream authenticates with the token as a query parameter: EventSource cannot send headers
+function subscribeReminders() {
+    const token = Auth.getToken();
+    if (!token) return;
+    const source = new EventSource(`${API_BASE_URL}/events?access_token=${encodeURIComponent(token)}`);
+    source.addEventListener('reminder', (e) => {
+        const event = JSON.parse(e.data);
+        const dueTime = event.dueTime ? ` - ${event.dueTime.substring(0, 5)}` : '';
+        sendNotification('⏰ Sắp đến hạn!', `${event.title}${dueTime}`);
+    });
+    source.addEventListener('overdue', (e) => {
+        const event = JSON.parse(e.data);
+        sendNotification('⚠️ Đã quá hạn!', event.title);
+    });
+    // EventSource reconnects by itself; a rejected token closes the stream for good
+    source.onerror = () => {
+        if (source.readyState === EventSource.CLOSED) {
+            checkDeadlines();
+        }
+    };
+}
+
 async function checkDeadlines() {
     try {
         const today = formatDateISO(new Date());
@@ -935,6 +987,12 @@ function getHeaders() {
     };
 }
 
+async function fetchDashboard(view, dateStr) {
+    const response = await fetch(`/api/dashboard?view=${view}&date=${dateStr}`, { headers: getHeaders() });
+    if (!response.ok) throw new Error('Failed to fetch dashboard');
+    return response.json();
+}
+
 async function fetchAllTodos() {
     const response = await fetch(API_BASE_URL, { headers: getHeaders() });
     if (!response.ok) throw new Error('Failed to fetch');
@@ -1011,24 +1069,46 @@ async function updateTodo(id, todoData) {
     return await response.json();
 }
 
-async function toggleTodo(id) {
-    const response = await fetch(`${API_BASE_URL}/${id}/toggle`, {
+// Version the view was rendered from; the server answers 409 if the todo changed since
+function versionQuery(version, separator = '?') {
+    return version ? `${separator}version=${version}` : '';
+}
+
+// Someone else changed the todo first: show their version instead of overwriting it
+function checkConflict(response) {
+    if (response.status === 409) {
+        showToast('Công việc đã được thay đổi ở nơi khác, đang tải lại', 'error');
+        updateView();
+        throw new Error('Conflict');
+    }
+}
+
+async function toggleTodo(id, occurrenceDate, version) {
+    // Occurrences of a recurring todo are completed individually
+    const url = occurrenceDate
+        ? `${API_BASE_URL}/${id}/occurrences/${occurrenceDate}/toggle`
+        : `${API_BASE_URL}/${id}/toggle${versionQuery(version)}`;
+    const response = await fetch(url, {
         method: 'PATCH',
         headers: getHeaders()
     });
+    checkConflict(response);
     if (!response.ok) throw new Error('Failed to toggle');
     showToast('Đã cập nhật!', 'success');
     updateView();
+    loadTags();
 }
 
-async function deleteTodo(id) {
-    const response = await fetch(`${API_BASE_URL}/${id}`, {
+async function deleteTodo(id, version) {
+    const response = await fetch(`${API_BASE_URL}/${id}${versionQuery(version)}`, {
         method: 'DELETE',
         headers: getHeaders()
     });
+    checkConflict(response);
     if (!response.ok) throw new Error('Failed to delete');
     showToast('Đã xóa!', 'success');
     updateView();
+    loadTags();
 }
 
 async function reorderTodos(todoIds) {
@@ -1040,11 +1120,12 @@ async function reorderTodos(todoIds) {
     if (!response.ok) throw new Error('Failed to reorder');
 }
 
-async function updateTodoDueDate(id, newDate) {
-    const response = await fetch(`${API_BASE_URL}/${id}/due-date?dueDate=${newDate}`, {
+async function updateTodoDueDate(id, newDate, version) {
+    const response = await fetch(`${API_BASE_URL}/${id}/due-date?dueDate=${newDate}${versionQuery(version, '&')}`, {
         method: 'PATCH',
         headers: getHeaders()
     });
+    checkConflict(response);
     if (!response.ok) throw new Error('Failed to update');
     showToast('Đã di chuyển!', 'success');
 }
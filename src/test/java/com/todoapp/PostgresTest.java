@@ -0,0 +1,127 @@
+package com.todoapp;
+
+import com.todoapp.model.Tag;
+import com.todoapp.model.User;
+import com.todoapp.repository.TagRepository;
+import com.todoapp.repository.UserRepository;
+import com.todoapp.security.JwtUtil;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Base of the tests for the native statements (RETURNING, data-modifying CTEs, WITH RECURSIVE),
+ * which only PostgreSQL runs. The whole application is started against one database per test
+ * JVM: the scratch database at {@code -Dtodo.test.database-url} when given (its tables are
+ * dropped and recreated), otherwise an embedded PostgreSQL. PostgreSQL refuses to start as root,
+ * so as root the tests are skipped unless a URL is given. Every test works on users of its own;
+ * HTTP requests go through {@link MockMvc} with a token from {@link #bearer}.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "todo.activity.dir=target/postgres-test/activity",
+        "todo.archive.enabled=false"})
+public abstract class PostgresTest {
+
+    private static final String URL = System.getProperty("todo.test.database-url");
+    private static final AtomicInteger USERS = new AtomicInteger();
+    private static EmbeddedPostgres embedded;
+
+    @Autowired
+    protected UserRepository userRepository;
+    @Autowired
+    protected TagRepository tagRepository;
+    @Autowired
+    protected JdbcTemplate jdbc;
+    @Autowired
+    protected TransactionTemplate transactions;
+    @Autowired
+    protected MockMvc mvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @BeforeAll
+    static void requirePostgres() {
+        assumeTrue(URL != null || !"root".equals(System.getProperty("user.name")),
+                "PostgreSQL does not start as root; set todo.test.database-url to run this test");
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        if (URL != null) {
+            registry.add("spring.datasource.url", () -> URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("todo.test.database-username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("todo.test.database-password", ""));
+        } else {
+            registry.add("spring.datasource.url", () -> embedded().getJdbcUrl("postgres", "postgres"));
+            registry.add("spring.datasource.username", () -> "postgres");
+            registry.add("spring.datasource.password", () -> "");
+        }
+    }
+
+    private static synchronized EmbeddedPostgres embedded() {
+        if (embedded == null) {
+            try {
+                embedded = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    embedded.close();
+                } catch (IOException ignored) {
+                    // the JVM is going away anyway
+                }
+            }));
+        }
+        return embedded;
+    }
+
+    // A user no other test touches
+    protected User newUser() {
+        int n = USERS.incrementAndGet();
+        String name = "u" + System.nanoTime() + "-" + n;
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        return userRepository.save(user);
+    }
+
+    // Authorization header value for requests as the user
+    protected String bearer(User user) {
+        return "Bearer " + jwtUtil.generateToken(user.getUsername());
+    }
+
+    protected Tag newTag(User user, String name) {
+        Tag tag = new Tag();
+        tag.setName(name);
+        tag.setUser(user);
+        return tagRepository.save(tag);
+    }
+
+    // {open, total} as stored
+    protected int[] counts(Tag tag) {
+        Tag stored = tagRepository.findById(tag.getId()).orElseThrow();
+        return new int[]{stored.getOpenTodos(), stored.getTotalTodos()};
+    }
+
+    protected int rows(String table, String column, Long id) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?", Integer.class, id);
+    }
+}
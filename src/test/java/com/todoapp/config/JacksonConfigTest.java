@@ -0,0 +1,196 @@
+package com.todoapp.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TagResponse;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.service.TodoFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JacksonConfigTest {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private static final List<TodoResponse> TODOS = TodoFixtures.responses(50);
+    private static final List<TagResponse> TAGS = List.of(
+            new TagResponse(1L, "home", "#667eea", 0L, 3, 5),
+            new TagResponse(2L, "work", null, 4L, 0, 12));
+
+    private static final ApplicationContextRunner CONTEXT = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class))
+            .withUserConfiguration(JacksonConfig.class);
+
+    @RestController
+    static class ListController {
+
+        private final AtomicReference<List<TodoResponse>> received = new AtomicReference<>();
+
+        @GetMapping("/todos")
+        List<TodoResponse> todos() {
+            return TODOS;
+        }
+
+        @GetMapping("/tags")
+        List<TagResponse> tags() {
+            return TAGS;
+        }
+
+        @PostMapping("/todos")
+        int receive(@RequestBody List<TodoResponse> todos) {
+            received.set(todos);
+            return todos.size();
+        }
+    }
+
+    private List<HttpMessageConverter<?>> converters;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        CONTEXT.run(context -> {
+            converters = context.getBean(HttpMessageConverters.class).getConverters();
+            objectMapper = context.getBean(ObjectMapper.class);
+        });
+    }
+
+    private <T extends AbstractJackson2HttpMessageConverter> T converter(Class<T> type) {
+        return converters.stream().filter(type::isInstance).map(type::cast).findFirst().orElseThrow();
+    }
+
+    private static JavaType listOf(ObjectMapper mapper, Class<?> element) {
+        return mapper.getTypeFactory().constructCollectionType(List.class, element);
+    }
+
+    private static <T> List<T> roundTrip(AbstractJackson2HttpMessageConverter converter, List<T> values, Class<T> element)
+            throws Exception {
+        Type type = listOf(converter.getObjectMapper(), element);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(values, type, null, output);
+        @SuppressWarnings("unchecked")
+        List<T> read = (List<T>) converter.read(type, null, new MockHttpInputMessage(output.getBodyAsBytes()));
+        return read;
+    }
+
+    @Test
+    void bothBinaryConvertersAreRegisteredAfterJson() {
+        List<Class<?>> types = converters.stream().<Class<?>>map(Object::getClass).toList();
+
+        assertThat(types).contains(MappingJackson2CborHttpMessageConverter.class, MappingJackson2SmileHttpMessageConverter.class);
+        assertThat(converters.stream().filter(c -> c.getSupportedMediaTypes().contains(MediaType.APPLICATION_JSON)).findFirst())
+                .get()
+                .satisfies(json -> assertThat(converters.indexOf(json))
+                        .isLessThan(converters.indexOf(converter(MappingJackson2CborHttpMessageConverter.class))));
+    }
+
+    @Test
+    void todosAndTagsRoundTripThroughCbor() throws Exception {
+        MappingJackson2CborHttpMessageConverter cbor = converter(MappingJackson2CborHttpMessageConverter.class);
+
+        assertThat(roundTrip(cbor, TODOS, TodoResponse.class)).isEqualTo(TODOS);
+        assertThat(roundTrip(cbor, TAGS, TagResponse.class)).isEqualTo(TAGS);
+    }
+
+    @Test
+    void todosAndTagsRoundTripThroughSmile() throws Exception {
+        MappingJackson2SmileHttpMessageConverter smile = converter(MappingJackson2SmileHttpMessageConverter.class);
+
+        assertThat(roundTrip(smile, TODOS, TodoResponse.class)).isEqualTo(TODOS);
+        assertThat(roundTrip(smile, TAGS, TagResponse.class)).isEqualTo(TAGS);
+    }
+
+    @Test
+    void binaryMappersShareTheJsonSettings() throws Exception {
+        ObjectMapper cbor = converter(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+
+        JsonNode todo = cbor.readTree(cbor.writeValueAsBytes(TODOS.get(0)));
+
+        // Dates as ISO strings, as in JSON, not timestamps
+        assertThat(todo.get("dueDate").isTextual()).isTrue();
+        assertThat(todo.get("createdAt").asText()).isEqualTo(objectMapper.valueToTree(TODOS.get(0)).get("createdAt").asText());
+        assertThat(cbor.getRegisteredModuleIds()).containsAll(objectMapper.getRegisteredModuleIds());
+    }
+
+    @Test
+    void responseFormatFollowsTheAcceptHeader() throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new ListController())
+                .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+                .build();
+        ObjectMapper cbor = converter(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+        ObjectMapper smile = converter(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+
+        MvcResult asCbor = mvc.perform(get("/todos").accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn();
+        assertThat(cbor.<List<TodoResponse>>readValue(asCbor.getResponse().getContentAsByteArray(), listOf(cbor, TodoResponse.class)))
+                .isEqualTo(TODOS);
+
+        MvcResult asSmile = mvc.perform(get("/tags").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn();
+        assertThat(smile.<List<TagResponse>>readValue(asSmile.getResponse().getContentAsByteArray(), listOf(smile, TagResponse.class)))
+                .isEqualTo(TAGS);
+
+        // JSON stays the default
+        MvcResult asJson = mvc.perform(get("/todos"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn();
+        assertThat(objectMapper.<List<TodoResponse>>readValue(asJson.getResponse().getContentAsByteArray(),
+                listOf(objectMapper, TodoResponse.class))).isEqualTo(TODOS);
+        // The binary body is smaller than the same list as JSON
+        assertThat(asCbor.getResponse().getContentAsByteArray().length)
+                .isLessThan(asJson.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    void requestBodyFormatFollowsTheContentType() throws Exception {
+        ListController controller = new ListController();
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+                .build();
+
+        for (MediaType type : List.of(CBOR, SMILE)) {
+            ObjectMapper mapper = converters.stream()
+                    .filter(c -> c.getSupportedMediaTypes().contains(type))
+                    .map(c -> ((AbstractJackson2HttpMessageConverter) c).getObjectMapper())
+                    .findFirst().orElseThrow();
+            mvc.perform(post("/todos").contentType(type).content(mapper.writeValueAsBytes(TODOS)))
+                    .andExpect(status().isOk());
+            assertThat(controller.received.get()).isEqualTo(TODOS);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.todoapp.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.service.TodoFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a list of 1k and 10k todos as JSON, CBOR and Smile, with the mappers
+ * configured as JacksonConfig builds them. The payload size of each format is printed once per
+ * trial, before the measurements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"1000", "10000"})
+    int todos;
+
+    private ObjectMapper mapper;
+    private JavaType listType;
+    private List<TodoResponse> responses;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build().registerModule(new BlackbirdModule());
+        JacksonConfig config = new JacksonConfig();
+        mapper = switch (format) {
+            case "json" -> json;
+            case "cbor" -> config.cborHttpMessageConverter(json).getObjectMapper();
+            case "smile" -> config.smileHttpMessageConverter(json).getObjectMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        listType = mapper.getTypeFactory().constructCollectionType(List.class, TodoResponse.class);
+        responses = TodoFixtures.responses(todos);
+        encoded = mapper.writeValueAsBytes(responses);
+        System.out.printf("%n%s, %d todos: %d bytes (%d per todo)%n", format, todos, encoded.length, encoded.length / todos);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public List<TodoResponse> decode() throws Exception {
+        return mapper.readValue(encoded, listType);
+    }
+}
@@ -0,0 +1,77 @@
+package com.todoapp.dto;
+
+import com.todoapp.model.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TodoFieldsTest {
+
+    private static final TodoResponse TODO = new TodoResponse(7L, 2L, "Call the bank", "About the card", false,
+            LocalDate.of(2026, 3, 10), null, Priority.HIGH, null, 4, List.of(),
+            LocalDateTime.of(2026, 3, 1, 9, 0), LocalDateTime.of(2026, 3, 2, 9, 0), null,
+            LocalDate.of(2026, 3, 10), false, true, 2, 1, 50);
+
+    @Test
+    void noFieldsMeansWholeTodos() {
+        assertThat(TodoFields.parse(null)).isNull();
+        assertThat(TodoFields.parse("")).isNull();
+        assertThat(TodoFields.parse("  ")).isNull();
+    }
+
+    @Test
+    void idIsAlwaysIncludedAndNamesKeepDeclarationOrder() {
+        TodoFields fields = TodoFields.parse("priority, title,dueDate");
+
+        assertThat(fields.names()).containsExactly("id", "title", "dueDate", "priority");
+        assertThat(fields.has("id")).isTrue();
+        assertThat(fields.has("description")).isFalse();
+    }
+
+    @Test
+    void sameSetInAnyOrderIsEqual() {
+        assertThat(TodoFields.parse("title,completed,title"))
+                .isEqualTo(TodoFields.parse("completed,,id,title"))
+                .hasSameHashCodeAs(TodoFields.parse("completed,title"));
+    }
+
+    @Test
+    void unknownFieldIsRejectedByName() {
+        assertThatThrownBy(() -> TodoFields.parse("title,owner,color"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown field: owner");
+        assertThatThrownBy(() -> TodoFields.parse("Title"))
+                .hasMessage("Unknown field: Title");
+    }
+
+    @Test
+    void selectWritesOnlyTheFieldsInOrder() {
+        Map<String, Object> selected = TodoFields.parse("overdue,dueTime,title,occurrenceDate").select(TODO);
+
+        // null values are written too: the client asked for the field
+        assertThat(List.copyOf(selected.keySet())).containsExactly("id", "title", "dueTime", "occurrenceDate", "overdue");
+        assertThat(selected)
+                .containsEntry("id", 7L)
+                .containsEntry("title", "Call the bank")
+                .containsEntry("dueTime", null)
+                .containsEntry("occurrenceDate", LocalDate.of(2026, 3, 10))
+                .containsEntry("overdue", true);
+    }
+
+    @Test
+    void everyResponseFieldCanBeSelected() {
+        TodoFields fields = TodoFields.parse("version,title,description,completed,dueDate,dueTime,priority,recurrence,"
+                + "displayOrder,tags,createdAt,updatedAt,parentId,occurrenceDate,recurring,overdue,subtaskCount,"
+                + "completedSubtaskCount,subtaskProgress");
+
+        assertThat(fields.names()).hasSize(TodoResponse.class.getRecordComponents().length);
+        assertThat(fields.select(List.of(TODO, TODO))).hasSize(2)
+                .allSatisfy(selected -> assertThat(selected).containsEntry("subtaskProgress", 50));
+    }
+}
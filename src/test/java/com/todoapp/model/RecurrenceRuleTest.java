@@ -0,0 +1,90 @@
+package com.todoapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurrenceRuleTest {
+
+    private static List<LocalDate> occurrences(RecurrenceRule rule, LocalDate anchor, LocalDate from, int count) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate date = rule.firstOnOrAfter(anchor, from);
+        while (date != null && dates.size() < count) {
+            dates.add(date);
+            date = rule.next(anchor, date);
+        }
+        return dates;
+    }
+
+    @Test
+    void dailyHonoursInterval() {
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceFrequency.DAILY, 3, null, null);
+        LocalDate anchor = LocalDate.of(2026, 1, 1);
+
+        assertThat(occurrences(rule, anchor, anchor, 3))
+                .containsExactly(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 4), LocalDate.of(2026, 1, 7));
+        // From a date between occurrences, the next one on the 3-day grid
+        assertThat(rule.firstOnOrAfter(anchor, LocalDate.of(2026, 1, 5))).isEqualTo(LocalDate.of(2026, 1, 7));
+    }
+
+    @Test
+    void everyFrequencyHonoursInterval() {
+        LocalDate anchor = LocalDate.of(2026, 1, 1);
+
+        assertThat(new RecurrenceRule(RecurrenceFrequency.WEEKLY, 2, null, null).next(anchor, anchor))
+                .isEqualTo(LocalDate.of(2026, 1, 15));
+        assertThat(new RecurrenceRule(RecurrenceFrequency.EVERY_N_DAYS, 5, null, null).next(anchor, anchor))
+                .isEqualTo(LocalDate.of(2026, 1, 6));
+        assertThat(new RecurrenceRule(RecurrenceFrequency.MONTHLY, 2, null, null).next(anchor, anchor))
+                .isEqualTo(LocalDate.of(2026, 3, 1));
+    }
+
+    @Test
+    void missingIntervalMeansOne() {
+        LocalDate anchor = LocalDate.of(2026, 1, 1);
+
+        assertThat(new RecurrenceRule(RecurrenceFrequency.DAILY, null, null, null).next(anchor, anchor))
+                .isEqualTo(LocalDate.of(2026, 1, 2));
+    }
+
+    @Test
+    void monthlyFirstOccurrenceIsAlignedToDayOfMonth() {
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceFrequency.MONTHLY, 1, 10, null);
+
+        // Anchored after the 10th: the first occurrence is next month's 10th, not the anchor
+        assertThat(occurrences(rule, LocalDate.of(2026, 1, 20), LocalDate.of(2026, 1, 1), 3))
+                .containsExactly(LocalDate.of(2026, 2, 10), LocalDate.of(2026, 3, 10), LocalDate.of(2026, 4, 10));
+        // Anchored before the 10th: the same month's 10th
+        assertThat(rule.firstOnOrAfter(LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 5)))
+                .isEqualTo(LocalDate.of(2026, 1, 10));
+    }
+
+    @Test
+    void monthlyAlignmentKeepsTheInterval() {
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceFrequency.MONTHLY, 2, 10, null);
+
+        assertThat(occurrences(rule, LocalDate.of(2026, 1, 20), LocalDate.of(2026, 1, 20), 2))
+                .containsExactly(LocalDate.of(2026, 3, 10), LocalDate.of(2026, 5, 10));
+        assertThat(rule.firstOnOrAfter(LocalDate.of(2026, 1, 20), LocalDate.of(2026, 3, 11)))
+                .isEqualTo(LocalDate.of(2026, 5, 10));
+    }
+
+    @Test
+    void monthlyDayIsClampedToShortMonths() {
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceFrequency.MONTHLY, 1, 31, null);
+
+        assertThat(occurrences(rule, LocalDate.of(2026, 1, 31), LocalDate.of(2026, 1, 31), 3))
+                .containsExactly(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 31));
+    }
+
+    @Test
+    void untilEndsTheSeries() {
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceFrequency.MONTHLY, 1, 10, LocalDate.of(2026, 2, 1));
+
+        assertThat(rule.firstOnOrAfter(LocalDate.of(2026, 1, 20), LocalDate.of(2026, 1, 20))).isNull();
+    }
+}
@@ -0,0 +1,120 @@
+package com.todoapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    // Fills every slot, then releases them all with the same latency
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long elapsedNanos) throws InterruptedException {
+        int taken = 0;
+        while (limiter.acquire(0)) {
+            taken++;
+        }
+        for (int i = 0; i < taken; i++) {
+            limiter.release(elapsedNanos);
+        }
+    }
+
+    @Test
+    void limitGrowsWhileLatencyHoldsUpToTheMax() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 40, 10);
+
+        saturate(limiter, MILLIS);
+        int afterOne = limiter.limit();
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter, MILLIS);
+        }
+
+        assertThat(afterOne).isGreaterThan(10);
+        assertThat(limiter.limit()).isEqualTo(40);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRisesAndStopsAtTheMin() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 3, 20, 10);
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter, MILLIS);
+        }
+        assertThat(limiter.limit()).isEqualTo(20);
+
+        saturate(limiter, 20 * MILLIS);
+        int afterSpike = limiter.limit();
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, 20 * MILLIS);
+        }
+
+        assertThat(afterSpike).isLessThan(20);
+        assertThat(limiter.limit()).isLessThan(afterSpike).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void limitRecoversOnceTheSlowdownIsTheNewNormal() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 20, 10);
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter, MILLIS);
+        }
+        for (int i = 0; i < 10; i++) {
+            saturate(limiter, 20 * MILLIS);
+        }
+        int shrunk = limiter.limit();
+
+        // Latency back to normal: the short average drops under the long one and the limit climbs
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter, MILLIS);
+        }
+
+        assertThat(limiter.limit()).isGreaterThan(shrunk);
+    }
+
+    @Test
+    void samplesFromALightlyUsedLimitDoNotMoveIt() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 40, 10);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.acquire(0)).isTrue();
+            limiter.release(i % 2 == 0 ? MILLIS : 50 * MILLIS);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void fullLimitRefusesWithoutWaitAndTimesOutWithOne() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1);
+        assertThat(limiter.acquire(0)).isTrue();
+
+        assertThat(limiter.acquire(0)).isFalse();
+        assertThat(limiter.acquire(5 * MILLIS)).isFalse();
+        assertThat(limiter.waiting()).isZero();
+    }
+
+    @Test
+    void queuedRequestGetsTheReleasedSlotAndAFullQueueRefuses() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1);
+        assertThat(limiter.acquire(0)).isTrue();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> queued = executor.submit(() -> limiter.acquire(TimeUnit.SECONDS.toNanos(5)));
+            while (limiter.waiting() == 0) {
+                Thread.sleep(1);
+            }
+
+            // The queue holds one
+            assertThat(limiter.acquire(TimeUnit.SECONDS.toNanos(5))).isFalse();
+
+            limiter.release(MILLIS);
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(limiter.inFlight()).isEqualTo(1);
+            assertThat(limiter.waiting()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.todoapp.security;
+
+import com.todoapp.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // One slot per lane; interactive requests may queue, the others may not
+    private AdmissionControlFilter filter(boolean enabled) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(enabled);
+        properties.setInteractive(new AdmissionProperties.Lane(1, 1, 1, 5, 5_000));
+        properties.setWrite(new AdmissionProperties.Lane(1, 1, 1, 0, 0));
+        properties.setAnalytics(new AdmissionProperties.Lane(1, 1, 1, 0, 0));
+        return new AdmissionControlFilter(properties, meterRegistry);
+    }
+
+    private static MockHttpServletResponse send(AdmissionControlFilter filter, String method, String uri, FilterChain chain)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletResponse send(AdmissionControlFilter filter, String method, String uri) throws Exception {
+        return send(filter, method, uri, new MockFilterChain());
+    }
+
+    private double requests(String lane, String outcome) {
+        return meterRegistry.get("todo.admission.requests").tag("lane", lane).tag("outcome", outcome).counter().count();
+    }
+
+    private double queued(String lane) {
+        return meterRegistry.get("todo.admission.queued").tag("lane", lane).gauge().value();
+    }
+
+    // Sends a request whose handler holds its slot until released
+    private Future<MockHttpServletResponse> hold(AdmissionControlFilter filter, String method, String uri,
+                                                 CountDownLatch entered, CountDownLatch release) {
+        return executor.submit(() -> send(filter, method, uri, (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+
+    @Test
+    void classifiesRequestsIntoLanes() throws Exception {
+        AdmissionControlFilter filter = filter(true);
+
+        send(filter, "GET", "/api/todos");
+        send(filter, "GET", "/api/todos/statistics");
+        send(filter, "HEAD", "/api/todos/heatmap");
+        send(filter, "GET", "/api/todos/5");
+        send(filter, "GET", "/api/todos/date/2026-01-01");
+        send(filter, "PATCH", "/api/todos/5/toggle");
+        send(filter, "GET", "/api/tags");
+        send(filter, "POST", "/api/todos");
+        send(filter, "DELETE", "/api/tags/3");
+        send(filter, "POST", "/api/auth/login");
+
+        assertThat(requests("analytics", "admitted")).isEqualTo(3);
+        assertThat(requests("interactive", "admitted")).isEqualTo(4);
+        assertThat(requests("write", "admitted")).isEqualTo(3);
+    }
+
+    @Test
+    void eventStreamsPreflightAndOtherPathsAreNotControlled() throws Exception {
+        AdmissionControlFilter filter = filter(true);
+
+        send(filter, "GET", "/api/todos/events");
+        send(filter, "OPTIONS", "/api/todos");
+        send(filter, "GET", "/api/dashboard");
+        send(filter, "GET", "/index.html");
+
+        for (String lane : new String[]{"interactive", "write", "analytics"}) {
+            assertThat(requests(lane, "admitted")).isZero();
+        }
+    }
+
+    @Test
+    void fullLaneAnswers503AndOtherLanesStillAdmit() throws Exception {
+        AdmissionControlFilter filter = filter(true);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<MockHttpServletResponse> held = hold(filter, "POST", "/api/todos", entered, release);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = send(filter, "PUT", "/api/todos/5");
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("Server is busy");
+        assertThat(requests("write", "rejected")).isEqualTo(1);
+
+        assertThat(send(filter, "GET", "/api/todos/5").getStatus()).isEqualTo(200);
+
+        release.countDown();
+        assertThat(held.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(send(filter, "PUT", "/api/todos/5").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void analyticsIsShedWhileInteractiveRequestsQueue() throws Exception {
+        AdmissionControlFilter filter = filter(true);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<MockHttpServletResponse> running = hold(filter, "GET", "/api/todos/5", entered, release);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<MockHttpServletResponse> waiting = executor.submit(() -> send(filter, "GET", "/api/todos/6"));
+        while (queued("interactive") == 0) {
+            Thread.sleep(1);
+        }
+
+        MockHttpServletResponse shed = send(filter, "GET", "/api/todos/statistics");
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(requests("analytics", "shed")).isEqualTo(1);
+        assertThat(requests("analytics", "admitted")).isZero();
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(waiting.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(send(filter, "GET", "/api/todos/statistics").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void slotIsReturnedWhenTheHandlerThrows() throws Exception {
+        AdmissionControlFilter filter = filter(true);
+        FilterChain failing = (request, response) -> {
+            throw new IllegalStateException("handler failed");
+        };
+
+        try {
+            send(filter, "POST", "/api/todos", failing);
+        } catch (IllegalStateException expected) {
+            // The slot is released in a finally block
+        }
+
+        assertThat(send(filter, "POST", "/api/todos").getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("todo.admission.in-flight").tag("lane", "write").gauge().value()).isZero();
+    }
+
+    @Test
+    void disabledFilterAdmitsEverything() throws Exception {
+        AdmissionControlFilter filter = filter(false);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        hold(filter, "POST", "/api/todos", entered, release);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(send(filter, "POST", "/api/todos").getStatus()).isEqualTo(200);
+        release.countDown();
+    }
+}
@@ -0,0 +1,98 @@
+package com.todoapp.security;
+
+import com.todoapp.service.CustomUserDetailsService;
+import com.todoapp.service.ShardService;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The Bearer header everywhere, and the token parameter on the event stream only
+class JwtFilterTest {
+
+    private JwtFilter filter;
+    // Authentication seen by the rest of the chain
+    private Authentication seen;
+
+    @BeforeEach
+    void setUp() {
+        JwtUtil jwtUtil = mock(JwtUtil.class);
+        when(jwtUtil.isTokenValid("good")).thenReturn(true);
+        when(jwtUtil.extractUsername("good")).thenReturn("alice");
+        when(jwtUtil.validateToken("good", "alice")).thenReturn(true);
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(new User("alice", "secret", List.of()));
+        filter = new JwtFilter(jwtUtil, userDetailsService, mock(ShardService.class));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication filter(MockHttpServletRequest request) throws Exception {
+        seen = null;
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                seen = SecurityContextHolder.getContext().getAuthentication();
+            }
+        });
+        SecurityContextHolder.clearContext();
+        return seen;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRequestURI(path);
+        return request;
+    }
+
+    @Test
+    void bearerHeaderAuthenticates() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/todos");
+        request.addHeader("Authorization", "Bearer good");
+
+        assertThat(filter(request).getName()).isEqualTo("alice");
+    }
+
+    @Test
+    void eventStreamTakesTheTokenAsAParameter() throws Exception {
+        MockHttpServletRequest request = request("GET", JwtFilter.EVENTS_PATH);
+        request.setParameter(JwtFilter.TOKEN_PARAMETER, "good");
+
+        assertThat(filter(request).getName()).isEqualTo("alice");
+    }
+
+    @Test
+    void tokenParameterIsIgnoredElsewhere() throws Exception {
+        MockHttpServletRequest list = request("GET", "/api/todos");
+        list.setParameter(JwtFilter.TOKEN_PARAMETER, "good");
+        MockHttpServletRequest post = request("POST", JwtFilter.EVENTS_PATH);
+        post.setParameter(JwtFilter.TOKEN_PARAMETER, "good");
+
+        assertThat(filter(list)).isNull();
+        assertThat(filter(post)).isNull();
+    }
+
+    @Test
+    void invalidTokenLeavesTheRequestAnonymous() throws Exception {
+        MockHttpServletRequest request = request("GET", JwtFilter.EVENTS_PATH);
+        request.setParameter(JwtFilter.TOKEN_PARAMETER, "forged");
+
+        assertThat(filter(request)).isNull();
+    }
+}
@@ -0,0 +1,83 @@
+package com.todoapp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the rate limit check: the filter for one signed-in user against the same
+ * filter disabled, and the bucket lookup alone for one user and spread over many. Budgets are high
+ * enough that every request is admitted, which is the path that matters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final FilterChain NOOP = (request, response) -> { };
+
+    @Param({"1", "10000"})
+    int users;
+
+    private RateLimitFilter enabled;
+    private RateLimitFilter disabled;
+    private TokenBucketRateLimiter limiter;
+    private String[] keys;
+    private int next;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        enabled = new RateLimitFilter(meterRegistry, true, 1e9, 1_000_000, 1e9, 1_000_000, 100_000, 300);
+        disabled = new RateLimitFilter(meterRegistry, false, 1e9, 1_000_000, 1e9, 1_000_000, 100_000, 300);
+        limiter = new TokenBucketRateLimiter(1e9, 1_000_000, 100_000);
+        keys = new String[users];
+        for (int i = 0; i < users; i++) {
+            keys[i] = "user" + i;
+        }
+        request = new MockHttpServletRequest("GET", "/api/todos");
+        response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user0", null, AuthorityUtils.NO_AUTHORITIES));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private String nextKey() {
+        String key = keys[next];
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return key;
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return limiter.tryAcquire(nextKey());
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filter() throws Exception {
+        enabled.doFilter(request, response, NOOP);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterDisabled() throws Exception {
+        disabled.doFilter(request, response, NOOP);
+        return response;
+    }
+}
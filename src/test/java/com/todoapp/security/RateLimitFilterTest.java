@@ -0,0 +1,123 @@
+package com.todoapp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Reads: a token every 4s, bursts of 2. Writes: a token every 2s, bursts of 1.
+    private RateLimitFilter filter(boolean enabled) {
+        return new RateLimitFilter(meterRegistry, enabled, 0.25, 2, 0.5, 1, 1000, 300);
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, String method) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/todos");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private double requests(String budget, String outcome) {
+        return meterRegistry.get("todo.ratelimit.requests")
+                .tag("budget", budget).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void rejectsBeyondTheBurstWithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(true);
+        signIn("alice");
+
+        assertThat(send(filter, "GET").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "GET").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = send(filter, "GET");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        // The next read token is four seconds away, rounded up to whole seconds
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("4");
+        assertThat(rejected.getContentAsString()).isEqualTo("{\"message\":\"Too many requests, retry in 4s\"}");
+        assertThat(requests("read", "allowed")).isEqualTo(2);
+        assertThat(requests("read", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void retryAfterIsAtLeastOneSecond() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(meterRegistry, true, 20, 1, 20, 1, 1000, 300);
+        signIn("alice");
+
+        send(filter, "GET");
+        MockHttpServletResponse rejected = send(filter, "GET");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void readsAndWritesHaveSeparateBudgets() throws Exception {
+        RateLimitFilter filter = filter(true);
+        signIn("alice");
+
+        assertThat(send(filter, "POST").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = send(filter, "PUT");
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+
+        assertThat(send(filter, "GET").getStatus()).isEqualTo(200);
+        assertThat(requests("write", "rejected")).isEqualTo(1);
+        assertThat(requests("read", "allowed")).isEqualTo(1);
+    }
+
+    @Test
+    void usersDoNotShareBudgets() throws Exception {
+        RateLimitFilter filter = filter(true);
+        signIn("alice");
+        send(filter, "DELETE");
+        assertThat(send(filter, "DELETE").getStatus()).isEqualTo(429);
+
+        signIn("bob");
+        assertThat(send(filter, "DELETE").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void anonymousRequestsAreNotLimited() throws Exception {
+        RateLimitFilter filter = filter(true);
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(send(filter, "POST").getStatus()).isEqualTo(200);
+        }
+        assertThat(requests("write", "allowed")).isZero();
+    }
+
+    @Test
+    void disabledFilterPassesEverything() throws Exception {
+        RateLimitFilter filter = filter(false);
+        signIn("alice");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(send(filter, "POST").getStatus()).isEqualTo(200);
+        }
+    }
+}
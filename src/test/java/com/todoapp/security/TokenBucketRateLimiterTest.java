@@ -0,0 +1,132 @@
+package com.todoapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+
+    // 10 tokens a second, bursts of 5
+    private TokenBucketRateLimiter limiter(int maxKeys) {
+        return new TokenBucketRateLimiter(10, 5, maxKeys, now::get);
+    }
+
+    private static int drain(TokenBucketRateLimiter limiter, String key) {
+        int taken = 0;
+        while (limiter.tryAcquire(key) == 0) {
+            taken++;
+        }
+        return taken;
+    }
+
+    @Test
+    void fullBucketAllowsBurstThenRefuses() {
+        TokenBucketRateLimiter limiter = limiter(100);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("alice")).isZero();
+        }
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+    }
+
+    @Test
+    void refusalReportsTimeUntilNextToken() {
+        TokenBucketRateLimiter limiter = limiter(100);
+        drain(limiter, "alice");
+
+        assertThat(limiter.tryAcquire("alice")).isEqualTo(INTERVAL);
+        now.addAndGet(INTERVAL / 4);
+        assertThat(limiter.tryAcquire("alice")).isEqualTo(INTERVAL - INTERVAL / 4);
+    }
+
+    @Test
+    void refusedRequestsDoNotSpendTokens() {
+        TokenBucketRateLimiter limiter = limiter(100);
+        drain(limiter, "alice");
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        now.addAndGet(INTERVAL);
+        assertThat(limiter.tryAcquire("alice")).isZero();
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucketRateLimiter limiter = limiter(100);
+        drain(limiter, "alice");
+
+        now.addAndGet(INTERVAL);
+        assertThat(drain(limiter, "alice")).isEqualTo(1);
+
+        now.addAndGet(3 * INTERVAL);
+        assertThat(drain(limiter, "alice")).isEqualTo(3);
+    }
+
+    @Test
+    void idleTimeRefillsNoMoreThanTheBurst() {
+        TokenBucketRateLimiter limiter = limiter(100);
+        drain(limiter, "alice");
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertThat(drain(limiter, "alice")).isEqualTo(5);
+    }
+
+    @Test
+    void usersHaveSeparateBuckets() {
+        TokenBucketRateLimiter limiter = limiter(100);
+        drain(limiter, "alice");
+
+        assertThat(drain(limiter, "bob")).isEqualTo(5);
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsOnlyBucketsFullForTheIdlePeriod() {
+        TokenBucketRateLimiter limiter = limiter(100);
+        limiter.tryAcquire("alice");
+        drain(limiter, "bob");
+
+        // alice's bucket is full again after one interval, bob's after five
+        now.addAndGet(2 * INTERVAL);
+        assertThat(limiter.evictIdle(0)).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+
+        now.addAndGet(3 * INTERVAL);
+        assertThat(limiter.evictIdle(INTERVAL)).isZero();
+        now.addAndGet(INTERVAL);
+        assertThat(limiter.evictIdle(INTERVAL)).isEqualTo(1);
+    }
+
+    @Test
+    void fullTableMakesRoomFromIdleBuckets() {
+        TokenBucketRateLimiter limiter = limiter(2);
+        limiter.tryAcquire("alice");
+        limiter.tryAcquire("bob");
+
+        now.addAndGet(INTERVAL);
+        assertThat(limiter.tryAcquire("carol")).isZero();
+        assertThat(limiter.untrackedCount()).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void fullTableOfActiveUsersAdmitsNewcomersUntracked() {
+        TokenBucketRateLimiter limiter = limiter(2);
+        drain(limiter, "alice");
+        drain(limiter, "bob");
+
+        assertThat(limiter.tryAcquire("carol")).isZero();
+        assertThat(limiter.tryAcquire("carol")).isZero();
+        assertThat(limiter.untrackedCount()).isEqualTo(2);
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,107 @@
+package com.todoapp.service;
+
+import com.todoapp.PostgresTest;
+import com.todoapp.model.RecurrenceFrequency;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.model.Tag;
+import com.todoapp.model.Todo;
+import com.todoapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The bulk statements behind DELETE /api/auth/me and DELETE /api/todos/completed
+class AccountDeletionTest extends PostgresTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private ArchiveService archiveService;
+
+    private Todo create(User user, String title, boolean completed, Long parentId, Tag... tags) {
+        Todo todo = new Todo();
+        todo.setTitle(title);
+        todo.setCompleted(completed);
+        todo.setParentId(parentId);
+        todo.setTagIds(List.of(tags).stream().map(Tag::getId).toList());
+        return todoService.createTodo(todo, user);
+    }
+
+    @Test
+    void accountDeletionRemovesEverythingTheUserOwnsAndTheUserRow() {
+        User user = newUser();
+        User other = newUser();
+        Tag tag = newTag(user, "home");
+        Tag otherTag = newTag(other, "home");
+        Todo parent = create(user, "Move house", false, null, tag);
+        create(user, "Pack books", false, parent.getId());
+        Todo archived = create(user, "Old errand", false, null, tag);
+        todoService.toggleComplete(archived.getId(), null, user);
+        archiveService.archiveCompletedBefore(LocalDateTime.now().plusMinutes(1));
+        Todo series = new Todo();
+        series.setTitle("Gym");
+        series.setDueDate(LocalDate.now());
+        series.setRecurrence(new RecurrenceRule(RecurrenceFrequency.DAILY, 1, null, null));
+        series = todoService.createTodo(series, user);
+        todoService.toggleOccurrence(series.getId(), LocalDate.now(), user);
+        Todo kept = create(other, "Not mine", false, null, otherTag);
+        assertThat(rows("archived_todos", "user_id", user.getId())).isEqualTo(1);
+        assertThat(rows("completion_heatmaps", "user_id", user.getId())).isEqualTo(1);
+        assertThat(rows("todo_occurrences", "todo_id", series.getId())).isEqualTo(1);
+
+        assertThat(userService.deleteAccount(user.getUsername())).isTrue();
+
+        assertThat(rows("users", "id", user.getId())).isZero();
+        assertThat(rows("todos", "user_id", user.getId())).isZero();
+        assertThat(rows("tags", "user_id", user.getId())).isZero();
+        assertThat(rows("todo_tags", "tag_id", tag.getId())).isZero();
+        assertThat(rows("todo_occurrences", "todo_id", series.getId())).isZero();
+        assertThat(rows("archived_todos", "user_id", user.getId())).isZero();
+        assertThat(rows("archived_todo_tags", "todo_id", archived.getId())).isZero();
+        assertThat(rows("completion_heatmaps", "user_id", user.getId())).isZero();
+        assertThat(rows("todos", "id", kept.getId())).isEqualTo(1);
+        assertThat(rows("todo_tags", "tag_id", otherTag.getId())).isEqualTo(1);
+        assertThat(userService.deleteAccount(user.getUsername())).isFalse();
+    }
+
+    // The statement a shard runs on its own; there the users row is the reference ShardService.place wrote
+    @Test
+    void shardStatementRemovesTheReferenceRow() {
+        User user = newUser();
+        create(user, "Sharded", false, null, newTag(user, "work"));
+        Integer deleted = transactions.execute(status -> userRepository.deleteOwnedData(user.getId()));
+
+        assertThat(deleted).isEqualTo(1);
+
+        assertThat(rows("users", "id", user.getId())).isZero();
+        assertThat(rows("todos", "user_id", user.getId())).isZero();
+        assertThat(rows("tags", "user_id", user.getId())).isZero();
+    }
+
+    @Test
+    void clearingCompletedTodosTakesThemOffTheirTags() {
+        User user = newUser();
+        Tag tag = newTag(user, "errands");
+        Tag untouched = newTag(user, "later");
+        create(user, "Open", false, null, tag, untouched);
+        create(user, "Done", true, null, tag);
+        Todo doneParent = create(user, "Done with open subtask", true, null, tag);
+        Todo subtask = create(user, "Still open", false, doneParent.getId(), tag);
+        assertThat(counts(tag)).containsExactly(1, 3);
+
+        assertThat(todoService.deleteCompleted(user)).isEqualTo(3);
+
+        assertThat(counts(tag)).containsExactly(1, 1);
+        assertThat(counts(untouched)).containsExactly(1, 1);
+        assertThat(rows("todos", "id", subtask.getId())).isZero();
+        assertThat(rows("todo_tags", "todo_id", subtask.getId())).isZero();
+        assertThat(rows("todos", "user_id", user.getId())).isEqualTo(1);
+    }
+}
@@ -0,0 +1,191 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.ActivityResponse;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.model.ActivityType;
+import com.todoapp.model.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Rolling, reopening, compacting and dropping segments of the activity log
+class ActivityLogTest {
+
+    private static final long USER = 1;
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 2);
+
+    @TempDir
+    Path directory;
+
+    private ActivityLog log;
+
+    @AfterEach
+    void tearDown() {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private ActivityLog open(int retentionDays, int compactAfterHours) {
+        if (log != null) {
+            log.close();
+        }
+        log = new ActivityLog(true, directory.toString(), 1, retentionDays, compactAfterHours, 60);
+        return log;
+    }
+
+    private static TodoSnapshot todo(long id, String title, boolean completed, LocalDate dueDate) {
+        return new TodoSnapshot(id, USER, null, title, completed, dueDate, null, Priority.MEDIUM, null, null, List.of());
+    }
+
+    private void changed(TodoSnapshot before, TodoSnapshot after) {
+        log.onTodoChanged(TodoChangedEvent.updated(before, after));
+    }
+
+    private void moves(long todoId, int count) {
+        for (int day = 0; day < count; day++) {
+            changed(todo(todoId, "Dentist", false, MONDAY.plusDays(day)), todo(todoId, "Dentist", false, MONDAY.plusDays(day + 1)));
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    // Makes every record written so far older than a zero-hour or zero-day threshold
+    private static void tick() throws InterruptedException {
+        Thread.sleep(5);
+    }
+
+    @Test
+    void changesAreRecordedByKind() {
+        open(90, 24);
+        log.onTodoChanged(TodoChangedEvent.created(todo(7, "Dentist", false, null)));
+        changed(todo(7, "Dentist", false, null), todo(7, "Dentist", true, null));
+        changed(todo(7, "Dentist", true, null), todo(7, "Dentist", true, MONDAY));
+        changed(todo(7, "Dentist", true, MONDAY), todo(7, "Call dentist", true, MONDAY.plusDays(1)));
+        changed(todo(7, "Call dentist", true, MONDAY.plusDays(1)), todo(7, "Call dentist", true, MONDAY.plusDays(1)));
+        log.onTodoChanged(TodoChangedEvent.deleted(todo(7, "Call dentist", true, null)));
+
+        assertThat(log.todoHistory(USER, 7L, 10))
+                .extracting(ActivityResponse::type, ActivityResponse::detail)
+                .containsExactly(
+                        tuple(ActivityType.TODO_DELETED, "Call dentist"),
+                        tuple(ActivityType.TODO_UPDATED, "title,dueDate"),
+                        tuple(ActivityType.TODO_MOVED, "2026-03-02"),
+                        tuple(ActivityType.TODO_COMPLETED, null),
+                        tuple(ActivityType.TODO_CREATED, "Dentist"));
+        assertThat(log.todoHistory(USER, 8L, 10)).isEmpty();
+        assertThat(log.todoHistory(USER + 1, 7L, 10)).isEmpty();
+        assertThat(log.todoHistory(USER, 7L, 2)).hasSize(2);
+    }
+
+    @Test
+    void fullSegmentRollsAndHistoryReadsAcrossSegments() throws IOException {
+        open(90, 24);
+        String title = "x".repeat(500);
+        // About 535 bytes a record: three 1 MB segments
+        int records = 4000;
+        for (int i = 0; i < records; i++) {
+            log.onTodoChanged(TodoChangedEvent.created(todo(i, title, false, null)));
+        }
+
+        assertThat(segmentFiles()).hasSize(3);
+        assertThat(log.since(USER, null, records + 1)).hasSize(records);
+        assertThat(log.todoHistory(USER, 0L, 10)).hasSize(1);
+        assertThat(log.todoHistory(USER, records - 1L, 10)).hasSize(1);
+
+        open(90, 24);
+
+        // Reopened segments are cut to what was written, and a new one is started
+        assertThat(segmentFiles()).hasSize(4);
+        assertThat(Files.size(segmentFiles().get(0))).isLessThan(1024 * 1024);
+        assertThat(log.since(USER, null, records + 1)).hasSize(records);
+        assertThat(log.since(USER, null, 10)).extracting(ActivityResponse::todoId).first().isEqualTo(records - 1L);
+    }
+
+    @Test
+    void reopenDropsLeftoversOfACrash() throws IOException {
+        open(90, 24);
+        moves(7, 3);
+        log.sync();
+        log.close();
+        log = null;
+        Path half = directory.resolve(String.format("%020d.seg.compacting", 0));
+        Files.write(half, new byte[64]);
+        Files.write(directory.resolve(String.format("%020d.seg", 5)), new byte[4096]);
+
+        open(90, 24);
+
+        assertThat(segmentFiles()).extracting(file -> file.getFileName().toString())
+                .containsExactly(String.format("%020d.seg", 0), String.format("%020d.seg", 1));
+        assertThat(log.todoHistory(USER, 7L, 10)).hasSize(3);
+    }
+
+    @Test
+    void compactionKeepsTheLastRecordOfEachBurst() throws Exception {
+        open(90, 0);
+        log.onTodoChanged(TodoChangedEvent.created(todo(7, "Dentist", false, null)));
+        moves(7, 5);
+        moves(8, 2);
+        changed(todo(7, "Dentist", false, MONDAY), todo(7, "Dentist", true, MONDAY));
+        changed(todo(7, "Dentist", true, MONDAY), todo(7, "Dentist", false, MONDAY));
+        open(90, 0);
+        tick();
+
+        log.maintain();
+
+        assertThat(log.todoHistory(USER, 7L, 10))
+                .extracting(ActivityResponse::type, ActivityResponse::detail)
+                .containsExactly(
+                        tuple(ActivityType.TODO_REOPENED, null),
+                        tuple(ActivityType.TODO_COMPLETED, null),
+                        tuple(ActivityType.TODO_MOVED, "2026-03-07"),
+                        tuple(ActivityType.TODO_CREATED, "Dentist"));
+        assertThat(log.todoHistory(USER, 8L, 10)).extracting(ActivityResponse::detail).containsExactly("2026-03-04");
+        assertThat(segmentFiles()).noneMatch(file -> file.toString().endsWith(".compacting"));
+
+        // The compacted segment survives a restart as written
+        open(90, 0);
+        assertThat(log.todoHistory(USER, 7L, 10)).hasSize(4);
+    }
+
+    @Test
+    void retentionDropsOldSegmentsButNeverTheActiveOne() throws Exception {
+        open(0, 24);
+        moves(7, 2);
+        open(0, 24);
+        moves(8, 1);
+        tick();
+
+        log.maintain();
+
+        assertThat(log.todoHistory(USER, 7L, 10)).isEmpty();
+        assertThat(log.todoHistory(USER, 8L, 10)).hasSize(1);
+        assertThat(segmentFiles()).extracting(file -> file.getFileName().toString())
+                .containsExactly(String.format("%020d.seg", 1));
+    }
+
+    @Test
+    void disabledLogKeepsNothing() {
+        log = new ActivityLog(false, directory.resolve("off").toString(), 1, 90, 24, 60);
+        moves(7, 1);
+
+        assertThat(log.todoHistory(USER, 7L, 10)).isEmpty();
+        assertThat(directory.resolve("off")).doesNotExist();
+        log.maintain();
+    }
+}
@@ -0,0 +1,131 @@
+package com.todoapp.service;
+
+import com.todoapp.model.ActivityType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The record format and what a scan recovers from a file a crash left behind
+class ActivitySegmentTest {
+
+    private static final int CAPACITY = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private static ActivitySegment.Entry entry(long time, long userId, long todoId, String detail) {
+        return new ActivitySegment.Entry(time, userId, todoId, ActivityType.TODO_MOVED, detail);
+    }
+
+    private static List<ActivitySegment.Entry> newestFirst(ActivitySegment segment, long userId, long since) {
+        List<ActivitySegment.Entry> entries = new ArrayList<>();
+        segment.visitNewestFirst(userId, since, entries::add);
+        return entries;
+    }
+
+    private ActivitySegment written(Path file, int records) {
+        ActivitySegment segment = ActivitySegment.create(file, 3, CAPACITY);
+        for (int i = 1; i <= records; i++) {
+            assertThat(segment.append(entry(1000L * i, 1, i, "2026-03-0" + i))).isTrue();
+        }
+        segment.force();
+        return segment;
+    }
+
+    @Test
+    void recordsReadBackNewestFirstPerUser() {
+        ActivitySegment segment = ActivitySegment.create(directory.resolve("a.seg"), 0, CAPACITY);
+        segment.append(entry(1000, 1, 10, "first"));
+        segment.append(entry(2000, 2, 20, null));
+        segment.append(entry(3000, 1, 11, "ünïcode"));
+
+        assertThat(newestFirst(segment, 1, 0)).containsExactly(entry(3000, 1, 11, "ünïcode"), entry(1000, 1, 10, "first"));
+        assertThat(newestFirst(segment, 1, 1500)).extracting(ActivitySegment.Entry::subjectId).containsExactly(11L);
+        assertThat(newestFirst(segment, 2, 0)).containsExactly(entry(2000, 2, 20, null));
+        assertThat(newestFirst(segment, 3, 0)).isEmpty();
+        assertThat(segment.minTime()).isEqualTo(1000);
+        assertThat(segment.maxTime()).isEqualTo(3000);
+    }
+
+    @Test
+    void fullSegmentRefusesTheRecord() {
+        ActivitySegment segment = ActivitySegment.create(directory.resolve("a.seg"), 0, 100);
+
+        assertThat(segment.append(entry(1, 1, 1, "x".repeat(40)))).isTrue();
+        assertThat(segment.append(entry(2, 1, 2, "x".repeat(40)))).isFalse();
+    }
+
+    @Test
+    void longDetailIsCutOnACharacterBoundary() {
+        ActivitySegment segment = ActivitySegment.create(directory.resolve("a.seg"), 0, CAPACITY);
+        // 'é' is two bytes: 511 bytes of 'a' leave one byte for it, so it is dropped whole
+        segment.append(entry(1, 1, 1, "a".repeat(511) + "é" + "b"));
+
+        assertThat(newestFirst(segment, 1, 0).get(0).detail()).isEqualTo("a".repeat(511));
+    }
+
+    @Test
+    void unsealedFileIsRecoveredUpToItsLastRecordAndCut() {
+        Path file = directory.resolve("a.seg");
+        int size = written(file, 3).size();
+
+        ActivitySegment reopened = ActivitySegment.open(file, 3);
+
+        assertThat(newestFirst(reopened, 1, 0)).extracting(ActivitySegment.Entry::subjectId).containsExactly(3L, 2L, 1L);
+        assertThat(reopened.size()).isEqualTo(size);
+        assertThat(file).hasSize(size);
+        assertThat(reopened.append(entry(9000, 1, 9, null))).isFalse();
+    }
+
+    @Test
+    void truncatedTailRecordIsDropped() throws IOException {
+        Path file = directory.resolve("a.seg");
+        int size = written(file, 3).size();
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size - 5);
+        }
+
+        ActivitySegment reopened = ActivitySegment.open(file, 3);
+
+        assertThat(newestFirst(reopened, 1, 0)).extracting(ActivitySegment.Entry::subjectId).containsExactly(2L, 1L);
+        assertThat(file).hasSize(reopened.size());
+    }
+
+    @Test
+    void badCrcEndsTheScan() throws IOException {
+        Path file = directory.resolve("a.seg");
+        ActivitySegment segment = written(file, 3);
+        int secondRecord = segment.size() / 3;
+        byte[] bytes = Files.readAllBytes(file);
+        // A byte of the second record's detail
+        bytes[secondRecord + 33] ^= 0x01;
+        Files.write(file, bytes);
+
+        ActivitySegment reopened = ActivitySegment.open(file, 3);
+
+        assertThat(newestFirst(reopened, 1, 0)).extracting(ActivitySegment.Entry::subjectId).containsExactly(1L);
+        assertThat(reopened.size()).isEqualTo(secondRecord);
+        List<ActivitySegment.Entry> all = new ArrayList<>();
+        reopened.forEach(all::add);
+        assertThat(all).hasSize(1);
+    }
+
+    @Test
+    void fileWithoutRecordsOpensEmpty() throws IOException {
+        Path file = directory.resolve("a.seg");
+        Files.write(file, new byte[4096]);
+
+        ActivitySegment reopened = ActivitySegment.open(file, 0);
+
+        assertThat(reopened.isEmpty()).isTrue();
+        assertThat(file).hasSize(0);
+    }
+}
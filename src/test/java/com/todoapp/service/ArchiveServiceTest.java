@@ -0,0 +1,117 @@
+package com.todoapp.service;
+
+import com.todoapp.PostgresTest;
+import com.todoapp.model.Tag;
+import com.todoapp.model.Todo;
+import com.todoapp.model.User;
+import com.todoapp.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Archiving and restoring move a todo with its subtasks and tag links, and keep the tag counters right
+class ArchiveServiceTest extends PostgresTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.now().minusDays(90);
+
+    @Autowired
+    private ArchiveService archiveService;
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TagService tagService;
+    @Autowired
+    private TodoRepository todoRepository;
+
+    private User user;
+    private Tag home;
+    private Tag work;
+    private Todo parent;
+    private Todo subtask;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        home = newTag(user, "home");
+        work = newTag(user, "work");
+        parent = create("Renovate kitchen", true, null, home, work);
+        subtask = create("Pick tiles", true, parent.getId(), home);
+        // Completed long ago; todos written by other tests are newer than the cutoff
+        jdbc.update("UPDATE todos SET updated_at = ? WHERE id IN (?, ?)",
+                CUTOFF.minusDays(10), parent.getId(), subtask.getId());
+    }
+
+    private Todo create(String title, boolean completed, Long parentId, Tag... tags) {
+        Todo todo = new Todo();
+        todo.setTitle(title);
+        todo.setCompleted(completed);
+        todo.setParentId(parentId);
+        todo.setTagIds(List.of(tags).stream().map(Tag::getId).toList());
+        return todoService.createTodo(todo, user);
+    }
+
+    @Test
+    void archivingMovesTheTreeWithItsTagLinks() {
+        Todo recent = create("Recently done", true, null, home);
+        Todo open = create("Still open", false, null, home);
+        jdbc.update("UPDATE todos SET updated_at = ? WHERE id = ?", CUTOFF.minusDays(10), open.getId());
+        assertThat(counts(home)).containsExactly(1, 3);
+
+        archiveService.archiveCompletedBefore(CUTOFF);
+
+        assertThat(rows("todos", "id", parent.getId())).isZero();
+        assertThat(rows("todos", "id", subtask.getId())).isZero();
+        assertThat(rows("todo_tags", "todo_id", parent.getId())).isZero();
+        assertThat(rows("archived_todos", "user_id", user.getId())).isEqualTo(2);
+        assertThat(rows("archived_todo_tags", "todo_id", parent.getId())).isEqualTo(2);
+        assertThat(rows("archived_todo_tags", "todo_id", subtask.getId())).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT parent_id FROM archived_todos WHERE id = ?", Long.class, subtask.getId()))
+                .isEqualTo(parent.getId());
+        assertThat(todoRepository.existsById(recent.getId())).isTrue();
+        assertThat(todoRepository.existsById(open.getId())).isTrue();
+        assertThat(counts(home)).containsExactly(1, 2);
+        assertThat(counts(work)).containsExactly(0, 0);
+    }
+
+    @Test
+    void restoringBringsBackTheTreeLinksAndCounts() {
+        archiveService.archiveCompletedBefore(CUTOFF);
+
+        assertThat(archiveService.unarchive(parent.getId(), user)).isTrue();
+
+        Todo restored = todoRepository.findById(subtask.getId()).orElseThrow();
+        assertThat(restored.getParent().getId()).isEqualTo(parent.getId());
+        assertThat(rows("todo_tags", "todo_id", parent.getId())).isEqualTo(2);
+        assertThat(rows("todo_tags", "todo_id", subtask.getId())).isEqualTo(1);
+        assertThat(rows("archived_todos", "user_id", user.getId())).isZero();
+        assertThat(rows("archived_todo_tags", "todo_id", parent.getId())).isZero();
+        assertThat(counts(home)).containsExactly(0, 1);
+        assertThat(counts(work)).containsExactly(0, 1);
+    }
+
+    @Test
+    void tagDeletedWhileArchivedIsDroppedOnRestore() {
+        archiveService.archiveCompletedBefore(CUTOFF);
+        tagService.deleteTag(work.getId(), null, user);
+
+        archiveService.unarchive(parent.getId(), user);
+
+        assertThat(rows("todo_tags", "todo_id", parent.getId())).isEqualTo(1);
+        assertThat(counts(home)).containsExactly(0, 1);
+    }
+
+    @Test
+    void onlyTheOwnerRestoresAndOnlyWholeTrees() {
+        archiveService.archiveCompletedBefore(CUTOFF);
+
+        assertThat(archiveService.unarchive(parent.getId(), newUser())).isFalse();
+        assertThat(archiveService.unarchive(subtask.getId(), user)).isFalse();
+        assertThat(rows("archived_todos", "user_id", user.getId())).isEqualTo(2);
+        assertThat(counts(home)).containsExactly(0, 0);
+    }
+}
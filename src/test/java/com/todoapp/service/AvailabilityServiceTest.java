@@ -0,0 +1,190 @@
+package com.todoapp.service;
+
+import com.todoapp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * The directory is a list of committed accounts behind a mocked repository; a hook runs inside
+ * each load after its rows are read, standing in for registrations that race it.
+ */
+class AvailabilityServiceTest {
+
+    private final List<Object[]> accounts = new ArrayList<>();
+    private UserRepository userRepository;
+    private ShardService shardService;
+    private SimpleMeterRegistry meterRegistry;
+    private AvailabilityService service;
+    private Runnable duringLoad = () -> { };
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        shardService = mock(ShardService.class);
+        when(shardService.inDirectory(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(userRepository.streamAccountKeys(anyLong())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            List<Object[]> rows = accounts.stream().filter(row -> (Long) row[0] > afterId).toList();
+            Runnable hook = duringLoad;
+            duringLoad = () -> { };
+            hook.run();
+            return rows.stream();
+        });
+        when(userRepository.existsByUsername(anyString())).thenAnswer(invocation ->
+                accounts.stream().anyMatch(row -> row[1].equals(invocation.getArgument(0))));
+        when(userRepository.existsByEmail(anyString())).thenAnswer(invocation ->
+                accounts.stream().anyMatch(row -> row[2].equals(invocation.getArgument(0))));
+        meterRegistry = new SimpleMeterRegistry();
+        service = new AvailabilityService(userRepository, shardService, meterRegistry, true, 100, 0.01);
+    }
+
+    private void commit(int from, int to) {
+        for (int i = from; i < to; i++) {
+            commit("user" + i);
+        }
+    }
+
+    private void commit(String username) {
+        accounts.add(new Object[]{(long) accounts.size() + 1, username, username + "@example.com"});
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("todo.availability.checks").tag("result", result).counter().count();
+    }
+
+    private void assertAllTaken(List<String> usernames) {
+        for (String username : usernames) {
+            assertThat(service.isUsernameAvailable(username)).as(username).isFalse();
+            assertThat(service.isEmailAvailable(username + "@example.com")).as(username).isFalse();
+        }
+    }
+
+    private List<String> usernames() {
+        return accounts.stream().map(row -> (String) row[1]).toList();
+    }
+
+    @Test
+    void everyCheckQueriesUntilTheFirstRefresh() {
+        commit(0, 10);
+
+        assertThat(service.isUsernameAvailable("user3")).isFalse();
+        assertThat(service.isUsernameAvailable("free")).isTrue();
+        assertThat(checks("queried")).isEqualTo(2);
+        assertThat(checks("filtered")).isZero();
+    }
+
+    @Test
+    void freeNamesAreAnsweredFromTheFilters() {
+        commit(0, 50);
+        service.refresh();
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(service.isUsernameAvailable("free" + i)).isTrue();
+        }
+        assertAllTaken(usernames());
+        assertThat(checks("filtered")).isGreaterThan(950);
+        verify(userRepository, atMost(50)).existsByUsername(startsWith("free"));
+    }
+
+    @Test
+    void registrationsAreTakenBeforeTheNextRefresh() {
+        commit(0, 50);
+        service.refresh();
+
+        service.registered("newcomer", "newcomer@example.com");
+        commit("newcomer");
+
+        assertThat(service.isUsernameAvailable("newcomer")).isFalse();
+        assertThat(service.isEmailAvailable("newcomer@example.com")).isFalse();
+    }
+
+    @Test
+    void refreshLoadsAccountsFromOtherNodes() {
+        service = new AvailabilityService(userRepository, shardService, meterRegistry, true, 1000, 0.01);
+        commit(0, 300);
+        service.refresh();
+        commit(300, 320);
+
+        service.refresh();
+
+        assertAllTaken(usernames());
+        // Overlaps the ids already loaded, for registrations that committed out of order
+        verify(userRepository, times(2)).streamAccountKeys(200L);
+    }
+
+    @Test
+    void rebuildKeepsEveryTakenName() {
+        commit(0, 60);
+        service.refresh();
+        commit(60, 250);
+        service.refresh();
+
+        // 250 accounts in filters sized for 100: rebuilt for 500
+        service.refresh();
+
+        assertAllTaken(usernames());
+        double filtered = checks("filtered");
+        for (int i = 0; i < 1000; i++) {
+            assertThat(service.isUsernameAvailable("free" + i)).isTrue();
+        }
+        assertThat(checks("filtered") - filtered).isGreaterThan(950);
+    }
+
+    @Test
+    void registrationDuringARebuildIsNotLost() {
+        commit(0, 50);
+        service.refresh();
+        commit(50, 150);
+        service.refresh();
+
+        // Registered while the rebuild loads and committed after it has read the directory
+        duringLoad = () -> service.registered("racer", "racer@example.com");
+        service.refresh();
+        commit("racer");
+
+        assertAllTaken(List.of("racer"));
+        assertAllTaken(usernames());
+    }
+
+    @Test
+    void registrationJustBeforeARebuildIsNotLost() {
+        commit(0, 50);
+        service.refresh();
+        commit(50, 150);
+        service.refresh();
+
+        // Registered before the rebuild starts and committed while it loads
+        service.registered("early", "early@example.com");
+        duringLoad = () -> commit("early");
+        service.refresh();
+
+        assertAllTaken(List.of("early"));
+        assertAllTaken(usernames());
+    }
+
+    @Test
+    void disabledNeverFilters() {
+        service = new AvailabilityService(userRepository, shardService, meterRegistry, false, 100, 0.01);
+        commit(0, 10);
+
+        service.refresh();
+        service.registered("newcomer", "newcomer@example.com");
+
+        assertThat(service.isUsernameAvailable("free")).isTrue();
+        assertThat(service.isUsernameAvailable("user3")).isFalse();
+        verify(userRepository, never()).streamAccountKeys(anyLong());
+        assertThat(checks("filtered")).isZero();
+    }
+}
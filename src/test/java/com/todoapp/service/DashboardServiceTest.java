@@ -0,0 +1,138 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.DashboardResponse;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Sections run in parallel under one deadline; whatever fails, is rejected or is late is listed as missing
+class DashboardServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 2);
+
+    private final User user = new User();
+    private TodoService todoService;
+    private TagService tagService;
+    private DashboardService dashboard;
+
+    @BeforeEach
+    void setUp() {
+        todoService = mock(TodoService.class);
+        tagService = mock(TagService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboard.shutdown();
+    }
+
+    private DashboardService dashboard(int threads, int queueCapacity, long timeoutMillis) {
+        dashboard = new DashboardService(todoService, tagService, threads, queueCapacity, timeoutMillis);
+        return dashboard;
+    }
+
+    @Test
+    void eachViewLoadsItsOwnSections() {
+        dashboard(4, 20, 2000);
+        TodoResponse todo = TodoFixtures.responses(1).get(0);
+        when(todoService.getTodosByDateRange(user, MONDAY, MONDAY.plusDays(6))).thenReturn(List.of(todo));
+        when(todoService.getTodoCountByDateRange(user, MONDAY.withDayOfMonth(1), MONDAY.withDayOfMonth(31)))
+                .thenReturn(Map.of(MONDAY, 3L));
+        when(todoService.getStatistics(user, 30)).thenReturn(Map.of("total", 9));
+
+        DashboardResponse month = dashboard.load(user, "month", MONDAY, 30);
+        DashboardResponse week = dashboard.load(user, "week", MONDAY, 30);
+        dashboard.load(user, "day", MONDAY, 7);
+        dashboard.load(user, "list", MONDAY, 7);
+
+        assertThat(month.missing()).isEmpty();
+        assertThat(month.todos()).isNull();
+        assertThat(month.calendarCounts()).containsEntry(MONDAY, 3L);
+        assertThat(month.statistics()).containsEntry("total", 9);
+        assertThat(month.tags()).isNotNull();
+        assertThat(month.overdue()).isNotNull();
+        assertThat(month.noDate()).isNotNull();
+        assertThat(week.missing()).isEmpty();
+        assertThat(week.todos()).containsExactly(todo);
+        assertThat(week.calendarCounts()).isNull();
+        verify(todoService).getTodosByDate(user, MONDAY);
+        verify(todoService).getAllTodosForUser(user);
+        verify(todoService, times(4)).getOverdueTodos(user);
+    }
+
+    @Test
+    void failedSectionIsMissingAndTheRestIsReturned() {
+        dashboard(4, 20, 2000);
+        when(todoService.getOverdueTodos(user)).thenThrow(new IllegalStateException("database down"));
+        when(tagService.getAllTagsForUser(user)).thenThrow(new IllegalStateException("database down"));
+
+        DashboardResponse response = dashboard.load(user, "day", MONDAY, 30);
+
+        assertThat(response.missing()).containsExactly("tags", "overdue");
+        assertThat(response.tags()).isNull();
+        assertThat(response.overdue()).isNull();
+        assertThat(response.todos()).isNotNull();
+        assertThat(response.statistics()).isNotNull();
+    }
+
+    @Test
+    void lateSectionsShareOneDeadlineAndAreCancelled() throws InterruptedException {
+        dashboard(4, 20, 500);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        doAnswer(call -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Map.of();
+        }).when(todoService).getStatistics(any(), anyInt());
+        doAnswer(call -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        }).when(todoService).getTodosWithoutDueDate(any(User.class));
+
+        long start = System.nanoTime();
+        DashboardResponse response = dashboard.load(user, "list", MONDAY, 30);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(response.missing()).containsExactly("noDate", "statistics");
+        assertThat(response.todos()).isNotNull();
+        // Two late sections cost one deadline, not one each
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(500).isLessThan(1000);
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void sectionsRejectedByAFullPoolAreMissing() {
+        // One thread and no queue: every section after the first is turned away while it runs
+        dashboard(1, 0, 2000);
+        doAnswer(call -> {
+            Thread.sleep(200);
+            return List.of();
+        }).when(tagService).getAllTagsForUser(user);
+
+        DashboardResponse response = dashboard.load(user, "day", MONDAY, 30);
+
+        assertThat(response.tags()).isNotNull();
+        assertThat(response.missing()).containsExactly("todos", "overdue", "noDate", "statistics");
+        verify(todoService, never()).getTodosByDate(any(), any(LocalDate.class));
+        verify(todoService, never()).getStatistics(any(), anyInt());
+    }
+}
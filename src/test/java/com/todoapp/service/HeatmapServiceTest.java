@@ -0,0 +1,154 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.HeatmapResponse;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.model.CompletionHeatmap;
+import com.todoapp.model.Priority;
+import com.todoapp.model.User;
+import com.todoapp.repository.ArchivedTodoRepository;
+import com.todoapp.repository.CompletionHeatmapRepository;
+import com.todoapp.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HeatmapServiceTest {
+
+    private final CompletionHeatmapRepository heatmapRepository = mock(CompletionHeatmapRepository.class);
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final ArchivedTodoRepository archivedTodoRepository = mock(ArchivedTodoRepository.class);
+    private final TodoWriteBuffer writeBuffer = mock(TodoWriteBuffer.class);
+    private final HeatmapService heatmapService =
+            new HeatmapService(heatmapRepository, todoRepository, archivedTodoRepository, writeBuffer);
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+    }
+
+    private static TodoSnapshot snapshot(boolean completed, LocalDateTime updatedAt) {
+        return new TodoSnapshot(5L, 1L, null, "Todo", completed, null, null, Priority.MEDIUM, null, updatedAt, List.of());
+    }
+
+    private static CompletionHeatmap row(boolean seeded, int... dayCounts) {
+        int[] days = new int[CompletionHeatmap.DAYS];
+        System.arraycopy(dayCounts, 0, days, 0, dayCounts.length);
+        return new CompletionHeatmap(1L, 1L, 2025, CompletionHeatmap.pack(days), seeded);
+    }
+
+    @Test
+    void packedCountsRoundTripAndClamp() {
+        int[] days = new int[CompletionHeatmap.DAYS];
+        days[0] = 3;
+        days[100] = 300;
+        days[365] = 70_000;
+        days[200] = -2;
+
+        CompletionHeatmap heatmap = new CompletionHeatmap(null, 1L, 2024, CompletionHeatmap.pack(days), true);
+
+        assertThat(heatmap.getCounts()).hasSize(2 * CompletionHeatmap.DAYS);
+        assertThat(heatmap.countAt(0)).isEqualTo(3);
+        assertThat(heatmap.countAt(100)).isEqualTo(300);
+        assertThat(heatmap.countAt(365)).isEqualTo(0xFFFF);
+        assertThat(heatmap.countAt(200)).isZero();
+    }
+
+    @Test
+    void completionCountsOnTodayAndReopenOnTheDayItWasCounted() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime completedAt = LocalDateTime.of(2025, 3, 2, 18, 0);
+
+        heatmapService.onTodoChanged(TodoChangedEvent.updated(snapshot(false, null), snapshot(true, LocalDateTime.now())));
+        heatmapService.onTodoChanged(TodoChangedEvent.updated(snapshot(true, completedAt), snapshot(false, LocalDateTime.now())));
+
+        ArgumentCaptor<byte[]> initial = ArgumentCaptor.forClass(byte[].class);
+        verify(heatmapRepository).addToDay(eq(1L), eq(today.getYear()), eq(today.getDayOfYear() - 1), eq(1), initial.capture());
+        verify(heatmapRepository).addToDay(eq(1L), eq(2025), eq(60), eq(-1), any());
+        // A row created by this write starts with just this completion
+        assertThat(new CompletionHeatmap(null, 1L, today.getYear(), initial.getValue(), false)
+                .countAt(today.getDayOfYear() - 1)).isEqualTo(1);
+    }
+
+    @Test
+    void changesWithoutACompletionFlipAreIgnored() {
+        heatmapService.onTodoChanged(TodoChangedEvent.updated(snapshot(true, null), snapshot(true, null)));
+        heatmapService.onTodoChanged(TodoChangedEvent.created(snapshot(true, null)));
+        heatmapService.onTodoChanged(TodoChangedEvent.deleted(snapshot(true, null)));
+
+        verifyNoInteractions(heatmapRepository);
+    }
+
+    @Test
+    void seededRowIsServedAsStored() {
+        when(heatmapRepository.findByUserIdAndYear(1L, 2025)).thenReturn(Optional.of(row(true, 2, 0, 5)));
+
+        HeatmapResponse heatmap = heatmapService.getHeatmap(user, 2025);
+
+        verify(writeBuffer).flush(1L);
+        assertThat(heatmap.counts()).hasSize(365);
+        assertThat(heatmap.counts()[0]).isEqualTo(2);
+        assertThat(heatmap.counts()[2]).isEqualTo(5);
+        assertThat(heatmap.total()).isEqualTo(7);
+        assertThat(heatmap.max()).isEqualTo(5);
+        verifyNoInteractions(todoRepository, archivedTodoRepository);
+    }
+
+    @Test
+    void unseededYearIsRebuiltFromTodosAndArchive() {
+        when(heatmapRepository.findByUserIdAndYear(1L, 2024)).thenReturn(Optional.of(row(false, 9)));
+        when(todoRepository.getCompletionStats(eq(user), any())).thenReturn(List.<Object[]>of(
+                new Object[]{LocalDate.of(2024, 1, 1), 2L},
+                new Object[]{LocalDate.of(2024, 12, 31), 1L},
+                // A later year's completions are not this year's
+                new Object[]{LocalDate.of(2025, 1, 1), 4L}));
+        when(archivedTodoRepository.getCompletionStats(eq(1L), any())).thenReturn(List.<Object[]>of(
+                new Object[]{LocalDate.of(2024, 1, 1), 3L}));
+
+        HeatmapResponse heatmap = heatmapService.getHeatmap(user, 2024);
+
+        assertThat(heatmap.counts()).hasSize(366);
+        assertThat(heatmap.counts()[0]).isEqualTo(5);
+        assertThat(heatmap.counts()[365]).isEqualTo(1);
+        assertThat(heatmap.total()).isEqualTo(6);
+
+        verify(heatmapRepository).lockSeeded(1L, 2024);
+        ArgumentCaptor<byte[]> seeded = ArgumentCaptor.forClass(byte[].class);
+        verify(heatmapRepository).seed(eq(1L), eq(2024), seeded.capture());
+        CompletionHeatmap stored = new CompletionHeatmap(null, 1L, 2024, seeded.getValue(), true);
+        assertThat(stored.countAt(0)).isEqualTo(5);
+        assertThat(stored.countAt(365)).isEqualTo(1);
+    }
+
+    @Test
+    void futureYearWithoutRowIsEmptyAndNotSeeded() {
+        int year = LocalDate.now().getYear() + 1;
+        when(heatmapRepository.findByUserIdAndYear(1L, year)).thenReturn(Optional.empty());
+
+        HeatmapResponse heatmap = heatmapService.getHeatmap(user, year);
+
+        assertThat(heatmap.total()).isZero();
+        verify(heatmapRepository, never()).seed(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void yearOutsideTheCalendarIsRejected() {
+        assertThatThrownBy(() -> heatmapService.getHeatmap(user, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("year must be between 1 and 9999");
+        assertThatThrownBy(() -> heatmapService.getHeatmap(user, 1_000_000_000))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(heatmapRepository);
+    }
+}
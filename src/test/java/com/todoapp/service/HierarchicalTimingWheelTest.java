@@ -0,0 +1,147 @@
+package com.todoapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// With one-millisecond ticks: level 0 spans 64 ticks, level 1 4096, level 2 262144, level 3 2^24
+class HierarchicalTimingWheelTest {
+
+    private static final long SPAN = 1L << 24;
+
+    private final List<String> expired = new ArrayList<>();
+
+    private void advance(HierarchicalTimingWheel<String> wheel, long nowMillis) {
+        wheel.advanceTo(nowMillis, expired::add);
+    }
+
+    // Fires exactly at its deadline: not a tick before, and on the tick itself
+    private void assertFiresAt(HierarchicalTimingWheel<String> wheel, String payload, long deadline) {
+        advance(wheel, deadline - 1);
+        assertThat(expired).doesNotContain(payload);
+        advance(wheel, deadline);
+        assertThat(expired).contains(payload);
+    }
+
+    @Test
+    void deadlinesCascadeDownThroughEveryLevel() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 0);
+        wheel.schedule("level 0", 40);
+        wheel.schedule("level 1", 100);
+        wheel.schedule("level 2", 5_000);
+        wheel.schedule("level 3", 300_000);
+        wheel.schedule("overflow", SPAN + 7);
+        assertThat(wheel.size()).isEqualTo(5);
+
+        assertFiresAt(wheel, "level 0", 40);
+        assertFiresAt(wheel, "level 1", 100);
+        assertFiresAt(wheel, "level 2", 5_000);
+        assertFiresAt(wheel, "level 3", 300_000);
+        assertFiresAt(wheel, "overflow", SPAN + 7);
+
+        assertThat(expired).containsExactly("level 0", "level 1", "level 2", "level 3", "overflow");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlinesJustPastALevelBoundaryFireOnTime() {
+        // Starting just before a level-2 boundary, so slots are entered mid-rotation
+        long start = 3 * 4096 - 3;
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, start);
+        wheel.schedule("next rotation", start + 64);
+        wheel.schedule("across level 2", start + 4096 + 1);
+        wheel.schedule("far in level 3", start + SPAN - 1);
+
+        assertFiresAt(wheel, "next rotation", start + 64);
+        assertFiresAt(wheel, "across level 2", start + 4096 + 1);
+        assertFiresAt(wheel, "far in level 3", start + SPAN - 1);
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 10_000);
+        wheel.schedule("late", 2_000);
+
+        advance(wheel, 10_999);
+        assertThat(expired).isEmpty();
+        advance(wheel, 11_000);
+        assertThat(expired).containsExactly("late");
+    }
+
+    @Test
+    void deadlinesRoundDownToTheirTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 0);
+        wheel.schedule("soon", 2_500);
+
+        assertFiresAt(wheel, "soon", 2_000);
+        assertThat(wheel.spanMillis()).isEqualTo(SPAN * 1000);
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 0);
+        HierarchicalTimingWheel.Timeout<String> near = wheel.schedule("near", 10);
+        HierarchicalTimingWheel.Timeout<String> far = wheel.schedule("far", 10_000);
+        HierarchicalTimingWheel.Timeout<String> kept = wheel.schedule("kept", 10);
+        HierarchicalTimingWheel.Timeout<String> overflow = wheel.schedule("overflow", SPAN + 1);
+
+        wheel.cancel(near);
+        wheel.cancel(far);
+        wheel.cancel(overflow);
+        assertThat(wheel.size()).isEqualTo(1);
+        advance(wheel, SPAN + 10);
+
+        assertThat(expired).containsExactly("kept");
+        // Cancelling again, or after expiry, changes nothing
+        wheel.cancel(near);
+        wheel.cancel(kept);
+        wheel.cancel(null);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelAfterACascadeFindsTheTimeoutInItsNewSlot() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 0);
+        HierarchicalTimingWheel.Timeout<String> timeout = wheel.schedule("moved", 4_200);
+        // Cascaded from level 2 to level 1 at 4096
+        advance(wheel, 4_100);
+
+        wheel.cancel(timeout);
+        advance(wheel, 5_000);
+
+        assertThat(expired).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void randomDeadlinesFireInTheStepThatReachesThem() {
+        Random random = new Random(42);
+        long start = random.nextInt(1 << 20);
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, start);
+        List<Long> fired = new ArrayList<>();
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = start + 1 + (long) (random.nextDouble() * 2 * SPAN);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        long now = start;
+        while (now < start + 2 * SPAN + 1) {
+            long next = now + 1 + random.nextInt(200_000);
+            long from = now;
+            wheel.advanceTo(next, deadline -> {
+                assertThat(deadline).isGreaterThan(from).isLessThanOrEqualTo(next);
+                fired.add(deadline);
+            });
+            now = next;
+        }
+
+        assertThat(fired).containsExactlyInAnyOrderElementsOf(deadlines);
+        assertThat(wheel.size()).isZero();
+    }
+}
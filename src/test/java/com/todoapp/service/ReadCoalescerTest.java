@@ -0,0 +1,247 @@
+package com.todoapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ReadCoalescerTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadCoalescer coalescer = new ReadCoalescer(mock(PlatformTransactionManager.class), meterRegistry, true);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    // A loader that counts its calls and returns only once released
+    private static final class BlockingLoader implements Supplier<String> {
+        private final String result;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+
+        BlockingLoader(String result) {
+            this.result = result;
+        }
+
+        @Override
+        public String get() {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }
+
+        void awaitStarted() throws InterruptedException {
+            assertThat(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private Future<String> readAsync(Long userId, List<?> arguments, Supplier<String> loader) {
+        return executor.submit(() -> coalescer.read(userId, "all", arguments, loader));
+    }
+
+    private double reads(String result) {
+        return meterRegistry.get("todo.coalescing.reads").tag("result", result).counter().count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("todo.coalescing.in-flight").gauge().value();
+    }
+
+    // Waits until n callers have joined a read in flight
+    private void awaitShared(int n) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(TIMEOUT_SECONDS).toNanos();
+        while (reads("shared") < n) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static String get(Future<String> future) throws Exception {
+        return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void identicalConcurrentReadsShareOneLoad() throws Exception {
+        BlockingLoader loader = new BlockingLoader("result");
+        Future<String> first = readAsync(1L, List.of(), loader);
+        loader.awaitStarted();
+
+        List<Future<String>> joined = List.of(
+                readAsync(1L, List.of(), () -> "not called"),
+                readAsync(1L, List.of(), () -> "not called"));
+        awaitShared(2);
+        loader.release.countDown();
+
+        assertThat(get(first)).isEqualTo("result");
+        for (Future<String> future : joined) {
+            assertThat(get(future)).isEqualTo("result");
+        }
+        assertThat(loader.calls).hasValue(1);
+        assertThat(reads("executed")).isEqualTo(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void differentUsersOrArgumentsDoNotShare() throws Exception {
+        BlockingLoader loader = new BlockingLoader("user 1");
+        Future<String> first = readAsync(1L, List.of("2026-01-01"), loader);
+        loader.awaitStarted();
+
+        assertThat(coalescer.read(2L, "all", List.of("2026-01-01"), () -> "user 2")).isEqualTo("user 2");
+        assertThat(coalescer.read(1L, "all", List.of("2026-01-02"), () -> "other day")).isEqualTo("other day");
+        assertThat(coalescer.read(1L, "overdue", List.of("2026-01-01"), () -> "other read")).isEqualTo("other read");
+
+        loader.release.countDown();
+        assertThat(get(first)).isEqualTo("user 1");
+        assertThat(reads("shared")).isZero();
+    }
+
+    @Test
+    void readsAreNotKeptOnceFinished() {
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.read(1L, "all", List.of(), calls::incrementAndGet);
+        coalescer.read(1L, "all", List.of(), calls::incrementAndGet);
+
+        assertThat(calls).hasValue(2);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void writeDuringAReadStartsAFreshLoadForLaterCallers() throws Exception {
+        BlockingLoader before = new BlockingLoader("before write");
+        Future<String> first = readAsync(1L, List.of(), before);
+        before.awaitStarted();
+
+        coalescer.invalidate(1L);
+        BlockingLoader after = new BlockingLoader("after write");
+        Future<String> second = readAsync(1L, List.of(), after);
+        after.awaitStarted();
+
+        // The first read finishing must not remove the second one's entry
+        before.release.countDown();
+        assertThat(get(first)).isEqualTo("before write");
+        Future<String> third = readAsync(1L, List.of(), () -> "not called");
+        awaitShared(1);
+
+        after.release.countDown();
+        assertThat(get(second)).isEqualTo("after write");
+        assertThat(get(third)).isEqualTo("after write");
+        assertThat(reads("executed")).isEqualTo(2);
+    }
+
+    @Test
+    void invalidationIsPerUser() throws Exception {
+        BlockingLoader loader = new BlockingLoader("user 1");
+        Future<String> first = readAsync(1L, List.of(), loader);
+        loader.awaitStarted();
+
+        coalescer.invalidate(2L);
+        Future<String> joined = readAsync(1L, List.of(), () -> "not called");
+        awaitShared(1);
+
+        loader.release.countDown();
+        assertThat(get(first)).isEqualTo("user 1");
+        assertThat(get(joined)).isEqualTo("user 1");
+    }
+
+    @Test
+    void failureReachesEveryWaiterAndIsNotKept() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = readAsync(1L, List.of(), () -> {
+            started.countDown();
+            try {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("query failed");
+        });
+        assertThat(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        Future<String> joined = readAsync(1L, List.of(), () -> "not called");
+        awaitShared(1);
+        release.countDown();
+
+        for (Future<String> future : List.of(first, joined)) {
+            assertThatThrownBy(() -> get(future))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(coalescer.read(1L, "all", List.of(), () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void invalidateAfterCommitWaitsForTheCommit() throws Exception {
+        BlockingLoader loader = new BlockingLoader("before commit");
+        Future<String> first = readAsync(1L, List.of(), loader);
+        loader.awaitStarted();
+
+        TransactionSynchronizationManager.initSynchronization();
+        coalescer.invalidateAfterCommit(1L);
+        // Not committed yet: identical reads still join
+        Future<String> joined = readAsync(1L, List.of(), () -> "not called");
+        awaitShared(1);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(coalescer.read(1L, "all", List.of(), () -> "after commit")).isEqualTo("after commit");
+
+        loader.release.countDown();
+        assertThat(get(first)).isEqualTo("before commit");
+        assertThat(get(joined)).isEqualTo("before commit");
+    }
+
+    @Test
+    void readsInsideATransactionRunDirectly() throws Exception {
+        BlockingLoader loader = new BlockingLoader("outside");
+        Future<String> first = readAsync(1L, List.of(), loader);
+        loader.awaitStarted();
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(coalescer.read(1L, "all", List.of(), () -> "inside")).isEqualTo("inside");
+
+        loader.release.countDown();
+        get(first);
+        assertThat(reads("shared")).isZero();
+    }
+
+    @Test
+    void disabledCoalescerRunsEveryRead() throws Exception {
+        ReadCoalescer disabled = new ReadCoalescer(mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), false);
+        BlockingLoader loader = new BlockingLoader("first");
+        Future<String> first = executor.submit(() -> disabled.read(1L, "all", List.of(), loader));
+        loader.awaitStarted();
+
+        assertThat(disabled.read(1L, "all", List.of(), () -> "second")).isEqualTo("second");
+
+        loader.release.countDown();
+        assertThat(get(first)).isEqualTo("first");
+    }
+}
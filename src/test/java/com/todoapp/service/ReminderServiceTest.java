@@ -0,0 +1,242 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.ReminderEvent;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceFrequency;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Reminders from the timing wheel against a clock the test moves: when each event fires, how
+ * changes reschedule or cancel it, how the loaded window moves with the days and how a series
+ * goes on to its next occurrence.
+ */
+class ReminderServiceTest {
+
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 2);
+    private static final long USER = 1;
+
+    private final MovableClock clock = new MovableClock();
+    private TodoRepository todoRepository;
+    private ReminderService reminders;
+
+    private static final class MovableClock extends Clock {
+        private Instant now = TODAY.atTime(8, 0).atZone(ZONE).toInstant();
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        todoRepository = mock(TodoRepository.class);
+        when(todoRepository.findUpcomingReminders(any(), any())).thenReturn(List.of());
+        when(todoRepository.findRecurringReminders(any(), any())).thenReturn(List.of());
+        ShardService shardService = mock(ShardService.class);
+        when(shardService.dataShards()).thenReturn(List.of("main"));
+        when(shardService.inShard(anyString(), any())).thenAnswer(call -> call.<Supplier<?>>getArgument(1).get());
+        // Reminders 15 minutes ahead, all-day todos at nine, two days loaded
+        reminders = new ReminderService(todoRepository, shardService, 1000, 15, "09:00", 60_000, 2, clock);
+    }
+
+    private void at(LocalDate date, int hour, int minute) {
+        clock.now = date.atTime(hour, minute).atZone(ZONE).toInstant();
+    }
+
+    // (type, todo, due date) of what fires when the clock is at the given time
+    private List<Object> firedAt(LocalDate date, int hour, int minute) {
+        at(date, hour, minute);
+        List<Object> fired = new ArrayList<>();
+        for (ReminderService.Fired event : reminders.advance()) {
+            assertThat(event.userId()).isEqualTo(USER);
+            fired.add(tuple(event.event().type(), event.event().todoId(), event.event().dueDate()));
+        }
+        return fired;
+    }
+
+    private static Object[] row(long id, LocalDate dueDate, LocalTime dueTime) {
+        return new Object[]{id, USER, "Todo " + id, dueDate, dueTime};
+    }
+
+    private static TodoSnapshot todo(long id, LocalDate dueDate, LocalTime dueTime, boolean completed, RecurrenceRule recurrence) {
+        return new TodoSnapshot(id, USER, null, "Todo " + id, completed, dueDate, dueTime, Priority.MEDIUM, recurrence, null, null);
+    }
+
+    @Test
+    void remindsAheadOfTheDueTimeThenReportsOverdue() {
+        when(todoRepository.findUpcomingReminders(TODAY, TODAY.plusDays(2)))
+                .thenReturn(List.<Object[]>of(row(1, TODAY, LocalTime.of(10, 0))));
+        reminders.loadUpcoming();
+        assertThat(reminders.pendingCount()).isEqualTo(2);
+
+        assertThat(firedAt(TODAY, 9, 44)).isEmpty();
+        assertThat(firedAt(TODAY, 9, 45)).containsExactly(tuple(ReminderEvent.Type.REMINDER, 1L, TODAY));
+        assertThat(firedAt(TODAY, 9, 59)).isEmpty();
+        assertThat(firedAt(TODAY, 10, 0)).containsExactly(tuple(ReminderEvent.Type.OVERDUE, 1L, TODAY));
+        assertThat(reminders.pendingCount()).isZero();
+    }
+
+    @Test
+    void allDayTodoIsRemindedAtNineAndOverdueAtMidnight() {
+        LocalDate tomorrow = TODAY.plusDays(1);
+        when(todoRepository.findUpcomingReminders(TODAY, TODAY.plusDays(2)))
+                .thenReturn(List.<Object[]>of(row(1, tomorrow, null), row(2, TODAY, LocalTime.of(8, 10))));
+        reminders.loadUpcoming();
+
+        // Todo 2's reminder at 7:55 is already past; only its overdue event is left
+        assertThat(reminders.pendingCount()).isEqualTo(3);
+        assertThat(firedAt(TODAY, 8, 10)).containsExactly(tuple(ReminderEvent.Type.OVERDUE, 2L, TODAY));
+        assertThat(firedAt(tomorrow, 9, 0)).containsExactly(tuple(ReminderEvent.Type.REMINDER, 1L, tomorrow));
+        assertThat(firedAt(tomorrow, 23, 59)).isEmpty();
+        assertThat(firedAt(tomorrow.plusDays(1), 0, 0)).containsExactly(tuple(ReminderEvent.Type.OVERDUE, 1L, tomorrow));
+    }
+
+    @Test
+    void changesRescheduleAndCompletionCancels() {
+        reminders.loadUpcoming();
+        TodoSnapshot atTen = todo(1, TODAY, LocalTime.of(10, 0), false, null);
+        TodoSnapshot atEleven = todo(1, TODAY, LocalTime.of(11, 0), false, null);
+        reminders.onTodoChanged(TodoChangedEvent.created(atTen));
+        reminders.onTodoChanged(TodoChangedEvent.updated(atTen, atEleven));
+
+        assertThat(reminders.pendingCount()).isEqualTo(2);
+        assertThat(firedAt(TODAY, 10, 0)).isEmpty();
+        assertThat(firedAt(TODAY, 10, 45)).containsExactly(tuple(ReminderEvent.Type.REMINDER, 1L, TODAY));
+
+        reminders.onTodoChanged(TodoChangedEvent.updated(atEleven, todo(1, TODAY, LocalTime.of(11, 0), true, null)));
+
+        assertThat(reminders.pendingCount()).isZero();
+        assertThat(firedAt(TODAY, 12, 0)).isEmpty();
+    }
+
+    @Test
+    void deletingOrUnschedulingCancels() {
+        reminders.loadUpcoming();
+        TodoSnapshot first = todo(1, TODAY, LocalTime.of(10, 0), false, null);
+        TodoSnapshot second = todo(2, TODAY.plusDays(1), null, false, null);
+        reminders.onTodoChanged(TodoChangedEvent.created(first));
+        reminders.onTodoChanged(TodoChangedEvent.created(second));
+        assertThat(reminders.pendingCount()).isEqualTo(4);
+
+        reminders.onTodoChanged(TodoChangedEvent.deleted(first));
+        reminders.onTodoChanged(TodoChangedEvent.updated(second, todo(2, null, null, false, null)));
+
+        assertThat(reminders.pendingCount()).isZero();
+        assertThat(firedAt(TODAY.plusDays(2), 0, 0)).isEmpty();
+    }
+
+    @Test
+    void windowMovesWithTheDays() {
+        LocalDate outside = TODAY.plusDays(3);
+        reminders.loadUpcoming();
+        verify(todoRepository).findUpcomingReminders(TODAY, TODAY.plusDays(2));
+
+        // Past the window: left to the extension that loads its day
+        reminders.onTodoChanged(TodoChangedEvent.created(todo(1, outside, LocalTime.of(10, 0), false, null)));
+        assertThat(reminders.pendingCount()).isZero();
+
+        // Same day: nothing new to load
+        at(TODAY, 23, 0);
+        reminders.extendWindow();
+        verify(todoRepository, times(1)).findUpcomingReminders(any(), any());
+
+        at(TODAY.plusDays(1), 0, 0);
+        when(todoRepository.findUpcomingReminders(outside, outside))
+                .thenReturn(List.<Object[]>of(row(1, outside, LocalTime.of(10, 0))));
+        reminders.extendWindow();
+
+        verify(todoRepository).findUpcomingReminders(outside, outside);
+        verify(todoRepository).findRecurringReminders(outside, outside);
+        assertThat(reminders.pendingCount()).isEqualTo(2);
+        assertThat(firedAt(outside, 10, 0)).containsExactly(
+                tuple(ReminderEvent.Type.REMINDER, 1L, outside), tuple(ReminderEvent.Type.OVERDUE, 1L, outside));
+    }
+
+    @Test
+    void changesDuringTheReadAreReplayedOverItsRows() {
+        TodoSnapshot loaded = todo(1, TODAY, LocalTime.of(10, 0), false, null);
+        when(todoRepository.findUpcomingReminders(TODAY, TODAY.plusDays(2))).thenAnswer(call -> {
+            // Committed while the window was being read: the row below is already stale
+            reminders.onTodoChanged(TodoChangedEvent.updated(loaded, todo(1, TODAY, LocalTime.of(10, 0), true, null)));
+            reminders.onTodoChanged(TodoChangedEvent.created(todo(2, TODAY, LocalTime.of(12, 0), false, null)));
+            return List.<Object[]>of(row(1, TODAY, LocalTime.of(10, 0)));
+        });
+
+        reminders.loadUpcoming();
+
+        assertThat(reminders.pendingCount()).isEqualTo(2);
+        assertThat(firedAt(TODAY, 12, 0)).containsExactly(
+                tuple(ReminderEvent.Type.REMINDER, 2L, TODAY), tuple(ReminderEvent.Type.OVERDUE, 2L, TODAY));
+    }
+
+    @Test
+    void seriesMovesOnToItsNextOccurrenceInsideTheWindow() {
+        RecurrenceRule daily = new RecurrenceRule(RecurrenceFrequency.DAILY, 1, null, null);
+        LocalTime ten = LocalTime.of(10, 0);
+        reminders.loadUpcoming();
+        reminders.onTodoChanged(TodoChangedEvent.created(todo(1, TODAY, ten, false, daily)));
+        assertThat(reminders.pendingCount()).isEqualTo(2);
+
+        assertThat(firedAt(TODAY, 10, 0)).containsExactly(
+                tuple(ReminderEvent.Type.REMINDER, 1L, TODAY), tuple(ReminderEvent.Type.OVERDUE, 1L, TODAY));
+        // The last event of an occurrence schedules the next one
+        assertThat(reminders.pendingCount()).isEqualTo(2);
+        assertThat(firedAt(TODAY.plusDays(1), 9, 45)).containsExactly(tuple(ReminderEvent.Type.REMINDER, 1L, TODAY.plusDays(1)));
+        assertThat(firedAt(TODAY.plusDays(1), 10, 0)).containsExactly(tuple(ReminderEvent.Type.OVERDUE, 1L, TODAY.plusDays(1)));
+        assertThat(firedAt(TODAY.plusDays(2), 10, 0)).containsExactly(
+                tuple(ReminderEvent.Type.REMINDER, 1L, TODAY.plusDays(2)),
+                tuple(ReminderEvent.Type.OVERDUE, 1L, TODAY.plusDays(2)));
+
+        // The next occurrence is past the window, so the series waits for its extension
+        assertThat(reminders.pendingCount()).isZero();
+        LocalDate from = TODAY.plusDays(3);
+        at(from, 0, 0);
+        when(todoRepository.findRecurringReminders(from, from.plusDays(2)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, USER, "Todo 1", TODAY, ten, daily}));
+        reminders.extendWindow();
+
+        assertThat(firedAt(from, 10, 0)).containsExactly(
+                tuple(ReminderEvent.Type.REMINDER, 1L, from), tuple(ReminderEvent.Type.OVERDUE, 1L, from));
+    }
+
+    @Test
+    void completingASeriesStopsIt() {
+        RecurrenceRule daily = new RecurrenceRule(RecurrenceFrequency.DAILY, 1, null, null);
+        TodoSnapshot series = todo(1, TODAY, LocalTime.of(10, 0), false, daily);
+        reminders.loadUpcoming();
+        reminders.onTodoChanged(TodoChangedEvent.created(series));
+
+        reminders.onTodoChanged(TodoChangedEvent.updated(series, todo(1, TODAY, LocalTime.of(10, 0), true, daily)));
+
+        assertThat(reminders.pendingCount()).isZero();
+        assertThat(firedAt(TODAY.plusDays(2), 12, 0)).isEmpty();
+    }
+}
@@ -0,0 +1,180 @@
+package com.todoapp.service;
+
+import com.todoapp.config.ShardContext;
+import com.todoapp.config.ShardRoutingDataSource;
+import com.todoapp.config.ShardingProperties;
+import com.todoapp.model.User;
+import com.todoapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Placement against a directory and two shards, each its own embedded H2 database behind the
+ * application's routing datasource.
+ */
+class ShardServiceTest {
+
+    private static final String USERS = "CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(255), " +
+            "email VARCHAR(255), password VARCHAR(255), shard VARCHAR(255), created_at TIMESTAMP)";
+
+    private final Map<String, EmbeddedDatabase> databases = new HashMap<>();
+    private ShardingProperties properties;
+    private ShardService shardService;
+    // Joins the transaction ShardService opens, like the repositories do
+    private JdbcTemplate routed;
+
+    @BeforeEach
+    void setUp() {
+        for (String name : List.of(ShardContext.DIRECTORY, "shard-a", "shard-b")) {
+            EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .generateUniqueName(true)
+                    .build();
+            new JdbcTemplate(database).execute(USERS);
+            databases.put(name, database);
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(new HashMap<>(databases));
+        routing.setDefaultTargetDataSource(databases.get(ShardContext.DIRECTORY));
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        routed = new JdbcTemplate(routing);
+
+        properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.getShards().put("shard-a", new ShardingProperties.Shard());
+        properties.getShards().put("shard-b", new ShardingProperties.Shard());
+        shardService = new ShardService(properties, mock(UserRepository.class), routing,
+                new DataSourceTransactionManager(routing));
+    }
+
+    @AfterEach
+    void tearDown() {
+        databases.values().forEach(EmbeddedDatabase::shutdown);
+        ShardContext.clear();
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private int users(String database) {
+        return new JdbcTemplate(databases.get(database)).queryForObject("SELECT COUNT(*) FROM users", Integer.class);
+    }
+
+    // The directory side of UserService.register: insert, place, store the shard
+    private void register(User user) {
+        routed.update("INSERT INTO users (id, username, email, password, created_at) VALUES (?, ?, ?, 'x', ?)",
+                user.getId(), user.getUsername(), user.getEmail(), user.getCreatedAt());
+        shardService.place(user);
+        routed.update("UPDATE users SET shard = ? WHERE id = ?", user.getShard(), user.getId());
+    }
+
+    @Test
+    void placesUsersByIdOverTheShards() {
+        User even = user(10);
+        User odd = user(11);
+
+        shardService.inDirectory(() -> {
+            register(even);
+            register(odd);
+            return null;
+        });
+
+        assertThat(even.getShard()).isEqualTo("shard-a");
+        assertThat(odd.getShard()).isEqualTo("shard-b");
+        assertThat(users(ShardContext.DIRECTORY)).isEqualTo(2);
+        assertThat(users("shard-a")).isEqualTo(1);
+        assertThat(users("shard-b")).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackRegistrationTakesTheReferenceRowBack() {
+        User user = user(11);
+
+        assertThatThrownBy(() -> shardService.inDirectory(() -> {
+            register(user);
+            throw new IllegalStateException("directory write failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(users(ShardContext.DIRECTORY)).isZero();
+        assertThat(users("shard-b")).isZero();
+    }
+
+    @Test
+    void failedShardUpdateTakesTheReferenceRowBack() {
+        User user = user(12);
+
+        assertThatThrownBy(() -> shardService.inDirectory(() -> {
+            register(user);
+            // Same id again: the primary key fails the directory transaction after placement
+            register(user(12));
+            return null;
+        })).isNotNull();
+
+        assertThat(users(ShardContext.DIRECTORY)).isZero();
+        assertThat(users("shard-a")).isZero();
+    }
+
+    @Test
+    void rollbackKeepsAReferenceRowItDidNotInsert() {
+        new JdbcTemplate(databases.get("shard-a")).update(
+                "INSERT INTO users (id, username, email, password) VALUES (20, 'user20', 'user20@example.com', '')");
+
+        assertThatThrownBy(() -> shardService.inDirectory(() -> {
+            register(user(20));
+            throw new IllegalStateException("directory write failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(users("shard-a")).isEqualTo(1);
+    }
+
+    @Test
+    void placementListRestrictsNewUsers() {
+        properties.getPlacement().add("shard-b");
+        User user = user(10);
+
+        shardService.inDirectory(() -> {
+            register(user);
+            return null;
+        });
+
+        assertThat(user.getShard()).isEqualTo("shard-b");
+        assertThat(users("shard-a")).isZero();
+    }
+
+    @Test
+    void withoutShardingUsersStayInTheDirectory() {
+        properties.setEnabled(false);
+        User user = user(10);
+
+        shardService.inDirectory(() -> {
+            register(user);
+            return null;
+        });
+
+        assertThat(user.getShard()).isNull();
+        assertThat(shardService.shardOf(user)).isEqualTo(ShardContext.DIRECTORY);
+        assertThat(users("shard-a") + users("shard-b")).isZero();
+    }
+}
@@ -0,0 +1,135 @@
+package com.todoapp.service;
+
+import com.todoapp.PostgresTest;
+import com.todoapp.model.RecurrenceFrequency;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.model.Todo;
+import com.todoapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The streak statements on the users row. The database clock cannot be moved, so each case
+ * stores the last active day relative to the user's today and completes a todo now. The two
+ * zones are 25 hours apart, so their dates always differ.
+ */
+class StreakServiceTest extends PostgresTest {
+
+    private static final ZoneId AHEAD = ZoneId.of("Pacific/Kiritimati");
+    private static final ZoneId BEHIND = ZoneId.of("Pacific/Pago_Pago");
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private StreakService streakService;
+
+    private User user(ZoneId zone, LocalDate lastActive, int current, int longest) {
+        User user = newUser();
+        jdbc.update("UPDATE users SET time_zone = ?, last_active_date = ?, current_streak = ?, longest_streak = ? WHERE id = ?",
+                zone != null ? zone.getId() : null, lastActive, current, longest, user.getId());
+        return userRepository.findById(user.getId()).orElseThrow();
+    }
+
+    // Days before today in the default zone
+    private LocalDate daysAgo(int days) {
+        return LocalDate.now(streakService.zoneOf(new User())).minusDays(days);
+    }
+
+    private void complete(User user) {
+        Todo todo = new Todo();
+        todo.setTitle("Something");
+        todo = todoService.createTodo(todo, user);
+        todoService.toggleComplete(todo.getId(), null, user);
+    }
+
+    // {current, longest, last active day}
+    private Object[] streak(User user) {
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        return new Object[]{stored.getCurrentStreak(), stored.getLongestStreak(), stored.getLastActiveDate()};
+    }
+
+    @Test
+    void secondCompletionOnTheSameDayCountsOnce() {
+        User user = user(null, daysAgo(0), 3, 5);
+
+        complete(user);
+        complete(user);
+
+        assertThat(streak(user)).containsExactly(3, 5, daysAgo(0));
+    }
+
+    @Test
+    void firstCompletionOfAFreshUserStartsTheStreak() {
+        User user = user(null, null, 0, 0);
+
+        complete(user);
+
+        assertThat(streak(user)).containsExactly(1, 1, daysAgo(0));
+    }
+
+    @Test
+    void completionOnTheNextDayExtendsTheStreak() {
+        User user = user(null, daysAgo(1), 3, 3);
+
+        complete(user);
+
+        assertThat(streak(user)).containsExactly(4, 4, daysAgo(0));
+        assertThat(streakService.currentStreak(userRepository.findById(user.getId()).orElseThrow())).isEqualTo(4);
+    }
+
+    @Test
+    void gapResetsTheStreakButKeepsTheLongest() {
+        User user = user(null, daysAgo(3), 6, 6);
+        assertThat(streakService.currentStreak(userRepository.findById(user.getId()).orElseThrow())).isZero();
+
+        complete(user);
+
+        assertThat(streak(user)).containsExactly(1, 6, daysAgo(0));
+    }
+
+    @Test
+    void daysAreCountedInTheUsersZone() {
+        // The day before today where the user ahead lives: yesterday there, still today or tomorrow for the other
+        LocalDate dayBefore = LocalDate.now(AHEAD).minusDays(1);
+        User ahead = user(AHEAD, dayBefore, 2, 2);
+        User behind = user(BEHIND, dayBefore, 2, 2);
+
+        complete(ahead);
+        complete(behind);
+
+        assertThat(streak(ahead)).containsExactly(3, 3, LocalDate.now(AHEAD));
+        assertThat(streak(behind)).containsExactly(2, 2, dayBefore);
+    }
+
+    @Test
+    void rolloverEndsStreaksMissedInTheUsersZone() {
+        LocalDate twoDaysBefore = LocalDate.now(AHEAD).minusDays(2);
+        User ahead = user(AHEAD, twoDaysBefore, 4, 4);
+        User behind = user(BEHIND, twoDaysBefore, 4, 4);
+
+        streakService.rollOver();
+
+        assertThat(streak(ahead)).containsExactly(0, 4, twoDaysBefore);
+        assertThat(streak(behind)).containsExactly(4, 4, twoDaysBefore);
+    }
+
+    @Test
+    void completingAnOccurrenceCountsTheDay() {
+        User user = user(null, daysAgo(1), 2, 2);
+        LocalDate today = daysAgo(0);
+        Todo series = new Todo();
+        series.setTitle("Stretch");
+        series.setDueDate(today);
+        series.setRecurrence(new RecurrenceRule(RecurrenceFrequency.DAILY, 1, null, null));
+        series = todoService.createTodo(series, user);
+
+        todoService.toggleOccurrence(series.getId(), today, user);
+
+        assertThat(streak(user)).containsExactly(3, 3, today);
+    }
+}
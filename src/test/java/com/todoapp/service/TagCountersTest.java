@@ -0,0 +1,182 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.todoapp.PostgresTest;
+import com.todoapp.model.Tag;
+import com.todoapp.model.Todo;
+import com.todoapp.model.User;
+import com.todoapp.repository.TodoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The open and total counters on tags, kept in SQL by every todo write: only top-level todos
+ * count, and each write takes the todo off its tags' counters before it changes the row and puts
+ * it back after the tag links are flushed.
+ */
+class TagCountersTest extends PostgresTest {
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TagService tagService;
+    @Autowired
+    private TodoRepository todoRepository;
+    @Autowired
+    private ShardService shardService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ReadCoalescer readCoalescer;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private Tag home;
+    private Tag work;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        home = newTag(user, "home");
+        work = newTag(user, "work");
+    }
+
+    private Todo create(String title, boolean completed, Long parentId, Tag... tags) {
+        Todo todo = new Todo();
+        todo.setTitle(title);
+        todo.setCompleted(completed);
+        todo.setParentId(parentId);
+        todo.setTagIds(List.of(tags).stream().map(Tag::getId).toList());
+        return todoService.createTodo(todo, user);
+    }
+
+    @Test
+    void createCountsTopLevelTodosOnly() {
+        Todo parent = create("Paint the fence", false, null, home, work);
+        create("Buy paint", false, parent.getId(), home);
+        create("Already done", true, null, home);
+
+        assertThat(counts(home)).containsExactly(1, 2);
+        assertThat(counts(work)).containsExactly(1, 1);
+    }
+
+    @Test
+    void updateMovesTheTodoBetweenTagsAndStates() {
+        Todo todo = create("Report", false, null, home);
+        Todo details = new Todo();
+        details.setTitle("Report");
+        details.setCompleted(true);
+        details.setTagIds(List.of(work.getId()));
+
+        todoService.updateTodo(todo.getId(), details, user);
+
+        assertThat(counts(home)).containsExactly(0, 0);
+        assertThat(counts(work)).containsExactly(0, 1);
+    }
+
+    @Test
+    void patchRetagsAndReopens() {
+        Todo todo = create("Report", true, null, home);
+        ObjectNode patch = objectMapper.createObjectNode().put("completed", false);
+        patch.putArray("tagIds").add(home.getId()).add(work.getId());
+
+        todoService.patchTodo(todo.getId(), patch, user);
+
+        assertThat(counts(home)).containsExactly(1, 1);
+        assertThat(counts(work)).containsExactly(1, 1);
+
+        todoService.patchTodo(todo.getId(), objectMapper.createObjectNode().put("title", "Renamed"), user);
+
+        assertThat(counts(home)).containsExactly(1, 1);
+    }
+
+    @Test
+    void toggleMovesOnlyTheOpenCounter() {
+        Todo todo = create("Call mum", false, null, home);
+        Todo subtask = create("Find number", false, todo.getId(), work);
+        create("Second subtask", false, todo.getId());
+
+        todoService.toggleComplete(todo.getId(), null, user);
+        assertThat(counts(home)).containsExactly(0, 1);
+        todoService.toggleComplete(todo.getId(), null, user);
+        assertThat(counts(home)).containsExactly(1, 1);
+
+        todoService.toggleComplete(subtask.getId(), null, user);
+        assertThat(counts(work)).containsExactly(0, 0);
+        assertThat(counts(home)).containsExactly(1, 1);
+    }
+
+    @Test
+    void deleteReleasesTheTreeRootOnly() {
+        Todo parent = create("Trip", false, null, home);
+        create("Pack", false, parent.getId(), home, work);
+        create("Done", true, null, home);
+
+        todoService.deleteTodo(parent.getId(), null, user);
+
+        assertThat(counts(home)).containsExactly(0, 1);
+        assertThat(counts(work)).containsExactly(0, 0);
+    }
+
+    @Test
+    void lastSubtaskCompletesItsParentOnTheCounters() {
+        Todo parent = create("Tax return", false, null, home);
+        Todo first = create("Collect receipts", false, parent.getId());
+        Todo second = create("Fill in form", false, parent.getId());
+
+        todoService.toggleComplete(first.getId(), null, user);
+        assertThat(counts(home)).containsExactly(1, 1);
+        todoService.toggleComplete(second.getId(), null, user);
+
+        assertThat(todoRepository.findById(parent.getId()).orElseThrow().isCompleted()).isTrue();
+        assertThat(counts(home)).containsExactly(0, 1);
+    }
+
+    @Test
+    void writeBehindFlushAppliesTheNetChange() {
+        TodoWriteBuffer buffer = new TodoWriteBuffer(todoRepository, tagRepository, shardService, eventPublisher,
+                entityManager, readCoalescer, new SimpleMeterRegistry(), true, 60_000, 1000);
+        Todo toggled = create("Water plants", false, null, home);
+        Todo toggledTwice = create("Feed cat", false, null, home, work);
+        Todo parent = create("Clean house", false, null, work);
+        Todo lastSubtask = create("Hoover", false, parent.getId(), home);
+
+        buffer.toggle(todoRepository.findById(toggled.getId()).orElseThrow());
+        buffer.toggle(todoRepository.findById(toggledTwice.getId()).orElseThrow());
+        buffer.toggle(todoRepository.findById(toggledTwice.getId()).orElseThrow());
+        buffer.toggle(todoRepository.findById(lastSubtask.getId()).orElseThrow());
+        assertThat(counts(home)).containsExactly(2, 2);
+
+        buffer.flush();
+
+        assertThat(counts(home)).containsExactly(1, 2);
+        // the subtask does not count; its parent completing with it does
+        assertThat(counts(work)).containsExactly(1, 2);
+        assertThat(todoRepository.findById(parent.getId()).orElseThrow().isCompleted()).isTrue();
+    }
+
+    @Test
+    void reconcileRepairsDriftedCounters() {
+        create("Open", false, null, home);
+        create("Done", true, null, home);
+        jdbc.update("UPDATE tags SET open_todos = 7, total_todos = 1 WHERE id = ?", home.getId());
+        jdbc.update("UPDATE tags SET open_todos = 3, total_todos = 3 WHERE id = ?", work.getId());
+
+        tagService.reconcileCounts();
+
+        assertThat(counts(home)).containsExactly(1, 2);
+        assertThat(counts(work)).containsExactly(0, 0);
+    }
+}
@@ -0,0 +1,171 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TodoQuery;
+import com.todoapp.model.Priority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TodoBitmapIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    private TodoBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TodoBitmapIndex();
+        // 1: open, high, due DAY, tags 10 and 20
+        // 2: done, low, due DAY + 2, tag 10
+        // 3: open, medium, no due date, no tags
+        // 4: subtask of 1, open, high, due DAY + 1, tag 20
+        index.upsert(new TodoBitmapIndex.Entry(1, null, false, Priority.HIGH, DAY, List.of(10L, 20L)));
+        index.upsert(new TodoBitmapIndex.Entry(2, null, true, Priority.LOW, DAY.plusDays(2), List.of(10L)));
+        index.upsert(new TodoBitmapIndex.Entry(3, null, false, Priority.MEDIUM, null, List.of()));
+        index.upsert(new TodoBitmapIndex.Entry(4, 1L, false, Priority.HIGH, DAY.plusDays(1), List.of(20L)));
+    }
+
+    private static TodoQuery query() {
+        return new TodoQuery(null, false, null, null, null, null, null, null, null, false,
+                TodoQuery.Sort.CREATED, false, 0, 100);
+    }
+
+    private List<Long> ids(TodoQuery query) {
+        return index.page(index.evaluate(query), query.sort(), query.descending(), 0, 100);
+    }
+
+    private static TodoQuery withTags(List<Long> tags, boolean all) {
+        return new TodoQuery(tags, all, null, null, null, null, null, null, null, false, TodoQuery.Sort.CREATED, false, 0, 100);
+    }
+
+    private static TodoQuery dueBetween(LocalDate from, LocalDate to, boolean includeSubtasks) {
+        return new TodoQuery(null, false, null, null, null, from, to, null, null, includeSubtasks,
+                TodoQuery.Sort.CREATED, false, 0, 100);
+    }
+
+    private static TodoQuery sorted(TodoQuery.Sort sort, boolean descending) {
+        return new TodoQuery(null, false, null, null, null, null, null, null, null, true, sort, descending, 0, 100);
+    }
+
+    @Test
+    void emptyQueryMatchesTopLevelTodos() {
+        assertThat(ids(query())).containsExactly(1L, 2L, 3L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void filtersOnCompletionPriorityAndDueDatePresence() {
+        assertThat(ids(new TodoQuery(null, false, null, null, false, null, null, null, null, false,
+                TodoQuery.Sort.CREATED, false, 0, 100))).containsExactly(1L, 3L);
+        assertThat(ids(new TodoQuery(null, false, null, Set.of(Priority.LOW, Priority.MEDIUM), null, null, null, null, null, false,
+                TodoQuery.Sort.CREATED, false, 0, 100))).containsExactly(2L, 3L);
+        assertThat(ids(new TodoQuery(null, false, null, null, null, null, null, false, null, false,
+                TodoQuery.Sort.CREATED, false, 0, 100))).containsExactly(3L);
+    }
+
+    @Test
+    void anyTagIsAUnionAndAllTagsAnIntersection() {
+        assertThat(ids(withTags(List.of(10L, 20L), false))).containsExactly(1L, 2L);
+        assertThat(ids(withTags(List.of(10L, 20L), true))).containsExactly(1L);
+        assertThat(ids(withTags(List.of(99L), false))).isEmpty();
+        assertThat(ids(new TodoQuery(null, false, List.of(20L), null, null, null, null, null, null, true,
+                TodoQuery.Sort.CREATED, false, 0, 100))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void dueRangeIsInclusiveAndOpenEnded() {
+        assertThat(ids(dueBetween(DAY, DAY.plusDays(1), true))).containsExactly(1L, 4L);
+        assertThat(ids(dueBetween(DAY.plusDays(1), null, false))).containsExactly(2L);
+        assertThat(ids(dueBetween(null, DAY, false))).containsExactly(1L);
+        assertThat(ids(dueBetween(DAY.plusDays(2), DAY, false))).isEmpty();
+    }
+
+    @Test
+    void hasSubtasksFollowsSubtaskMoves() {
+        TodoQuery withSubtasks = new TodoQuery(null, false, null, null, null, null, null, null, true, false,
+                TodoQuery.Sort.CREATED, false, 0, 100);
+        assertThat(ids(withSubtasks)).containsExactly(1L);
+
+        // Move the subtask under 3, then delete it
+        index.upsert(new TodoBitmapIndex.Entry(4, 3L, false, Priority.HIGH, DAY.plusDays(1), null));
+        assertThat(ids(withSubtasks)).containsExactly(3L);
+        index.remove(4);
+        assertThat(ids(withSubtasks)).isEmpty();
+    }
+
+    @Test
+    void subtaskIndexedBeforeItsParentStillCounts() {
+        index.upsert(new TodoBitmapIndex.Entry(6, 5L, false, null, null, List.of()));
+        index.upsert(new TodoBitmapIndex.Entry(5, null, false, null, null, List.of()));
+
+        assertThat(ids(new TodoQuery(null, false, null, null, null, null, null, null, true, false,
+                TodoQuery.Sort.CREATED, false, 0, 100))).containsExactly(1L, 5L);
+    }
+
+    @Test
+    void updateReplacesOldAttributes() {
+        index.upsert(new TodoBitmapIndex.Entry(1, null, true, Priority.LOW, null, List.of(30L)));
+
+        assertThat(ids(withTags(List.of(10L), false))).containsExactly(2L);
+        assertThat(ids(withTags(List.of(30L), false))).containsExactly(1L);
+        assertThat(ids(dueBetween(DAY, DAY, false))).isEmpty();
+        assertThat(ids(new TodoQuery(null, false, null, Set.of(Priority.HIGH), null, null, null, null, null, false,
+                TodoQuery.Sort.CREATED, false, 0, 100))).isEmpty();
+    }
+
+    @Test
+    void updateWithoutTagsKeepsIndexedTags() {
+        index.upsert(new TodoBitmapIndex.Entry(2, null, false, Priority.LOW, DAY.plusDays(2), null));
+
+        assertThat(ids(withTags(List.of(10L), false))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void removedTodosAndTagsNoLongerMatch() {
+        index.remove(1);
+        index.removeTag(10);
+
+        assertThat(ids(query())).containsExactly(2L, 3L);
+        assertThat(ids(withTags(List.of(10L), false))).isEmpty();
+
+        // The tag is gone from todo 2's remembered tags too, so an update cannot bring it back
+        index.upsert(new TodoBitmapIndex.Entry(2, null, true, Priority.LOW, DAY.plusDays(2), null));
+        assertThat(ids(withTags(List.of(10L), false))).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void sortsByDueDateAndPriorityWithMissingKeysLast() {
+        assertThat(ids(sorted(TodoQuery.Sort.DUE_DATE, false))).containsExactly(1L, 4L, 2L, 3L);
+        assertThat(ids(sorted(TodoQuery.Sort.DUE_DATE, true))).containsExactly(2L, 4L, 1L, 3L);
+        // Ascending is LOW first; ties keep creation order
+        assertThat(ids(sorted(TodoQuery.Sort.PRIORITY, false))).containsExactly(2L, 3L, 1L, 4L);
+        assertThat(ids(sorted(TodoQuery.Sort.PRIORITY, true))).containsExactly(1L, 4L, 3L, 2L);
+        assertThat(ids(sorted(TodoQuery.Sort.CREATED, true))).containsExactly(4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void pagesSliceTheOrderedMatches() {
+        TodoQuery query = sorted(TodoQuery.Sort.DUE_DATE, false);
+        var matches = index.evaluate(query);
+
+        assertThat(index.page(matches, TodoQuery.Sort.DUE_DATE, false, 1, 2)).containsExactly(4L, 2L);
+        assertThat(index.page(matches, TodoQuery.Sort.CREATED, false, 2, 5)).containsExactly(3L, 4L);
+        assertThat(index.page(matches, TodoQuery.Sort.CREATED, false, 4, 5)).isEmpty();
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        for (long id = 100; id < 300; id++) {
+            index.upsert(new TodoBitmapIndex.Entry(id, null, false, null, DAY, List.of(7L)));
+        }
+
+        assertThat(index.evaluate(withTags(List.of(7L), false)).getCardinality()).isEqualTo(200);
+        assertThat(index.size()).isEqualTo(204);
+    }
+}
@@ -0,0 +1,151 @@
+package com.todoapp.service;
+
+import com.todoapp.PostgresTest;
+import com.todoapp.model.Todo;
+import com.todoapp.model.User;
+import com.todoapp.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Toggle, due-date move and delete are single conditional statements: they apply at the version
+ * given (or any, without one), a stale version is a conflict and a todo that is missing or not
+ * the user's is not found.
+ */
+class TodoConditionalWriteTest extends PostgresTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 2);
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoRepository todoRepository;
+
+    private User user;
+    private User stranger;
+    private Todo todo;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        stranger = newUser();
+        Todo details = new Todo();
+        details.setTitle("Book flights");
+        details.setDueDate(MONDAY);
+        todo = todoService.createTodo(details, user);
+    }
+
+    private Todo stored() {
+        return todoRepository.findById(todo.getId()).orElseThrow();
+    }
+
+    @Test
+    void toggleAtTheCurrentVersionFlipsAndBumpsIt() {
+        Todo toggled = todoService.toggleComplete(todo.getId(), 0L, user).orElseThrow();
+
+        assertThat(toggled.isCompleted()).isTrue();
+        assertThat(toggled.getVersion()).isEqualTo(1L);
+        assertThat(stored().isCompleted()).isTrue();
+        assertThat(todoService.toggleComplete(todo.getId(), null, user).orElseThrow().isCompleted()).isFalse();
+        assertThat(stored().getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void toggleAtAStaleVersionConflictsAndChangesNothing() {
+        todoService.toggleComplete(todo.getId(), 0L, user);
+
+        assertThatThrownBy(() -> todoService.toggleComplete(todo.getId(), 0L, user))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(stored().isCompleted()).isTrue();
+        assertThat(stored().getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void toggleOfAMissingOrForeignTodoIsNotFound() {
+        assertThat(todoService.toggleComplete(todo.getId() + 1000, 0L, user)).isEmpty();
+        assertThat(todoService.toggleComplete(todo.getId(), 0L, stranger)).isEmpty();
+        assertThat(todoService.toggleComplete(todo.getId(), null, stranger)).isEmpty();
+        assertThat(stored().isCompleted()).isFalse();
+    }
+
+    @Test
+    void moveAtTheCurrentVersionSetsTheDate() {
+        Todo moved = todoService.updateDueDate(todo.getId(), MONDAY.plusDays(3), 0L, user).orElseThrow();
+
+        assertThat(moved.getDueDate()).isEqualTo(MONDAY.plusDays(3));
+        assertThat(moved.getVersion()).isEqualTo(1L);
+        assertThat(stored().getDueDate()).isEqualTo(MONDAY.plusDays(3));
+        assertThat(todoService.updateDueDate(todo.getId(), null, null, user).orElseThrow().getDueDate()).isNull();
+    }
+
+    @Test
+    void moveAtAStaleVersionConflictsAndMissingIsNotFound() {
+        todoService.updateDueDate(todo.getId(), MONDAY.plusDays(1), 0L, user);
+
+        assertThatThrownBy(() -> todoService.updateDueDate(todo.getId(), MONDAY.plusDays(2), 0L, user))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(stored().getDueDate()).isEqualTo(MONDAY.plusDays(1));
+        assertThat(todoService.updateDueDate(todo.getId() + 1000, MONDAY, 0L, user)).isEmpty();
+        assertThat(todoService.updateDueDate(todo.getId(), MONDAY, 1L, stranger)).isEmpty();
+    }
+
+    @Test
+    void deleteAtTheCurrentVersionTakesTheSubtasksAlong() {
+        Todo details = new Todo();
+        details.setTitle("Pick seats");
+        details.setParentId(todo.getId());
+        Todo subtask = todoService.createTodo(details, user);
+
+        assertThat(todoService.deleteTodo(todo.getId(), 0L, user)).isTrue();
+
+        assertThat(todoRepository.existsById(todo.getId())).isFalse();
+        assertThat(todoRepository.existsById(subtask.getId())).isFalse();
+    }
+
+    @Test
+    void deleteAtAStaleVersionConflictsAndMissingIsNotFound() {
+        todoService.toggleComplete(todo.getId(), 0L, user);
+
+        assertThatThrownBy(() -> todoService.deleteTodo(todo.getId(), 0L, user))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(todoRepository.existsById(todo.getId())).isTrue();
+        assertThat(todoService.deleteTodo(todo.getId(), 1L, stranger)).isFalse();
+        assertThat(todoService.deleteTodo(todo.getId() + 1000, null, user)).isFalse();
+        assertThat(todoService.deleteTodo(todo.getId(), null, user)).isTrue();
+    }
+
+    @Test
+    void conflictIs409AndMissingIs404() throws Exception {
+        String auth = bearer(user);
+        mvc.perform(patch("/api/todos/{id}/toggle", todo.getId()).param("version", "0").header("Authorization", auth))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        mvc.perform(patch("/api/todos/{id}/toggle", todo.getId()).param("version", "0").header("Authorization", auth))
+                .andExpect(status().isConflict());
+        mvc.perform(patch("/api/todos/{id}/due-date", todo.getId()).param("dueDate", "2026-03-05")
+                        .param("version", "0").header("Authorization", auth))
+                .andExpect(status().isConflict());
+        mvc.perform(delete("/api/todos/{id}", todo.getId()).param("version", "0").header("Authorization", auth))
+                .andExpect(status().isConflict());
+
+        mvc.perform(patch("/api/todos/{id}/toggle", todo.getId()).header("Authorization", bearer(stranger)))
+                .andExpect(status().isNotFound());
+        mvc.perform(patch("/api/todos/{id}/due-date", todo.getId() + 1000).param("dueDate", "2026-03-05")
+                        .header("Authorization", auth))
+                .andExpect(status().isNotFound());
+        mvc.perform(delete("/api/todos/{id}", todo.getId() + 1000).header("Authorization", auth))
+                .andExpect(status().isNotFound());
+    }
+}
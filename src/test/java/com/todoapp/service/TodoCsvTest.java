@@ -0,0 +1,131 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TodoTransferRecord;
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TodoCsvTest {
+
+    private static TodoTransferRecord record(long id, Long parentId, String title) {
+        TodoTransferRecord record = new TodoTransferRecord();
+        record.setId(id);
+        record.setParentId(parentId);
+        record.setTitle(title);
+        return record;
+    }
+
+    private static TodoTransferRecord full() {
+        TodoTransferRecord record = record(7, 3L, "Renew passport");
+        record.setDescription("Photos first");
+        record.setCompleted(true);
+        record.setDueDate(LocalDate.of(2026, 3, 2));
+        record.setDueTime(LocalTime.of(10, 30));
+        record.setPriority(Priority.HIGH);
+        record.setDisplayOrder(4);
+        record.setRecurrenceFrequency(RecurrenceFrequency.MONTHLY);
+        record.setRecurrenceInterval(2);
+        record.setRecurrenceDayOfMonth(31);
+        record.setRecurrenceUntil(LocalDate.of(2027, 1, 31));
+        record.setCreatedAt(LocalDateTime.of(2026, 1, 5, 8, 15, 30, 123_000_000));
+        record.setTags(new ArrayList<>(List.of("admin", "travel")));
+        return record;
+    }
+
+    private static String write(TodoTransferRecord... records) throws IOException {
+        StringWriter writer = new StringWriter();
+        TodoCsv.writeHeader(writer);
+        for (TodoTransferRecord record : records) {
+            TodoCsv.writeRecord(writer, record);
+        }
+        return writer.toString();
+    }
+
+    private static List<TodoTransferRecord> read(String csv) throws IOException {
+        TodoCsv.Parser parser = new TodoCsv.Parser(new BufferedReader(new StringReader(csv)));
+        List<TodoTransferRecord> records = new ArrayList<>();
+        TodoTransferRecord record;
+        while ((record = parser.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Test
+    void everyFieldRoundTrips() throws IOException {
+        TodoTransferRecord bare = record(8, null, "Bare");
+
+        assertThat(read(write(full(), bare))).containsExactly(full(), bare);
+    }
+
+    @Test
+    void emptyValuesAreWrittenAsEmptyFields() throws IOException {
+        String csv = write(record(8, null, "Bare"));
+
+        assertThat(csv).isEqualTo(String.join(",", TodoCsv.COLUMNS) + "\r\n8,,Bare,,false,,,,,,,,,,\r\n");
+    }
+
+    @Test
+    void separatorsQuotesAndLineBreaksAreQuoted() throws IOException {
+        TodoTransferRecord record = record(1, null, "Call \"Bob\", then Alice");
+        record.setDescription("line one\r\nline two\nline three");
+
+        String csv = write(record);
+
+        assertThat(csv).contains("\"Call \"\"Bob\"\", then Alice\"", "\"line one\r\nline two\nline three\"");
+        assertThat(read(csv)).containsExactly(record);
+    }
+
+    @Test
+    void columnsAreMatchedByHeaderName() throws IOException {
+        String csv = "title, priority ,tags,dueDate,unknown\n"
+                + "Water plants,high, home | garden |,2026-03-02,ignored\n"
+                + "\n"
+                + "Read,low,,,";
+
+        List<TodoTransferRecord> records = read(csv);
+
+        assertThat(records).hasSize(2);
+        TodoTransferRecord first = records.get(0);
+        assertThat(first.getId()).isNull();
+        assertThat(first.getTitle()).isEqualTo("Water plants");
+        assertThat(first.getPriority()).isEqualTo(Priority.HIGH);
+        assertThat(first.getTags()).containsExactly("home", "garden");
+        assertThat(first.getDueDate()).isEqualTo(LocalDate.of(2026, 3, 2));
+        assertThat(records.get(1).getTags()).isEmpty();
+        assertThat(records.get(1).isCompleted()).isFalse();
+    }
+
+    @Test
+    void badValueFailsItsRowOnly() throws IOException {
+        TodoCsv.Parser parser = new TodoCsv.Parser(new BufferedReader(new StringReader(
+                "title,dueDate\r\nFirst,2026-03-02\r\nSecond,\"March 3rd, 2026\"\r\nThird,\r\n")));
+
+        assertThat(parser.next().getTitle()).isEqualTo("First");
+        assertThatThrownBy(parser::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("invalid dueDate 'March 3rd, 2026'");
+        assertThat(parser.getRecordNumber()).isEqualTo(2);
+        assertThat(parser.next().getTitle()).isEqualTo("Third");
+        assertThat(parser.next()).isNull();
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertThat(read("")).isEmpty();
+        assertThat(read(String.join(",", TodoCsv.COLUMNS) + "\r\n")).isEmpty();
+    }
+}
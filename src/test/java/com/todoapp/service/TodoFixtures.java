@@ -0,0 +1,56 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.model.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Realistic todo lists for benchmarks: mixed priorities, due dates and times, some series, two tags each
+public final class TodoFixtures {
+
+    private TodoFixtures() {
+    }
+
+    public static List<Todo> todos(int count) {
+        List<Tag> tags = new ArrayList<>();
+        for (long i = 1; i <= 5; i++) {
+            Tag tag = new Tag();
+            tag.setId(i);
+            tag.setVersion(0L);
+            tag.setName("tag " + i);
+            tags.add(tag);
+        }
+        LocalDate today = LocalDate.of(2026, 1, 1);
+        List<Todo> todos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Todo todo = new Todo();
+            todo.setId((long) i + 1);
+            todo.setVersion(3L);
+            todo.setTitle("Todo number " + i);
+            todo.setDescription(i % 2 == 0 ? "Something to remember about todo " + i : null);
+            todo.setCompleted(i % 3 == 0);
+            todo.setDueDate(today.plusDays(i % 14));
+            todo.setDueTime(i % 4 == 0 ? LocalTime.of(9, 30) : null);
+            todo.setPriority(Priority.values()[i % Priority.values().length]);
+            if (i % 5 == 0) {
+                todo.setRecurrence(new RecurrenceRule(RecurrenceFrequency.WEEKLY, 1, null, null));
+            }
+            todo.setDisplayOrder(i);
+            todo.setTags(Set.of(tags.get(i % 5), tags.get((i + 2) % 5)));
+            todo.setCreatedAt(LocalDateTime.of(2025, 12, 1, 8, 0).plusMinutes(i));
+            todo.setUpdatedAt(LocalDateTime.of(2025, 12, 2, 8, 0).plusMinutes(i));
+            todos.add(todo);
+        }
+        return todos;
+    }
+
+    // Mapped as the list endpoints return them; tags and subtasks are loaded, so nothing is queried
+    public static List<TodoResponse> responses(int count) {
+        return new TodoMapper(null).toResponses(todos(count));
+    }
+}
@@ -0,0 +1,150 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TodoFields;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceFrequency;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.repository.TodoRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TodoMapperTest {
+
+    private static final LocalDate PAST = LocalDate.now().minusDays(3);
+    private static final LocalDate FUTURE = LocalDate.now().plusDays(3);
+    // Every attribute a column query can select, in the order row() fills them
+    private static final List<String> COLUMNS = List.of("id", "version", "title", "description", "completed", "dueDate",
+            "dueTime", "priority", "recurrence", "displayOrder", "createdAt", "updatedAt", "parent.id", "recurrence.frequency");
+
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final TodoMapper mapper = new TodoMapper(todoRepository);
+
+    // Rows as the column query returns them for the given fields
+    private List<Object[]> rows(List<String> columns, List<List<Object>> values) {
+        List<Object[]> rows = new ArrayList<>();
+        for (List<Object> row : values) {
+            Object[] columnValues = new Object[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                columnValues[i] = row.get(COLUMNS.indexOf(columns.get(i)));
+            }
+            rows.add(columnValues);
+        }
+        return rows;
+    }
+
+    private static List<Object> row(long id, String title, boolean completed, LocalDate dueDate, RecurrenceFrequency frequency) {
+        List<Object> row = new ArrayList<>();
+        row.add(id);
+        row.add(1L);
+        row.add(title);
+        row.add("A long description");
+        row.add(completed);
+        row.add(dueDate);
+        row.add(LocalTime.NOON);
+        row.add(Priority.MEDIUM);
+        row.add(frequency != null ? new RecurrenceRule(frequency, 2, null, null) : null);
+        row.add((int) id);
+        row.add(LocalDateTime.of(2026, 1, 1, 8, 0).plusMinutes(id));
+        row.add(LocalDateTime.of(2026, 1, 2, 8, 0));
+        row.add(null);
+        row.add(frequency);
+        return row;
+    }
+
+    @Test
+    void columnsAreTheFieldsAttributesAfterTheOrderColumns() {
+        assertThat(mapper.columnsFor(TodoFields.parse("title,priority")))
+                .containsExactly("id", "dueDate", "dueTime", "createdAt", "title", "priority");
+        assertThat(mapper.columnsFor(TodoFields.parse("overdue,recurring,parentId")))
+                .containsExactly("id", "dueDate", "dueTime", "createdAt", "parent.id", "recurrence.frequency", "completed");
+    }
+
+    @Test
+    void tagsSubtaskCountsAndOccurrenceDateSelectNoColumn() {
+        assertThat(mapper.columnsFor(TodoFields.parse("tags,subtaskCount,subtaskProgress,occurrenceDate")))
+                .containsExactly("id", "dueDate", "dueTime", "createdAt");
+    }
+
+    @Test
+    void rowsMapToTheRequestedFields() {
+        TodoFields fields = TodoFields.parse("title,completed,dueDate,priority,recurrence");
+        List<String> columns = mapper.columnsFor(fields);
+
+        List<TodoResponse> todos = mapper.fromColumns(rows(columns, List.of(
+                row(1, "Pay rent", false, FUTURE, null),
+                row(2, "Water plants", true, PAST, RecurrenceFrequency.WEEKLY))), columns, fields);
+
+        assertThat(todos).extracting(TodoResponse::id, TodoResponse::title, TodoResponse::completed, TodoResponse::priority)
+                .containsExactly(
+                        tuple(1L, "Pay rent", false, Priority.MEDIUM),
+                        tuple(2L, "Water plants", true, Priority.MEDIUM));
+        assertThat(todos.get(1).recurrence().frequency()).isEqualTo(RecurrenceFrequency.WEEKLY);
+        assertThat(todos.get(1).recurrence().interval()).isEqualTo(2);
+        // Not selected
+        assertThat(todos).allSatisfy(todo -> {
+            assertThat(todo.description()).isNull();
+            assertThat(todo.version()).isNull();
+            assertThat(todo.occurrenceDate()).isNull();
+        });
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void overdueAndRecurringAreDerivedFromTheirColumns() {
+        TodoFields fields = TodoFields.parse("overdue,recurring");
+        List<String> columns = mapper.columnsFor(fields);
+
+        List<TodoResponse> todos = mapper.fromColumns(rows(columns, List.of(
+                row(1, "late", false, PAST, null),
+                row(2, "late but done", true, PAST, null),
+                row(3, "upcoming", false, FUTURE, RecurrenceFrequency.DAILY))), columns, fields);
+
+        assertThat(todos).extracting(TodoResponse::overdue).containsExactly(true, false, false);
+        assertThat(todos).extracting(TodoResponse::recurring).containsExactly(false, false, true);
+    }
+
+    @Test
+    void tagsAndSubtaskCountsAreQueriedOnlyWhenAsked() {
+        when(todoRepository.findTagsByTodoIds(any())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 10L, "home", "#00ff00", 0L, 3, 1}));
+        when(todoRepository.countSubtasksByParentIds(any())).thenReturn(List.<Object[]>of(new Object[]{1L, 4L, 3L}));
+        TodoFields fields = TodoFields.parse("tags,subtaskProgress");
+        List<String> columns = mapper.columnsFor(fields);
+
+        List<TodoResponse> todos = mapper.fromColumns(rows(columns, List.of(
+                row(1, "one", false, FUTURE, null),
+                row(2, "two", false, FUTURE, null))), columns, fields);
+
+        assertThat(todos.get(0).tags()).extracting(tag -> tag.name()).containsExactly("home");
+        assertThat(todos.get(0).subtaskProgress()).isEqualTo(75);
+        assertThat(todos.get(1).tags()).isEmpty();
+        assertThat(todos.get(1).subtaskCount()).isZero();
+        verify(todoRepository).findTagsByTodoIds(Set.of(1L, 2L));
+        verify(todoRepository).countSubtasksByParentIds(Set.of(1L, 2L));
+
+        TodoFields titles = TodoFields.parse("title");
+        List<String> titleColumns = mapper.columnsFor(titles);
+        mapper.fromColumns(rows(titleColumns, List.of(row(1, "one", false, FUTURE, null))), titleColumns, titles);
+        verifyNoMoreInteractions(todoRepository);
+    }
+
+    @Test
+    void noRowsQueryNothing() {
+        TodoFields fields = TodoFields.parse("tags,subtaskCount");
+
+        assertThat(mapper.fromColumns(List.of(), mapper.columnsFor(fields), fields)).isEmpty();
+        verifyNoInteractions(todoRepository);
+    }
+}
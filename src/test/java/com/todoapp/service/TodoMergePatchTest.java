@@ -0,0 +1,158 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceFrequency;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.model.Todo;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TodoMergePatchTest {
+
+    private static final ValidatorFactory VALIDATION = Validation.buildDefaultValidatorFactory();
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private final TodoMergePatch mergePatch = new TodoMergePatch(OBJECT_MAPPER, VALIDATION.getValidator());
+    private Todo todo;
+
+    @AfterAll
+    static void closeValidation() {
+        VALIDATION.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        todo = new Todo();
+        todo.setTitle("Water plants");
+        todo.setDescription("Balcony too");
+        todo.setDueDate(LocalDate.of(2026, 4, 1));
+        todo.setDueTime(LocalTime.of(9, 0));
+        todo.setPriority(Priority.HIGH);
+        todo.setDisplayOrder(4);
+        todo.setRecurrence(new RecurrenceRule(RecurrenceFrequency.WEEKLY, 2, null, null));
+    }
+
+    private static ObjectNode patch(String json) throws Exception {
+        return (ObjectNode) OBJECT_MAPPER.readTree(json);
+    }
+
+    @Test
+    void appliesOnlyTheMembersSent() throws Exception {
+        mergePatch.apply(todo, patch("{\"title\":\"Water all plants\",\"dueDate\":\"2026-04-02\"}"));
+
+        assertThat(todo.getTitle()).isEqualTo("Water all plants");
+        assertThat(todo.getDueDate()).isEqualTo(LocalDate.of(2026, 4, 2));
+        assertThat(todo.getDescription()).isEqualTo("Balcony too");
+        assertThat(todo.getDueTime()).isEqualTo(LocalTime.of(9, 0));
+        assertThat(todo.getPriority()).isEqualTo(Priority.HIGH);
+        assertThat(todo.getDisplayOrder()).isEqualTo(4);
+    }
+
+    @Test
+    void nullClearsOrResetsToTheDefault() throws Exception {
+        mergePatch.apply(todo, patch("{\"description\":null,\"dueDate\":null,\"dueTime\":null,"
+                + "\"priority\":null,\"displayOrder\":null,\"recurrence\":null}"));
+
+        assertThat(todo.getDescription()).isNull();
+        assertThat(todo.getDueDate()).isNull();
+        assertThat(todo.getDueTime()).isNull();
+        assertThat(todo.getPriority()).isEqualTo(Priority.MEDIUM);
+        assertThat(todo.getDisplayOrder()).isZero();
+        assertThat(todo.getRecurrence()).isNull();
+    }
+
+    @Test
+    void recurrenceIsMergedMemberByMemberIntoACopy() throws Exception {
+        RecurrenceRule before = todo.getRecurrence();
+
+        mergePatch.apply(todo, patch("{\"recurrence\":{\"until\":\"2026-12-31\"}}"));
+
+        assertThat(todo.getRecurrence())
+                .isEqualTo(new RecurrenceRule(RecurrenceFrequency.WEEKLY, 2, null, LocalDate.of(2026, 12, 31)))
+                .isNotSameAs(before);
+        assertThat(before.getUntil()).isNull();
+    }
+
+    @Test
+    void invalidMembersAreRejectedWithTheirName() throws Exception {
+        assertThatThrownBy(() -> mergePatch.apply(todo, patch("{\"title\":\"\"}")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("title");
+        assertThatThrownBy(() -> mergePatch.apply(todo, patch("{\"title\":\"" + "x".repeat(201) + "\"}")))
+                .hasMessageContaining("Title must be less than 200 characters");
+        assertThatThrownBy(() -> mergePatch.apply(todo, patch("{\"dueDate\":\"tomorrow\"}")))
+                .hasMessageStartingWith("Invalid dueDate");
+        assertThatThrownBy(() -> mergePatch.apply(todo, patch("{\"priority\":\"URGENT\"}")))
+                .hasMessageStartingWith("Invalid priority");
+        assertThatThrownBy(() -> mergePatch.apply(todo, patch("{\"completed\":null}")))
+                .hasMessage("completed cannot be null");
+        assertThatThrownBy(() -> mergePatch.apply(todo, patch("{\"recurrence\":{\"interval\":0}}")))
+                .hasMessageStartingWith("recurrence.interval");
+        assertThatThrownBy(() -> mergePatch.apply(todo, patch("{\"recurrence\":[]}")))
+                .hasMessage("recurrence must be an object or null");
+    }
+
+    @Test
+    void newRecurrenceNeedsAFrequency() throws Exception {
+        todo.setRecurrence(null);
+
+        assertThatThrownBy(() -> mergePatch.apply(todo, patch("{\"recurrence\":{\"interval\":3}}")))
+                .hasMessageStartingWith("recurrence.frequency");
+
+        mergePatch.apply(todo, patch("{\"recurrence\":{\"frequency\":\"DAILY\",\"interval\":3}}"));
+        assertThat(todo.getRecurrence()).isEqualTo(new RecurrenceRule(RecurrenceFrequency.DAILY, 3, null, null));
+    }
+
+    @Test
+    void unknownAndCallerOwnedMembersAreNotApplied() throws Exception {
+        mergePatch.apply(todo, patch("{\"id\":99,\"tagIds\":[1],\"version\":3,\"colour\":\"red\"}"));
+
+        assertThat(todo.getId()).isNull();
+        assertThat(todo.getVersion()).isNull();
+        assertThat(todo.getTags()).isEmpty();
+    }
+
+    @Test
+    void readsTagIdsVersionAndCompletedForTheCaller() throws Exception {
+        TodoMergePatch.Result result = mergePatch.read(patch("{\"tagIds\":[3,1,3],\"version\":7,\"completed\":true}"));
+
+        assertThat(result.hasTagIds()).isTrue();
+        assertThat(result.tagIds()).containsExactly(3L, 1L);
+        assertThat(result.version()).isEqualTo(7);
+        assertThat(result.completed()).isTrue();
+    }
+
+    @Test
+    void tellsAbsentTagIdsFromClearedOnes() throws Exception {
+        TodoMergePatch.Result absent = mergePatch.read(patch("{\"title\":\"x\"}"));
+        TodoMergePatch.Result cleared = mergePatch.read(patch("{\"tagIds\":null}"));
+
+        assertThat(absent.hasTagIds()).isFalse();
+        assertThat(absent.version()).isNull();
+        assertThat(absent.completed()).isNull();
+        assertThat(cleared.hasTagIds()).isTrue();
+        assertThat(cleared.tagIds()).isNull();
+    }
+
+    @Test
+    void rejectsMalformedTagIds() throws Exception {
+        assertThatThrownBy(() -> mergePatch.read(patch("{\"tagIds\":5}")))
+                .hasMessage("tagIds must be an array");
+        assertThatThrownBy(() -> mergePatch.read(patch("{\"tagIds\":[1,null]}")))
+                .hasMessage("tagIds cannot be null");
+        assertThatThrownBy(() -> mergePatch.read(patch("{\"tagIds\":[\"a\"]}")))
+                .hasMessageStartingWith("Invalid tagIds");
+    }
+}
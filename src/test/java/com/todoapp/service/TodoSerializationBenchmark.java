@@ -0,0 +1,64 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.model.Todo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a todo list as JSON, before and after the response records: the entities through a
+ * plain ObjectMapper, the mapped records through the same mapper and through one with Blackbird,
+ * and already mapped records as the working set serves them. Tags and subtasks are loaded, so
+ * TodoMapper never queries. Run with {@code -Dbenchmark.args="-prof gc"} for allocations per list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TodoSerializationBenchmark {
+
+    @Param({"20", "200"})
+    int todos;
+
+    private ObjectMapper plain;
+    private ObjectMapper blackbird;
+    private TodoMapper todoMapper;
+    private List<Todo> entities;
+    private List<TodoResponse> responses;
+
+    @Setup
+    public void setUp() {
+        plain = Jackson2ObjectMapperBuilder.json().build();
+        blackbird = Jackson2ObjectMapperBuilder.json().build().registerModule(new BlackbirdModule());
+        todoMapper = new TodoMapper(null);
+        entities = TodoFixtures.todos(todos);
+        responses = todoMapper.toResponses(entities);
+    }
+
+    @Benchmark
+    public byte[] entities() throws Exception {
+        return plain.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] records() throws Exception {
+        return plain.writeValueAsBytes(todoMapper.toResponses(entities));
+    }
+
+    @Benchmark
+    public byte[] recordsBlackbird() throws Exception {
+        return blackbird.writeValueAsBytes(todoMapper.toResponses(entities));
+    }
+
+    @Benchmark
+    public byte[] mappedRecordsBlackbird() throws Exception {
+        return blackbird.writeValueAsBytes(responses);
+    }
+}
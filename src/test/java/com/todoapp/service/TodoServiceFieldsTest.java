@@ -0,0 +1,175 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TodoFields;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.model.Priority;
+import com.todoapp.model.RecurrenceFrequency;
+import com.todoapp.model.RecurrenceRule;
+import com.todoapp.model.Todo;
+import com.todoapp.model.User;
+import com.todoapp.repository.ArchivedTodoRepository;
+import com.todoapp.repository.TagRepository;
+import com.todoapp.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Which read answers a list with {@code fields=}: the column query unless the working set already
+ * holds the user or writes are buffered, and then the whole todos, trimmed.
+ */
+class TodoServiceFieldsTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 3, 1);
+    private static final LocalDate END = LocalDate.of(2026, 3, 31);
+    private static final TodoFields FIELDS = TodoFields.parse("title,dueDate,occurrenceDate");
+
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final TodoWriteBuffer writeBuffer = mock(TodoWriteBuffer.class);
+    private final TodoWorkingSet workingSet = mock(TodoWorkingSet.class);
+    private final RecurrenceService recurrenceService = mock(RecurrenceService.class);
+    private final ReadCoalescer readCoalescer = mock(ReadCoalescer.class);
+    private final Map<Long, TodoWriteBuffer.PendingChange> pending = new HashMap<>();
+    private final User user = new User();
+    private TodoService service;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        service = new TodoService(todoRepository, mock(TagRepository.class), mock(ArchivedTodoRepository.class),
+                mock(ApplicationEventPublisher.class), recurrenceService, writeBuffer, workingSet,
+                new TodoMapper(todoRepository), readCoalescer, mock(TodoMergePatch.class), mock(StreakService.class));
+        when(readCoalescer.read(any(), anyString(), anyList(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(3)).get());
+        when(writeBuffer.pendingFor(1L)).thenReturn(pending);
+        when(workingSet.isEnabled()).thenReturn(true);
+        when(recurrenceService.expand(any(), any(), any())).thenReturn(List.of());
+        // id, dueDate, dueTime, createdAt, title
+        when(todoRepository.findColumnsDueBetween(eq(user), eq(START), eq(END), anyList())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, START.plusDays(1), null, LocalDateTime.of(2026, 2, 1, 8, 0), "Dentist"},
+                new Object[]{2L, START.plusDays(9), LocalTime.NOON, LocalDateTime.of(2026, 2, 2, 8, 0), "Rent"}));
+    }
+
+    private static TodoResponse whole(long id, String title, LocalDate dueDate) {
+        return new TodoResponse(id, 0L, title, "description", false, dueDate, null, Priority.LOW, null, 0, List.of(),
+                LocalDateTime.of(2026, 2, 1, 8, 0), null, null, null, false, false, 0, 0, 0);
+    }
+
+    private static Todo occurrence(long seriesId, LocalDate date) {
+        Todo todo = new Todo();
+        todo.setId(seriesId);
+        todo.setTitle("Gym");
+        todo.setDueDate(date);
+        todo.setOccurrenceDate(date);
+        todo.setRecurrence(new RecurrenceRule(RecurrenceFrequency.WEEKLY, 1, null, null));
+        todo.setTags(new HashSet<>());
+        todo.setSubtasks(new ArrayList<>());
+        todo.setCreatedAt(LocalDateTime.of(2026, 1, 1, 8, 0));
+        return todo;
+    }
+
+    @Test
+    void userNotYetInTheWorkingSetIsReadByColumns() {
+        List<Map<String, Object>> todos = service.getTodosByDateRange(user, START, END, FIELDS);
+
+        assertThat(todos).extracting(todo -> todo.get("title")).containsExactly("Dentist", "Rent");
+        assertThat(todos.get(0)).containsOnlyKeys("id", "title", "dueDate", "occurrenceDate");
+        verify(todoRepository).findColumnsDueBetween(user, START, END,
+                List.of("id", "dueDate", "dueTime", "createdAt", "title"));
+        verify(workingSet, never()).between(any(), any(), any());
+    }
+
+    @Test
+    void userInTheWorkingSetIsTrimmedFromMemory() {
+        when(workingSet.holds(user)).thenReturn(true);
+        when(workingSet.between(user, START, END)).thenReturn(List.of(whole(3L, "From memory", START)));
+
+        List<Map<String, Object>> todos = service.getTodosByDateRange(user, START, END, FIELDS);
+
+        assertThat(todos).extracting(todo -> todo.get("title")).containsExactly("From memory");
+        assertThat(todos.get(0)).doesNotContainKey("description");
+        verify(todoRepository, never()).findColumnsDueBetween(any(), any(), any(), anyList());
+    }
+
+    @Test
+    void bufferedWritesReadWholeTodos() {
+        pending.put(1L, new TodoWriteBuffer.PendingChange(1L, 1L, null, true, null, null));
+        when(workingSet.between(user, START, END)).thenReturn(List.of(whole(1L, "Dentist, moved", START)));
+
+        List<Map<String, Object>> todos = service.getTodosByDateRange(user, START, END, FIELDS);
+
+        assertThat(todos).extracting(todo -> todo.get("title")).containsExactly("Dentist, moved");
+        verify(todoRepository, never()).findColumnsDueBetween(any(), any(), any(), anyList());
+    }
+
+    @Test
+    void occurrencesKeepTheirDateAmongProjectedRows() {
+        when(recurrenceService.expand(user, START, END)).thenReturn(List.of(
+                occurrence(9L, START.plusDays(5)), occurrence(9L, START.plusDays(12))));
+
+        List<Map<String, Object>> todos = service.getTodosByDateRange(user, START, END, FIELDS);
+
+        assertThat(todos).extracting(todo -> todo.get("title")).containsExactly("Dentist", "Gym", "Rent", "Gym");
+        assertThat(todos).extracting(todo -> todo.get("occurrenceDate"))
+                .containsExactly(null, START.plusDays(5), null, START.plusDays(12));
+    }
+
+    @Test
+    void dayReadMergesOccurrencesInDayOrder() {
+        LocalDate day = START.plusDays(1);
+        when(todoRepository.findColumnsDueBetween(eq(user), eq(day), eq(day), anyList())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, day, LocalTime.of(15, 0), LocalDateTime.of(2026, 2, 1, 8, 0), "Dentist"}));
+        when(recurrenceService.expand(user, day, day)).thenReturn(List.of(occurrence(9L, day)));
+
+        List<Map<String, Object>> todos = service.getTodosByDate(user, day, FIELDS);
+
+        // the occurrence has no due time and sorts after the timed todo
+        assertThat(todos).extracting(todo -> todo.get("occurrenceDate")).containsExactly(null, day);
+    }
+
+    @Test
+    void everyListEndpointHasItsColumnQuery() {
+        TodoFields titles = TodoFields.parse("title");
+        List<String> columns = List.of("id", "dueDate", "dueTime", "createdAt", "title");
+
+        service.getAllTodosForUser(user, titles);
+        service.getTodosByStatusForUser(true, user, titles);
+        service.getOverdueTodos(user, titles);
+        service.getTodosWithoutDueDate(user, titles);
+        service.getTodosByTag(user, 5L, titles);
+
+        verify(todoRepository).findColumns(user, null, columns);
+        verify(todoRepository).findColumns(user, true, columns);
+        verify(todoRepository).findColumnsOverdue(eq(user), any(), any(), eq(columns));
+        verify(todoRepository).findColumnsUndated(user, columns);
+        verify(todoRepository).findColumnsByTag(user, 5L, columns);
+        verify(workingSet, never()).all(any());
+        verify(todoRepository, never()).findByUserAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(any());
+    }
+
+    @Test
+    void withoutTheWorkingSetColumnsAreReadUnlessWritesAreBuffered() {
+        when(workingSet.isEnabled()).thenReturn(false);
+        TodoFields titles = TodoFields.parse("title");
+
+        service.getTodosWithoutDueDate(user, titles);
+        pending.put(1L, new TodoWriteBuffer.PendingChange(1L, 1L, null, true, null, null));
+        service.getTodosWithoutDueDate(user, titles);
+
+        verify(todoRepository, times(1)).findColumnsUndated(eq(user), anyList());
+        verify(todoRepository).findByUserAndDueDateIsNullAndParentIsNullOrderByCreatedAtDesc(user);
+    }
+}
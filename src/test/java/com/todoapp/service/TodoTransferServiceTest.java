@@ -0,0 +1,240 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.PostgresTest;
+import com.todoapp.dto.ImportProgress;
+import com.todoapp.dto.TodoTransferRecord;
+import com.todoapp.model.*;
+import com.todoapp.repository.TodoRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Export and re-import of a user's todos. Imports run in chunks of two records, so trees and
+ * tags span chunks; what a file calls ids only links its own records.
+ */
+class TodoTransferServiceTest extends PostgresTest {
+
+    @Autowired
+    private TodoService todoService;
+    @Autowired
+    private TodoRepository todoRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private TodoWriteBuffer writeBuffer;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private TodoTransferService transfers;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        transfers = new TodoTransferService(todoRepository, tagRepository, entityManager, eventPublisher, writeBuffer,
+                transactionManager, objectMapper, 2);
+        user = newUser();
+    }
+
+    private Todo create(String title, Long parentId, Tag... tags) {
+        Todo todo = new Todo();
+        todo.setTitle(title);
+        todo.setParentId(parentId);
+        todo.setTagIds(Arrays.stream(tags).map(Tag::getId).toList());
+        return todoService.createTodo(todo, user);
+    }
+
+    // A tree with a tagged subtask, a repeating todo, a finished one and text that needs quoting
+    private void fillSourceAccount() {
+        Tag home = newTag(user, "home");
+        Tag work = newTag(user, "work");
+        Todo trip = create("Plan trip", null, home, work);
+        create("Pack", trip.getId(), home);
+        create("Book \"cheap\" flights, early", trip.getId());
+
+        Todo bills = new Todo();
+        bills.setTitle("Pay rent");
+        bills.setDescription("Transfer on the 1st\nreference: flat 3");
+        bills.setDueDate(LocalDate.of(2026, 3, 1));
+        bills.setDueTime(LocalTime.of(9, 0));
+        bills.setPriority(Priority.HIGH);
+        bills.setRecurrence(new RecurrenceRule(RecurrenceFrequency.MONTHLY, 1, 1, LocalDate.of(2026, 12, 31)));
+        bills.setTagIds(List.of(home.getId()));
+        todoService.createTodo(bills, user);
+
+        Todo done = new Todo();
+        done.setTitle("Renew passport");
+        done.setCompleted(true);
+        done.setPriority(Priority.LOW);
+        todoService.createTodo(done, user);
+    }
+
+    private String export(User owner, TodoTransferService.Format format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transfers.export(owner, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private ImportProgress importInto(User owner, TodoTransferService.Format format, String content) throws IOException {
+        return transfers.importTodos(owner, format, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<TodoTransferRecord> parse(String content, TodoTransferService.Format format) throws IOException {
+        List<TodoTransferRecord> records = new ArrayList<>();
+        if (format == TodoTransferService.Format.CSV) {
+            TodoCsv.Parser parser = new TodoCsv.Parser(new BufferedReader(new StringReader(content)));
+            TodoTransferRecord record;
+            while ((record = parser.next()) != null) {
+                records.add(record);
+            }
+        } else {
+            for (String line : content.split("\n")) {
+                records.add(objectMapper.readValue(line, TodoTransferRecord.class));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * The records without what only identifies rows of one account: ids become the parent's
+     * title, creation times are dropped and tags sorted.
+     */
+    private List<String> comparable(String content, TodoTransferService.Format format) throws IOException {
+        List<TodoTransferRecord> records = parse(content, format);
+        Map<Long, String> titles = new HashMap<>();
+        records.forEach(record -> titles.put(record.getId(), record.getTitle()));
+        List<String> result = new ArrayList<>();
+        for (TodoTransferRecord record : records) {
+            String parent = record.getParentId() != null ? titles.get(record.getParentId()) : null;
+            record.setId(null);
+            record.setParentId(null);
+            record.setCreatedAt(null);
+            record.getTags().sort(null);
+            result.add(parent + " > " + record);
+        }
+        return result;
+    }
+
+    // Title -> parent title of the user's stored todos
+    private Map<String, String> parents(User owner) {
+        Map<String, String> parents = new HashMap<>();
+        jdbc.query("SELECT t.title, p.title FROM todos t LEFT JOIN todos p ON p.id = t.parent_id WHERE t.user_id = ?",
+                row -> {
+                    parents.put(row.getString(1), row.getString(2));
+                }, owner.getId());
+        return parents;
+    }
+
+    private Tag tag(User owner, String name) {
+        return tagRepository.findByUserOrderByNameAsc(owner).stream()
+                .filter(tag -> tag.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void ndjsonRoundTripsIntoAnotherAccount() throws IOException {
+        fillSourceAccount();
+        String exported = export(user, TodoTransferService.Format.NDJSON);
+        User copy = newUser();
+
+        ImportProgress progress = importInto(copy, TodoTransferService.Format.NDJSON, exported);
+
+        assertThat(progress.getImported()).isEqualTo(5);
+        assertThat(progress.getSkipped()).isZero();
+        assertThat(progress.getChunksCommitted()).isEqualTo(3);
+        assertThat(progress.getTagsCreated()).isEqualTo(2);
+        assertThat(progress.isDone()).isTrue();
+        assertThat(comparable(export(copy, TodoTransferService.Format.NDJSON), TodoTransferService.Format.NDJSON))
+                .containsExactlyInAnyOrderElementsOf(comparable(exported, TodoTransferService.Format.NDJSON));
+        assertThat(parents(copy)).containsEntry("Pack", "Plan trip").containsEntry("Book \"cheap\" flights, early", "Plan trip");
+        // Counters count top-level todos only
+        assertThat(counts(tag(copy, "home"))).containsExactly(2, 2);
+        assertThat(counts(tag(copy, "work"))).containsExactly(1, 1);
+    }
+
+    @Test
+    void csvRoundTripsIntoAnotherAccount() throws IOException {
+        fillSourceAccount();
+        String exported = export(user, TodoTransferService.Format.CSV);
+        User copy = newUser();
+
+        ImportProgress progress = importInto(copy, TodoTransferService.Format.CSV, exported);
+
+        assertThat(progress.getImported()).isEqualTo(5);
+        assertThat(exported).contains("\"Book \"\"cheap\"\" flights, early\"", "\"Transfer on the 1st\nreference: flat 3\"");
+        assertThat(comparable(export(copy, TodoTransferService.Format.CSV), TodoTransferService.Format.CSV))
+                .containsExactlyInAnyOrderElementsOf(comparable(exported, TodoTransferService.Format.CSV));
+        assertThat(parents(copy)).containsEntry("Pack", "Plan trip");
+    }
+
+    @Test
+    void subtasksFindParentsFromEarlierChunks() throws IOException {
+        String ndjson = """
+                {"id":10,"title":"Move house"}
+                {"id":11,"parentId":10,"title":"Boxes","tags":["move"]}
+                {"id":12,"parentId":10,"title":"Van"}
+                {"id":13,"parentId":11,"title":"Tape"}
+                {"id":14,"parentId":99,"title":"Orphan","tags":["move"]}
+                """;
+
+        ImportProgress progress = importInto(user, TodoTransferService.Format.NDJSON, ndjson);
+
+        assertThat(progress.getImported()).isEqualTo(5);
+        assertThat(progress.getChunksCommitted()).isEqualTo(3);
+        // The tag created in the first chunk is reused by the last one
+        assertThat(progress.getTagsCreated()).isEqualTo(1);
+        assertThat(parents(user))
+                .containsEntry("Move house", null)
+                .containsEntry("Boxes", "Move house")
+                .containsEntry("Van", "Move house")
+                .containsEntry("Tape", "Boxes")
+                // A parent the file does not contain: imported top-level
+                .containsEntry("Orphan", null);
+        assertThat(counts(tag(user, "move"))).containsExactly(1, 1);
+    }
+
+    @Test
+    void badRecordsAreSkippedAndReported() throws IOException {
+        Tag existing = newTag(user, "home");
+        String csv = "id,title,dueDate,tags\r\n"
+                + "1,Sweep,2026-03-02,home\r\n"
+                + "2,,2026-03-02,\r\n"
+                + "3,Mop,March 2nd,\r\n"
+                + "4,Dust,,home|new\r\n";
+
+        ImportProgress progress = importInto(user, TodoTransferService.Format.CSV, csv);
+
+        assertThat(progress.getProcessed()).isEqualTo(4);
+        assertThat(progress.getImported()).isEqualTo(2);
+        assertThat(progress.getSkipped()).isEqualTo(2);
+        assertThat(progress.getErrors()).containsExactlyInAnyOrder(
+                "Todo 2: title is required", "Row 3: invalid dueDate 'March 2nd'");
+        assertThat(progress.getTagsCreated()).isEqualTo(1);
+        assertThat(counts(existing)).containsExactly(2, 2);
+        assertThat(transfers.getImportProgress(user)).containsSame(progress);
+
+        ImportProgress ndjson = importInto(user, TodoTransferService.Format.NDJSON, "{\"title\":\"Iron\"}\n{not json\n\n");
+
+        assertThat(ndjson.getImported()).isEqualTo(1);
+        assertThat(ndjson.getErrors()).singleElement().asString().startsWith("Line 2: ");
+    }
+}
@@ -0,0 +1,240 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.RecurrenceResponse;
+import com.todoapp.dto.TagResponse;
+import com.todoapp.dto.TodoResponse;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodoSnapshot;
+import com.todoapp.event.TodosReorderedEvent;
+import com.todoapp.model.*;
+import com.todoapp.repository.TagRepository;
+import com.todoapp.repository.TodoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TodoWorkingSetTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final TagRepository tagRepository = mock(TagRepository.class);
+    private final TodoMapper todoMapper = mock(TodoMapper.class);
+    private final TodoWriteBuffer writeBuffer = mock(TodoWriteBuffer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final User user = new User();
+
+    // What the database holds: responses by id, and the user's tags
+    private final Map<Long, TodoResponse> stored = new LinkedHashMap<>();
+    private final Map<Long, Tag> storedTags = new LinkedHashMap<>();
+    private final Map<Long, TodoWriteBuffer.PendingChange> pending = new HashMap<>();
+
+    private TodoWorkingSet workingSet;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        workingSet = new TodoWorkingSet(todoRepository, tagRepository, todoMapper, writeBuffer, meterRegistry, true, 64, 15);
+
+        when(todoRepository.findByUserAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(user))
+                .thenAnswer(invocation -> entities(stored.keySet()));
+        when(todoRepository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Long> found = new ArrayList<>();
+            ids.forEach(id -> {
+                if (stored.containsKey(id)) {
+                    found.add(id);
+                }
+            });
+            return entities(found);
+        });
+        when(todoMapper.toResponses(anyList())).thenAnswer(invocation -> {
+            List<Todo> todos = invocation.getArgument(0);
+            return todos.stream().map(todo -> stored.get(todo.getId())).toList();
+        });
+        when(tagRepository.findByUserOrderByNameAsc(user)).thenAnswer(invocation -> List.copyOf(storedTags.values()));
+        when(writeBuffer.pendingFor(1L)).thenReturn(pending);
+
+        tag(10L, "home");
+        tag(20L, "work");
+        store(todo(1L, DAY, 0, false, 10L));
+        store(todo(2L, DAY.plusDays(1), 1, false, 20L));
+        store(todo(3L, null, 2, false));
+        store(todo(4L, DAY, 3, true));
+    }
+
+    private static List<Todo> entities(Collection<Long> ids) {
+        List<Todo> todos = new ArrayList<>();
+        for (Long id : ids) {
+            Todo todo = new Todo();
+            todo.setId(id);
+            todos.add(todo);
+        }
+        return todos;
+    }
+
+    private void tag(Long id, String name) {
+        Tag tag = new Tag();
+        tag.setId(id);
+        tag.setName(name);
+        tag.setVersion(0L);
+        storedTags.put(id, tag);
+    }
+
+    private void store(TodoResponse todo) {
+        stored.put(todo.id(), todo);
+    }
+
+    private static TodoResponse todo(Long id, LocalDate dueDate, int displayOrder, boolean recurring, Long... tagIds) {
+        List<TagResponse> tags = Arrays.stream(tagIds).map(tagId -> new TagResponse(tagId, "tag " + tagId, null, 0L, 0, 0)).toList();
+        return new TodoResponse(id, 0L, "Todo " + id, null, false, dueDate, null, Priority.MEDIUM,
+                recurring ? new RecurrenceResponse(RecurrenceFrequency.DAILY, 1, null, null) : null,
+                displayOrder, tags, LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(id), null, null, null,
+                recurring, false, 0, 0, 0);
+    }
+
+    private static TodoSnapshot snapshot(Long id, Long parentId, LocalDate dueDate) {
+        return new TodoSnapshot(id, 1L, parentId, "Todo " + id, false, dueDate, null, Priority.MEDIUM, null, null, List.of());
+    }
+
+    private static List<Long> ids(List<TodoResponse> todos) {
+        return todos.stream().map(TodoResponse::id).toList();
+    }
+
+    private double reads(String result) {
+        return meterRegistry.get("todo.workingset.reads").tag("result", result).counter().count();
+    }
+
+    @Test
+    void loadsOnceAndServesReadsFromMemory() {
+        assertThat(ids(workingSet.all(user))).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(ids(workingSet.all(user))).containsExactly(1L, 2L, 3L, 4L);
+
+        verify(todoRepository, times(1)).findByUserAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(user);
+        verify(todoRepository, never()).findAllById(any());
+        assertThat(reads("miss")).isEqualTo(1);
+        assertThat(reads("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void dateReadsUseTheIndexesAndLeaveSeriesOut() {
+        assertThat(ids(workingSet.onDate(user, DAY))).containsExactly(1L);
+        assertThat(ids(workingSet.between(user, DAY, DAY.plusDays(5)))).containsExactly(1L, 2L);
+        assertThat(ids(workingSet.undated(user))).containsExactly(3L);
+        assertThat(ids(workingSet.byTag(user, 20L))).containsExactly(2L);
+        assertThat(workingSet.hasRecurring(user)).isTrue();
+    }
+
+    @Test
+    void changeReloadsOnlyTheChangedTodo() {
+        workingSet.all(user);
+        store(todo(1L, DAY.plusDays(1), 0, false, 10L));
+
+        workingSet.onTodoChanged(TodoChangedEvent.updated(snapshot(1L, null, DAY), snapshot(1L, null, DAY.plusDays(1))));
+
+        assertThat(ids(workingSet.onDate(user, DAY))).isEmpty();
+        // Same day, no times: newest first
+        assertThat(ids(workingSet.onDate(user, DAY.plusDays(1)))).containsExactly(2L, 1L);
+        verify(todoRepository).findAllById(List.of(1L));
+        assertThat(reads("refresh")).isEqualTo(1);
+    }
+
+    @Test
+    void deletedTodosDisappear() {
+        workingSet.all(user);
+        stored.remove(4L);
+
+        workingSet.onTodoChanged(TodoChangedEvent.deleted(snapshot(4L, null, DAY)));
+
+        assertThat(ids(workingSet.all(user))).containsExactly(1L, 2L, 3L);
+        assertThat(workingSet.hasRecurring(user)).isFalse();
+    }
+
+    @Test
+    void subtaskChangeReloadsItsParent() {
+        workingSet.all(user);
+
+        workingSet.onTodoChanged(TodoChangedEvent.created(snapshot(9L, 2L, null)));
+        workingSet.all(user);
+
+        verify(todoRepository).findAllById(List.of(2L));
+    }
+
+    @Test
+    void reorderReloadsTheReorderedTodos() {
+        workingSet.all(user);
+        store(todo(1L, DAY, 5, false, 10L));
+
+        workingSet.onTodosReordered(new TodosReorderedEvent(1L, List.of(1L)));
+
+        assertThat(ids(workingSet.all(user))).containsExactly(2L, 3L, 4L, 1L);
+    }
+
+    @Test
+    void failedReloadKeepsTheStaleMarks() {
+        workingSet.all(user);
+        workingSet.onTodoChanged(TodoChangedEvent.updated(snapshot(2L, null, DAY), snapshot(2L, null, DAY)));
+        doThrow(new IllegalStateException("database down")).when(todoRepository).findAllById(any());
+
+        assertThatThrownBy(() -> workingSet.all(user)).isInstanceOf(IllegalStateException.class);
+
+        doAnswer(invocation -> entities(List.of(2L))).when(todoRepository).findAllById(any());
+        store(todo(2L, null, 1, false, 20L));
+        assertThat(ids(workingSet.undated(user))).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void bufferedValuesAreOverlaidOnReads() {
+        workingSet.all(user);
+        pending.put(3L, new TodoWriteBuffer.PendingChange(3L, 1L, null, true, DAY, null));
+
+        // Todo 3 is undated in the index, but its buffered due date puts it on DAY
+        assertThat(ids(workingSet.onDate(user, DAY))).containsExactly(3L, 1L);
+        assertThat(ids(workingSet.undated(user))).isEmpty();
+        assertThat(ids(workingSet.byStatus(user, true))).containsExactly(3L);
+        verify(todoRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void tagChangesAreResolvedOnRead() {
+        assertThat(workingSet.byTag(user, 10L).get(0).tags()).extracting(TagResponse::name).containsExactly("home");
+
+        tag(10L, "house");
+        workingSet.tagsChanged(1L);
+        assertThat(workingSet.byTag(user, 10L).get(0).tags()).extracting(TagResponse::name).containsExactly("house");
+
+        // A deleted tag drops out of the todo's tags before the todo itself is reloaded
+        storedTags.remove(10L);
+        workingSet.tagsChanged(1L);
+        assertThat(workingSet.all(user).get(0).tags()).isEmpty();
+    }
+
+    @Test
+    void evictionReloadsEverything() {
+        workingSet.all(user);
+        store(todo(5L, null, 4, false));
+
+        workingSet.evict(1L);
+
+        assertThat(ids(workingSet.all(user))).containsExactly(1L, 2L, 3L, 4L, 5L);
+        verify(todoRepository, times(2)).findByUserAndParentIsNullOrderByDisplayOrderAscCreatedAtDesc(user);
+    }
+
+    @Test
+    void eventsForUsersNotLoadedAreIgnored() {
+        workingSet.onTodoChanged(TodoChangedEvent.created(snapshot(1L, null, DAY)));
+        workingSet.all(user);
+
+        verify(todoRepository, never()).findAllById(any());
+    }
+}
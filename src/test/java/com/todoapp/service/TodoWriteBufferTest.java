@@ -0,0 +1,261 @@
+package com.todoapp.service;
+
+import com.todoapp.config.ShardContext;
+import com.todoapp.event.TodoChangedEvent;
+import com.todoapp.event.TodosReorderedEvent;
+import com.todoapp.model.Todo;
+import com.todoapp.model.User;
+import com.todoapp.repository.TagRepository;
+import com.todoapp.repository.TodoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TodoWriteBufferTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 5, 4);
+
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final TagRepository tagRepository = mock(TagRepository.class);
+    private final ShardService shardService = mock(ShardService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final ReadCoalescer readCoalescer = mock(ReadCoalescer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final User user = new User();
+
+    // The stored rows, as the flush's findAllById sees them
+    private final Map<Long, Todo> stored = new HashMap<>();
+
+    private TodoWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        buffer = new TodoWriteBuffer(todoRepository, tagRepository, shardService, eventPublisher, entityManager,
+                readCoalescer, meterRegistry, true, 1000, 1000);
+        when(shardService.inShard(anyString(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(todoRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Todo> found = new ArrayList<>();
+            ((Iterable<Long>) invocation.getArgument(0)).forEach(id -> {
+                if (stored.containsKey(id)) {
+                    found.add(stored.get(id));
+                }
+            });
+            return found;
+        });
+        store(10L, false, DAY, 0);
+        store(11L, false, DAY, 1);
+    }
+
+    @AfterEach
+    void clearShard() {
+        ShardContext.clear();
+    }
+
+    private Todo store(Long id, boolean completed, LocalDate dueDate, int displayOrder) {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setUser(user);
+        todo.setTitle("Todo " + id);
+        todo.setCompleted(completed);
+        todo.setDueDate(dueDate);
+        todo.setDisplayOrder(displayOrder);
+        stored.put(id, todo);
+        return todo;
+    }
+
+    // A separate instance, like the entity a request loads and then hands to the buffer
+    private Todo loaded(Long id) {
+        Todo current = stored.get(id);
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setUser(user);
+        todo.setCompleted(current.isCompleted());
+        return todo;
+    }
+
+    private double written() {
+        return meterRegistry.get("todo.writebehind.changes").tag("stage", "written").counter().count();
+    }
+
+    private double pendingGauge() {
+        return meterRegistry.get("todo.writebehind.pending").gauge().value();
+    }
+
+    @Test
+    void changesToOneTodoMergeIntoOnePendingChange() {
+        buffer.toggle(loaded(10L));
+        buffer.setDueDate(1L, 10L, DAY.plusDays(1));
+        buffer.setDueDate(1L, 10L, DAY.plusDays(2));
+        buffer.setDisplayOrder(1L, 10L, 7);
+
+        assertThat(buffer.pendingFor(1L)).containsOnlyKeys(10L);
+        TodoWriteBuffer.PendingChange change = buffer.pendingFor(1L).get(10L);
+        assertThat(change.completed()).isTrue();
+        assertThat(change.dueDate()).isEqualTo(DAY.plusDays(2));
+        assertThat(change.displayOrder()).isEqualTo(7);
+        assertThat(change.shard()).isEqualTo(ShardContext.DIRECTORY);
+        assertThat(pendingGauge()).isEqualTo(1);
+        verify(readCoalescer, times(4)).invalidate(1L);
+    }
+
+    @Test
+    void toggleFlipsThePendingValueNotTheStoredOne() {
+        buffer.toggle(loaded(10L));
+        buffer.toggle(loaded(10L));
+        buffer.toggle(loaded(10L));
+
+        assertThat(buffer.pendingFor(1L).get(10L).completed()).isTrue();
+    }
+
+    @Test
+    void changeKeepsTheShardItWasBufferedOn() {
+        ShardContext.set("shard-1");
+        buffer.setDueDate(1L, 10L, DAY.plusDays(1));
+        ShardContext.set("shard-2");
+        buffer.setDisplayOrder(1L, 10L, 3);
+
+        buffer.flush();
+
+        verify(shardService).inShard(eq("shard-1"), any());
+        verify(shardService, never()).inShard(eq("shard-2"), any());
+    }
+
+    @Test
+    void doubleToggleWritesNothing() {
+        buffer.toggle(loaded(10L));
+        buffer.toggle(loaded(10L));
+
+        buffer.flush();
+
+        // The flush's entity is left as loaded, so Hibernate's dirty check issues no UPDATE
+        assertThat(stored.get(10L).isCompleted()).isFalse();
+        verifyNoInteractions(eventPublisher);
+        verify(tagRepository, never()).adjustCounts(anyList(), anyInt());
+        assertThat(written()).isZero();
+        assertThat(buffer.pendingFor(1L)).isEmpty();
+        assertThat(pendingGauge()).isZero();
+    }
+
+    @Test
+    void flushAppliesChangesAndPublishesEvents() {
+        buffer.toggle(loaded(10L));
+        buffer.setDisplayOrder(1L, 11L, 5);
+
+        buffer.flush();
+
+        assertThat(stored.get(10L).isCompleted()).isTrue();
+        assertThat(stored.get(11L).getDisplayOrder()).isEqualTo(5);
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).anySatisfy(event -> {
+            assertThat(event).isInstanceOf(TodoChangedEvent.class);
+            assertThat(((TodoChangedEvent) event).completionChanged()).isTrue();
+        });
+        // Reordering alone publishes no change event
+        assertThat(events.getAllValues()).contains(new TodosReorderedEvent(1L, List.of(11L)));
+        // Completion moves the todo's tag counters off before the write and back on after
+        verify(tagRepository).adjustCounts(List.of(10L), -1);
+        verify(tagRepository).adjustCounts(List.of(10L), 1);
+        assertThat(written()).isEqualTo(2);
+        assertThat(buffer.pendingFor(1L)).isEmpty();
+    }
+
+    @Test
+    void failedChunkStaysBufferedAndIsRetried() {
+        buffer.setDueDate(1L, 10L, DAY.plusDays(3));
+        doThrow(new IllegalStateException("shard down")).when(shardService).inShard(anyString(), any());
+
+        buffer.flush();
+
+        assertThat(buffer.pendingFor(1L)).containsOnlyKeys(10L);
+        assertThat(stored.get(10L).getDueDate()).isEqualTo(DAY);
+
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get())
+                .when(shardService).inShard(anyString(), any());
+        buffer.flush();
+
+        assertThat(stored.get(10L).getDueDate()).isEqualTo(DAY.plusDays(3));
+        assertThat(buffer.pendingFor(1L)).isEmpty();
+    }
+
+    @Test
+    void changeMadeDuringAFlushIsKept() {
+        buffer.setDueDate(1L, 10L, DAY.plusDays(1));
+        // The todo is moved again while its first change is being written
+        doAnswer(invocation -> {
+            Object result = ((Supplier<?>) invocation.getArgument(1)).get();
+            buffer.setDueDate(1L, 10L, DAY.plusDays(2));
+            return result;
+        }).when(shardService).inShard(anyString(), any());
+
+        buffer.flush();
+
+        assertThat(stored.get(10L).getDueDate()).isEqualTo(DAY.plusDays(1));
+        assertThat(buffer.pendingFor(1L).get(10L).dueDate()).isEqualTo(DAY.plusDays(2));
+        assertThat(pendingGauge()).isEqualTo(1);
+    }
+
+    @Test
+    void flushForOneUserLeavesOthersBuffered() {
+        User other = new User();
+        other.setId(2L);
+        Todo theirs = store(20L, false, DAY, 0);
+        theirs.setUser(other);
+        buffer.setDueDate(1L, 10L, DAY.plusDays(1));
+        buffer.setDueDate(2L, 20L, DAY.plusDays(1));
+
+        buffer.flush(1L);
+
+        assertThat(buffer.pendingFor(1L)).isEmpty();
+        assertThat(buffer.pendingFor(2L)).containsOnlyKeys(20L);
+    }
+
+    @Test
+    void discardDropsBufferedValues() {
+        buffer.setDueDate(1L, 10L, DAY.plusDays(1));
+        buffer.setDueDate(1L, 11L, DAY.plusDays(1));
+
+        buffer.discard(1L, 10L);
+        assertThat(buffer.pendingFor(1L)).containsOnlyKeys(11L);
+
+        buffer.discardAll(1L);
+        assertThat(buffer.pendingFor(1L)).isEmpty();
+        assertThat(pendingGauge()).isZero();
+
+        buffer.flush();
+        verify(shardService, never()).inShard(anyString(), any());
+    }
+
+    @Test
+    void overlayDetachesAndAppliesPendingValues() {
+        buffer.setDueDate(1L, 10L, DAY.plusDays(4));
+        Todo todo = stored.get(10L);
+
+        buffer.overlay(todo);
+
+        verify(entityManager).detach(todo);
+        assertThat(todo.getDueDate()).isEqualTo(DAY.plusDays(4));
+
+        Todo untouched = stored.get(11L);
+        buffer.overlay(untouched);
+        verify(entityManager, never()).detach(untouched);
+    }
+}
@@ -0,0 +1,184 @@
+package com.todoapp.service;
+
+import com.todoapp.config.NextUpProperties;
+import com.todoapp.model.Priority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class UrgencyRankingTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+    private static final long NOW = DAY.atTime(9, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final long HOUR = 3600;
+
+    private UrgencyScorer scorer;
+    private UrgencyRanking ranking;
+
+    @BeforeEach
+    void setUp() {
+        scorer = new UrgencyScorer(new NextUpProperties());
+        ranking = new UrgencyRanking(scorer);
+    }
+
+    private static UrgencyRanking.Entry open(long id, Priority priority, long dueAt) {
+        return new UrgencyRanking.Entry(id, null, false, priority, dueAt);
+    }
+
+    private static UrgencyRanking.Entry subtask(long id, long parentId, boolean completed) {
+        return new UrgencyRanking.Entry(id, parentId, completed, null, UrgencyScorer.NO_DUE);
+    }
+
+    private List<Long> topIds(int k) {
+        return ranking.top(k, NOW).stream().map(UrgencyRanking.Ranked::id).toList();
+    }
+
+    @Test
+    void dateWithoutTimeIsDueAtTheEndOfThatDay() {
+        assertThat(UrgencyRanking.dueAt(DAY, null))
+                .isEqualTo(DAY.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+        assertThat(UrgencyRanking.dueAt(DAY, LocalTime.NOON))
+                .isEqualTo(DAY.atTime(12, 0).toEpochSecond(ZoneOffset.UTC));
+        assertThat(UrgencyRanking.dueAt(null, LocalTime.NOON)).isEqualTo(UrgencyScorer.NO_DUE);
+        assertThat(UrgencyRanking.Entry.of(1, null, false, Priority.HIGH, DAY, null, true).dueAt())
+                .isEqualTo(UrgencyScorer.NO_DUE);
+    }
+
+    @Test
+    void withinAPrioritySoonerDueRanksFirst() {
+        ranking.upsert(open(1, Priority.MEDIUM, NOW + 48 * HOUR));
+        ranking.upsert(open(2, Priority.MEDIUM, NOW + HOUR));
+        ranking.upsert(open(3, Priority.MEDIUM, UrgencyScorer.NO_DUE));
+        ranking.upsert(open(4, Priority.MEDIUM, NOW - HOUR));
+
+        assertThat(topIds(10)).containsExactly(4L, 2L, 1L, 3L);
+    }
+
+    @Test
+    void dueTimeCanOutrankPriority() {
+        ranking.upsert(open(1, Priority.HIGH, UrgencyScorer.NO_DUE));
+        ranking.upsert(open(2, Priority.LOW, NOW + HOUR));
+
+        // 10 + about 39 against 30
+        assertThat(topIds(10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void equalScoresRankByLowerIdFirst() {
+        ranking.upsert(open(7, Priority.LOW, NOW + HOUR));
+        ranking.upsert(open(3, Priority.LOW, NOW + HOUR));
+        ranking.upsert(open(5, Priority.LOW, NOW + HOUR));
+
+        assertThat(topIds(2)).containsExactly(3L, 5L);
+    }
+
+    @Test
+    void overdueTiesPastTheCapGoToTheSoonerDue() {
+        ranking.upsert(open(1, Priority.HIGH, NOW - 40 * 24 * HOUR));
+        ranking.upsert(open(2, Priority.HIGH, NOW - 30 * 24 * HOUR));
+        ranking.upsert(open(3, Priority.MEDIUM, NOW - 20 * 24 * HOUR));
+        ranking.upsert(open(4, Priority.HIGH, NOW - 50 * 24 * HOUR));
+
+        assertThat(ranking.top(2, NOW)).extracting(UrgencyRanking.Ranked::id, UrgencyRanking.Ranked::urgency)
+                .containsExactly(tuple(4L, 118.0), tuple(1L, 118.0));
+        assertThat(topIds(10)).containsExactly(4L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void completedTodosAndSubtasksAreNotRanked() {
+        ranking.upsert(open(1, Priority.HIGH, NOW));
+        ranking.upsert(new UrgencyRanking.Entry(2, null, true, Priority.HIGH, NOW - HOUR));
+        ranking.upsert(new UrgencyRanking.Entry(3, 1L, false, Priority.HIGH, NOW - HOUR));
+
+        assertThat(topIds(10)).containsExactly(1L);
+        assertThat(ranking.size()).isEqualTo(3);
+        assertThat(ranking.ranked()).isEqualTo(1);
+    }
+
+    @Test
+    void finishingSubtasksMovesTheParentUp() {
+        ranking.upsert(open(1, Priority.LOW, UrgencyScorer.NO_DUE));
+        ranking.upsert(open(2, Priority.LOW, UrgencyScorer.NO_DUE));
+        ranking.upsert(subtask(10, 2, false));
+        ranking.upsert(subtask(11, 2, false));
+        assertThat(topIds(10)).containsExactly(1L, 2L);
+
+        ranking.upsert(subtask(10, 2, true));
+        assertThat(ranking.top(10, NOW)).extracting(UrgencyRanking.Ranked::id, UrgencyRanking.Ranked::urgency)
+                .containsExactly(tuple(2L, 15.0),
+                        tuple(1L, 10.0));
+
+        ranking.remove(10);
+        ranking.remove(11);
+        assertThat(topIds(10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void subtasksCountedBeforeTheirParentArrives() {
+        ranking.upsert(subtask(10, 2, true));
+        ranking.upsert(open(1, Priority.LOW, UrgencyScorer.NO_DUE));
+        ranking.upsert(open(2, Priority.LOW, UrgencyScorer.NO_DUE));
+
+        assertThat(topIds(10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void updatesMoveAndRemovesDrop() {
+        ranking.upsert(open(1, Priority.LOW, NOW + HOUR));
+        ranking.upsert(open(2, Priority.HIGH, NOW + HOUR));
+        ranking.upsert(open(1, Priority.HIGH, NOW));
+        assertThat(topIds(10)).containsExactly(1L, 2L);
+
+        ranking.upsert(new UrgencyRanking.Entry(1, null, true, Priority.HIGH, NOW));
+        assertThat(topIds(10)).containsExactly(2L);
+
+        ranking.remove(2);
+        ranking.remove(99);
+        assertThat(topIds(10)).isEmpty();
+        assertThat(ranking.ranked()).isZero();
+        assertThat(ranking.top(0, NOW)).isEmpty();
+    }
+
+    @Test
+    void topKMatchesAFullSortOfEveryScore() {
+        Random random = new Random(47);
+        Priority[] priorities = {Priority.HIGH, Priority.MEDIUM, Priority.LOW, null};
+        Map<Long, UrgencyRanking.Entry> open = new HashMap<>();
+        for (long id = 1; id <= 2000; id++) {
+            long dueAt = random.nextInt(5) == 0
+                    ? UrgencyScorer.NO_DUE
+                    // whole hours, so many todos tie
+                    : NOW + (random.nextInt(24 * 30) - 24 * 10) * HOUR;
+            UrgencyRanking.Entry entry = open(id, priorities[random.nextInt(priorities.length)], dueAt);
+            ranking.upsert(entry);
+            open.put(id, entry);
+        }
+        for (int i = 0; i < 300; i++) {
+            long id = 1 + random.nextInt(2000);
+            ranking.remove(id);
+            open.remove(id);
+        }
+
+        for (long now : new long[]{NOW, NOW + 72 * HOUR, NOW + 400 * HOUR}) {
+            List<UrgencyRanking.Ranked> expected = open.values().stream()
+                    .map(entry -> new UrgencyRanking.Ranked(entry.id(),
+                            scorer.classScore(scorer.classOf(entry.priority(), 0))
+                                    + scorer.dueScore(entry.dueAt(), now), entry.dueAt()))
+                    .sorted(Comparator.comparingDouble(UrgencyRanking.Ranked::urgency).reversed()
+                            .thenComparingLong(UrgencyRanking.Ranked::dueAt)
+                            .thenComparingLong(UrgencyRanking.Ranked::id))
+                    .toList();
+            for (int k : new int[]{1, 10, 50, open.size() + 5}) {
+                assertThat(ranking.top(k, now)).as("top %d at %d", k, now)
+                        .containsExactlyElementsOf(expected.subList(0, Math.min(k, expected.size())));
+            }
+        }
+    }
+}
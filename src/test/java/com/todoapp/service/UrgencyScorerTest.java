@@ -0,0 +1,89 @@
+package com.todoapp.service;
+
+import com.todoapp.config.NextUpProperties;
+import com.todoapp.model.Priority;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class UrgencyScorerTest {
+
+    private static final long NOW = 1_800_000_000L;
+    private static final long HOUR = 3600;
+    private static final long DAY = 24 * HOUR;
+
+    private final UrgencyScorer scorer = new UrgencyScorer(new NextUpProperties());
+
+    @Test
+    void dueScoreNeverRisesAsTheDueTimeMovesOut() {
+        double previous = Double.POSITIVE_INFINITY;
+        for (long dueAt = NOW - 30 * DAY; dueAt <= NOW + 30 * DAY; dueAt += HOUR / 4) {
+            double score = scorer.dueScore(dueAt, NOW);
+            assertThat(score).as("due at %d", dueAt - NOW).isLessThanOrEqualTo(previous);
+            previous = score;
+        }
+        assertThat(scorer.dueScore(UrgencyScorer.NO_DUE, NOW)).isZero().isLessThanOrEqualTo(previous);
+    }
+
+    @Test
+    void dueScoreHalvesEveryHalfLifeAndJumpsOnceOverdue() {
+        assertThat(scorer.dueScore(NOW, NOW)).isEqualTo(40.0);
+        assertThat(scorer.dueScore(NOW + DAY, NOW)).isCloseTo(20.0, within(1e-9));
+        assertThat(scorer.dueScore(NOW + 2 * DAY, NOW)).isCloseTo(10.0, within(1e-9));
+        assertThat(scorer.dueScore(NOW - 1, NOW)).isCloseTo(60.0, within(1e-3));
+        assertThat(scorer.dueScore(NOW - 3 * DAY, NOW)).isCloseTo(66.0, within(1e-9));
+    }
+
+    @Test
+    void overdueGrowthStopsAtTheCap() {
+        assertThat(scorer.dueScore(NOW - 14 * DAY, NOW)).isEqualTo(88.0);
+        assertThat(scorer.dueScore(NOW - 100 * DAY, NOW)).isEqualTo(88.0);
+    }
+
+    @Test
+    void classScoreAddsPriorityWeightAndProgressSteps() {
+        assertThat(scorer.classes()).isEqualTo(4 * 5);
+        assertThat(scorer.classScore(scorer.classOf(Priority.HIGH, 0))).isEqualTo(30.0);
+        assertThat(scorer.classScore(scorer.classOf(Priority.LOW, 0))).isEqualTo(10.0);
+        assertThat(scorer.classScore(scorer.classOf(null, 0))).isZero();
+        // progress counts in whole quarters
+        assertThat(scorer.classOf(Priority.MEDIUM, 49)).isEqualTo(scorer.classOf(Priority.MEDIUM, 25));
+        assertThat(scorer.classScore(scorer.classOf(Priority.MEDIUM, 50))).isEqualTo(25.0);
+        assertThat(scorer.classScore(scorer.classOf(Priority.MEDIUM, 100))).isEqualTo(30.0);
+    }
+
+    @Test
+    void everyClassHasItsOwnIndex() {
+        boolean[] seen = new boolean[scorer.classes()];
+        for (Priority priority : new Priority[]{Priority.HIGH, Priority.MEDIUM, Priority.LOW, null}) {
+            for (int progress = 0; progress <= 100; progress += 25) {
+                int todoClass = scorer.classOf(priority, progress);
+                assertThat(seen[todoClass]).as("%s at %d%%", priority, progress).isFalse();
+                seen[todoClass] = true;
+            }
+        }
+    }
+
+    @Test
+    void noProgressStepsIgnoresProgress() {
+        NextUpProperties properties = new NextUpProperties();
+        properties.setProgressSteps(0);
+        UrgencyScorer flat = new UrgencyScorer(properties);
+
+        assertThat(flat.classes()).isEqualTo(4);
+        assertThat(flat.classOf(Priority.HIGH, 100)).isEqualTo(flat.classOf(Priority.HIGH, 0));
+        assertThat(flat.classScore(flat.classOf(Priority.HIGH, 100))).isEqualTo(30.0);
+    }
+
+    @Test
+    void negativeWeightsAreRejected() {
+        NextUpProperties properties = new NextUpProperties();
+        properties.setOverduePerDay(-1);
+
+        assertThatThrownBy(() -> new UrgencyScorer(properties))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("todo.next-up.overdue-per-day");
+    }
+}
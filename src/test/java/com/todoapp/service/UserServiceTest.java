@@ -0,0 +1,102 @@
+package com.todoapp.service;
+
+import com.todoapp.config.ShardContext;
+import com.todoapp.model.User;
+import com.todoapp.repository.UserRepository;
+import com.todoapp.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// Which database each account deletion statement runs on, and the in-memory state dropped with it
+class UserServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ShardService shardService = mock(ShardService.class);
+    private final TodoWriteBuffer writeBuffer = mock(TodoWriteBuffer.class);
+    private final TodoWorkingSet workingSet = mock(TodoWorkingSet.class);
+    private final TodoQueryService todoQueryService = mock(TodoQueryService.class);
+    private final NextUpService nextUpService = mock(NextUpService.class);
+    private final UserService userService = new UserService(userRepository, mock(PasswordEncoder.class),
+            mock(JwtUtil.class), shardService, writeBuffer, workingSet, mock(AvailabilityService.class),
+            todoQueryService, nextUpService);
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        user.setId(7L);
+        user.setUsername("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(shardService.inShard(anyString(), any())).thenAnswer(invocation -> {
+            ShardContext.set(invocation.getArgument(0));
+            try {
+                return ((Supplier<?>) invocation.getArgument(1)).get();
+            } finally {
+                ShardContext.clear();
+            }
+        });
+        when(shardService.inDirectory(any())).thenAnswer(invocation ->
+                shardService.inShard(ShardContext.DIRECTORY, invocation.getArgument(0)));
+        when(shardService.shardOf(any(User.class))).thenAnswer(invocation ->
+                user.getShard() != null ? user.getShard() : ShardContext.DIRECTORY);
+    }
+
+    @Test
+    void withoutAShardOneStatementRemovesTheDataAndTheUser() {
+        when(userRepository.deleteOwnedData(7L)).thenAnswer(invocation -> {
+            assertThat(ShardContext.current()).isEqualTo(ShardContext.DIRECTORY);
+            return 1;
+        });
+
+        assertThat(userService.deleteAccount("alice")).isTrue();
+
+        verify(userRepository).deleteOwnedData(7L);
+        verify(userRepository, never()).deleteByIdInBulk(any());
+    }
+
+    @Test
+    void shardedUserLosesTheShardDataAndReferenceRowThenTheDirectoryRow() {
+        user.setShard("shard-a");
+        when(userRepository.deleteOwnedData(7L)).thenAnswer(invocation -> {
+            assertThat(ShardContext.current()).isEqualTo("shard-a");
+            return 1;
+        });
+        when(userRepository.deleteByIdInBulk(7L)).thenAnswer(invocation -> {
+            assertThat(ShardContext.current()).isEqualTo(ShardContext.DIRECTORY);
+            return 1;
+        });
+
+        assertThat(userService.deleteAccount("alice")).isTrue();
+
+        InOrder order = inOrder(userRepository);
+        order.verify(userRepository).deleteOwnedData(7L);
+        order.verify(userRepository).deleteByIdInBulk(7L);
+    }
+
+    @Test
+    void deletionDropsEveryPerUserStructure() {
+        userService.deleteAccount("alice");
+
+        verify(writeBuffer).discardAll(7L);
+        verify(workingSet).evict(7L);
+        verify(todoQueryService).evict(7L);
+        verify(nextUpService).evict(7L);
+    }
+
+    @Test
+    void unknownUserDeletesNothing() {
+        assertThat(userService.deleteAccount("bob")).isFalse();
+
+        verify(userRepository, never()).deleteOwnedData(any());
+        verifyNoInteractions(writeBuffer, todoQueryService, nextUpService);
+    }
+}
@@ -11,6 +11,9 @@ APP_NAME="todoapp"
 APP_DIR="/opt/$APP_NAME"
 JAR_NAME="todoapp-1.0.0.jar"
 
+# FAST_STARTUP=1 updates the AOT + class-data-sharing build (mvn -Pfast-startup); match deploy.sh
+FAST_STARTUP="${FAST_STARTUP:-0}"
+
 echo "🔄 Updating Todo Calendar App..."
 
 # Navigate to source directory
@@ -18,7 +21,11 @@ cd "$(dirname "$0")"
 
 # Build
 echo "🔨 Building..."
-mvn clean package -DskipTests
+if [ "$FAST_STARTUP" = "1" ]; then
+    mvn clean package -DskipTests -Pfast-startup
+else
+    mvn clean package -DskipTests
+fi
 
 # Stop service
 echo "⏹️ Stopping service..."
@@ -28,11 +35,32 @@ sudo systemctl stop $APP_NAME
 echo "📁 Copying files..."
 sudo cp target/$JAR_NAME $APP_DIR/
 
+if [ "$FAST_STARTUP" = "1" ]; then
+    sudo rm -rf $APP_DIR/fast-startup
+    sudo cp -r target/fast-startup $APP_DIR/
+    sudo cp src/main/resources/application-fast-startup.properties $APP_DIR/
+    sudo chown -R $USER:$USER $APP_DIR/fast-startup
+
+    # The CDS archive only matches the directory it was recorded in, so record it again after copying
+    echo "📼 Recording class-data sharing archive..."
+    (cd $APP_DIR/fast-startup && rm -f todoapp.jsa && java -XX:ArchiveClassesAtExit=todoapp.jsa -Xlog:cds=off \
+        -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh -jar todoapp.jar \
+        --spring.profiles.active=fast-startup --spring.config.location=$APP_DIR/application.properties > /dev/null)
+fi
+
 # Start service
 echo "▶️ Starting service..."
 sudo systemctl start $APP_NAME
 
-sleep 3
+# Time to first request: poll the health endpoint (the app also reports todo.startup.first.request)
+START_NANOS=$(date +%s%N)
+for i in $(seq 1 600); do
+    if curl -sf -o /dev/null http://localhost:8080/actuator/health; then
+        echo "⏱️ First request served $(( ($(date +%s%N) - START_NANOS) / 1000000 )) ms after start"
+        break
+    fi
+    sleep 0.2
+done
 
 if sudo systemctl is-active --quiet $APP_NAME; then
     echo "✅ Update successful!"